@@ -0,0 +1,77 @@
+package com.github.kilianB.benchmark;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.kilianB.dtos.MapID;
+import com.github.kilianB.dtos.SpectatorPolicy;
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.gameManager.GameTemplate;
+import com.github.kilianB.gameManager.PickBanStrategy;
+import com.github.kilianB.gameManager.lobbies.AramLobby;
+import com.github.kilianB.simulation.SimulatedLobbyHoster;
+
+/**
+ * Benchmarks the computation of champions owned by every member of an
+ * {@link AramLobby}. A summoner leaving the lobby triggers a full
+ * recomputation of the intersection.
+ *
+ * @author Kilian
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AramLobbyBenchmark {
+
+	private AramLobby lobby;
+
+	private Summoner leaver;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		SimulatedLobbyHoster hoster = SimulatedLobbyHoster.instant();
+		GameTemplate template = GameTemplate.builder().withMap(MapID.ARAM).withTeamSize(5)
+				.withSpectatorPolicy(SpectatorPolicy.AllAllowed).withPickBan(PickBanStrategy.BlindPick).build();
+		lobby = new AramLobby("Benchmark", template, hoster, "chat", "");
+
+		List<Summoner> team0 = new ArrayList<>();
+		List<Summoner> team1 = new ArrayList<>();
+		for (int i = 0; i < 10; i++) {
+			Summoner s = new Summoner("Summoner" + i, i, null);
+			(i % 2 == 0 ? team0 : team1).add(s);
+			lobby.memberUpdate(s, i % 2);
+		}
+		lobby.updateLobbyMembers(team0, team1, new ArrayList<>());
+		leaver = new Summoner("Leaver", 100, null);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		lobby.shutdown();
+	}
+
+	@Benchmark
+	public void recomputeIntersection() {
+		lobby.memberUpdate(leaver, -1);
+	}
+
+}
@@ -0,0 +1,147 @@
+package com.github.kilianB.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.github.kilianB.clientEvents.ChatEvent;
+import com.github.kilianB.clientEvents.ClientEventDecoder;
+import com.github.kilianB.clientEvents.ClientEventListener;
+import com.github.kilianB.clientEvents.LobbyEvent;
+import com.github.kilianB.clientEvents.PresenceEvent;
+import com.github.kilianB.dtos.ChatAvailability;
+import com.github.kilianB.dtos.MapID;
+import com.github.kilianB.dtos.QueueId;
+import com.github.kilianB.gameManager.PickBanStrategy;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+/**
+ * Compares the streaming {@link ClientEventDecoder} with parsing the same
+ * recorded league client frames into a gson tree and reading the values the
+ * decoder extracts.
+ *
+ * <p>
+ * Run with {@code -prof gc} to compare the allocation rate.
+ *
+ * @author Kilian
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClientEventDecoderBenchmark {
+
+	private static final String LOBBY = "[8,\"OnJsonApiEvent\",{\"data\":{\"canStartActivity\":false,\"chatRoomId\":\"c1~0f2d\","
+			+ "\"gameConfig\":{\"allowablePremadeSizes\":[],\"customLobbyName\":\"League Multi Chat 12\",\"customMutatorName\":\"\","
+			+ "\"customRewardsDisabledReasons\":[],\"customSpectatorPolicy\":\"AllAllowed\",\"customSpectators\":[{\"summonerId\":90001,"
+			+ "\"summonerName\":\"MultiChatHost\",\"isLeader\":true}],\"customTeam100\":[{\"summonerId\":20001,\"summonerName\":\"Player One\","
+			+ "\"summonerIconId\":4,\"isLeader\":false},{\"summonerId\":20002,\"summonerName\":\"Player Two\",\"summonerIconId\":12,"
+			+ "\"isLeader\":false},{\"summonerId\":20003,\"summonerName\":\"Player Three\",\"summonerIconId\":588,\"isLeader\":false}],"
+			+ "\"customTeam200\":[{\"summonerId\":20004,\"summonerName\":\"Player Four\",\"summonerIconId\":7,\"isLeader\":false},"
+			+ "{\"summonerId\":20005,\"summonerName\":\"Player Five\",\"summonerIconId\":29,\"isLeader\":false}],\"gameMode\":\"ARAM\","
+			+ "\"isCustom\":true,\"isLobbyFull\":false,\"isTeamBuilderManaged\":false,\"mapId\":12,\"maxHumanPlayers\":0,"
+			+ "\"maxLobbySize\":10,\"maxTeamSize\":5,\"pickType\":\"SimulPickStrategy\",\"premadeSizeAllowed\":true,\"queueId\":450,"
+			+ "\"showPositionSelector\":false},\"invitations\":[],\"localMember\":{\"summonerId\":90001,\"isLeader\":true},"
+			+ "\"partyId\":\"7b3c\",\"partyType\":\"closed\",\"restrictions\":[]},\"eventType\":\"Update\",\"uri\":\"/lol-lobby/v2/lobby\"}]";
+
+	private static final String PRESENCE = "[8,\"OnJsonApiEvent\",{\"data\":{\"availability\":\"dnd\",\"gameName\":\"Player One\","
+			+ "\"gameTag\":\"EUW\",\"icon\":4,\"id\":\"5a1f@eu1.pvp.net\",\"lol\":{\"gameQueueType\":\"ARAM_UNRANKED_5x5\","
+			+ "\"gameStatus\":\"inGame\",\"level\":\"87\",\"rankedLeagueTier\":\"GOLD\",\"timeStamp\":\"1538490000000\"},"
+			+ "\"name\":\"Player One\",\"pid\":\"5a1f@eu1.pvp.net\",\"product\":\"league_of_legends\",\"statusMessage\":\"\","
+			+ "\"summonerId\":20001},\"eventType\":\"Update\",\"uri\":\"/lol-chat/v1/friends/5a1f@eu1.pvp.net\"}]";
+
+	private static final String CHAT = "[8,\"OnJsonApiEvent\",{\"data\":{\"body\":\"!join aram\",\"fromId\":\"5a1f@eu1.pvp.net\","
+			+ "\"fromPid\":\"5a1f@eu1.pvp.net\",\"fromSummonerId\":20001,\"id\":\"1538490000000:1\",\"isHistorical\":false,"
+			+ "\"timestamp\":\"2018-10-02T14:20:00.000Z\",\"type\":\"chat\"},\"eventType\":\"Create\","
+			+ "\"uri\":\"/lol-chat/v1/conversations/5a1f@eu1.pvp.net/messages/1538490000000:1\"}]";
+
+	@Param({ "lobby", "presence", "chat" })
+	public String payload;
+
+	private String frame;
+
+	private ClientEventDecoder decoder;
+
+	/** Last value read by the listener */
+	private Object sink;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		switch (payload) {
+		case "lobby":
+			frame = LOBBY;
+			break;
+		case "presence":
+			frame = PRESENCE;
+			break;
+		default:
+			frame = CHAT;
+		}
+		decoder = new ClientEventDecoder(new ClientEventListener() {
+			@Override
+			public void onLobby(LobbyEvent event) {
+				sink = event.getQueue();
+			}
+
+			@Override
+			public void onPresence(PresenceEvent event) {
+				sink = event.getAvailability();
+			}
+
+			@Override
+			public void onChat(ChatEvent event) {
+				sink = event.getBody();
+			}
+		});
+	}
+
+	@Benchmark
+	public void streaming(Blackhole blackhole) {
+		blackhole.consume(decoder.decode(frame));
+		blackhole.consume(sink);
+	}
+
+	@Benchmark
+	public void tree(Blackhole blackhole) {
+		JsonObject event = JsonParser.parseString(frame).getAsJsonArray().get(2).getAsJsonObject();
+		String uri = event.get("uri").getAsString();
+		JsonObject data = event.getAsJsonObject("data");
+		if (uri.equals("/lol-lobby/v2/lobby")) {
+			JsonObject config = data.getAsJsonObject("gameConfig");
+			blackhole.consume(QueueId.fromId(config.get("queueId").getAsInt()));
+			blackhole.consume(MapID.fromId(config.get("mapId").getAsInt()));
+			blackhole.consume(PickBanStrategy.fromPickStrategy(config.get("pickType").getAsString()));
+			for (String team : new String[] { "customTeam100", "customTeam200", "customSpectators" }) {
+				JsonArray members = config.getAsJsonArray(team);
+				for (JsonElement member : members) {
+					blackhole.consume(member.getAsJsonObject().get("summonerId").getAsLong());
+				}
+			}
+		} else if (uri.startsWith("/lol-chat/v1/friends/")) {
+			blackhole.consume(data.get("summonerId").getAsLong());
+			blackhole.consume(ChatAvailability.fromString(data.get("availability").getAsString()));
+		} else {
+			blackhole.consume(data.get("fromSummonerId").getAsLong());
+			blackhole.consume(data.get("body").getAsString());
+		}
+	}
+
+}
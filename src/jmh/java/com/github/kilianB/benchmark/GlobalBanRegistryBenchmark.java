@@ -0,0 +1,77 @@
+package com.github.kilianB.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.kilianB.chatBot.moderation.GlobalBanRegistry;
+
+/**
+ * Benchmarks the ban lookup performed for every incoming message.
+ *
+ * @author Kilian
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GlobalBanRegistryBenchmark {
+
+	@Param({ "1000", "500000" })
+	public int banned;
+
+	private GlobalBanRegistry registry;
+
+	private long[] bannedIds;
+
+	private long[] regularIds;
+
+	private int index;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		Random rng = new Random(0);
+		bannedIds = new long[banned];
+		for (int i = 0; i < banned; i++) {
+			bannedIds[i] = rng.nextLong() & Long.MAX_VALUE;
+		}
+		regularIds = new long[4096];
+		for (int i = 0; i < regularIds.length; i++) {
+			regularIds[i] = rng.nextLong() & Long.MAX_VALUE;
+		}
+		registry = new GlobalBanRegistry(bannedIds);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		registry.shutdown();
+	}
+
+	/** The common case. The sender is not banned */
+	@Benchmark
+	public boolean lookupRegular() {
+		return registry.isBanned(regularIds[index++ & (regularIds.length - 1)]);
+	}
+
+	@Benchmark
+	public boolean lookupBanned() {
+		return registry.isBanned(bannedIds[index++ % bannedIds.length]);
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.github.kilianB.benchmark;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.kilianB.dtos.ChatAvailability;
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.dtos.SummonerMessageSetting;
+import com.github.kilianB.simulation.SimulatedSlaveBot;
+
+/**
+ * Benchmarks the per recipient filtering (mute list, chat mode and
+ * availability) of {@link Summoner#sendMessage(String, Summoner)}.
+ *
+ * @author Kilian
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SummonerBenchmark {
+
+	/** Number of recipients a single message is delivered to */
+	@Param({ "200" })
+	public int recipients;
+
+	/** Number of muted summoners per recipient */
+	@Param({ "0", "50" })
+	public int mutesPerRecipient;
+
+	private Summoner[] room;
+
+	private Summoner sender;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		SimulatedSlaveBot bot = SimulatedSlaveBot.instant(recipients);
+		Random rng = new Random(0);
+		ChatAvailability[] availabilities = ChatAvailability.values();
+		SummonerMessageSetting[] modes = SummonerMessageSetting.values();
+
+		sender = new Summoner("Sender", -1, bot);
+		room = new Summoner[recipients];
+		for (int i = 0; i < recipients; i++) {
+			Summoner s = new Summoner("Summoner" + i, i, bot);
+			s.updateChatAvailablility(availabilities[rng.nextInt(availabilities.length)]);
+			s.setChatMode(modes[rng.nextInt(modes.length)]);
+			for (int m = 0; m < mutesPerRecipient; m++) {
+				s.addMutedSummoner(rng.nextInt(100_000));
+			}
+			if (rng.nextInt(10) == 0) {
+				s.addMutedSummoner(sender);
+			}
+			room[i] = s;
+		}
+	}
+
+	@Benchmark
+	public void sendToRoom() throws IOException {
+		for (Summoner s : room) {
+			s.sendMessage("Anyone up for a game?", sender);
+		}
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void sendToRoomContended() throws IOException {
+		for (Summoner s : room) {
+			s.sendMessage("Anyone up for a game?", sender);
+		}
+	}
+
+}
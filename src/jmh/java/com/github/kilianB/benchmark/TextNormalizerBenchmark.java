@@ -0,0 +1,58 @@
+package com.github.kilianB.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.kilianB.chatBot.moderation.TextNormalizer;
+
+/**
+ * Cost of folding a chat message to it's skeleton. Plain messages take the
+ * ASCII fast path, obfuscated ones are normalized by NFKC first.
+ *
+ * @author Kilian
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class TextNormalizerBenchmark {
+
+	@Param({ "plain", "obfuscated" })
+	public String message;
+
+	private final TextNormalizer normalizer = new TextNormalizer();
+
+	private String text;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		if ("plain".equals(message)) {
+			text = "looking for 3 players for aram, anyone up for a game tonight?";
+		} else {
+			// Cyrillic o and a, zero width space, fullwidth letters, umlauts and spacing
+			text = "l\u043eoking f\u043er 3 pl\u0430yers \u200bcheap \uff45\uff4c\uff4f b\u00f6\u00f6st"
+					+ " w w w . e l o - b o o s t . c o m";
+		}
+	}
+
+	@Benchmark
+	public CharSequence normalize() {
+		return normalizer.normalize(text);
+	}
+
+}
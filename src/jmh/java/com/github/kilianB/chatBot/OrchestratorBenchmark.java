@@ -0,0 +1,175 @@
+package com.github.kilianB.chatBot;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.kilianB.chatBot.throttle.RateLimiter;
+import com.github.kilianB.chatBot.throttle.ThrottlePolicy;
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.simulation.SimulatedSlaveBot;
+
+/**
+ * Benchmarks of the message path of the {@link Orchestrator}. All summoners are
+ * connected via in memory slave bots, rate limits are disabled.
+ *
+ * @author Kilian
+ *
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OrchestratorBenchmark {
+
+	/** Number of summoners connected to the bot. All of them are in the same room */
+	@Param({ "100", "1000" })
+	public int summoners;
+
+	/** Fraction of summoners who muted the sender */
+	@Param({ "0", "0.25" })
+	public double muteRatio;
+
+	/** Number of slave accounts the summoners are distributed across */
+	@Param({ "4" })
+	public int slaves;
+
+	private Orchestrator orchestrator;
+
+	private List<Summoner> connected;
+
+	private String spamText;
+
+	@Setup(Level.Trial)
+	public void setup() throws IOException {
+		RateLimiter unlimited = RateLimiter.builder()
+				.withSenderLimit(1_000_000, 1e9, ThrottlePolicy.DROP)
+				.withSlaveLimit(1_000_000, 1e9, ThrottlePolicy.DROP)
+				.build();
+		// Without background workers room lines are delivered on the calling thread.
+		// Large rooms otherwise only measure enqueueing into the fan out
+		orchestrator = new Orchestrator(unlimited, null, false, false);
+
+		List<SimulatedSlaveBot> bots = new ArrayList<>();
+		for (int i = 0; i < slaves; i++) {
+			SimulatedSlaveBot bot = SimulatedSlaveBot.instant(summoners);
+			orchestrator.registerSlaveBot(bot);
+			bots.add(bot);
+		}
+
+		connected = new ArrayList<>();
+		for (int i = 0; i < summoners; i++) {
+			Summoner s = bots.get(i % slaves).connect("Summoner" + i, i);
+			connected.add(s);
+			orchestrator.propergateMessage(i, "!join Offtopic");
+		}
+
+		Random rng = new Random(0);
+		for (int i = 1; i < summoners; i++) {
+			if (rng.nextDouble() < muteRatio) {
+				orchestrator.propergateMessage(i, "!mute Summoner0");
+			}
+		}
+
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 20; i++) {
+			sb.append("looking for ").append(i).append(" players elo boost cheap www.example.com ");
+		}
+		spamText = sb.toString();
+
+		// Entries which do not occur in the text, every message is scanned completely
+		List<String> terms = new ArrayList<>();
+		List<String> hosts = new ArrayList<>();
+		for (int i = 0; i < 20_000; i++) {
+			terms.add("blocked term " + Long.toString(rng.nextLong() & Long.MAX_VALUE, 36));
+			hosts.add("blocked-" + i + ".com");
+		}
+		orchestrator.getBlocklist().update(terms, hosts).join();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		orchestrator.shutdown();
+	}
+
+	/**
+	 * Every benchmark thread sends as a different summoner
+	 */
+	@State(Scope.Thread)
+	public static class Sender {
+
+		private static final AtomicInteger threadIndex = new AtomicInteger();
+
+		long id;
+
+		@Setup(Level.Trial)
+		public void setup(OrchestratorBenchmark bench) {
+			id = threadIndex.getAndIncrement() % bench.summoners;
+		}
+	}
+
+	@Benchmark
+	public void dispatchHelp(Sender sender) throws IOException {
+		orchestrator.propergateMessage(sender.id, "!help");
+	}
+
+	@Benchmark
+	public void dispatchMode(Sender sender) throws IOException {
+		orchestrator.propergateMessage(sender.id, "!mode");
+	}
+
+	@Benchmark
+	public void listRooms(Sender sender) throws IOException {
+		orchestrator.propergateMessage(sender.id, "!rooms");
+	}
+
+	@Benchmark
+	public void roomFanOut() throws IOException {
+		// Summoner 0 is muted by muteRatio of the room
+		orchestrator.propergateMessage(0, "Anyone up for a game?");
+	}
+
+	@Benchmark
+	public boolean containsBlockedContent() {
+		return orchestrator.containsBlockedContent(spamText);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void listRoomsContended(Sender sender) throws IOException {
+		orchestrator.propergateMessage(sender.id, "!rooms");
+	}
+
+	@Benchmark
+	@Threads(4)
+	public void roomFanOutContended(Sender sender) throws IOException {
+		orchestrator.propergateMessage(sender.id, "Anyone up for a game?");
+	}
+
+	@Benchmark
+	@Threads(4)
+	public boolean containsBlockedContentContended() {
+		return orchestrator.containsBlockedContent(spamText);
+	}
+
+}
@@ -2,29 +2,86 @@ package com.github.kilianB.chatBot;
 
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 import com.github.kilianB.MiscUtil;
 import com.github.kilianB.StringUtil;
+import com.github.kilianB.chatBot.broadcast.BroadcastEngine;
+import com.github.kilianB.chatBot.broadcast.BroadcastReport;
+import com.github.kilianB.chatBot.broadcast.RoomFanOut;
 import com.github.kilianB.chatBot.chatRooms.ChatRoom;
+import com.github.kilianB.chatBot.chatRooms.LobbyRequester;
 import com.github.kilianB.chatBot.chatRooms.LookingForGroupChatRoom;
+import com.github.kilianB.chatBot.chatRooms.MemberSnapshot;
+import com.github.kilianB.chatBot.chatRooms.RoomRoster;
+import com.github.kilianB.chatBot.health.SlaveHealthListener;
+import com.github.kilianB.chatBot.health.SlaveHealthMonitor;
+import com.github.kilianB.chatBot.ingress.IngressScheduler;
+import com.github.kilianB.chatBot.lfg.LfgService;
+import com.github.kilianB.chatBot.messages.MessagePayload;
+import com.github.kilianB.chatBot.messages.MessageTemplates;
+import com.github.kilianB.chatBot.moderation.Blocklist;
+import com.github.kilianB.chatBot.moderation.GlobalBanRegistry;
+import com.github.kilianB.chatBot.presence.PresenceIngestor;
+import com.github.kilianB.chatBot.rank.RankLookupService;
+import com.github.kilianB.chatBot.rank.RankProvider;
+import com.github.kilianB.chatBot.rank.TierRange;
+import com.github.kilianB.chatBot.store.FileSummonerPersistence;
+import com.github.kilianB.chatBot.store.SummonerPersistence;
+import com.github.kilianB.chatBot.store.SummonerStore;
+import com.github.kilianB.chatBot.throttle.RateLimiter;
+import com.github.kilianB.clientEvents.ChatEvent;
+import com.github.kilianB.clientEvents.ClientEventDecoder;
+import com.github.kilianB.clientEvents.ClientEventListener;
+import com.github.kilianB.clientEvents.PresenceEvent;
+import com.github.kilianB.dtos.BotDifficulty;
+import com.github.kilianB.dtos.ChatAvailability;
 import com.github.kilianB.dtos.ChatRoomEntry;
+import com.github.kilianB.dtos.League;
+import com.github.kilianB.dtos.Server;
 import com.github.kilianB.dtos.Summoner;
 import com.github.kilianB.dtos.SummonerMessageSetting;
+import com.github.kilianB.eventLog.EventLog;
+import com.github.kilianB.eventLog.LogEvent;
+import com.github.kilianB.eventLog.LogLevel;
+import com.github.kilianB.gameManager.BackfillPolicy;
+import com.github.kilianB.gameManager.BackfillScheduler;
 import com.github.kilianB.gameManager.GameHostRequest;
+import com.github.kilianB.gameManager.GameTemplate;
+import com.github.kilianB.gameManager.HosterRouter;
 import com.github.kilianB.gameManager.LobbyHoster;
+import com.github.kilianB.gameManager.LobbyPool;
+import com.github.kilianB.gameManager.lobbies.GameLobby;
+import com.github.kilianB.jfr.CommandEvent;
+import com.github.kilianB.jfr.RoomBroadcastEvent;
+import com.github.kilianB.jfr.SlaveApiCallEvent;
+import com.github.kilianB.util.DaemonThreadFactory;
 import com.sun.management.OperatingSystemMXBean;
 
 /**
@@ -60,6 +117,10 @@ public class Orchestrator {
 	private final String CHAT_VISIBILITY = "!mode";
 	/** Display chat command help */
 	private final String HELP = "!help";
+	/** Register, post or stop a looking for group search */
+	private final String LFG = "!lfg";
+	/** Ban or unban a summoner from the bot. Restricted to operators */
+	private final String ADMIN = "!admin";
 
 	/*
 	 * Settings
@@ -72,6 +133,15 @@ public class Orchestrator {
 	 */
 	private final int roomNameLengthLimit = 25;
 
+	/** Sub directory summoners are persisted to by file persistence */
+	private static final String SUMMONER_DIRECTORY = "summoners";
+
+	/** Server of the summoners connected to the slaves */
+	private static final Server SERVER = Server.EUW;
+
+	/** File global bans are persisted to by file persistence */
+	private static final String BAN_FILE = "bans.txt";
+
 	/*
 	 * Internal state
 	 */
@@ -80,14 +150,32 @@ public class Orchestrator {
 	private final Summoner dummyAdmin;
 
 	/** List of all league accounts registered by this bot */
-	private List<SlaveBot> slaves = new ArrayList<SlaveBot>();
+	private List<SlaveBot> slaves = new CopyOnWriteArrayList<SlaveBot>();
 
-	/** All summoners associated with the bot mapped to it's summoner id. */
-	private HashMap<Long, Summoner> summonerMap = new HashMap<>();
+	/** Tracks the api health of the slaves and triggers failover */
+	private final SlaveHealthMonitor healthMonitor;
+
+	/**
+	 * Sends the friend requests moving summoners off degraded slaves. Runs on
+	 * the calling thread if background tasks are disabled
+	 */
+	private final Executor failoverExecutor;
+
+	/**
+	 * All summoners associated with the bot mapped to it's summoner id. Offline
+	 * summoners are demoted to compact records and eventually persisted.
+	 */
+	private final SummonerStore summonerStore;
 
 	/** Chat room mapped to it's name representation for fast retrieval */
 	private HashMap<String, ChatRoom> rooms = new LinkedHashMap<>();
 
+	/** Tier range required to join a room mapped to the lower case room name */
+	private final Map<String, TierRange> roomTiers = new ConcurrentHashMap<>();
+
+	/** Members of every room mapped to the lower case room name */
+	private final Map<String, RoomRoster> rosters = new ConcurrentHashMap<>();
+
 	/** Look for room creation and deletion */
 	private Lock roomLock = new ReentrantLock();
 
@@ -97,8 +185,48 @@ public class Orchestrator {
 	/** Cache for !rooms request. True sticky rooms, false custom roomss */
 	private Map<Boolean, List<ChatRoom>> filteredRoomCache;
 
-	/** Lobbys waiting to be hosted */
-	private LinkedBlockingQueue<GameHostRequest> gameHostRequets = new LinkedBlockingQueue<>();
+	/** Limits messages per sender and api calls per slave */
+	private final RateLimiter rateLimiter;
+
+	/** False if the orchestrator is driven by a simulation on the calling thread */
+	private final boolean background;
+
+	/** Structured log written off the message handling threads */
+	private final EventLog eventLog = EventLog.global();
+
+	/** Summoners banned from using the bot */
+	private final GlobalBanRegistry banRegistry;
+
+	/** Summoners allowed to issue {@value #ADMIN} commands */
+	private final Set<Long> operators = ConcurrentHashMap.newKeySet();
+
+	/** Terms and hosts which may not be posted in chat */
+	private final Blocklist blocklist = new Blocklist();
+
+	/**
+	 * Caches the tier of summoners checked when joining tier gated rooms. Tiers are
+	 * only enforced once known, either reported by presence updates or looked up
+	 * via the provider set by {@link #setRankProvider(RankProvider)}
+	 */
+	private final RankLookupService rankLookup = new RankLookupService(50_000, 6, TimeUnit.HOURS);
+
+	/** Serves moderation and control commands before chat lines */
+	private final IngressScheduler ingressScheduler;
+
+	/** Delivers messages addressed to a large number of summoners */
+	private final BroadcastEngine broadcastEngine;
+
+	/** Delivers chat lines of large rooms partitioned by slave */
+	private final RoomFanOut roomFanOut;
+
+	/** Collapses and batches presence changes reported by the slaves */
+	private final PresenceIngestor presenceIngestor;
+
+	/** Matches host requests with idle hosters by region, friends and load */
+	private final HosterRouter hosterRouter;
+
+	/** Empty lobbies of common templates ready to be claimed */
+	private final LobbyPool lobbyPool;
 
 	// Keep a weak or phantom reference to game queues?
 
@@ -113,24 +241,186 @@ public class Orchestrator {
 		helpMessage = new StringBuilder().append("Available commands:\n").append(HELP).append(
 				": Display this help. Typing the command inside a room may display room specific commands \n----\n")
 				.append(LIST_ROOMS).append(": Display all public chatrooms\n ---- \n").append(JOIN_ROOM)
-				.append(" [roomname] (password) : Join a room or create it if it doesn't exist. If the room is created grant admin permission. If password is ommited the room will be public. Leaves the current room you are in. \n ---- \n")
+				.append(" [roomname] (password) : Join a room or create it if it doesn't exist. If the room is created grant admin permission. If password is ommited the room will be public. Prefix a new room with a tier range e.g. !join [Gold-Diamond] roomname to only admit summoners of these tiers. Leaves the current room you are in. \n ---- \n")
 				.append(MUTE_PLAYER).append(" : Display all currently muted players \n ---- \n").append(MUTE_PLAYER)
 				.append(" [playername]: No longer recieve messages send by this player\n ---- \n").append(UNMUTE_PLAYER)
 				.append(" [playername]: Remove the player from the mute list.\n ---- \n").append(CHAT_VISIBILITY)
 				.append(": Display the current chat mode\n ---- \n").append(CHAT_VISIBILITY)
-				.append(" [chat/away/dnd/mobile/offline]: Set the current chatmode. \n \n").toString();
+				.append(" [chat/away/dnd/mobile/offline]: Set the current chatmode. \n ---- \n").append(LFG)
+				.append(" search [queue] [partySize] [league](-league) (server): Get notified once a matching group looks for players\n ---- \n")
+				.append(LFG).append(" post [queue] [openSlots] [league] (server): Notify everyone searching for your group\n ---- \n")
+				.append(LFG).append(" stop: Stop your search \n \n").toString();
 	}
 
+	/** Standing looking for group searches */
+	private final LfgService lfgService;
+
+	/**
+	 * Starts lobbies waiting for players with bots. Players looking for a group
+	 * and queued host requests count as demand
+	 */
+	private final BackfillScheduler backfillScheduler;
+
+	/** Pre rendered system messages */
+	private final MessageTemplates templates = new MessageTemplates(welcomeMessage, helpMessage);
+
+	/** Rendered response of the last !rooms request. Null if rooms changed */
+	private volatile RoomListing roomListing;
+
 	/**
 	 * Summoner id mapped to the display name of summoner (don't have to be
 	 * connected to the bot e.g. in case of bans and mutes).
 	 */
-	// private HashMap<Long, String> summonerNameCache = new HashMap<>();
-	// TODO bidi map
+	private SummonerNameCache summonerNameCache = new SummonerNameCache(50_000, 12, TimeUnit.HOURS);
 
 	// Settings
 
+	/**
+	 * Create an orchestrator keeping all state in memory. Use
+	 * {@link #withFilePersistence(RateLimiter, Path)} to keep dormant summoners and
+	 * global bans across restarts.
+	 */
 	public Orchestrator() {
+		this(RateLimiter.builder().build());
+	}
+
+	/**
+	 * Create an orchestrator keeping all state in memory.
+	 * 
+	 * @param rateLimiter limiter deciding how many messages a summoner may send and
+	 *                    how many api calls a slave may issue
+	 */
+	public Orchestrator(RateLimiter rateLimiter) {
+		this(rateLimiter, null);
+	}
+
+	/**
+	 * Create an orchestrator persisting dormant summoners to the
+	 * {@value #SUMMONER_DIRECTORY} sub directory and global bans to
+	 * {@value #BAN_FILE} of the given directory.
+	 * 
+	 * @param rateLimiter limiter deciding how many messages a summoner may send and
+	 *                    how many api calls a slave may issue
+	 * @param directory   the directory holding the persisted state
+	 * @return the orchestrator
+	 * @throws IOException if the bans exist but can not be read. Starting without
+	 *                     them would lift the bans with the next store
+	 */
+	public static Orchestrator withFilePersistence(RateLimiter rateLimiter, Path directory) throws IOException {
+		return new Orchestrator(rateLimiter, new FileSummonerPersistence(directory.resolve(SUMMONER_DIRECTORY)),
+				GlobalBanRegistry.load(directory.resolve(BAN_FILE)), true, true, System::nanoTime);
+	}
+
+	/**
+	 * @param rateLimiter limiter deciding how many messages a summoner may send and
+	 *                    how many api calls a slave may issue
+	 * @param persistence storage of summoners who have not been connected for a
+	 *                    long time. If null their mutes and chat mode are
+	 *                    forgotten. Global bans are kept in memory
+	 */
+	public Orchestrator(RateLimiter rateLimiter, SummonerPersistence persistence) {
+		this(rateLimiter, persistence, true);
+	}
+
+	/**
+	 * @param rateLimiter     limiter deciding how many messages a summoner may
+	 *                        send and how many api calls a slave may issue
+	 * @param persistence     storage of summoners who have not been connected for
+	 *                        a long time. If null their mutes and chat mode are
+	 *                        forgotten
+	 * @param scheduleIngress if true messages are prioritized by an
+	 *                        {@link IngressScheduler}. If false messages are
+	 *                        processed on the delivering thread in arrival order
+	 */
+	public Orchestrator(RateLimiter rateLimiter, SummonerPersistence persistence, boolean scheduleIngress) {
+		this(rateLimiter, persistence, scheduleIngress, true);
+	}
+
+	/**
+	 * @param rateLimiter     limiter deciding how many messages a summoner may
+	 *                        send and how many api calls a slave may issue
+	 * @param persistence     storage of summoners who have not been connected for
+	 *                        a long time. If null their mutes and chat mode are
+	 *                        forgotten
+	 * @param scheduleIngress if true messages are prioritized by an
+	 *                        {@link IngressScheduler}. If false messages are
+	 *                        processed on the delivering thread in arrival order
+	 * @param background      if false no periodic tasks are scheduled and chat
+	 *                        lines as well as host requests are handled on the
+	 *                        calling thread. Presence batches have to be applied
+	 *                        via {@link PresenceIngestor#flush()}. Used by
+	 *                        simulations driving the orchestrator on a virtual
+	 *                        clock
+	 */
+	public Orchestrator(RateLimiter rateLimiter, SummonerPersistence persistence, boolean scheduleIngress,
+			boolean background) {
+		this(rateLimiter, persistence, scheduleIngress, background, System::nanoTime);
+	}
+
+	/**
+	 * @param rateLimiter     limiter deciding how many messages a summoner may
+	 *                        send and how many api calls a slave may issue
+	 * @param persistence     storage of summoners who have not been connected for
+	 *                        a long time. If null their mutes and chat mode are
+	 *                        forgotten
+	 * @param scheduleIngress if true messages are prioritized by an
+	 *                        {@link IngressScheduler}. If false messages are
+	 *                        processed on the delivering thread in arrival order
+	 * @param background      if false no periodic tasks are scheduled and chat
+	 *                        lines, host requests as well as failovers are
+	 *                        handled on the calling thread. Presence batches have
+	 *                        to be applied via {@link PresenceIngestor#flush()}
+	 * @param clock           the time source of the slave circuit breakers in
+	 *                        nano seconds e.g. the clock of a simulation
+	 */
+	public Orchestrator(RateLimiter rateLimiter, SummonerPersistence persistence, boolean scheduleIngress,
+			boolean background, LongSupplier clock) {
+		this(rateLimiter, persistence, new GlobalBanRegistry(), scheduleIngress, background, clock);
+	}
+
+	private Orchestrator(RateLimiter rateLimiter, SummonerPersistence persistence, GlobalBanRegistry banRegistry,
+			boolean scheduleIngress, boolean background, LongSupplier clock) {
+		this.rateLimiter = rateLimiter;
+		this.background = background;
+		this.banRegistry = banRegistry;
+		this.ingressScheduler = scheduleIngress ? new IngressScheduler(this::processMessageSafe, 10_000, 8)
+				: IngressScheduler.inline(this::processMessageSafe);
+		this.summonerStore = new SummonerStore(persistence, 15, 24 * 60, background ? 1 : 0, TimeUnit.MINUTES);
+		this.healthMonitor = new SlaveHealthMonitor(() -> slaves, 0.5, 2, 10, background ? 2 : 0,
+				TimeUnit.SECONDS, clock);
+		this.failoverExecutor = background ? Executors.newSingleThreadExecutor(new DaemonThreadFactory())
+				: Runnable::run;
+		this.broadcastEngine = new BroadcastEngine(rateLimiter, 4, healthMonitor);
+		this.roomFanOut = new RoomFanOut(background ? 50 : Integer.MAX_VALUE, 256, this::deliverDigests);
+		this.presenceIngestor = new PresenceIngestor(this::getSummoner, background ? 250 : 0,
+				TimeUnit.MILLISECONDS);
+		this.lfgService = new LfgService(this::getSummoner, SERVER, 30, background ? 30 : 0, TimeUnit.MINUTES);
+		if (background) {
+			this.hosterRouter = new HosterRouter();
+			this.lobbyPool = new LobbyPool(hosterRouter::hosterIdle, hosterRouter::submit, 1, TimeUnit.MINUTES);
+		} else {
+			this.hosterRouter = new HosterRouter(Runnable::run);
+			this.lobbyPool = new LobbyPool(hosterRouter::hosterIdle, hosterRouter::submit, 0, TimeUnit.MINUTES,
+					Runnable::run);
+		}
+		lobbyPool.warm(GameTemplate.ARAM_5V5, 1, 4);
+		lobbyPool.warm(GameTemplate.SR_BLIND_5V5, 1, 2);
+		BackfillPolicy backfillPolicy = new BackfillPolicy(BotDifficulty.MEDIUM, 2, 5, TimeUnit.MINUTES, 10, 1);
+		IntSupplier demand = () -> lfgService.getIndex().size() + hosterRouter.getQueuedCount();
+		this.backfillScheduler = background ? new BackfillScheduler(backfillPolicy, demand, 10, TimeUnit.SECONDS)
+				: new BackfillScheduler(backfillPolicy, demand, 0, TimeUnit.SECONDS, Runnable::run);
+		healthMonitor.addListener(new SlaveHealthListener() {
+			@Override
+			public void onSlaveDegraded(SlaveBot slave) {
+				failover(slave);
+			}
+
+			@Override
+			public void onSlaveRecovered(SlaveBot slave) {
+				deliverHeldBack(slave);
+			}
+		});
+		presenceIngestor.addListener(this::deliverDigests);
 		dummyAdmin = new Summoner("Admin", -101, null);
 		// Register default chatrooms
 		//Not entirely ready yet
@@ -139,6 +429,30 @@ public class Orchestrator {
 		registerChatroomAdmin("Offtopic", "");
 	}
 
+	/**
+	 * Stop all background tasks and forget the members of every room. Pending
+	 * global bans are stored. Chat lines already handed to the room fan out are
+	 * still delivered.
+	 */
+	public void shutdown() {
+		ingressScheduler.shutdown();
+		presenceIngestor.shutdown();
+		summonerStore.shutdown();
+		healthMonitor.shutdown();
+		if (failoverExecutor instanceof ExecutorService) {
+			((ExecutorService) failoverExecutor).shutdown();
+		}
+		broadcastEngine.shutdown();
+		roomFanOut.shutdown();
+		lfgService.shutdown();
+		lobbyPool.shutdown();
+		hosterRouter.shutdown();
+		backfillScheduler.shutdown();
+		blocklist.shutdown();
+		banRegistry.shutdown();
+		rosters.clear();
+	}
+
 	/**
 	 * Adds a slave bot to the chat admin.
 	 * 
@@ -157,17 +471,18 @@ public class Orchestrator {
 	}
 
 	/**
-	 * Prototype method useful to implement blocking of spam content at a global
-	 * level e.g. links to elo boosting services, account selling advertisement.
+	 * Block spam content at a global level e.g. links to elo boosting services,
+	 * account selling advertisement.
 	 * 
-	 * @implnote As long as no abuse is seen this method will be a NOP to improve
-	 *           performance otherwise benchmark which implementation is performant
-	 *           and scalable.
+	 * @implnote Terms are matched by an Aho-Corasick automaton and hosts by a hash
+	 *           lookup. Both are rebuilt in the background whenever the blocklist
+	 *           changes, see {@link Blocklist}. As long as no blocklist is loaded
+	 *           the check returns immediately.
 	 * 
 	 * @param input to check if the string contains malicious content
 	 * @return true if flagged content was found. false if not.
 	 */
-	private boolean containsBlockedContent(String input) {
+	boolean containsBlockedContent(String input) {
 
 		/*
 		 * @formatter:off
@@ -216,13 +531,15 @@ public class Orchestrator {
 		 */
 		// Not related but still want to try it out somewhere:
 		// https://dzone.com/articles/super-fast-estimates-of-levenshtein-distance
-		return false;
+		return blocklist.contains(input);
 	}
 
 	/**
 	 * Process a text message received by any of the slaves. Text entries are either
 	 * expected to contain commands "!xxx" or text messages which will be send to
-	 * all other users in the same channel
+	 * all other users in the same channel. Messages passing the rate limit are
+	 * prioritized by the ingress scheduler. Moderation commands overtake queued
+	 * chat lines.
 	 * 
 	 * @param fromId The summoner who send this text message
 	 * @param text   the content body of the text
@@ -230,9 +547,67 @@ public class Orchestrator {
 	 */
 	public void propergateMessage(long fromId, String text) throws IOException {
 
+		if (banRegistry.isBanned(fromId)) {
+			return;
+		}
+
 		// Get the summoner who send this message
-		Summoner initiator = summonerMap.get(fromId);
-		assert initiator != null;
+		Summoner initiator = summonerStore.get(fromId);
+		if (initiator == null) {
+			// Messages may arrive before the friend registration or after eviction
+			LOGGER.fine("Dropped message of unregistered summoner " + fromId);
+			return;
+		}
+
+		String trimmed = text.trim();
+		if (rateLimiter.acquireIngress(fromId, () -> ingressScheduler.submit(initiator, trimmed))) {
+			ingressScheduler.submit(initiator, trimmed);
+		}
+	}
+
+	private void processMessageSafe(Summoner initiator, String text) {
+		try {
+			processMessage(initiator, text);
+		} catch (IOException e) {
+			LOGGER.warning("Failed to process message of " + initiator.summonerId() + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * @return the scheduler ordering incoming messages
+	 */
+	public IngressScheduler getIngressScheduler() {
+		return ingressScheduler;
+	}
+
+	/**
+	 * Parse and execute a text message which passed the rate limit. Recorded as
+	 * {@link CommandEvent} if flight recording is enabled.
+	 * 
+	 * @param initiator The summoner who send this text message
+	 * @param text      the content body of the text
+	 * @throws IOException if an error occurs interacting with the lol api
+	 */
+	private void processMessage(Summoner initiator, String text) throws IOException {
+		CommandEvent event = new CommandEvent();
+		event.begin();
+		try {
+			executeMessage(initiator, text);
+		} finally {
+			event.end();
+			if (event.shouldCommit()) {
+				int commandEnd = text.indexOf(' ');
+				event.command = text.startsWith("!") ? (commandEnd == -1 ? text : text.substring(0, commandEnd))
+						: "chat";
+				ChatRoom room = initiator.getActiveChatroom();
+				event.room = room == null ? null : room.getName();
+				event.summonerId = initiator.summonerId();
+				event.commit();
+			}
+		}
+	}
+
+	private void executeMessage(Summoner initiator, String text) throws IOException {
 
 		// Sanitize message
 
@@ -253,18 +628,30 @@ public class Orchestrator {
 				handleUnmutePlayer(text, initiator);
 			} else if (text.startsWith(CHAT_VISIBILITY)) {
 				handleSetChatMode(text, initiator);
+			} else if (text.startsWith(LFG)) {
+				lfgService.handleCommand(text.substring(LFG.length()), initiator);
+			} else if (text.startsWith(ADMIN)) {
+				handleAdminCommand(text, initiator);
 			} else {
 				// Requires being inside a room
 				ChatRoom activeRoom = initiator.getActiveChatroom();
-				if (activeRoom != null) {
-					activeRoom.handleMessage(text, initiator);
+				if (activeRoom == null) {
+					initiator.sendMessageAdmin(MessageTemplates.NOT_IN_ROOM);
 				} else {
-					initiator.sendMessageAdmin(
-							"Can not perform request. You need to be part of a chatroom to issue specific commands. Did you misstype your request?");
+					// Commands specific to the room and chat lines. The room delivers lines via
+					// broadcastToRoom
+					activeRoom.handleMessage(text, initiator);
+					if (text.startsWith("!")) {
+						// Kicks and bans remove members
+						RoomRoster roster = rosters.get(activeRoom.getName().toLowerCase());
+						if (roster != null) {
+							roster.prune(activeRoom);
+						}
+					}
 				}
 			}
 		} else {
-			initiator.sendMessageAdmin("Failed to send message. Part of the message are part of the blocklist.");
+			initiator.sendMessageAdmin(MessageTemplates.BLOCKED_CONTENT);
 		}
 
 	}
@@ -286,6 +673,7 @@ public class Orchestrator {
 			try {
 				SummonerMessageSetting newMode = SummonerMessageSetting.valueOf(newM.toUpperCase());
 				initiator.setChatMode(newMode);
+				initiator.flushDigest(this::getDisplayName);
 			} catch (IllegalArgumentException e) {
 				initiator.sendMessageAdmin("Failed to set new chat state. Allowed values: "
 						+ Arrays.toString(SummonerMessageSetting.values()));
@@ -311,16 +699,18 @@ public class Orchestrator {
 
 		// Get the id of the player
 		if (!unmutePlayerName.isEmpty() && text.indexOf(" ") != -1) {
-			long sToUnMute = bot.getSummoner(unmutePlayerName).summonerId();
+			Long sToUnMute = resolveSummonerId(unmutePlayerName, bot);
 
-			if (initiator.unmuteSummoner(sToUnMute)) {
+			if (sToUnMute == null) {
+				initiator.sendMessageAdmin("Failed to unmute: " + unmutePlayerName + " summoner not found.");
+			} else if (initiator.unmuteSummoner(sToUnMute)) {
 				initiator.sendMessageAdmin(unmutePlayerName + " sucessfully unmuted");
 			} else {
 				initiator
 						.sendMessageAdmin("Failed to unmute: " + unmutePlayerName + " player wasn't previously muted.");
 			}
 		} else {
-			initiator.sendMessageAdmin("No player name supplied. Could not unmute anyone");
+			initiator.sendMessageAdmin(MessageTemplates.NO_UNMUTE_NAME);
 		}
 	}
 
@@ -340,7 +730,7 @@ public class Orchestrator {
 
 		// Get the id of the player
 
-		System.out.println(mutePlayerName + " " + mutePlayerName.isEmpty() + " " + mutePlayerName.indexOf(" "));
+		eventLog.log(LogLevel.DEBUG, LogEvent.MUTE_REQUESTED, initiator.summonerId(), 0, mutePlayerName);
 
 		if (!(mutePlayerName.isEmpty() || text.indexOf(" ") == -1)) {
 			/*
@@ -349,13 +739,15 @@ public class Orchestrator {
 			 * connected, but this also prevents users from quickly leaving and being unable
 			 * to mute them.
 			 */
-			Summoner sToMute = bot.getSummoner(mutePlayerName);
+			Long sToMute = resolveSummonerId(mutePlayerName, bot);
 
-			if (!sToMute.equals(initiator)) {
+			if (sToMute == null) {
+				initiator.sendMessageAdmin("Failed to mute: " + mutePlayerName + " summoner not found.");
+			} else if (sToMute != initiator.summonerId()) {
 				initiator.addMutedSummoner(sToMute);
 				initiator.sendMessageAdmin(mutePlayerName + " sucessfully muted");
 			} else {
-				initiator.sendMessageAdmin("Yikes: You can't mute yourself silly!");
+				initiator.sendMessageAdmin(MessageTemplates.MUTE_SELF);
 			}
 		} else {
 
@@ -363,18 +755,118 @@ public class Orchestrator {
 			StringBuilder mutedPlayers = new StringBuilder("Muted Players:\n");
 
 			for (long id : mutedSums) {
-				mutedPlayers.append("\t").append(summonerMap.get(id).getDisplayName()).append("\n");
+				mutedPlayers.append("\t").append(getDisplayName(id)).append("\n");
 			}
 			initiator.sendMessageAdmin(mutedPlayers.toString());
 		}
 	}
 
+	/**
+	 * Received an operator command. {@code !admin ban <name>} bans the summoner
+	 * from the bot, {@code !admin unban <name>} lifts the ban.
+	 * 
+	 * @param text      the text query send
+	 * @param initiator the summoner who send the request
+	 * @throws IOException if an error occurs interacting with the lol api
+	 */
+	private void handleAdminCommand(String text, Summoner initiator) throws IOException {
+		if (!operators.contains(initiator.summonerId())) {
+			initiator.sendMessageAdmin("Failed: " + ADMIN + " is restricted to bot operators.");
+			return;
+		}
+		String[] args = text.substring(ADMIN.length()).trim().split("\\s+", 2);
+		boolean ban = args[0].equalsIgnoreCase("ban");
+		if (args.length < 2 || !(ban || args[0].equalsIgnoreCase("unban"))) {
+			initiator.sendMessageAdmin("Usage: " + ADMIN + " ban <name> or " + ADMIN + " unban <name>");
+			return;
+		}
+		String name = args[1];
+		Long summonerId = resolveSummonerId(name, initiator.getBot());
+		if (summonerId == null) {
+			initiator.sendMessageAdmin("Failed to " + args[0] + ": " + name + " summoner not found.");
+		} else if (summonerId == initiator.summonerId()) {
+			initiator.sendMessageAdmin("Failed: You can't ban yourself.");
+		} else if (ban) {
+			banSummoner(summonerId);
+			eventLog.log(LogLevel.INFO, LogEvent.SUMMONER_BANNED, initiator.summonerId(), summonerId, name);
+			initiator.sendMessageAdmin(name + " sucessfully banned");
+		} else {
+			unbanSummoner(summonerId);
+			eventLog.log(LogLevel.INFO, LogEvent.SUMMONER_UNBANNED, initiator.summonerId(), summonerId, name);
+			initiator.sendMessageAdmin(name + " sucessfully unbanned");
+		}
+	}
+
+	/**
+	 * Resolve the summoner id of a summoner name. The name is looked up in the
+	 * name cache first and only resolved via the league api if not present.
+	 * 
+	 * <p>
+	 * The summoner does not have to be connected to the bot. This allows to mute
+	 * or ban players who aren't currently connected.
+	 * 
+	 * @param summonerName the display name of the summoner. Case insensitive
+	 * @param bot          the slave used to query the league api in case of a
+	 *                     cache miss
+	 * @return the summoner id or null if no summoner with this name exists
+	 * @throws IOException if an error occurs interacting with the lol api
+	 */
+	public Long resolveSummonerId(String summonerName, SlaveBot bot) throws IOException {
+		Long id = summonerNameCache.getId(summonerName);
+		if (id == null) {
+			Summoner summoner = bot.getSummoner(summonerName);
+			if (summoner != null) {
+				summonerNameCache.update(summoner);
+				id = summoner.summonerId();
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * Get the display name of a summoner. The summoner does not have to be
+	 * connected to the bot.
+	 * 
+	 * @param summonerId the id of the summoner
+	 * @return the last known display name of the summoner or a placeholder if the
+	 *         name is unknown
+	 */
+	public String getDisplayName(long summonerId) {
+		String name = summonerNameCache.getName(summonerId);
+		if (name == null) {
+			Summoner summoner = summonerStore.get(summonerId);
+			if (summoner != null) {
+				summonerNameCache.update(summoner);
+				name = summoner.getDisplayName();
+			} else {
+				name = "Unknown summoner (" + summonerId + ")";
+			}
+		}
+		return name;
+	}
+
+	/**
+	 * @return the cache used to resolve summoner names and ids
+	 */
+	public SummonerNameCache getSummonerNameCache() {
+		return summonerNameCache;
+	}
+
 	/**
 	 * Handle the request to join a room. If the room does not exist create it and
 	 * be promoted to being channel admin.
 	 * 
 	 * <p>
-	 * The patter expected is !join roomname [optional_password]
+	 * The patter expected is !join [optional_tier_range] roomname
+	 * [optional_password]. A tier range e.g. [Gold-Diamond] restricts a newly
+	 * created room to summoners of these tiers.
+	 * 
+	 * <p>
+	 * Tiers of summoners joining a gated room are usually answered from the
+	 * {@link RankLookupService} cache. On a cache miss the tier is looked up
+	 * without blocking the calling thread and the request is submitted to the
+	 * {@link IngressScheduler} again once the tier is cached. Without rank
+	 * provider tiers missing from the cache are not enforced.
 	 * 
 	 * @implnote currently we limited users to only ever being part of a single
 	 *           room. Joining a room successfully means leaving another.
@@ -385,6 +877,22 @@ public class Orchestrator {
 	 */
 	private void handleJoinRoom(String text, Summoner initiator) throws IOException {
 		String roomName = text.substring(JOIN_ROOM.length()).trim();
+		TierRange tiers = null;
+		if (roomName.startsWith("[")) {
+			int end = roomName.indexOf(']');
+			if (end < 0) {
+				initiator.sendMessageAdmin("Failed. Tier ranges are written as [Gold-Diamond]");
+				return;
+			}
+			try {
+				tiers = TierRange.parse(roomName.substring(1, end));
+			} catch (IllegalArgumentException e) {
+				initiator.sendMessageAdmin(
+						"Failed. " + e.getMessage() + ". Allowed values: " + Arrays.toString(League.values()));
+				return;
+			}
+			roomName = roomName.substring(end + 1).trim();
+		}
 		String password = "";
 		int lastWhitespace = roomName.lastIndexOf(" ");
 		if (lastWhitespace > 0) {
@@ -393,7 +901,7 @@ public class Orchestrator {
 		}
 
 		if (roomName.isEmpty()) {
-			initiator.sendMessageAdmin("Failed. Room name may not be empty");
+			initiator.sendMessageAdmin(MessageTemplates.EMPTY_ROOM_NAME);
 			return;
 		}
 
@@ -403,13 +911,55 @@ public class Orchestrator {
 			return;
 		}
 
-		switch (joinChatroom(roomName, password, initiator)) {
+		TierRange required = roomTiers.get(roomName.toLowerCase());
+		League league = required == null ? null : rankLookup.getCached(initiator.summonerId());
+		if (required != null && league == null && rankLookup.hasProvider()) {
+			String room = roomName;
+			rankLookup.lookup(initiator.summonerId()).whenComplete((resolved, error) -> {
+				long id = initiator.summonerId();
+				if (banRegistry.isBanned(id) || summonerStore.get(id) != initiator) {
+					// Banned or gone while the tier was looked up
+					return;
+				}
+				if (error == null && rankLookup.getCached(id) != null) {
+					// Join on an ingress worker in order with the other messages of the summoner.
+					// The tier is cached now. The message already passed the rate limit
+					ingressScheduler.submit(initiator, text);
+					return;
+				}
+				try {
+					replyJoin(room, ChatRoomEntry.RANK_UNKNOWN, initiator);
+				} catch (IOException e) {
+					LOGGER.warning("Failed to answer join request of " + initiator.summonerId() + ": " + e.getMessage());
+				}
+			});
+			return;
+		}
+		// Without provider only tiers reported by presence updates are known
+		replyJoin(roomName, joinChatroom(roomName, password, tiers, league, initiator), initiator);
+	}
+
+	/**
+	 * Answer a request to join a room
+	 * 
+	 * @param roomName  the name of the room
+	 * @param entry     the result of the request
+	 * @param initiator the summoner who send the request
+	 * @throws IOException if an error occurs interacting with the lol api
+	 */
+	private void replyJoin(String roomName, ChatRoomEntry entry, Summoner initiator) throws IOException {
+		TierRange required = roomTiers.get(roomName.toLowerCase());
+		switch (entry) {
 		case DOES_NOT_EXIST:
 			initiator.sendMessageAdmin("Room: " + roomName + " did not exist. Created and joined.\n"
+					+ (required != null ? "Restricted to " + required + ".\n" : "")
 					+ StringUtil.centerText(roomName, "-", 80));
 			break;
 		case SUCCESS:
-			initiator.sendMessageAdmin(StringUtil.centerText(roomName, "-", 80));
+			ChatRoom joined = initiator.getActiveChatroom();
+			if (joined != null) {
+				initiator.sendMessageAdmin(templates.banner(joined));
+			}
 			break;
 		case INCORRECT_PASSWORD:
 			initiator.sendMessageAdmin("Failed to join: " + roomName + " wrong password.");
@@ -417,6 +967,14 @@ public class Orchestrator {
 		case BANNED:
 			initiator.sendMessageAdmin("Failed to join: " + roomName + ". You are banned");
 			break;
+		case TIER_MISMATCH:
+			initiator.sendMessageAdmin("Failed to join: " + roomName + ". The room is restricted to "
+					+ (required != null ? required : "other tiers"));
+			break;
+		case RANK_UNKNOWN:
+			initiator.sendMessageAdmin("Failed to join: " + roomName + ". The room is restricted to "
+					+ (required != null ? required : "a tier range") + " but your rank is unknown, try again later.");
+			break;
 		}
 	}
 
@@ -427,75 +985,102 @@ public class Orchestrator {
 	 * @throws IOException
 	 */
 	private void handleListRooms(Summoner initiator) throws IOException {
-		StringBuilder roomBuilder = new StringBuilder("Chatrooms:\n");
 
+		List<ChatRoom> fixedRooms;
+		List<ChatRoom> customRooms;
 		try {
 			roomLock.lock();
 			if (roomsInvalidated) {
 				filteredRoomCache = rooms.values().stream().filter(c -> !c.isProtected())
 						.collect(Collectors.groupingBy(room -> room.isFixed));
 				roomsInvalidated = false;
+				roomListing = null;
 			}
+			fixedRooms = new ArrayList<>(filteredRoomCache.getOrDefault(Boolean.TRUE, Collections.emptyList()));
+			customRooms = new ArrayList<>(filteredRoomCache.getOrDefault(Boolean.FALSE, Collections.emptyList()));
 		} finally {
 			roomLock.unlock();
 		}
 
-		// Sort by sticky and by number of people online
-		try {
-			// Do we run into issues here if summoners leave or join DURING the sorting
-			// process?
-			// This will probably lead to a IllegalArgumentException. In this case lets not
-			// worry
-			// about the actual order and simply return the order of the room as they
-			// currently are.
-			Collections.sort(filteredRoomCache.get(Boolean.TRUE));
-			// Only do this if we have public rooms available
-			if (filteredRoomCache.containsKey(Boolean.FALSE)) {
-				Collections.sort(filteredRoomCache.get(Boolean.FALSE));
-			}
-
-		} catch (IllegalArgumentException e) {
-			LOGGER.info("Room comperation failed. Room user count changed during sorting. Ignore and procceed");
+		// Capture the member count of every room once. Summoners joining or leaving
+		// while sorting no longer change the order mid sort.
+		Map<ChatRoom, Integer> online = new IdentityHashMap<>();
+		for (var room : fixedRooms) {
+			online.put(room, getRoomMembers(room).size());
+		}
+		for (var room : customRooms) {
+			online.put(room, getRoomMembers(room).size());
 		}
 
-		// First display fixed rooms
-		for (var room : filteredRoomCache.get(Boolean.TRUE)) {
-			roomBuilder.append(room.getName()).append(" (").append(room.getSummonerCount()).append(" online)\n");
+		// Sort by sticky and by number of people online
+		Comparator<ChatRoom> byOnline = Comparator.comparing((ChatRoom room) -> online.get(room)).reversed()
+				.thenComparing(ChatRoom::getName);
+		fixedRooms.sort(byOnline);
+		customRooms.sort(byOnline);
+
+		// Only render the listing again if the order or online count of a room changed
+		int[] counts = new int[fixedRooms.size() + customRooms.size()];
+		int i = 0;
+		for (var room : fixedRooms) {
+			counts[i++] = online.get(room);
+		}
+		for (var room : customRooms) {
+			counts[i++] = online.get(room);
 		}
-		roomBuilder.append("---\n");
 
-		// Display custom rooms
-		if (filteredRoomCache.containsKey(Boolean.FALSE)) {
-			for (var room : filteredRoomCache.get(Boolean.FALSE)) {
-				roomBuilder.append(room.getName()).append(" (").append(room.getSummonerCount()).append(" online)\n");
+		List<ChatRoom> order = new ArrayList<>(fixedRooms.size() + customRooms.size());
+		order.addAll(fixedRooms);
+		order.addAll(customRooms);
+
+		RoomListing listing = roomListing;
+		if (listing == null || !listing.matches(order, counts)) {
+			StringBuilder roomBuilder = new StringBuilder("Chatrooms:\n");
+			i = 0;
+			// First display fixed rooms
+			for (var room : fixedRooms) {
+				roomBuilder.append(room.getName()).append(" (").append(counts[i++]).append(" online)\n");
 			}
+			roomBuilder.append("---\n");
+
+			// Display custom rooms
+			for (var room : customRooms) {
+				roomBuilder.append(room.getName()).append(" (").append(counts[i++]).append(" online)\n");
+			}
+			listing = new RoomListing(order, counts, MessagePayload.admin(roomBuilder.toString()));
+			roomListing = listing;
 		}
 
-		initiator.sendMessageAdmin(roomBuilder.toString());
+		initiator.sendMessageAdmin(listing.payload);
 	}
 
-	private ChatRoomEntry joinChatroom(String chatroom, String password, Summoner initiator) {
+	/**
+	 * @param tiers  the tier range of the room if it is created. May be null
+	 * @param league the tier of the initiator or null if unknown. Summoners of
+	 *               unknown tier may not join existing tier gated rooms
+	 */
+	private ChatRoomEntry joinChatroom(String chatroom, String password, TierRange tiers, League league,
+			Summoner initiator) {
 		chatroom = chatroom.toLowerCase();
 		// If doesn't exist create one. Else join it
-		if (registerChatroom(chatroom, password, initiator)) {
+		if (registerChatroom(chatroom, password, tiers, initiator)) {
 			// Room did not exist and we created it successfully
 			return ChatRoomEntry.DOES_NOT_EXIST;
 		} else {
 			// Room did exist
-			return initiator.joinChatroom(rooms.get(chatroom), password);
+			TierRange required = roomTiers.get(chatroom);
+			if (required != null && league == null) {
+				return ChatRoomEntry.RANK_UNKNOWN;
+			}
+			if (required != null && !required.contains(league)) {
+				return ChatRoomEntry.TIER_MISMATCH;
+			}
+			return joinRoom(initiator, rooms.get(chatroom), password);
 		}
 	}
 
 	private void handleShowHelp(Summoner initiator) throws IOException {
 
-		ChatRoom chatRoom = initiator.getActiveChatroom();
-		if (chatRoom != null) {
-			initiator.sendMessageAdmin(helpMessage + chatRoom.getHelpMessage());
-		}else {
-			initiator.sendMessageAdmin(helpMessage);
-		}
-		
-		
+		initiator.sendMessageAdmin(templates.help(initiator.getActiveChatroom()));
 	}
 
 	/**
@@ -509,6 +1094,22 @@ public class Orchestrator {
 	 *         name already existed
 	 */
 	public boolean registerChatroom(String name, String password, Summoner owner) {
+		return registerChatroom(name, password, null, owner);
+	}
+
+	/**
+	 * Registers a chat room bound to the user which only admits summoners of a
+	 * tier range. Once everyone leaves the room is invalidated
+	 * 
+	 * @param name     The name of the chatroom
+	 * @param password The passwort of the room (may be empty for public rooms)
+	 * @param tiers    The tiers admitted to the room. If null everyone may join
+	 * @param owner    The summoner who will have admin privileges. The owner may
+	 *                 join regardless of his tier
+	 * @return true if the room was sucessfull created, false if a room with the
+	 *         name already existed
+	 */
+	public boolean registerChatroom(String name, String password, TierRange tiers, Summoner owner) {
 
 		try {
 			roomLock.lock();
@@ -516,8 +1117,12 @@ public class Orchestrator {
 				return false;
 			} else {
 				ChatRoom chatRoom = new ChatRoom(name, password, owner, this);
+				// Gate the room before anyone else can find it
+				if (tiers != null) {
+					roomTiers.put(name.toLowerCase(), tiers);
+				}
 				rooms.put(name.toLowerCase(), chatRoom);
-				owner.joinChatroom(chatRoom, password);
+				joinRoom(owner, chatRoom, password);
 				roomsInvalidated = true;
 				return true;
 			}
@@ -561,7 +1166,10 @@ public class Orchestrator {
 		try {
 			roomLock.lock();
 			rooms.remove(chatRoom.getName().toLowerCase());
+			roomTiers.remove(chatRoom.getName().toLowerCase());
 			roomsInvalidated = true;
+			templates.invalidateRoom(chatRoom.getName());
+			rosters.remove(chatRoom.getName().toLowerCase());
 		} finally {
 			roomLock.unlock();
 		}
@@ -575,8 +1183,96 @@ public class Orchestrator {
 	 * @throws IOException if an error occurs communicating with the league api
 	 */
 	public void registerSummoner(Summoner summoner) throws IOException {
-		summonerMap.put(summoner.summonerId(), summoner);
-		summoner.sendMessageAdmin(welcomeMessage);
+		if (banRegistry.isBanned(summoner.summonerId())) {
+			LOGGER.info("Refused to register banned summoner " + summoner.summonerId());
+			return;
+		}
+		Summoner existing = summonerStore.get(summoner.summonerId());
+		if (existing != null && existing != summoner && existing.getBot() != null
+				&& existing.getBot() != summoner.getBot()) {
+			// Failover. Keep rooms and digest of the summoner and only switch the slave
+			existing.setBot(summoner.getBot());
+			ChatRoom room = existing.getActiveChatroom();
+			if (room != null) {
+				// Room deliveries are grouped by slave
+				roster(room).refresh();
+			}
+			summonerNameCache.update(existing);
+			existing.sendMessageAdmin("Your previous bot account became unavailable. Messages are now delivered by this account.");
+			existing.flushDigest(this::getDisplayName);
+			return;
+		}
+		summonerStore.register(summoner);
+		summonerNameCache.update(summoner);
+		summoner.setRateLimiter(rateLimiter);
+		summoner.setHealthMonitor(healthMonitor);
+		summoner.sendMessageAdmin(templates.welcome());
+	}
+
+	/**
+	 * The availability of a summoner changed. The change is applied with the next
+	 * presence batch.
+	 * 
+	 * @param id           the summoner id
+	 * @param availability the new availability
+	 */
+	public void propagatePresence(long id, ChatAvailability availability) {
+		presenceIngestor.submit(id, availability);
+	}
+
+	/**
+	 * A slave (re)connected and reports the availability of all of it's friends.
+	 * The tiers of all online friends are prefetched in bulk.
+	 * 
+	 * @param slave    the slave
+	 * @param presence the availability mapped to the summoner id
+	 */
+	public void propagatePresenceSync(SlaveBot slave, Map<Long, ChatAvailability> presence) {
+		presenceIngestor.bulkSync(slave, presence);
+		// Joining tier gated rooms should not wait for a lookup
+		rankLookup.prefetch(presence.entrySet().stream().filter(e -> e.getValue() != ChatAvailability.offline)
+				.map(Map.Entry::getKey).collect(Collectors.toList()));
+	}
+
+	/**
+	 * Create a decoder for the events pushed by the league client of a slave.
+	 * Presence and chat events are propagated to the orchestrator. A decoder is
+	 * not thread safe, every slave connection requires it's own decoder.
+	 * 
+	 * @return a new decoder
+	 */
+	public ClientEventDecoder createClientEventDecoder() {
+		return new ClientEventDecoder(new ClientEventListener() {
+			@Override
+			public void onPresence(PresenceEvent event) {
+				if (!event.isDeleted()) {
+					propagatePresence(event.getSummonerId(), event.getAvailability());
+					if (event.getLeague() != null) {
+						rankLookup.offer(event.getSummonerId(), event.getLeague());
+					}
+				}
+			}
+
+			@Override
+			public void onChat(ChatEvent event) {
+				if (summonerStore.get(event.getFromSummonerId()) == null) {
+					return;
+				}
+				try {
+					propergateMessage(event.getFromSummonerId(), event.getBody());
+				} catch (IOException e) {
+					LOGGER.warning("Failed to process message of " + event.getFromSummonerId() + ": " + e.getMessage());
+				}
+			}
+		});
+	}
+
+	/**
+	 * @return the stage batching presence changes. Allows to register listeners
+	 *         updated once per batch
+	 */
+	public PresenceIngestor getPresenceIngestor() {
+		return presenceIngestor;
 	}
 
 	/**
@@ -586,7 +1282,13 @@ public class Orchestrator {
 	 */
 	public void propergateSummonerUnfriended(Summoner summoner) {
 		summoner.setBot(null);
-		System.out.println("Room left: " + summoner.leaveChatRoom());
+		summonerStore.markOffline(summoner);
+		rateLimiter.forgetSender(summoner.summonerId());
+		lfgService.stop(summoner.summonerId());
+		ChatRoom left = leaveRoom(summoner);
+		// Only the name is handed to the writer thread. The room keeps changing
+		eventLog.log(LogLevel.INFO, LogEvent.SUMMONER_UNFRIENDED, summoner.summonerId(), 0,
+				left == null ? null : left.getName());
 	}
 
 	/**
@@ -604,40 +1306,220 @@ public class Orchestrator {
 	 */
 	public boolean propagateFriendRequest(long id) {
 
+		if (banRegistry.isBanned(id)) {
+			eventLog.log(LogLevel.INFO, LogEvent.FRIEND_REQUEST_IGNORED_BANNED, id);
+			return false;
+		}
+
 		// Do some kind of "load balancing". Fill up slaves evenly.
 		SlaveBot bestSlave = null;
 		int bestSlots = Integer.MIN_VALUE;
 
 		for (SlaveBot slave : slaves) {
+			// The query may be the probe of a half open slave
+			if (!healthMonitor.tryAcquireProbe(slave)) {
+				continue;
+			}
+			SlaveApiCallEvent call = new SlaveApiCallEvent();
+			call.begin();
+			long start = healthMonitor.nanoTime();
 			try {
 				int availableSlot = slave.getAvaiableFriendSlotLimit();
+				call.complete(slave, "getAvaiableFriendSlotLimit", true);
+				healthMonitor.recordSuccess(slave, healthMonitor.nanoTime() - start);
 
 				if (availableSlot > bestSlots) {
 					bestSlots = availableSlot;
 					bestSlave = slave;
 				}
 			} catch (IOException e) {
-				e.printStackTrace();
+				call.complete(slave, "getAvaiableFriendSlotLimit", false);
+				LOGGER.warning("Failed to query friend slots of " + slave + ": " + e.getMessage());
+				healthMonitor.recordFailure(slave);
 			}
 		}
 
 		if (bestSlots > SlaveBot.FRIEND_LIST_SAFETY_MARGIN_SOFT_CAP) {
+			SlaveApiCallEvent call = new SlaveApiCallEvent();
+			call.begin();
 			try {
-				System.out.println("Send friend request to : " + id + " " + bestSlave);
+				eventLog.log(LogLevel.INFO, LogEvent.FRIEND_REQUEST_SENT, id, bestSlots, bestSlave);
 				bestSlave.sendFriendRequest(id);
+				call.complete(bestSlave, "sendFriendRequest", true);
 				return true;
 			} catch (IOException e) {
-				e.printStackTrace();
+				call.complete(bestSlave, "sendFriendRequest", false);
+				LOGGER.warning("Failed to send friend request to " + id + ": " + e.getMessage());
+				healthMonitor.recordFailure(bestSlave);
 			}
 		}
 		return false;
 	}
 
+	/**
+	 * Move all summoners of a degraded slave to healthy slaves with spare friend
+	 * slots. Friend requests are spread across the healthy slaves proportional to
+	 * their free slots. Once a summoner accepts, the new slave registers him and
+	 * the summoner keeps his room and missed messages.
+	 * 
+	 * <p>
+	 * Failover only sends friend requests. A slave can not message a summoner
+	 * before the request was accepted and the slaves offer no way to check whether
+	 * a summoner already is a friend of another slave. Until the summoner accepts,
+	 * chat lines are kept in his digest and system messages are held back. If the
+	 * degraded slave recovers first, the held back messages are delivered by it.
+	 * 
+	 * @param degraded the slave whose circuit opened
+	 */
+	private void failover(SlaveBot degraded) {
+		List<Long> stranded = new ArrayList<>();
+		for (Summoner summoner : summonerStore.activeSummoners()) {
+			if (summoner.getBot() == degraded) {
+				stranded.add(summoner.summonerId());
+			}
+		}
+		if (stranded.isEmpty()) {
+			return;
+		}
+		failoverExecutor.execute(() -> {
+			// Query the free slots once instead of once per summoner
+			Map<SlaveBot, Integer> freeSlots = new HashMap<>();
+			for (SlaveBot slave : slaves) {
+				if (slave == degraded || !healthMonitor.tryAcquireProbe(slave)) {
+					continue;
+				}
+				long start = healthMonitor.nanoTime();
+				try {
+					freeSlots.put(slave, slave.getAvaiableFriendSlotLimit() - SlaveBot.FRIEND_LIST_SAFETY_MARGIN_SOFT_CAP);
+					healthMonitor.recordSuccess(slave, healthMonitor.nanoTime() - start);
+				} catch (IOException e) {
+					healthMonitor.recordFailure(slave);
+				}
+			}
+
+			int moved = 0;
+			for (long id : stranded) {
+				SlaveBot target = null;
+				for (Map.Entry<SlaveBot, Integer> e : freeSlots.entrySet()) {
+					if (e.getValue() > 0 && (target == null || e.getValue() > freeSlots.get(target))) {
+						target = e.getKey();
+					}
+				}
+				if (target == null) {
+					LOGGER.warning("No friend slots left to fail over " + (stranded.size() - moved) + " summoners of "
+							+ degraded);
+					break;
+				}
+				try {
+					rateLimiter.awaitEgress(target);
+					target.sendFriendRequest(id);
+					freeSlots.merge(target, -1, Integer::sum);
+					moved++;
+				} catch (IOException e) {
+					LOGGER.warning("Failover friend request to " + id + " failed: " + e.getMessage());
+					healthMonitor.recordFailure(target);
+					freeSlots.remove(target);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+			LOGGER.info("Failover of " + degraded + ": send " + moved + " of " + stranded.size() + " friend requests");
+		});
+	}
+
+	/**
+	 * Ban a summoner from using the bot. The summoner is removed from his room and
+	 * further messages, friend requests and registrations are ignored.
+	 * 
+	 * @param summonerId the summoner to ban
+	 */
+	public void banSummoner(long summonerId) {
+		banRegistry.ban(summonerId);
+		Summoner summoner = summonerStore.get(summonerId);
+		if (summoner != null) {
+			leaveRoom(summoner);
+			lfgService.stop(summonerId);
+		}
+	}
+
+	/**
+	 * Allow a summoner to ban and unban summoners via {@value #ADMIN}
+	 * 
+	 * @param summonerId the summoner id of the operator
+	 */
+	public void addOperator(long summonerId) {
+		operators.add(summonerId);
+	}
+
+	/**
+	 * Lift the global ban of a summoner
+	 * 
+	 * @param summonerId the summoner to unban
+	 */
+	public void unbanSummoner(long summonerId) {
+		banRegistry.unban(summonerId);
+	}
+
+	/**
+	 * @return the registry of globally banned summoners
+	 */
+	public GlobalBanRegistry getBanRegistry() {
+		return banRegistry;
+	}
+
+	/**
+	 * Load blocked terms and hosts from a file or directory. The source is watched
+	 * and reloaded on every change without interrupting message handling.
+	 * 
+	 * @param source a blocklist file or a directory containing blocklist files
+	 * @return a future completing once the entries are active
+	 * @throws IOException if the source can not be watched
+	 */
+	public CompletableFuture<Void> loadBlocklist(Path source) throws IOException {
+		return blocklist.watch(source);
+	}
+
+	/**
+	 * @return the terms and hosts which may not be posted in chat
+	 */
+	public Blocklist getBlocklist() {
+		return blocklist;
+	}
+
+	/**
+	 * Set the source of tiers looked up when summoners join tier gated rooms e.g.
+	 * the ranked api of a slave. Until a provider is set only summoners whose tier
+	 * was reported by a presence update may join tier gated rooms.
+	 * 
+	 * @param provider the rank provider
+	 */
+	public void setRankProvider(RankProvider provider) {
+		rankLookup.setProvider(provider);
+	}
+
+	/**
+	 * @return the cache of summoner tiers used by tier gated rooms
+	 */
+	public RankLookupService getRankLookup() {
+		return rankLookup;
+	}
+
+	/**
+	 * @return the monitor tracking the health of all slaves
+	 */
+	public SlaveHealthMonitor getHealthMonitor() {
+		return healthMonitor;
+	}
+
 	/**
 	 * @param id
 	 */
 	public void propergateSummonerUnfriended(long id) {
-		propergateSummonerUnfriended(summonerMap.get(id));
+		Summoner summoner = summonerStore.get(id);
+		if (summoner != null) {
+			propergateSummonerUnfriended(summoner);
+		}
 	}
 
 	/**
@@ -646,19 +1528,24 @@ public class Orchestrator {
 	 * @param id
 	 */
 	public boolean isSummonerRegistered(long id) {
-		if (summonerMap.containsKey(id)) {
-			return summonerMap.get(id).getBot() != null;
-		}
-		return false;
+		Summoner summoner = summonerStore.get(id);
+		return summoner != null && summoner.getBot() != null;
 	}
 	
 
 	public Summoner getSummoner(long id) {
-		return summonerMap.get(id);
+		return summonerStore.get(id);
+	}
+
+	/**
+	 * @return the rate limiter used for incoming messages and outgoing api calls.
+	 *         Exposes metrics of throttled events
+	 */
+	public RateLimiter getRateLimiter() {
+		return rateLimiter;
 	}
 
 	double nanoToMilis = 1e6;
-	double bytesToGib = 1073741824;
 
 	public void statReport() {
 
@@ -667,29 +1554,229 @@ public class Orchestrator {
 		try {
 			Thread.sleep(1000);
 		} catch (InterruptedException e) {
-			e.printStackTrace();
+			Thread.currentThread().interrupt();
+			return;
 		}
 
 		MiscUtil.OS.getOS().toString();
 
-		System.out.println("Guaranteed Heap: " + sunOSBean.getCommittedVirtualMemorySize() / bytesToGib + " GiB");
-		System.out.println("RAM: " + sunOSBean.getFreePhysicalMemorySize() / bytesToGib + " GiB");
-		System.out.println("Available Swap: " + sunOSBean.getFreeSwapSpaceSize() / bytesToGib + " GiB");
-		System.out.println("CPU Utilization: " + sunOSBean.getProcessCpuLoad() * 100 + "%");
-		System.out.println("CPU Time: " + sunOSBean.getProcessCpuTime() / nanoToMilis + "ms");
+		eventLog.log(LogLevel.INFO, LogEvent.STAT_MEMORY, sunOSBean.getCommittedVirtualMemorySize(),
+				sunOSBean.getFreePhysicalMemorySize());
+		eventLog.log(LogLevel.INFO, LogEvent.STAT_SWAP, sunOSBean.getFreeSwapSpaceSize());
+		eventLog.log(LogLevel.INFO, LogEvent.STAT_CPU, (long) (sunOSBean.getProcessCpuLoad() * 1000),
+				(long) (sunOSBean.getProcessCpuTime() / nanoToMilis));
 	}
 
 	/**
 	 * Send a text message to all summoners currently connected to the chat This
-	 * method will be used to
+	 * method will be used to announce maintenance or similar system wide events.
+	 * Blocks until the message was handed to every summoner.
 	 * 
 	 * @param message The message to send.
-	 * @throws IOException
+	 * @throws IOException if the message could not be delivered to at least one
+	 *                     summoner
+	 * @deprecated blocks the calling thread for the duration of the broadcast.
+	 *             Use {@link #sendGlobalMessageAsync(String)} instead
 	 */
+	@Deprecated
 	public void sendGLobalMessage(String message) throws IOException {
+		BroadcastReport report;
+		try {
+			report = sendGlobalMessageAsync(message).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while sending global message", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Failed to send global message", e.getCause());
+		}
+		if (report.getFailed() > 0) {
+			throw new IOException("Global message failed for " + report.getFailed() + " of "
+					+ report.getRecipients() + " summoners");
+		}
+	}
+
+	/**
+	 * Send a text message to all summoners currently connected to the chat This
+	 * method will be used to announce maintenance or similar system wide events.
+	 * 
+	 * <p>
+	 * Messages are delivered by all slaves in parallel.
+	 * 
+	 * @param message The message to send.
+	 * @return a future completed once the message was handed to every summoner
+	 *         reporting delivered, failed and skipped recipients
+	 */
+	public CompletableFuture<BroadcastReport> sendGlobalMessageAsync(String message) {
 		LOGGER.info("Send global message: " + message);
-		for (Summoner s : summonerMap.values()) {
-			s.sendMessageAdmin(message);
+		return broadcastEngine.broadcast(new ArrayList<>(summonerStore.activeSummoners()), message).whenComplete((report, t) -> {
+			if (t != null) {
+				LOGGER.warning("Global message failed: " + t.getMessage());
+			} else {
+				LOGGER.info("Global message completed: " + report);
+			}
+		});
+	}
+
+	/**
+	 * Send summoners who became available again the chat lines they missed. Called
+	 * by the presence ingestor and by the room fan out once a slave which fell
+	 * behind caught up. Digests are send by the egress thread of the slave to not
+	 * block the caller.
+	 * 
+	 * @param changed the summoners whose availability changed
+	 */
+	private void deliverDigests(List<Summoner> changed) {
+		for (Summoner summoner : changed) {
+			SlaveBot bot = summoner.getBot();
+			if (bot == null || (summoner.getPendingDigestSize() == 0 && summoner.getPendingAdminCount() == 0)) {
+				continue;
+			}
+			if (!background || rateLimiter == null) {
+				flushDigestSafe(summoner);
+				continue;
+			}
+			try {
+				rateLimiter.executeEgress(bot, () -> flushDigestSafe(summoner));
+			} catch (RejectedExecutionException e) {
+				// Shutting down. The digest stays pending
+			}
+		}
+	}
+
+	/**
+	 * Deliver messages held back while a slave was degraded
+	 * 
+	 * @param slave the recovered slave
+	 */
+	private void deliverHeldBack(SlaveBot slave) {
+		List<Summoner> served = new ArrayList<>();
+		for (Summoner summoner : summonerStore.activeSummoners()) {
+			if (summoner.getBot() == slave) {
+				served.add(summoner);
+			}
+		}
+		deliverDigests(served);
+	}
+
+	private void flushDigestSafe(Summoner summoner) {
+		try {
+			summoner.flushDigest(this::getDisplayName);
+		} catch (IOException e) {
+			LOGGER.warning("Failed to deliver digest to " + summoner.summonerId() + ": " + e.getMessage());
+		}
+	}
+
+	/**
+	 * Deliver a chat line posted in a room to the members of the room. Large rooms
+	 * are delivered by one worker per slave in parallel. Mutes and chat modes of
+	 * the recipients are respected.
+	 * 
+	 * @param members   the summoners the line is delivered to
+	 * @param line      the fully formatted chat line
+	 * @param initiator the summoner who posted the line
+	 */
+	public void broadcastToRoom(Collection<Summoner> members, String line, Summoner initiator) {
+		roomFanOut.fanOut(members, line, initiator);
+	}
+
+	/**
+	 * Deliver a chat line to the current members of a room. Called by the
+	 * {@link ChatRoom} once it formatted a line posted in the room. The
+	 * membership snapshot is read without locking.
+	 * 
+	 * @param chatRoom  the room the line was posted in
+	 * @param line      the fully formatted chat line
+	 * @param initiator the summoner who posted the line
+	 */
+	public void broadcastToRoom(ChatRoom chatRoom, String line, Summoner initiator) {
+		MemberSnapshot members = getRoomMembers(chatRoom);
+		RoomBroadcastEvent event = new RoomBroadcastEvent();
+		if (!event.isEnabled()) {
+			roomFanOut.fanOut(members, line, initiator);
+			return;
+		}
+		event.begin();
+		// Ends once the last slave worker delivered it's partition
+		roomFanOut.fanOut(members, line, initiator, (partitions, deferred, skippedMuted, deferredByMode) -> {
+			event.end();
+			if (event.shouldCommit()) {
+				event.room = chatRoom.getName();
+				event.recipients = members.size();
+				event.partitions = partitions;
+				event.deferredPartitions = deferred;
+				event.skippedMuted = skippedMuted;
+				event.deferredByMode = deferredByMode;
+				event.commit();
+			}
+		});
+	}
+
+	/**
+	 * Send the list of members of the room the summoner is currently in. The
+	 * listing is rendered once per membership change.
+	 * 
+	 * @param initiator the summoner who requested the listing
+	 * @throws IOException if an error occurs communicating with the league api
+	 */
+	public void sendOnlineListing(Summoner initiator) throws IOException {
+		ChatRoom room = initiator.getActiveChatroom();
+		if (room == null) {
+			initiator.sendMessageAdmin(MessageTemplates.NOT_IN_ROOM);
+			return;
+		}
+		initiator.sendMessageAdmin(getRoomMembers(room).renderOnline());
+	}
+
+	/**
+	 * @param chatRoom the chat room
+	 * @return an immutable snapshot of the current members of the room
+	 */
+	public MemberSnapshot getRoomMembers(ChatRoom chatRoom) {
+		RoomRoster roster = rosters.get(chatRoom.getName().toLowerCase());
+		return roster == null ? MemberSnapshot.EMPTY : roster.snapshot();
+	}
+
+	private RoomRoster roster(ChatRoom chatRoom) {
+		return rosters.computeIfAbsent(chatRoom.getName().toLowerCase(), name -> new RoomRoster());
+	}
+
+	/**
+	 * Move a summoner into a room and update the rosters of the room he left and
+	 * joined.
+	 * 
+	 * @return the result of the join attempt
+	 */
+	private ChatRoomEntry joinRoom(Summoner summoner, ChatRoom chatRoom, String password) {
+		ChatRoom previous = summoner.getActiveChatroom();
+		ChatRoomEntry entry = summoner.joinChatroom(chatRoom, password);
+		if (entry.equals(ChatRoomEntry.SUCCESS)) {
+			if (previous != null && previous != chatRoom) {
+				removeFromRoster(previous, summoner);
+			}
+			roster(chatRoom).add(summoner);
+		}
+		return entry;
+	}
+
+	/**
+	 * Remove a summoner from his room and the roster of the room
+	 * 
+	 * @return the room the summoner left or null if he wasn't in a room
+	 */
+	private ChatRoom leaveRoom(Summoner summoner) {
+		ChatRoom left = summoner.getActiveChatroom();
+		if (left != null) {
+			// Leaving may unregister the room together with it's roster
+			removeFromRoster(left, summoner);
+		}
+		summoner.leaveChatRoom();
+		return left;
+	}
+
+	private void removeFromRoster(ChatRoom chatRoom, Summoner summoner) {
+		RoomRoster roster = rosters.get(chatRoom.getName().toLowerCase());
+		if (roster != null) {
+			roster.remove(summoner);
 		}
 	}
 
@@ -699,30 +1786,119 @@ public class Orchestrator {
 
 	/**
 	 * Callback for slave bots or any class which allows lobby hosting to provide
-	 * their service.
+	 * their service. Idle hosters serve queued requests first. Only if no request
+	 * is waiting they refill the pool of prepared lobbies.
 	 * 
 	 * @param lobbyHoster The hoster to anounce availablility
 	 */
 	public void anounceAvailableToHostLobby(LobbyHoster lobbyHoster) {
-		new Thread(() -> {
-			try {
-				lobbyHoster.host(gameHostRequets.take());
-			} catch (IOException | InterruptedException e) {
-				LOGGER.warning("Intterupted while awaiting lobby");
-				// If interrupted reschedule
-				this.anounceAvailableToHostLobby(lobbyHoster);
-			}
-		}).start();
+		if (hosterRouter.getQueuedCount() > 0 || !lobbyPool.offerIdle(lobbyHoster)) {
+			hosterRouter.hosterIdle(lobbyHoster);
+		}
 	}
 
 	/**
-	 * Requests a game lobby to be hosted. The lobby will be hosted as soon as a
-	 * lobby hoster is available and the requester will be notified via callback.
+	 * Requests a game lobby to be hosted. If a prepared lobby of the template is
+	 * available it is claimed right away. Otherwise the lobby will be hosted by
+	 * the idle hoster best suited for the players of the request as soon as one
+	 * is available. The requester will be notified via callback.
 	 * 
 	 * @param gameRequest The request
 	 */
 	public void hostLobby(GameHostRequest gameRequest) {
-		gameHostRequets.add(gameRequest);
+		if (!lobbyPool.claim(gameRequest)) {
+			hosterRouter.submit(gameRequest);
+		}
+	}
+
+	/**
+	 * Build and host a request for the players of the bot. The request carries
+	 * the server and summoner ids of the players so it is routed to the hoster
+	 * already befriended with most of them.
+	 * 
+	 * @param requester    notified once summoners can be invited to the lobby
+	 * @param template     the template of the lobby
+	 * @param lobbyType    the lobby implementation managing the game
+	 * @param participants the summoners known to join the lobby
+	 * @return the request handed to {@link #hostLobby(GameHostRequest)}
+	 */
+	public GameHostRequest requestLobby(LobbyRequester requester, GameTemplate template,
+			Class<? extends GameLobby> lobbyType, Collection<Summoner> participants) {
+		GameHostRequest request = GameHostRequest.builder(requester).withTemplate(template).withLobbyType(lobbyType)
+				.withServer(SERVER)
+				.withParticipants(participants.stream().map(Summoner::summonerId).collect(Collectors.toList()))
+				.build();
+		hostLobby(request);
+		return request;
+	}
+
+	/**
+	 * Start the lobby with bots if not enough players join in time and resolve
+	 * the names of it's members from now on. Called by hosters once the lobby of
+	 * a request was created.
+	 * 
+	 * @param lobby the lobby waiting for players
+	 */
+	public void lobbyCreated(GameLobby lobby) {
+		lobby.setSummonerNameCache(summonerNameCache);
+		backfillScheduler.track(lobby);
+	}
+
+	/**
+	 * @return the scheduler backfilling waiting lobbies with bots
+	 */
+	public BackfillScheduler getBackfillScheduler() {
+		return backfillScheduler;
+	}
+
+	/**
+	 * @return the router matching host requests with idle hosters
+	 */
+	public HosterRouter getHosterRouter() {
+		return hosterRouter;
+	}
+
+	/**
+	 * @return the pool of prepared lobbies
+	 */
+	public LobbyPool getLobbyPool() {
+		return lobbyPool;
+	}
+
+	/**
+	 * A rendered room listing together with the rooms and online counts it was
+	 * rendered from. Published as a whole so readers never combine the text of
+	 * one listing with the counts of another.
+	 */
+	private static final class RoomListing {
+
+		private final List<ChatRoom> rooms;
+
+		private final int[] counts;
+
+		private final MessagePayload payload;
+
+		RoomListing(List<ChatRoom> rooms, int[] counts, MessagePayload payload) {
+			this.rooms = rooms;
+			this.counts = counts;
+			this.payload = payload;
+		}
+
+		/**
+		 * @return true if the listing shows the rooms in this order with these
+		 *         online counts
+		 */
+		boolean matches(List<ChatRoom> rooms, int[] counts) {
+			if (this.rooms.size() != rooms.size() || !Arrays.equals(this.counts, counts)) {
+				return false;
+			}
+			for (int i = 0; i < rooms.size(); i++) {
+				if (this.rooms.get(i) != rooms.get(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
 	}
 
 }
@@ -0,0 +1,132 @@
+package com.github.kilianB.chatBot;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.util.ExpiringLruCache;
+
+/**
+ * Bidirectional summoner id to display name cache. Resolving a name via a
+ * {@link SlaveBot} requires a round trip to the league api. Summoners we see
+ * anyways (friend list, lobbies) are passively added to the cache allowing
+ * commands like !mute or !ban to resolve names from memory.
+ *
+ * <p>
+ * Names are looked up case and whitespace insensitive the same way the league
+ * client treats summoner names. A summoner changing it's display name replaces
+ * the old mapping the next time the summoner is seen.
+ *
+ * @author Kilian
+ *
+ */
+public class SummonerNameCache {
+
+	/** Summoner id mapped to the last seen display name */
+	private final ExpiringLruCache<Long, String> idToName;
+
+	/** Normalized display name mapped to the summoner id */
+	private final HashMap<String, Long> nameToId = new HashMap<>();
+
+	/**
+	 * @param capacity the maximum number of summoners kept in the cache
+	 * @param ttl      the time a mapping is trusted before it has to be resolved
+	 *                 again
+	 * @param unit     the unit of the ttl argument
+	 */
+	public SummonerNameCache(int capacity, long ttl, TimeUnit unit) {
+		idToName = new ExpiringLruCache<>(capacity, ttl, unit, (id, name) -> {
+			// Called while holding the lock of the lru cache. The lru cache is only ever
+			// accessed while holding the lock of this object so we can't deadlock.
+			nameToId.remove(normalize(name), id);
+		});
+	}
+
+	/**
+	 * Add or update the mapping of the summoner.
+	 *
+	 * @param summoner the summoner to cache
+	 */
+	public void update(Summoner summoner) {
+		if (summoner != null && summoner.getDisplayName() != null) {
+			update(summoner.summonerId(), summoner.getDisplayName());
+		}
+	}
+
+	/**
+	 * Add or update the mapping of a summoner.
+	 *
+	 * @param summonerId  the id of the summoner
+	 * @param displayName the current display name of the summoner
+	 */
+	public synchronized void update(long summonerId, String displayName) {
+		String key = normalize(displayName);
+		String oldName = idToName.put(summonerId, displayName);
+		if (oldName != null) {
+			String oldKey = normalize(oldName);
+			if (!oldKey.equals(key)) {
+				// Name change. The old name is free to be taken by someone else
+				nameToId.remove(oldKey, summonerId);
+			}
+		}
+		nameToId.put(key, summonerId);
+	}
+
+	/**
+	 * Resolve the summoner id of a display name.
+	 *
+	 * @param displayName the name to look up. Case and whitespaces are ignored
+	 * @return the summoner id or null if the name is not cached
+	 */
+	public synchronized Long getId(String displayName) {
+		String key = normalize(displayName);
+		Long id = nameToId.get(key);
+		if (id != null) {
+			// Touch the entry to keep lru order and check if the mapping is still valid
+			String name = idToName.get(id);
+			if (name == null || !normalize(name).equals(key)) {
+				nameToId.remove(key, id);
+				return null;
+			}
+		}
+		return id;
+	}
+
+	/**
+	 * Resolve the display name of a summoner.
+	 *
+	 * @param summonerId the id of the summoner
+	 * @return the last known display name or null if the summoner is not cached
+	 */
+	public synchronized String getName(long summonerId) {
+		return idToName.get(summonerId);
+	}
+
+	/**
+	 * Drop all mappings which exceeded their time to live.
+	 */
+	public synchronized void purgeExpired() {
+		idToName.purgeExpired();
+	}
+
+	/**
+	 * @return the number of cached summoners
+	 */
+	public synchronized int size() {
+		return idToName.size();
+	}
+
+	/**
+	 * @return the number of names mapped to an id. Never exceeds the number of
+	 *         cached summoners
+	 */
+	synchronized int getNameCount() {
+		return nameToId.size();
+	}
+
+	private static String normalize(String displayName) {
+		return displayName.replace(" ", "").toLowerCase(Locale.ROOT);
+	}
+
+}
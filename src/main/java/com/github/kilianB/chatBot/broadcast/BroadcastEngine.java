@@ -0,0 +1,217 @@
+package com.github.kilianB.chatBot.broadcast;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.github.kilianB.chatBot.SlaveBot;
+import com.github.kilianB.chatBot.health.SlaveHealthMonitor;
+import com.github.kilianB.chatBot.messages.MessagePayload;
+import com.github.kilianB.chatBot.throttle.RateLimiter;
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.eventLog.EventLog;
+import com.github.kilianB.eventLog.LogEvent;
+import com.github.kilianB.eventLog.LogLevel;
+import com.github.kilianB.util.DaemonThreadFactory;
+
+/**
+ * Delivers a single message to a large number of summoners.
+ *
+ * <p>
+ * Recipients are grouped by the {@link SlaveBot} responsible for them. Every
+ * slave owns a small set of worker threads which deliver the messages of it's
+ * recipients independently of all other slaves. The total time of a broadcast
+ * is therefore bound by the slave with the most recipients and it's rate limit
+ * instead of the total number of recipients.
+ *
+ * @author Kilian
+ *
+ */
+public class BroadcastEngine {
+
+	private final EventLog eventLog = EventLog.global();
+
+	/** Workers of each slave */
+	private final ConcurrentHashMap<SlaveBot, ExecutorService> lanes = new ConcurrentHashMap<>();
+
+	private final RateLimiter rateLimiter;
+
+	/**
+	 * Number of concurrent api calls per slave. Api calls are latency bound, a few
+	 * concurrent workers keep the rate limit saturated.
+	 */
+	private final int workersPerSlave;
+
+	/**
+	 * Recipients of degraded slaves are skipped. Receives the outcome of every api
+	 * call. May be null
+	 */
+	private final SlaveHealthMonitor healthMonitor;
+
+	/**
+	 * @param rateLimiter     the limiter respected for every api call
+	 * @param workersPerSlave the number of concurrent api calls issued per slave
+	 */
+	public BroadcastEngine(RateLimiter rateLimiter, int workersPerSlave) {
+		this(rateLimiter, workersPerSlave, null);
+	}
+
+	/**
+	 * @param rateLimiter     the limiter respected for every api call
+	 * @param workersPerSlave the number of concurrent api calls issued per slave
+	 * @param healthMonitor   recipients of slaves reported as degraded are
+	 *                        skipped. May be null
+	 */
+	public BroadcastEngine(RateLimiter rateLimiter, int workersPerSlave, SlaveHealthMonitor healthMonitor) {
+		if (workersPerSlave <= 0) {
+			throw new IllegalArgumentException("At least one worker per slave is required");
+		}
+		this.rateLimiter = rateLimiter;
+		this.workersPerSlave = workersPerSlave;
+		this.healthMonitor = healthMonitor;
+	}
+
+	/**
+	 * Send an admin message to all recipients. Recipients not connected to a slave
+	 * are skipped.
+	 *
+	 * @param recipients the summoners to notify
+	 * @param message    the message to send
+	 * @return a future completed with the report of the broadcast once every
+	 *         recipient was handled
+	 */
+	public CompletableFuture<BroadcastReport> broadcast(Collection<Summoner> recipients, String message) {
+		return broadcast(recipients, MessagePayload.admin(message));
+	}
+
+	/**
+	 * Send a pre rendered message to all recipients. Recipients not connected to a
+	 * slave or connected to a degraded slave are skipped. The health of a slave is
+	 * checked once for all of it's recipients. Once the slave degrades during the
+	 * broadcast it's remaining recipients are skipped.
+	 *
+	 * @param recipients the summoners to notify
+	 * @param message    the rendered message to send
+	 * @return a future completed with the report of the broadcast once every
+	 *         recipient was handled
+	 */
+	public CompletableFuture<BroadcastReport> broadcast(Collection<Summoner> recipients, MessagePayload message) {
+		long start = System.nanoTime();
+		String payload = message.getText();
+
+		// Partition by slave
+		Map<SlaveBot, List<Summoner>> partitions = new HashMap<>();
+		AtomicInteger skipped = new AtomicInteger();
+		for (Summoner s : recipients) {
+			SlaveBot bot = s.getBot();
+			if (bot == null) {
+				skipped.incrementAndGet();
+			} else {
+				partitions.computeIfAbsent(bot, b -> new ArrayList<>()).add(s);
+			}
+		}
+
+		AtomicInteger delivered = new AtomicInteger();
+		AtomicInteger failed = new AtomicInteger();
+		List<CompletableFuture<Void>> tasks = new ArrayList<>();
+
+		for (Map.Entry<SlaveBot, List<Summoner>> partition : partitions.entrySet()) {
+			SlaveBot bot = partition.getKey();
+			List<Summoner> members = partition.getValue();
+			if (healthMonitor != null && !healthMonitor.isAvailable(bot)) {
+				skipped.addAndGet(members.size());
+				continue;
+			}
+			ExecutorService lane = lane(bot);
+			int chunkSize = (members.size() + workersPerSlave - 1) / workersPerSlave;
+			for (int i = 0; i < members.size(); i += chunkSize) {
+				List<Summoner> chunk = members.subList(i, Math.min(members.size(), i + chunkSize));
+				tasks.add(CompletableFuture.runAsync(() -> deliver(bot, chunk, payload, delivered, failed, skipped),
+						lane));
+			}
+		}
+
+		int total = recipients.size();
+		return CompletableFuture.allOf(tasks.toArray(new CompletableFuture[tasks.size()]))
+				.thenApply(v -> new BroadcastReport(total, delivered.get(), failed.get(), skipped.get(),
+						System.nanoTime() - start));
+	}
+
+	/**
+	 * Release the workers of a slave which is no longer in use
+	 *
+	 * @param slave the slave to release
+	 */
+	public void removeSlave(SlaveBot slave) {
+		ExecutorService lane = lanes.remove(slave);
+		if (lane != null) {
+			lane.shutdown();
+		}
+	}
+
+	/**
+	 * Stop all workers. Broadcasts in progress will be completed.
+	 */
+	public void shutdown() {
+		lanes.values().forEach(ExecutorService::shutdown);
+		lanes.clear();
+	}
+
+	private ExecutorService lane(SlaveBot bot) {
+		return lanes.computeIfAbsent(bot,
+				b -> Executors.newFixedThreadPool(workersPerSlave, new DaemonThreadFactory()));
+	}
+
+	/**
+	 * Deliver the payload to a chunk of the recipients of a slave. Every call is
+	 * acquired from the health monitor, so only one worker probes a half open
+	 * slave, and it's outcome is recorded.
+	 */
+	private void deliver(SlaveBot bot, List<Summoner> chunk, String payload, AtomicInteger delivered,
+			AtomicInteger failed, AtomicInteger skipped) {
+		for (int i = 0; i < chunk.size(); i++) {
+			Summoner s = chunk.get(i);
+			if (healthMonitor != null && !healthMonitor.tryAcquireProbe(bot)) {
+				// The slave degraded during the broadcast or another worker probes it
+				skipped.incrementAndGet();
+				continue;
+			}
+			try {
+				rateLimiter.awaitEgress(bot);
+				send(bot, s, payload);
+				delivered.incrementAndGet();
+			} catch (IOException e) {
+				failed.incrementAndGet();
+				eventLog.log(LogLevel.WARN, LogEvent.BROADCAST_DELIVERY_FAILURE, s.summonerId(), 0, e.getMessage());
+			} catch (InterruptedException e) {
+				failed.addAndGet(chunk.size() - i);
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+
+	private void send(SlaveBot bot, Summoner s, String payload) throws IOException {
+		if (healthMonitor == null) {
+			bot.sendMessage(s.summonerId(), payload);
+			return;
+		}
+		long start = healthMonitor.nanoTime();
+		try {
+			bot.sendMessage(s.summonerId(), payload);
+		} catch (IOException e) {
+			healthMonitor.recordFailure(bot);
+			throw e;
+		}
+		healthMonitor.recordSuccess(bot, healthMonitor.nanoTime() - start);
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.github.kilianB.chatBot.broadcast;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a broadcast issued by the {@link BroadcastEngine}
+ *
+ * @author Kilian
+ *
+ */
+public class BroadcastReport {
+
+	private final int recipients;
+	private final int delivered;
+	private final int failed;
+	private final int skipped;
+	private final long elapsedNanos;
+
+	BroadcastReport(int recipients, int delivered, int failed, int skipped, long elapsedNanos) {
+		this.recipients = recipients;
+		this.delivered = delivered;
+		this.failed = failed;
+		this.skipped = skipped;
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	/**
+	 * @return the number of summoners the message was addressed to
+	 */
+	public int getRecipients() {
+		return recipients;
+	}
+
+	/**
+	 * @return the number of summoners the message was successfully handed to
+	 */
+	public int getDelivered() {
+		return delivered;
+	}
+
+	/**
+	 * @return the number of summoners the message could not be delivered to due
+	 *         to an api error
+	 */
+	public int getFailed() {
+		return failed;
+	}
+
+	/**
+	 * @return the number of summoners skipped because they are not connected to
+	 *         any slave
+	 */
+	public int getSkipped() {
+		return skipped;
+	}
+
+	/**
+	 * @param unit the time unit of the returned value
+	 * @return the time it took to complete the broadcast
+	 */
+	public long getElapsed(TimeUnit unit) {
+		return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public String toString() {
+		return "BroadcastReport [recipients=" + recipients + ", delivered=" + delivered + ", failed=" + failed
+				+ ", skipped=" + skipped + ", elapsed=" + getElapsed(TimeUnit.MILLISECONDS) + "ms]";
+	}
+
+}
@@ -0,0 +1,409 @@
+package com.github.kilianB.chatBot.broadcast;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import com.github.kilianB.chatBot.SlaveBot;
+import com.github.kilianB.chatBot.chatRooms.MemberSnapshot;
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.eventLog.EventLog;
+import com.github.kilianB.eventLog.LogEvent;
+import com.github.kilianB.eventLog.LogLevel;
+import com.github.kilianB.util.DaemonThreadFactory;
+
+/**
+ * Delivers chat lines of large rooms.
+ *
+ * <p>
+ * Room members are split into partitions by the {@link SlaveBot} responsible
+ * for them. Every slave owns a single worker delivering the lines of all rooms
+ * to it's summoners in the order they were posted. The line is shared between
+ * all partitions. The time it takes to deliver a line therefore scales with the
+ * number of members per slave instead of the number of members in the room.
+ *
+ * <p>
+ * The queue of every worker is bounded. If a slave falls behind the line is
+ * put into the {@link com.github.kilianB.chatBot.messages.DeferredDigest
+ * digest} of the members of this slave right away. The posting thread never
+ * waits for a lagging partition. Once the worker drained it's queue the
+ * members with deferred lines are handed to a listener delivering their
+ * digests.
+ *
+ * @author Kilian
+ *
+ */
+public class RoomFanOut {
+
+	private static final EventLog EVENT_LOG = EventLog.global();
+
+	private final ConcurrentHashMap<SlaveBot, ThreadPoolExecutor> workers = new ConcurrentHashMap<>();
+
+	/** Rooms with less members are delivered directly on the calling thread */
+	private final int inlineThreshold;
+
+	/** Maximum number of lines queued per slave */
+	private final int queueCapacity;
+
+	private final LongAdder scheduledPartitions = new LongAdder();
+
+	private final LongAdder deferredPartitions = new LongAdder();
+
+	/** Members whose lines were deferred mapped to the slave which fell behind */
+	private final ConcurrentHashMap<SlaveBot, Set<Summoner>> behind = new ConcurrentHashMap<>();
+
+	/** Delivers the digests of members once their slave caught up. May be null */
+	private final Consumer<List<Summoner>> caughtUp;
+
+	private final RejectedExecutionHandler backPressure = (task, executor) -> {
+		deferredPartitions.increment();
+		if (!executor.isShutdown()) {
+			EVENT_LOG.log(LogLevel.DEBUG, LogEvent.ROOM_LINE_DEFERRED, deferredPartitions.sum());
+		}
+		((PartitionDelivery) task).deferred();
+	};
+
+	/**
+	 * @param inlineThreshold rooms with less members are delivered on the calling
+	 *                        thread
+	 * @param queueCapacity   the maximum number of lines queued per slave. Lines
+	 *                        exceeding the capacity are deferred to the digests of
+	 *                        the members of the slave
+	 */
+	public RoomFanOut(int inlineThreshold, int queueCapacity) {
+		this(inlineThreshold, queueCapacity, null);
+	}
+
+	/**
+	 * @param inlineThreshold rooms with less members are delivered on the calling
+	 *                        thread
+	 * @param queueCapacity   the maximum number of lines queued per slave. Lines
+	 *                        exceeding the capacity are deferred to the digests of
+	 *                        the members of the slave
+	 * @param caughtUp        receives the members with deferred lines once the
+	 *                        worker of their slave drained it's queue. Called on
+	 *                        the worker. May be null
+	 */
+	public RoomFanOut(int inlineThreshold, int queueCapacity, Consumer<List<Summoner>> caughtUp) {
+		this.inlineThreshold = inlineThreshold;
+		this.queueCapacity = queueCapacity;
+		this.caughtUp = caughtUp;
+	}
+
+	/**
+	 * Deliver a chat line to the members of a room. Mutes and chat modes of the
+	 * recipients are respected. The initiator does not receive his own line.
+	 *
+	 * @param members   the summoners the line is delivered to
+	 * @param line      the fully formatted chat line
+	 * @param initiator the summoner who posted the line
+	 * @return the number of partitions the delivery was split into. 0 if the line
+	 *         was delivered on the calling thread
+	 */
+	public int fanOut(Collection<Summoner> members, String line, Summoner initiator) {
+		byte[] encoded = line.getBytes(StandardCharsets.UTF_8);
+		if (members.size() < inlineThreshold) {
+			deliver(members, line, encoded, initiator, null);
+			return 0;
+		}
+
+		Map<SlaveBot, List<Summoner>> partitions = new HashMap<>();
+		for (Summoner s : members) {
+			SlaveBot bot = s.getBot();
+			if (bot != null) {
+				partitions.computeIfAbsent(bot, b -> new ArrayList<>()).add(s);
+			}
+		}
+		return schedule(partitions, line, encoded, initiator, null);
+	}
+
+	/**
+	 * Deliver a chat line to the members of a room snapshot. The grouping of the
+	 * members by slave is computed once per snapshot and reused by every line
+	 * posted until the membership changes.
+	 *
+	 * @param members   the current members of the room
+	 * @param line      the fully formatted chat line
+	 * @param initiator the summoner who posted the line
+	 * @return the number of partitions the delivery was split into. 0 if the line
+	 *         was delivered on the calling thread
+	 */
+	public int fanOut(MemberSnapshot members, String line, Summoner initiator) {
+		return fanOut(members, line, initiator, null);
+	}
+
+	/**
+	 * Deliver a chat line to the members of a room snapshot and get notified once
+	 * every partition was delivered or dropped.
+	 *
+	 * @param members    the current members of the room
+	 * @param line       the fully formatted chat line
+	 * @param initiator  the summoner who posted the line
+	 * @param onComplete notified once every partition was delivered or deferred
+	 *                   together with the recipients skipped or deferred while
+	 *                   delivering. Called on the calling thread if the line was
+	 *                   delivered inline, else on the worker finishing last. May
+	 *                   be null
+	 * @return the number of partitions the delivery was split into. 0 if the line
+	 *         was delivered on the calling thread
+	 */
+	public int fanOut(MemberSnapshot members, String line, Summoner initiator, DeliveryListener onComplete) {
+		byte[] encoded = line.getBytes(StandardCharsets.UTF_8);
+		if (members.size() < inlineThreshold) {
+			Tally tally = onComplete == null ? null : new Tally();
+			deliver(members.members(), line, encoded, initiator, tally);
+			if (onComplete != null) {
+				onComplete.delivered(0, 0, tally.skippedMuted, tally.deferredByMode);
+			}
+			return 0;
+		}
+		return schedule(members.partitionBySlave(), line, encoded, initiator, onComplete);
+	}
+
+	/**
+	 * @return the number of partitions handed to workers
+	 */
+	public long getScheduledPartitions() {
+		return scheduledPartitions.sum();
+	}
+
+	/**
+	 * @return the number of partitions deferred to the digests of their members
+	 *         because the worker fell behind
+	 */
+	public long getDeferredPartitions() {
+		return deferredPartitions.sum();
+	}
+
+	/**
+	 * Release the worker of a slave which is no longer in use
+	 *
+	 * @param slave the slave to release
+	 */
+	public void removeSlave(SlaveBot slave) {
+		ThreadPoolExecutor worker = workers.remove(slave);
+		if (worker != null) {
+			worker.shutdown();
+		}
+		behind.remove(slave);
+	}
+
+	/**
+	 * Stop all workers. Queued lines are still delivered.
+	 */
+	public void shutdown() {
+		workers.values().forEach(ThreadPoolExecutor::shutdown);
+		workers.clear();
+	}
+
+	private int schedule(Map<SlaveBot, List<Summoner>> partitions, String line, byte[] encoded,
+			Summoner initiator, DeliveryListener onComplete) {
+		if (partitions.isEmpty() && onComplete != null) {
+			onComplete.delivered(0, 0, 0, 0);
+		}
+		Completion completion = onComplete == null ? null : new Completion(partitions.size(), onComplete);
+		for (Map.Entry<SlaveBot, List<Summoner>> partition : partitions.entrySet()) {
+			SlaveBot bot = partition.getKey();
+			worker(bot).execute(new PartitionDelivery(bot, partition.getValue(), line, encoded, initiator, completion));
+			scheduledPartitions.increment();
+		}
+		return partitions.size();
+	}
+
+	private ThreadPoolExecutor worker(SlaveBot bot) {
+		return workers.computeIfAbsent(bot, b -> new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(queueCapacity), new DaemonThreadFactory(), backPressure));
+	}
+
+	/**
+	 * Hand the members whose lines were deferred to the listener once the worker
+	 * of their slave has no lines left to deliver
+	 */
+	private void checkCaughtUp(SlaveBot bot) {
+		ThreadPoolExecutor worker = workers.get(bot);
+		if (caughtUp == null || !behind.containsKey(bot) || worker == null || !worker.getQueue().isEmpty()) {
+			return;
+		}
+		Set<Summoner> members = behind.remove(bot);
+		if (members != null) {
+			caughtUp.accept(new ArrayList<>(members));
+		}
+	}
+
+	/**
+	 * @param encoded the UTF-8 encoded line shared by the digests of all recipients
+	 *                who are currently unavailable
+	 * @param tally   counts the recipients who muted the initiator or are deferred
+	 *                by their chat mode. May be null
+	 */
+	private static void deliver(Collection<Summoner> recipients, String line, byte[] encoded,
+			Summoner initiator, Tally tally) {
+		for (Summoner s : recipients) {
+			if (s == initiator) {
+				continue;
+			}
+			if (tally != null) {
+				if (s.isMuted(initiator)) {
+					tally.skippedMuted++;
+				} else if (!s.isAvailableForChat()) {
+					tally.deferredByMode++;
+				}
+			}
+			try {
+				s.sendMessage(line, encoded, initiator);
+			} catch (IOException e) {
+				EVENT_LOG.log(LogLevel.WARN, LogEvent.ROOM_DELIVERY_FAILURE, s.summonerId(), 0, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Notified once a line was delivered to every member of a room
+	 */
+	@FunctionalInterface
+	public interface DeliveryListener {
+
+		/**
+		 * @param partitions         the number of partitions the delivery was split
+		 *                           into. 0 if delivered inline
+		 * @param deferredPartitions the number of partitions deferred to the digests
+		 *                           of their members because the worker of the
+		 *                           slave fell behind
+		 * @param skippedMuted       the number of recipients who muted the initiator
+		 * @param deferredByMode     the number of recipients whose chat mode deferred
+		 *                           the line to their digest
+		 */
+		void delivered(int partitions, int deferredPartitions, int skippedMuted, int deferredByMode);
+	}
+
+	/**
+	 * Recipients of a single partition not receiving the line right away. Only
+	 * accessed by the thread delivering the partition
+	 */
+	private static final class Tally {
+
+		private int skippedMuted;
+
+		private int deferredByMode;
+	}
+
+	/**
+	 * Counts down the partitions of a line still being delivered
+	 */
+	private static final class Completion {
+
+		private final int partitions;
+
+		private final AtomicInteger remaining;
+
+		private final AtomicInteger deferred = new AtomicInteger();
+
+		private final AtomicInteger skippedMuted = new AtomicInteger();
+
+		private final AtomicInteger deferredByMode = new AtomicInteger();
+
+		private final DeliveryListener onComplete;
+
+		Completion(int partitions, DeliveryListener onComplete) {
+			this.partitions = partitions;
+			this.remaining = new AtomicInteger(partitions);
+			this.onComplete = onComplete;
+		}
+
+		void partitionDone(boolean wasDeferred, Tally tally) {
+			if (wasDeferred) {
+				deferred.incrementAndGet();
+			}
+			skippedMuted.addAndGet(tally.skippedMuted);
+			deferredByMode.addAndGet(tally.deferredByMode);
+			if (remaining.decrementAndGet() == 0) {
+				onComplete.delivered(partitions, deferred.get(), skippedMuted.get(), deferredByMode.get());
+			}
+		}
+	}
+
+	/**
+	 * The delivery of a line to the members of a single slave
+	 */
+	private final class PartitionDelivery implements Runnable {
+
+		private final SlaveBot bot;
+
+		private final Collection<Summoner> recipients;
+
+		private final String line;
+
+		private final byte[] encoded;
+
+		private final Summoner initiator;
+
+		/** Null if nobody waits for the delivery */
+		private final Completion completion;
+
+		PartitionDelivery(SlaveBot bot, Collection<Summoner> recipients, String line, byte[] encoded,
+				Summoner initiator, Completion completion) {
+			this.bot = bot;
+			this.recipients = recipients;
+			this.line = line;
+			this.encoded = encoded;
+			this.initiator = initiator;
+			this.completion = completion;
+		}
+
+		@Override
+		public void run() {
+			Tally tally = completion == null ? null : new Tally();
+			try {
+				deliver(recipients, line, encoded, initiator, tally);
+			} finally {
+				if (completion != null) {
+					completion.partitionDone(false, tally);
+				}
+			}
+			checkCaughtUp(bot);
+		}
+
+		/**
+		 * The worker of the slave rejected the partition. Keep the line in the
+		 * digests of the recipients
+		 */
+		void deferred() {
+			Tally tally = new Tally();
+			try {
+				for (Summoner s : recipients) {
+					if (s == initiator) {
+						continue;
+					}
+					if (s.isMuted(initiator)) {
+						tally.skippedMuted++;
+					} else {
+						s.deferMessage(encoded, initiator);
+					}
+				}
+				if (caughtUp != null) {
+					behind.computeIfAbsent(bot, b -> ConcurrentHashMap.newKeySet()).addAll(recipients);
+					// The worker may have drained it's queue in the meantime
+					checkCaughtUp(bot);
+				}
+			} finally {
+				if (completion != null) {
+					completion.partitionDone(true, tally);
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,150 @@
+package com.github.kilianB.chatBot.chatRooms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.kilianB.chatBot.SlaveBot;
+import com.github.kilianB.dtos.Summoner;
+
+/**
+ * Immutable, versioned view of the members of a chat room. A new snapshot is
+ * created every time a summoner joins or leaves the room or a member is moved
+ * to another slave. Readers never lock
+ * and data derived from the membership (e.g. the !online listing) is computed
+ * at most once per snapshot.
+ *
+ * @author Kilian
+ *
+ */
+public final class MemberSnapshot {
+
+	/** Snapshot of a room without members */
+	public static final MemberSnapshot EMPTY = new MemberSnapshot(new Summoner[0], 0);
+
+	private final Summoner[] members;
+
+	private final List<Summoner> view;
+
+	private final long version;
+
+	/** Lazily rendered !online response */
+	private volatile String online;
+
+	/** Lazily computed members grouped by slave */
+	private volatile Map<SlaveBot, List<Summoner>> partitions;
+
+	private MemberSnapshot(Summoner[] members, long version) {
+		this.members = members;
+		this.view = Collections.unmodifiableList(Arrays.asList(members));
+		this.version = version;
+	}
+
+	/**
+	 * @param summoner the summoner to add
+	 * @return a new snapshot including the summoner or this snapshot if the
+	 *         summoner already is a member
+	 */
+	MemberSnapshot with(Summoner summoner) {
+		if (indexOf(summoner) >= 0) {
+			return this;
+		}
+		Summoner[] copy = Arrays.copyOf(members, members.length + 1);
+		copy[members.length] = summoner;
+		return new MemberSnapshot(copy, version + 1);
+	}
+
+	/**
+	 * @param summoner the summoner to remove
+	 * @return a new snapshot without the summoner or this snapshot if the
+	 *         summoner isn't a member
+	 */
+	MemberSnapshot without(Summoner summoner) {
+		int index = indexOf(summoner);
+		if (index < 0) {
+			return this;
+		}
+		Summoner[] copy = new Summoner[members.length - 1];
+		System.arraycopy(members, 0, copy, 0, index);
+		System.arraycopy(members, index + 1, copy, index, members.length - index - 1);
+		return new MemberSnapshot(copy, version + 1);
+	}
+
+	/**
+	 * @return a new snapshot of the same members discarding all derived data
+	 */
+	MemberSnapshot refreshed() {
+		return new MemberSnapshot(members, version + 1);
+	}
+
+	/**
+	 * @return the number of members
+	 */
+	public int size() {
+		return members.length;
+	}
+
+	/**
+	 * @return an unmodifiable view of the members
+	 */
+	public List<Summoner> members() {
+		return view;
+	}
+
+	/**
+	 * @return the version of the membership. Incremented on every join, leave or
+	 *         slave change of a member
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * @return the display names of all members. Rendered once per snapshot
+	 */
+	public String renderOnline() {
+		String rendered = online;
+		if (rendered == null) {
+			StringBuilder sb = new StringBuilder("Online (").append(members.length).append("):\n");
+			for (Summoner s : members) {
+				sb.append("\t").append(s.getDisplayName()).append("\n");
+			}
+			rendered = sb.toString();
+			online = rendered;
+		}
+		return rendered;
+	}
+
+	/**
+	 * @return the members grouped by the slave responsible for them. Members not
+	 *         connected to a slave are omitted. Computed once per snapshot
+	 */
+	public Map<SlaveBot, List<Summoner>> partitionBySlave() {
+		Map<SlaveBot, List<Summoner>> p = partitions;
+		if (p == null) {
+			p = new HashMap<>();
+			for (Summoner s : members) {
+				SlaveBot bot = s.getBot();
+				if (bot != null) {
+					p.computeIfAbsent(bot, b -> new ArrayList<>()).add(s);
+				}
+			}
+			p = Collections.unmodifiableMap(p);
+			partitions = p;
+		}
+		return p;
+	}
+
+	private int indexOf(Summoner summoner) {
+		for (int i = 0; i < members.length; i++) {
+			if (members[i].equals(summoner)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.github.kilianB.chatBot.chatRooms;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.github.kilianB.dtos.Summoner;
+
+/**
+ * Copy on write membership of a chat room. Joins and leaves are rare compared
+ * to broadcasts and member counts, therefore every change publishes a new
+ * immutable {@link MemberSnapshot} which readers access without locking.
+ *
+ * <p>
+ * Rosters are owned by the {@link com.github.kilianB.chatBot.Orchestrator
+ * Orchestrator} which updates them whenever it moves a summoner into or out of
+ * a room. Members which are no longer inside the room e.g. because they were
+ * kicked by a room command are removed by {@link #prune(ChatRoom)}.
+ *
+ * @author Kilian
+ *
+ */
+public final class RoomRoster {
+
+	private final AtomicReference<MemberSnapshot> snapshot = new AtomicReference<>(MemberSnapshot.EMPTY);
+
+	/**
+	 * @param summoner the summoner joining the room
+	 */
+	public void add(Summoner summoner) {
+		MemberSnapshot current;
+		do {
+			current = snapshot.get();
+		} while (!snapshot.compareAndSet(current, current.with(summoner)));
+	}
+
+	/**
+	 * @param summoner the summoner leaving the room
+	 */
+	public void remove(Summoner summoner) {
+		MemberSnapshot current;
+		do {
+			current = snapshot.get();
+		} while (!snapshot.compareAndSet(current, current.without(summoner)));
+	}
+
+	/**
+	 * Publish a new snapshot with the same members. Called whenever data cached by
+	 * the snapshot e.g. the slave of a member changed.
+	 */
+	public void refresh() {
+		MemberSnapshot current;
+		do {
+			current = snapshot.get();
+		} while (!snapshot.compareAndSet(current, current.refreshed()));
+	}
+
+	/**
+	 * Remove all members whose active room is no longer this room
+	 *
+	 * @param room the chat room of this roster
+	 * @return the number of removed members
+	 */
+	public int prune(ChatRoom room) {
+		int removed = 0;
+		for (Summoner member : snapshot.get().members()) {
+			if (member.getActiveChatroom() != room) {
+				remove(member);
+				removed++;
+			}
+		}
+		return removed;
+	}
+
+	/**
+	 * @return the current members of the room
+	 */
+	public MemberSnapshot snapshot() {
+		return snapshot.get();
+	}
+
+}
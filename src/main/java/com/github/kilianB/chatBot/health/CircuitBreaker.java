@@ -0,0 +1,217 @@
+package com.github.kilianB.chatBot.health;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks the error rate and latency of the api calls of a single slave.
+ *
+ * <p>
+ * Both values are kept as exponentially weighted moving averages. If either
+ * exceeds it's threshold the circuit opens and calls are rejected until the
+ * cool down passed. Afterwards the circuit is half open and permits exactly
+ * one probe call whose outcome decides whether it closes or opens again. If the
+ * outcome of the probe is not recorded within the cool down another probe is
+ * permitted.
+ *
+ * @author Kilian
+ *
+ */
+public class CircuitBreaker {
+
+	/** Weight of the latest call in the moving averages */
+	private static final double ALPHA = 0.2;
+
+	private final double maxErrorRate;
+
+	private final long maxLatencyNanos;
+
+	private final long coolDownNanos;
+
+	/** Minimum number of calls before the circuit may open */
+	private final int minCalls;
+
+	/** Time source of the cool down in nano seconds */
+	private final LongSupplier clock;
+
+	private volatile CircuitState state = CircuitState.CLOSED;
+
+	private double errorRate;
+
+	private double latencyNanos;
+
+	private long calls;
+
+	/** Clock time the circuit opened */
+	private long openedAt;
+
+	/** Clock time the probe of the half open circuit was permitted */
+	private long probeAt;
+
+	/**
+	 * @param maxErrorRate    the error rate [0-1] opening the circuit
+	 * @param maxLatencyNanos the average latency opening the circuit
+	 * @param coolDownNanos   the time the circuit stays open before probing
+	 * @param minCalls        the minimum number of recorded calls before the
+	 *                        circuit may open
+	 */
+	public CircuitBreaker(double maxErrorRate, long maxLatencyNanos, long coolDownNanos, int minCalls) {
+		this(maxErrorRate, maxLatencyNanos, coolDownNanos, minCalls, System::nanoTime);
+	}
+
+	/**
+	 * @param maxErrorRate    the error rate [0-1] opening the circuit
+	 * @param maxLatencyNanos the average latency opening the circuit
+	 * @param coolDownNanos   the time the circuit stays open before probing
+	 * @param minCalls        the minimum number of recorded calls before the
+	 *                        circuit may open
+	 * @param clock           the time source of the cool down in nano seconds
+	 *                        e.g. the clock of a simulation
+	 */
+	public CircuitBreaker(double maxErrorRate, long maxLatencyNanos, long coolDownNanos, int minCalls,
+			LongSupplier clock) {
+		this.maxErrorRate = maxErrorRate;
+		this.maxLatencyNanos = maxLatencyNanos;
+		this.coolDownNanos = coolDownNanos;
+		this.minCalls = minCalls;
+		this.clock = clock;
+	}
+
+	/**
+	 * Check if calls may be routed to the circuit without acquiring a call. Does
+	 * not change the state and never takes the probe of a half open circuit.
+	 * Lock free unless the circuit is open.
+	 *
+	 * @return true if the circuit is closed or the next
+	 *         {@link #tryAcquireProbe()} would be granted the probe
+	 */
+	public boolean isAvailable() {
+		if (state == CircuitState.CLOSED) {
+			return true;
+		}
+		synchronized (this) {
+			long now = clock.getAsLong();
+			switch (state) {
+			case OPEN:
+				return now - openedAt >= coolDownNanos;
+			case HALF_OPEN:
+				return now - probeAt >= coolDownNanos;
+			default:
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Acquire a call. Lock free unless the circuit is open.
+	 *
+	 * @return true if the circuit is closed or the caller was granted the probe
+	 *         of the half open circuit. A caller granted the probe has to issue
+	 *         the call and record it's outcome
+	 */
+	public boolean tryAcquireProbe() {
+		if (state == CircuitState.CLOSED) {
+			return true;
+		}
+		synchronized (this) {
+			long now = clock.getAsLong();
+			if (state == CircuitState.OPEN && now - openedAt >= coolDownNanos) {
+				state = CircuitState.HALF_OPEN;
+				probeAt = now;
+				return true;
+			}
+			if (state == CircuitState.HALF_OPEN && now - probeAt >= coolDownNanos) {
+				// The probe never reported back
+				probeAt = now;
+				return true;
+			}
+			return state == CircuitState.CLOSED;
+		}
+	}
+
+	/**
+	 * Record a successful call
+	 *
+	 * @param latencyNanos the time the call took
+	 * @return the state after recording the call
+	 */
+	public synchronized CircuitState recordSuccess(long latencyNanos) {
+		record(0, latencyNanos);
+		if (state == CircuitState.HALF_OPEN) {
+			// Start over. Old samples describe the outage
+			state = latencyNanos < maxLatencyNanos ? CircuitState.CLOSED : open();
+			if (state == CircuitState.CLOSED) {
+				reset();
+			}
+		} else if (state == CircuitState.CLOSED && degraded()) {
+			state = open();
+		}
+		return state;
+	}
+
+	/**
+	 * Record a failed or timed out call
+	 *
+	 * @return the state after recording the call
+	 */
+	public synchronized CircuitState recordFailure() {
+		record(1, maxLatencyNanos);
+		if (state == CircuitState.HALF_OPEN || (state == CircuitState.CLOSED && degraded())) {
+			state = open();
+		}
+		return state;
+	}
+
+	/**
+	 * @return the current state. An open circuit whose cool down passed is
+	 *         reported as open until the next call is attempted
+	 */
+	public CircuitState getState() {
+		return state;
+	}
+
+	/**
+	 * @return the moving average of the error rate
+	 */
+	public synchronized double getErrorRate() {
+		return errorRate;
+	}
+
+	/**
+	 * @return the moving average of the latency in nano seconds
+	 */
+	public synchronized long getLatencyNanos() {
+		return (long) latencyNanos;
+	}
+
+	private void record(int error, long latency) {
+		if (calls++ == 0) {
+			errorRate = error;
+			latencyNanos = latency;
+		} else {
+			errorRate = ALPHA * error + (1 - ALPHA) * errorRate;
+			latencyNanos = ALPHA * latency + (1 - ALPHA) * latencyNanos;
+		}
+	}
+
+	private boolean degraded() {
+		return calls >= minCalls && (errorRate > maxErrorRate || latencyNanos > maxLatencyNanos);
+	}
+
+	private CircuitState open() {
+		openedAt = clock.getAsLong();
+		return CircuitState.OPEN;
+	}
+
+	private void reset() {
+		calls = 0;
+		errorRate = 0;
+		latencyNanos = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "CircuitBreaker [state=" + state + ", errorRate=" + String.format("%.2f", errorRate)
+				+ ", latencyMs=" + (long) (latencyNanos / 1_000_000) + "]";
+	}
+
+}
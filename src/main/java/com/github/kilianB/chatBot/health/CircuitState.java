@@ -0,0 +1,16 @@
+package com.github.kilianB.chatBot.health;
+
+/**
+ * State of a {@link CircuitBreaker}
+ *
+ * @author Kilian
+ *
+ */
+public enum CircuitState {
+	/** The slave is healthy. All calls pass */
+	CLOSED,
+	/** The slave is degraded. Calls are rejected without contacting the slave */
+	OPEN,
+	/** The cool down passed. Probes decide if the circuit closes or opens again */
+	HALF_OPEN;
+}
@@ -0,0 +1,28 @@
+package com.github.kilianB.chatBot.health;
+
+import com.github.kilianB.chatBot.SlaveBot;
+
+/**
+ * Notified if the circuit of a slave opens or closes.
+ *
+ * @author Kilian
+ *
+ */
+public interface SlaveHealthListener {
+
+	/**
+	 * The circuit of the slave opened. Calls to the slave are rejected.
+	 *
+	 * @param slave the degraded slave
+	 */
+	void onSlaveDegraded(SlaveBot slave);
+
+	/**
+	 * The circuit of a previously degraded slave closed again.
+	 *
+	 * @param slave the recovered slave
+	 */
+	default void onSlaveRecovered(SlaveBot slave) {
+	}
+
+}
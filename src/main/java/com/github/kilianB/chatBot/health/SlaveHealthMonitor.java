@@ -0,0 +1,276 @@
+package com.github.kilianB.chatBot.health;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import com.github.kilianB.chatBot.SlaveBot;
+import com.github.kilianB.eventLog.EventLog;
+import com.github.kilianB.eventLog.LogCategory;
+import com.github.kilianB.eventLog.LogEvent;
+import com.github.kilianB.eventLog.LogLevel;
+import com.github.kilianB.jfr.SlaveApiCallEvent;
+import com.github.kilianB.util.DaemonThreadFactory;
+
+/**
+ * Monitors the api health of all slaves.
+ *
+ * <p>
+ * Every slave owns a {@link CircuitBreaker} fed by the outcome of regular api
+ * calls as well as periodic probes. Probes are issued with a timeout so a hung
+ * slave is detected even if no traffic is routed to it. Once the circuit of a
+ * slave opens, messages addressed to it's summoners are no longer handed to
+ * the slave and {@link SlaveHealthListener}s are notified to move the
+ * summoners to healthy slaves.
+ *
+ * @author Kilian
+ *
+ */
+public class SlaveHealthMonitor {
+
+	private final EventLog eventLog = EventLog.global();
+
+	private final ConcurrentHashMap<SlaveBot, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+	private final CopyOnWriteArrayList<SlaveHealthListener> listeners = new CopyOnWriteArrayList<>();
+
+	private final Supplier<Collection<SlaveBot>> slaves;
+
+	private final double maxErrorRate;
+
+	private final long maxLatencyNanos;
+
+	private final long coolDownNanos;
+
+	private final long probeTimeoutNanos;
+
+	/** Time source of the breakers and measured latencies in nano seconds */
+	private final LongSupplier clock;
+
+	private final ScheduledExecutorService scheduler = Executors
+			.newSingleThreadScheduledExecutor(new DaemonThreadFactory());
+
+	private final ExecutorService probes = Executors.newCachedThreadPool(new DaemonThreadFactory());
+
+	/**
+	 * @param slaves       supplies the slaves to probe
+	 * @param maxErrorRate the error rate [0-1] marking a slave degraded
+	 * @param maxLatency   the average api latency marking a slave degraded. Also
+	 *                     used as probe timeout
+	 * @param coolDown     the time a degraded slave is not used before it is
+	 *                     probed again
+	 * @param probeEvery   the interval between probes. If 0 slaves are not
+	 *                     probed
+	 * @param unit         the unit of the time arguments
+	 */
+	public SlaveHealthMonitor(Supplier<Collection<SlaveBot>> slaves, double maxErrorRate, long maxLatency,
+			long coolDown, long probeEvery, TimeUnit unit) {
+		this(slaves, maxErrorRate, maxLatency, coolDown, probeEvery, unit, System::nanoTime);
+	}
+
+	/**
+	 * @param slaves       supplies the slaves to probe
+	 * @param maxErrorRate the error rate [0-1] marking a slave degraded
+	 * @param maxLatency   the average api latency marking a slave degraded. Also
+	 *                     used as probe timeout
+	 * @param coolDown     the time a degraded slave is not used before it is
+	 *                     probed again
+	 * @param probeEvery   the interval between probes. If 0 slaves are not
+	 *                     probed
+	 * @param unit         the unit of the time arguments
+	 * @param clock        the time source of the cool down and api latencies in
+	 *                     nano seconds e.g. the clock of a simulation. Probes
+	 *                     are still scheduled and timed out on the system clock
+	 */
+	public SlaveHealthMonitor(Supplier<Collection<SlaveBot>> slaves, double maxErrorRate, long maxLatency,
+			long coolDown, long probeEvery, TimeUnit unit, LongSupplier clock) {
+		this.slaves = slaves;
+		this.clock = clock;
+		this.maxErrorRate = maxErrorRate;
+		this.maxLatencyNanos = unit.toNanos(maxLatency);
+		this.coolDownNanos = unit.toNanos(coolDown);
+		this.probeTimeoutNanos = maxLatencyNanos;
+		if (probeEvery > 0) {
+			scheduler.scheduleWithFixedDelay(this::probeAll, probeEvery, probeEvery, unit);
+		}
+	}
+
+	/**
+	 * Check if messages may be routed to the slave. The state of the circuit is
+	 * not changed, callers issuing an api call acquire it via
+	 * {@link #tryAcquireProbe(SlaveBot)}.
+	 *
+	 * @param slave the slave
+	 * @return false if the circuit of the slave is open and the cool down did not
+	 *         pass yet or the probe of the half open circuit is in flight
+	 */
+	public boolean isAvailable(SlaveBot slave) {
+		CircuitBreaker breaker = breakers.get(slave);
+		return breaker == null || breaker.isAvailable();
+	}
+
+	/**
+	 * Acquire an api call of the slave. A half open slave grants a single caller
+	 * the probe. Callers granted the call have to report it's outcome via
+	 * {@link #recordSuccess(SlaveBot, long)} or {@link #recordFailure(SlaveBot)}.
+	 *
+	 * @param slave the slave
+	 * @return true if the call may be issued
+	 */
+	public boolean tryAcquireProbe(SlaveBot slave) {
+		CircuitBreaker breaker = breakers.get(slave);
+		return breaker == null || breaker.tryAcquireProbe();
+	}
+
+	/**
+	 * @return the current time of the clock of this monitor. Api latencies have
+	 *         to be measured on this clock
+	 */
+	public long nanoTime() {
+		return clock.getAsLong();
+	}
+
+	/**
+	 * Record a successful api call
+	 *
+	 * @param slave        the slave which issued the call
+	 * @param latencyNanos the time the call took
+	 */
+	public void recordSuccess(SlaveBot slave, long latencyNanos) {
+		CircuitBreaker breaker = breaker(slave);
+		CircuitState before;
+		CircuitState after;
+		synchronized (breaker) {
+			before = breaker.getState();
+			after = breaker.recordSuccess(latencyNanos);
+		}
+		transition(slave, before, after);
+	}
+
+	/**
+	 * Record a failed api call
+	 *
+	 * @param slave the slave which issued the call
+	 */
+	public void recordFailure(SlaveBot slave) {
+		CircuitBreaker breaker = breaker(slave);
+		CircuitState before;
+		CircuitState after;
+		synchronized (breaker) {
+			before = breaker.getState();
+			after = breaker.recordFailure();
+		}
+		transition(slave, before, after);
+	}
+
+	/**
+	 * @param slave the slave
+	 * @return the state of the circuit of the slave
+	 */
+	public CircuitState getState(SlaveBot slave) {
+		CircuitBreaker breaker = breakers.get(slave);
+		return breaker == null ? CircuitState.CLOSED : breaker.getState();
+	}
+
+	public void addListener(SlaveHealthListener listener) {
+		listeners.add(listener);
+	}
+
+	public void removeListener(SlaveHealthListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * Forget the health of a slave which is no longer in use
+	 *
+	 * @param slave the slave
+	 */
+	public void removeSlave(SlaveBot slave) {
+		breakers.remove(slave);
+	}
+
+	/**
+	 * Probe every slave once. Each probe is a cheap api call issued with a
+	 * timeout.
+	 */
+	public void probeAll() {
+		try {
+			for (SlaveBot slave : slaves.get()) {
+				CircuitBreaker breaker = breaker(slave);
+				// Open circuits are only probed once the cool down passed
+				if (breaker.tryAcquireProbe()) {
+					probe(slave);
+				}
+			}
+		} catch (RuntimeException e) {
+			eventLog.log(LogLevel.WARN, LogEvent.SLAVE_PROBE_ROUND_FAILURE, 0, 0, e);
+		}
+	}
+
+	/**
+	 * Stop probing
+	 */
+	public void shutdown() {
+		scheduler.shutdown();
+		probes.shutdownNow();
+	}
+
+	private void probe(SlaveBot slave) {
+		SlaveApiCallEvent event = new SlaveApiCallEvent();
+		event.begin();
+		long start = clock.getAsLong();
+		Future<Integer> call = probes.submit(slave::getAvaiableFriendSlotLimit);
+		try {
+			call.get(probeTimeoutNanos, TimeUnit.NANOSECONDS);
+			event.complete(slave, "probe", true);
+			recordSuccess(slave, clock.getAsLong() - start);
+		} catch (TimeoutException e) {
+			call.cancel(true);
+			event.complete(slave, "probe", false);
+			eventLog.log(LogLevel.WARN, LogEvent.SLAVE_PROBE_TIMEOUT, TimeUnit.NANOSECONDS.toMillis(probeTimeoutNanos), 0,
+					slave);
+			recordFailure(slave);
+		} catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			event.complete(slave, "probe", false);
+			if (eventLog.isEnabled(LogCategory.HEALTH, LogLevel.WARN)) {
+				eventLog.log(LogLevel.WARN, LogEvent.SLAVE_PROBE_FAILURE, 0, 0,
+						slave + ": " + (cause instanceof IOException ? cause.getMessage() : String.valueOf(cause)));
+			}
+			recordFailure(slave);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private CircuitBreaker breaker(SlaveBot slave) {
+		return breakers.computeIfAbsent(slave,
+				s -> new CircuitBreaker(maxErrorRate, maxLatencyNanos, coolDownNanos, 5, clock));
+	}
+
+	private void transition(SlaveBot slave, CircuitState before, CircuitState after) {
+		if (after == CircuitState.OPEN && before != CircuitState.OPEN) {
+			if (eventLog.isEnabled(LogCategory.HEALTH, LogLevel.WARN)) {
+				eventLog.log(LogLevel.WARN, LogEvent.SLAVE_DEGRADED, 0, 0, slave + " " + breakers.get(slave));
+			}
+			// A half open circuit failing again does not trigger another failover
+			if (before == CircuitState.CLOSED) {
+				listeners.forEach(l -> l.onSlaveDegraded(slave));
+			}
+		} else if (after == CircuitState.CLOSED && before != CircuitState.CLOSED) {
+			eventLog.log(LogLevel.INFO, LogEvent.SLAVE_RECOVERED, 0, 0, slave);
+			listeners.forEach(l -> l.onSlaveRecovered(slave));
+		}
+	}
+
+}
@@ -0,0 +1,42 @@
+package com.github.kilianB.chatBot.ingress;
+
+/**
+ * Priority class of an incoming message. Lanes are served in declaration
+ * order.
+ *
+ * @author Kilian
+ *
+ */
+public enum IngressLane {
+
+	/** Commands taking action against other summoners e.g. !ban or !mute */
+	MODERATION,
+
+	/** All other commands e.g. !join or !leave */
+	CONTROL,
+
+	/** Ordinary chat lines */
+	CHAT;
+
+	private static final String[] MODERATION_COMMANDS = { "!ban", "!unban", "!mute", "!unmute", "!admin", "!kick" };
+
+	/**
+	 * Classify a message by it's prefix. Chat lines are recognized by their first
+	 * character alone.
+	 *
+	 * @param text the trimmed message
+	 * @return the lane of the message
+	 */
+	public static IngressLane classify(String text) {
+		if (text.isEmpty() || text.charAt(0) != '!') {
+			return CHAT;
+		}
+		for (String command : MODERATION_COMMANDS) {
+			if (text.regionMatches(true, 0, command, 0, command.length())) {
+				return MODERATION;
+			}
+		}
+		return CONTROL;
+	}
+
+}
@@ -0,0 +1,324 @@
+package com.github.kilianB.chatBot.ingress;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.eventLog.EventLog;
+import com.github.kilianB.eventLog.LogEvent;
+import com.github.kilianB.eventLog.LogLevel;
+import com.github.kilianB.util.DaemonThreadFactory;
+
+/**
+ * Orders incoming messages by their {@link IngressLane}.
+ *
+ * <p>
+ * Messages are queued per sender in arrival order. A sender with queued
+ * messages waits in the lane of it's oldest message. A small pool of workers
+ * always serves moderation before control before chat lanes. A ban issued
+ * during a flood therefore overtakes every chat line queued by other senders.
+ * To keep chat flowing while commands arrive continuously, a chat line is
+ * served after at most {@code starvationLimit} consecutive commands.
+ *
+ * <p>
+ * The messages of a single sender are processed one after another in the
+ * order they were send, e.g. a chat line followed by !leave is posted before
+ * the sender leaves the room.
+ *
+ * <p>
+ * The chat lane is bounded. Lines arriving while it is full are dropped.
+ * Command lanes are unbounded since commands are rate limited per sender.
+ *
+ * @author Kilian
+ *
+ */
+public class IngressScheduler {
+
+	private static final IngressLane[] LANES = IngressLane.values();
+
+	/** Default number of workers processing messages */
+	public static final int DEFAULT_WORKERS = 4;
+
+	private final BiConsumer<Summoner, String> handler;
+
+	private final EventLog eventLog = EventLog.global();
+
+	/** Messages of every sender with queued or running messages */
+	private final ConcurrentHashMap<Long, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+	/** Senders waiting to be served per lane of their oldest message */
+	@SuppressWarnings("unchecked")
+	private final ConcurrentLinkedQueue<Mailbox>[] ready = new ConcurrentLinkedQueue[LANES.length];
+
+	/** Number of queued messages per lane */
+	private final AtomicInteger[] queued = new AtomicInteger[LANES.length];
+
+	/** Number of senders waiting in any lane */
+	private final Semaphore pending = new Semaphore(0);
+
+	/** Commands served in a row across all workers */
+	private final AtomicInteger commandsInRow = new AtomicInteger();
+
+	private final int chatCapacity;
+
+	private final int starvationLimit;
+
+	/** Empty if messages are processed on the calling thread */
+	private final Thread[] workers;
+
+	private final LongAdder[] processed = new LongAdder[LANES.length];
+
+	private final LongAdder droppedChat = new LongAdder();
+
+	private volatile boolean running = true;
+
+	/**
+	 * @param handler         processes a message
+	 * @param chatCapacity    the maximum number of queued chat lines
+	 * @param starvationLimit the maximum number of commands served in a row while
+	 *                        chat lines are waiting
+	 */
+	public IngressScheduler(BiConsumer<Summoner, String> handler, int chatCapacity, int starvationLimit) {
+		this(handler, chatCapacity, starvationLimit, DEFAULT_WORKERS);
+	}
+
+	/**
+	 * @param handler         processes a message. Called concurrently for
+	 *                        different senders
+	 * @param chatCapacity    the maximum number of queued chat lines
+	 * @param starvationLimit the maximum number of commands served in a row while
+	 *                        chat lines are waiting
+	 * @param workers         the number of threads processing messages. If 0
+	 *                        messages are processed on the calling thread
+	 */
+	public IngressScheduler(BiConsumer<Summoner, String> handler, int chatCapacity, int starvationLimit,
+			int workers) {
+		this.handler = handler;
+		this.chatCapacity = chatCapacity;
+		this.starvationLimit = starvationLimit;
+		for (int i = 0; i < LANES.length; i++) {
+			ready[i] = new ConcurrentLinkedQueue<>();
+			queued[i] = new AtomicInteger();
+			processed[i] = new LongAdder();
+		}
+		this.workers = new Thread[Math.max(0, workers)];
+		DaemonThreadFactory threadFactory = new DaemonThreadFactory();
+		for (int i = 0; i < this.workers.length; i++) {
+			this.workers[i] = threadFactory.newThread(this::work);
+			this.workers[i].setName("IngressScheduler-" + i);
+			this.workers[i].start();
+		}
+	}
+
+	/**
+	 * Create a scheduler processing every message on the calling thread in
+	 * arrival order. Useful for deterministic simulations and benchmarks.
+	 *
+	 * @param handler processes a message
+	 * @return the scheduler
+	 */
+	public static IngressScheduler inline(BiConsumer<Summoner, String> handler) {
+		return new IngressScheduler(handler, 0, 0, 0);
+	}
+
+	/**
+	 * Queue a message for processing
+	 *
+	 * @param sender the summoner who send the message. Not null
+	 * @param text   the trimmed message
+	 * @return the lane the message was queued in or null if the chat lane was
+	 *         full and the line was dropped
+	 * @throws NullPointerException if the sender is null
+	 */
+	public IngressLane submit(Summoner sender, String text) {
+		Objects.requireNonNull(sender, "Messages require a sender");
+		IngressLane lane = IngressLane.classify(text);
+		Message message = new Message(sender, text, lane);
+		if (workers.length == 0) {
+			process(message);
+			return lane;
+		}
+		AtomicInteger laneCount = queued[lane.ordinal()];
+		int count = laneCount.incrementAndGet();
+		if (lane == IngressLane.CHAT && count > chatCapacity) {
+			laneCount.decrementAndGet();
+			droppedChat.increment();
+			return null;
+		}
+		mailboxes.compute(sender.summonerId(), (id, mailbox) -> {
+			if (mailbox == null) {
+				mailbox = new Mailbox(id);
+			}
+			synchronized (mailbox) {
+				mailbox.messages.add(message);
+			}
+			if (!mailbox.scheduled) {
+				mailbox.scheduled = true;
+				schedule(mailbox, lane);
+			}
+			return mailbox;
+		});
+		return lane;
+	}
+
+	/**
+	 * @param lane the lane
+	 * @return the number of messages waiting in the lane
+	 */
+	public int getQueued(IngressLane lane) {
+		return queued[lane.ordinal()].get();
+	}
+
+	/**
+	 * @param lane the lane
+	 * @return the number of processed messages of the lane
+	 */
+	public long getProcessed(IngressLane lane) {
+		return processed[lane.ordinal()].sum();
+	}
+
+	/**
+	 * @return the number of chat lines dropped because the chat lane was full
+	 */
+	public long getDroppedChat() {
+		return droppedChat.sum();
+	}
+
+	/**
+	 * Stop the workers. Queued messages are discarded.
+	 */
+	public void shutdown() {
+		running = false;
+		for (Thread worker : workers) {
+			worker.interrupt();
+		}
+	}
+
+	private void schedule(Mailbox mailbox, IngressLane lane) {
+		ready[lane.ordinal()].add(mailbox);
+		pending.release();
+	}
+
+	private void work() {
+		while (running) {
+			try {
+				pending.acquire();
+			} catch (InterruptedException e) {
+				return;
+			}
+			try {
+				Mailbox mailbox = nextMailbox();
+				if (mailbox == null) {
+					// The permit was released before the sender became visible in the lane
+					pending.release();
+					Thread.yield();
+					continue;
+				}
+				serve(mailbox);
+			} catch (Throwable t) {
+				eventLog.log(LogLevel.ERROR, LogEvent.INGRESS_WORKER_FAILURE, 0, 0, t);
+			}
+		}
+	}
+
+	private Mailbox nextMailbox() {
+		// Let a chat line pass if commands monopolized the workers
+		boolean chatFirst = commandsInRow.get() >= starvationLimit && !ready[IngressLane.CHAT.ordinal()].isEmpty();
+		for (int attempt = 0; attempt < 2; attempt++) {
+			if (chatFirst == (attempt == 0)) {
+				Mailbox mailbox = ready[IngressLane.CHAT.ordinal()].poll();
+				if (mailbox != null) {
+					commandsInRow.set(0);
+					return mailbox;
+				}
+			} else {
+				for (IngressLane lane : LANES) {
+					Mailbox mailbox;
+					if (lane != IngressLane.CHAT && (mailbox = ready[lane.ordinal()].poll()) != null) {
+						commandsInRow.incrementAndGet();
+						return mailbox;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Process the oldest message of the sender and put the sender back into the
+	 * lane of his next message. A mailbox is served by one worker at a time.
+	 */
+	private void serve(Mailbox mailbox) {
+		// Only the worker serving a scheduled mailbox removes messages
+		Message message;
+		synchronized (mailbox) {
+			message = mailbox.messages.poll();
+		}
+		if (message != null) {
+			queued[message.lane.ordinal()].decrementAndGet();
+			process(message);
+		}
+		mailboxes.compute(mailbox.senderId, (id, current) -> {
+			Message next;
+			synchronized (mailbox) {
+				next = mailbox.messages.peek();
+			}
+			if (next == null) {
+				mailbox.scheduled = false;
+				return null;
+			}
+			schedule(mailbox, next.lane);
+			return mailbox;
+		});
+	}
+
+	private void process(Message message) {
+		try {
+			handler.accept(message.sender, message.text);
+		} catch (Throwable t) {
+			eventLog.log(LogLevel.WARN, LogEvent.MESSAGE_PROCESSING_FAILURE, message.sender.summonerId(), 0, t);
+		}
+		processed[message.lane.ordinal()].increment();
+	}
+
+	/**
+	 * Messages of a single sender. The scheduled flag is modified while holding
+	 * the lock of the sender in the mailbox map.
+	 */
+	private static class Mailbox {
+
+		private final long senderId;
+
+		/** Messages in arrival order. Guarded by this */
+		private final ArrayDeque<Message> messages = new ArrayDeque<>();
+
+		/** True while the mailbox waits in a lane or is served by a worker */
+		private boolean scheduled;
+
+		Mailbox(long senderId) {
+			this.senderId = senderId;
+		}
+	}
+
+	private static class Message {
+
+		private final Summoner sender;
+
+		private final String text;
+
+		private final IngressLane lane;
+
+		Message(Summoner sender, String text, IngressLane lane) {
+			this.sender = sender;
+			this.text = text;
+			this.lane = lane;
+		}
+	}
+
+}
@@ -0,0 +1,214 @@
+package com.github.kilianB.chatBot.lfg;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.github.kilianB.dtos.League;
+import com.github.kilianB.dtos.QueueId;
+import com.github.kilianB.dtos.Server;
+
+/**
+ * Index of all standing {@link LfgQuery queries}.
+ *
+ * <p>
+ * Queries are partitioned by queue and server. Inside a partition every query
+ * is referenced from one bucket per league of it's accepted league range and
+ * it's party size. Matching a post therefore only visits the buckets of the
+ * post's league with a party size fitting into the open slots. The cost of a
+ * match is proportional to the number of matching queries instead of the
+ * number of registered queries.
+ *
+ * @author Kilian
+ *
+ */
+public class LfgIndex {
+
+	/** The maximum number of players in a party */
+	public static final int MAX_PARTY_SIZE = 5;
+
+	private static final int LEAGUES = League.values().length;
+
+	private static final int SERVERS = Server.values().length;
+
+	/** Partitions indexed by queue and server. Created on first use */
+	private final AtomicReferenceArray<Partition> partitions = new AtomicReferenceArray<>(
+			QueueId.values().length * SERVERS);
+
+	/** Active query per summoner */
+	private final ConcurrentHashMap<Long, LfgQuery> byOwner = new ConcurrentHashMap<>();
+
+	/**
+	 * Register a query. A previous query of the same summoner is replaced.
+	 *
+	 * @param query the query to add
+	 * @return the replaced query or null
+	 */
+	public LfgQuery register(LfgQuery query) {
+		LfgQuery[] previous = new LfgQuery[1];
+		byOwner.compute(query.getOwnerId(), (id, old) -> {
+			if (old != null) {
+				partition(old.getQueue(), old.getServer()).remove(old);
+			}
+			partition(query.getQueue(), query.getServer()).add(query);
+			previous[0] = old;
+			return query;
+		});
+		return previous[0];
+	}
+
+	/**
+	 * Remove the query of a summoner
+	 *
+	 * @param ownerId the summoner id
+	 * @return the removed query or null if the summoner had no active query
+	 */
+	public LfgQuery remove(long ownerId) {
+		LfgQuery[] removed = new LfgQuery[1];
+		byOwner.computeIfPresent(ownerId, (id, old) -> {
+			partition(old.getQueue(), old.getServer()).remove(old);
+			removed[0] = old;
+			return null;
+		});
+		return removed[0];
+	}
+
+	/**
+	 * @param ownerId the summoner id
+	 * @return the active query of the summoner or null
+	 */
+	public LfgQuery get(long ownerId) {
+		return byOwner.get(ownerId);
+	}
+
+	/**
+	 * Find the queries filling the open slots of a post. Queries are claimed
+	 * oldest search first as long as their party fits into the slots left.
+	 * Queries of the poster are skipped. Claimed and expired queries are removed
+	 * from the index, all other queries stay active. A query is matched by at
+	 * most one post even if several posts are matched concurrently.
+	 *
+	 * @param post the post to match
+	 * @param now  time in milli seconds since epoch
+	 * @return the matching queries. Their party sizes add up to at most the open
+	 *         slots of the post
+	 */
+	public List<LfgQuery> match(LfgPost post, long now) {
+		List<LfgQuery> matches = new ArrayList<>();
+		Partition partition = partitions.get(index(post.getQueue(), post.getServer()));
+		if (partition == null) {
+			return matches;
+		}
+		List<LfgQuery> candidates = new ArrayList<>();
+		int maxParty = Math.min(post.getOpenSlots(), MAX_PARTY_SIZE);
+		for (int size = 1; size <= maxParty; size++) {
+			for (LfgQuery query : partition.bucket(post.getLeague(), size)) {
+				if (query.isExpired(now)) {
+					claim(partition, query);
+				} else if (query.getOwnerId() != post.getPosterId()) {
+					candidates.add(query);
+				}
+			}
+		}
+		candidates.sort(Comparator.comparingLong(LfgQuery::getSequence));
+		int openSlots = post.getOpenSlots();
+		for (LfgQuery query : candidates) {
+			if (openSlots == 0) {
+				break;
+			}
+			if (query.getPartySize() <= openSlots && claim(partition, query)) {
+				matches.add(query);
+				openSlots -= query.getPartySize();
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Remove a query from the index. Only one of several concurrent posts
+	 * succeeds.
+	 *
+	 * @return true if the query was claimed by the caller
+	 */
+	private boolean claim(Partition partition, LfgQuery query) {
+		if (byOwner.remove(query.getOwnerId(), query)) {
+			partition.remove(query);
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Remove all expired queries
+	 *
+	 * @param now time in milli seconds since epoch
+	 * @return the number of removed queries
+	 */
+	public int purgeExpired(long now) {
+		int purged = 0;
+		for (Iterator<LfgQuery> iter = byOwner.values().iterator(); iter.hasNext();) {
+			LfgQuery query = iter.next();
+			if (query.isExpired(now) && byOwner.remove(query.getOwnerId(), query)) {
+				partition(query.getQueue(), query.getServer()).remove(query);
+				purged++;
+			}
+		}
+		return purged;
+	}
+
+	/**
+	 * @return the number of active queries
+	 */
+	public int size() {
+		return byOwner.size();
+	}
+
+	private Partition partition(QueueId queue, Server server) {
+		int index = index(queue, server);
+		Partition partition = partitions.get(index);
+		if (partition == null) {
+			partitions.compareAndSet(index, null, new Partition());
+			partition = partitions.get(index);
+		}
+		return partition;
+	}
+
+	private static int index(QueueId queue, Server server) {
+		return queue.ordinal() * SERVERS + server.ordinal();
+	}
+
+	/**
+	 * Queries of a single queue and server bucketed by league and party size
+	 */
+	private static class Partition {
+
+		private final List<Set<LfgQuery>> buckets = new ArrayList<>(LEAGUES * MAX_PARTY_SIZE);
+
+		Partition() {
+			for (int i = 0; i < LEAGUES * MAX_PARTY_SIZE; i++) {
+				buckets.add(ConcurrentHashMap.newKeySet());
+			}
+		}
+
+		Set<LfgQuery> bucket(League league, int partySize) {
+			return buckets.get(league.ordinal() * MAX_PARTY_SIZE + partySize - 1);
+		}
+
+		void add(LfgQuery query) {
+			for (int league = query.getHighest().ordinal(); league <= query.getLowest().ordinal(); league++) {
+				buckets.get(league * MAX_PARTY_SIZE + query.getPartySize() - 1).add(query);
+			}
+		}
+
+		void remove(LfgQuery query) {
+			for (int league = query.getHighest().ordinal(); league <= query.getLowest().ordinal(); league++) {
+				buckets.get(league * MAX_PARTY_SIZE + query.getPartySize() - 1).remove(query);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,71 @@
+package com.github.kilianB.chatBot.lfg;
+
+import com.github.kilianB.dtos.League;
+import com.github.kilianB.dtos.QueueId;
+import com.github.kilianB.dtos.Server;
+
+/**
+ * A group or player announcing open slots. Posts are matched against all
+ * standing {@link LfgQuery queries} once and are not stored.
+ *
+ * @author Kilian
+ *
+ */
+public final class LfgPost {
+
+	private final long posterId;
+
+	private final QueueId queue;
+
+	private final Server server;
+
+	private final League league;
+
+	/** Number of players the group is missing */
+	private final int openSlots;
+
+	/**
+	 * @param posterId  the summoner id of the summoner posting
+	 * @param queue     the queue the group wants to play
+	 * @param server    the server the group plays on
+	 * @param league    the league of the group
+	 * @param openSlots the number of players the group is missing
+	 */
+	public LfgPost(long posterId, QueueId queue, Server server, League league, int openSlots) {
+		if (openSlots < 1) {
+			throw new IllegalArgumentException("A post requires at least one open slot");
+		}
+		this.posterId = posterId;
+		this.queue = queue;
+		this.server = server;
+		this.league = league;
+		this.openSlots = openSlots;
+	}
+
+	public long getPosterId() {
+		return posterId;
+	}
+
+	public QueueId getQueue() {
+		return queue;
+	}
+
+	public Server getServer() {
+		return server;
+	}
+
+	public League getLeague() {
+		return league;
+	}
+
+	public int getOpenSlots() {
+		return openSlots;
+	}
+
+	@Override
+	public String toString() {
+		return "LfgPost [posterId=" + posterId + ", queue=" + queue + ", server=" + server + ", league=" + league
+				+ ", openSlots=" + openSlots + "]";
+	}
+
+}
@@ -0,0 +1,129 @@
+package com.github.kilianB.chatBot.lfg;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.kilianB.dtos.League;
+import com.github.kilianB.dtos.QueueId;
+import com.github.kilianB.dtos.Server;
+
+/**
+ * A standing search of a summoner looking for a group. The query stays active
+ * until it expires, is replaced by a new query of the same summoner or is
+ * stopped explicitly.
+ *
+ * @author Kilian
+ *
+ */
+public final class LfgQuery {
+
+	private static final AtomicLong SEQUENCE = new AtomicLong();
+
+	/** Creation order of the query. Older searches have lower values */
+	private final long sequence = SEQUENCE.incrementAndGet();
+
+	private final long ownerId;
+
+	private final QueueId queue;
+
+	private final Server server;
+
+	/** Number of players in the party of the owner looking for a group */
+	private final int partySize;
+
+	/** Highest league accepted */
+	private final League highest;
+
+	/** Lowest league accepted */
+	private final League lowest;
+
+	/** Time in milli seconds since epoch after which the query is discarded */
+	private final long expiresAt;
+
+	/**
+	 * @param ownerId   the summoner id of the summoner searching
+	 * @param queue     the queue the summoner wants to play
+	 * @param server    the server the summoner plays on
+	 * @param partySize the number of players in the party searching. [1 -
+	 *                  {@link LfgIndex#MAX_PARTY_SIZE}]
+	 * @param highest   the highest league accepted
+	 * @param lowest    the lowest league accepted
+	 * @param expiresAt time in milli seconds since epoch the query expires
+	 */
+	public LfgQuery(long ownerId, QueueId queue, Server server, int partySize, League highest, League lowest,
+			long expiresAt) {
+		if (partySize < 1 || partySize > LfgIndex.MAX_PARTY_SIZE) {
+			throw new IllegalArgumentException("Party size has to be between 1 and " + LfgIndex.MAX_PARTY_SIZE);
+		}
+		// League ordinals are ordered from highest to lowest
+		if (highest.ordinal() > lowest.ordinal()) {
+			League temp = highest;
+			highest = lowest;
+			lowest = temp;
+		}
+		this.ownerId = ownerId;
+		this.queue = queue;
+		this.server = server;
+		this.partySize = partySize;
+		this.highest = highest;
+		this.lowest = lowest;
+		this.expiresAt = expiresAt;
+	}
+
+	/**
+	 * @param league the league of a group
+	 * @return true if the league is within the accepted range
+	 */
+	public boolean accepts(League league) {
+		return league.ordinal() >= highest.ordinal() && league.ordinal() <= lowest.ordinal();
+	}
+
+	/**
+	 * @param now time in milli seconds since epoch
+	 * @return true if the query expired
+	 */
+	public boolean isExpired(long now) {
+		return now >= expiresAt;
+	}
+
+	public long getOwnerId() {
+		return ownerId;
+	}
+
+	public QueueId getQueue() {
+		return queue;
+	}
+
+	public Server getServer() {
+		return server;
+	}
+
+	public int getPartySize() {
+		return partySize;
+	}
+
+	public League getHighest() {
+		return highest;
+	}
+
+	public League getLowest() {
+		return lowest;
+	}
+
+	public long getExpiresAt() {
+		return expiresAt;
+	}
+
+	/**
+	 * @return the creation order of the query. Older searches have lower values
+	 */
+	long getSequence() {
+		return sequence;
+	}
+
+	@Override
+	public String toString() {
+		return "LfgQuery [ownerId=" + ownerId + ", queue=" + queue + ", server=" + server + ", partySize="
+				+ partySize + ", leagues=" + highest + "-" + lowest + "]";
+	}
+
+}
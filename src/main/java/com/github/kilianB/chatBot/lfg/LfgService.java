@@ -0,0 +1,266 @@
+package com.github.kilianB.chatBot.lfg;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.logging.Logger;
+
+import com.github.kilianB.dtos.League;
+import com.github.kilianB.dtos.QueueId;
+import com.github.kilianB.dtos.Server;
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.util.DaemonThreadFactory;
+
+/**
+ * Handles the !lfg command family. Summoners register standing searches which
+ * are notified as soon as a matching group posts open slots. A search ends once
+ * it was matched, the summoner has to search again if the group did not work
+ * out.
+ *
+ * <pre>
+ * !lfg search [queue] [partySize] [league](-league) (server)
+ * !lfg post [queue] [openSlots] [league] (server)
+ * !lfg stop
+ * </pre>
+ *
+ * Queues may be given by name (e.g. sr_draft) or id (e.g. 400).
+ *
+ * @author Kilian
+ *
+ */
+public class LfgService {
+
+	private static final Logger LOGGER = Logger.getLogger(LfgService.class.getSimpleName());
+
+	public static final String USAGE = "Usage:\n" + "!lfg search [queue] [partySize] [league](-league) (server)\n"
+			+ "!lfg post [queue] [openSlots] [league] (server)\n" + "!lfg stop";
+
+	/** Maximum number of matches listed in the reply to a post */
+	private static final int LISTED_MATCHES = 10;
+
+	private final LfgIndex index = new LfgIndex();
+
+	private final LongFunction<Summoner> summoners;
+
+	private final Server defaultServer;
+
+	private final long queryTtlMillis;
+
+	private final ScheduledExecutorService scheduler = Executors
+			.newSingleThreadScheduledExecutor(new DaemonThreadFactory());
+
+	/**
+	 * @param summoners     resolves registered summoners by id
+	 * @param defaultServer the server assumed if a command omits it
+	 * @param queryTtl      the time a search stays active
+	 * @param unit          the unit of the queryTtl argument
+	 */
+	public LfgService(LongFunction<Summoner> summoners, Server defaultServer, long queryTtl, TimeUnit unit) {
+		this(summoners, defaultServer, queryTtl, queryTtl, unit);
+	}
+
+	/**
+	 * @param summoners     resolves registered summoners by id
+	 * @param defaultServer the server assumed if a command omits it
+	 * @param queryTtl      the time a search stays active
+	 * @param purgeEvery    the interval expired searches are removed at. If 0 or
+	 *                      negative expired searches are only removed once a
+	 *                      post encounters them
+	 * @param unit          the unit of the time arguments
+	 */
+	public LfgService(LongFunction<Summoner> summoners, Server defaultServer, long queryTtl, long purgeEvery,
+			TimeUnit unit) {
+		this.summoners = summoners;
+		this.defaultServer = defaultServer;
+		this.queryTtlMillis = unit.toMillis(queryTtl);
+		if (purgeEvery > 0) {
+			scheduler.scheduleWithFixedDelay(this::purgeSafe, purgeEvery, purgeEvery, unit);
+		}
+	}
+
+	/**
+	 * Execute a !lfg command
+	 *
+	 * @param arguments the text following the command
+	 * @param initiator the summoner who issued the command
+	 * @throws IOException if an error occurs interacting with the lol api
+	 */
+	public void handleCommand(String arguments, Summoner initiator) throws IOException {
+		String[] tokens = arguments.trim().split("\\s+");
+		try {
+			switch (tokens[0].toLowerCase(Locale.ROOT)) {
+			case "search":
+				search(tokens, initiator);
+				break;
+			case "post":
+				post(tokens, initiator);
+				break;
+			case "stop":
+				if (index.remove(initiator.summonerId()) != null) {
+					initiator.sendMessageAdmin("Search stopped");
+				} else {
+					initiator.sendMessageAdmin("You have no active search");
+				}
+				break;
+			default:
+				initiator.sendMessageAdmin(USAGE);
+			}
+		} catch (IllegalArgumentException e) {
+			initiator.sendMessageAdmin(e.getMessage() + "\n" + USAGE);
+		}
+	}
+
+	private void search(String[] tokens, Summoner initiator) throws IOException {
+		if (tokens.length < 4) {
+			throw new IllegalArgumentException("Missing arguments.");
+		}
+		QueueId queue = parseQueue(tokens[1]);
+		int partySize = parseCount(tokens[2]);
+		String[] range = tokens[3].split("-", 2);
+		League highest = parseLeague(range[0]);
+		League lowest = range.length > 1 ? parseLeague(range[1]) : highest;
+		Server server = tokens.length > 4 ? parseServer(tokens[4]) : defaultServer;
+
+		LfgQuery query = new LfgQuery(initiator.summonerId(), queue, server, partySize, highest, lowest,
+				System.currentTimeMillis() + queryTtlMillis);
+		LfgQuery previous = index.register(query);
+		initiator.sendMessageAdmin((previous != null ? "Search replaced. " : "")
+				+ "You will be notified once a group matching your search posts open slots. Stop with !lfg stop");
+	}
+
+	private void post(String[] tokens, Summoner initiator) throws IOException {
+		if (tokens.length < 4) {
+			throw new IllegalArgumentException("Missing arguments.");
+		}
+		LfgPost post = new LfgPost(initiator.summonerId(), parseQueue(tokens[1]),
+				tokens.length > 4 ? parseServer(tokens[4]) : defaultServer, parseLeague(tokens[3]),
+				parseCount(tokens[2]));
+
+		List<LfgQuery> matches = match(post, initiator);
+		if (matches.isEmpty()) {
+			initiator.sendMessageAdmin("No one is searching for this group right now");
+			return;
+		}
+		StringBuilder reply = new StringBuilder().append(matches.size()).append(" summoner(s) were notified:\n");
+		for (int i = 0; i < Math.min(LISTED_MATCHES, matches.size()); i++) {
+			Summoner owner = summoners.apply(matches.get(i).getOwnerId());
+			if (owner != null) {
+				reply.append("\t").append(owner.getDisplayName()).append(" (party of ")
+						.append(matches.get(i).getPartySize()).append(")\n");
+			}
+		}
+		initiator.sendMessageAdmin(reply.toString());
+	}
+
+	/**
+	 * Match a post against all standing searches and notify the summoners whose
+	 * search is satisfied. Matched searches are stopped.
+	 *
+	 * @param post   the post
+	 * @param poster the summoner who posted
+	 * @return the matching searches
+	 */
+	public List<LfgQuery> match(LfgPost post, Summoner poster) {
+		List<LfgQuery> matches = index.match(post, System.currentTimeMillis());
+		String notification = poster.getDisplayName() + " is looking for " + post.getOpenSlots() + " player(s) for "
+				+ post.getQueue() + " on " + post.getServer() + " (" + post.getLeague()
+				+ "). Your search was stopped, search again with !lfg search";
+		for (LfgQuery query : matches) {
+			Summoner owner = summoners.apply(query.getOwnerId());
+			if (owner == null) {
+				continue;
+			}
+			try {
+				owner.sendMessageAdmin(notification);
+			} catch (IOException e) {
+				LOGGER.warning("Failed to notify " + owner.summonerId() + " about lfg post: " + e.getMessage());
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Stop the search of a summoner. e.g. if the summoner disconnects
+	 *
+	 * @param summonerId the summoner id
+	 */
+	public void stop(long summonerId) {
+		index.remove(summonerId);
+	}
+
+	/**
+	 * @return the index holding all active searches
+	 */
+	public LfgIndex getIndex() {
+		return index;
+	}
+
+	/**
+	 * Stop expiring searches
+	 */
+	public void shutdown() {
+		scheduler.shutdown();
+	}
+
+	private void purgeSafe() {
+		try {
+			int purged = index.purgeExpired(System.currentTimeMillis());
+			if (purged > 0) {
+				LOGGER.info("Purged " + purged + " expired lfg searches. Active: " + index.size());
+			}
+		} catch (RuntimeException e) {
+			LOGGER.warning("Lfg purge failed: " + e);
+		}
+	}
+
+	static QueueId parseQueue(String token) {
+		try {
+			QueueId queue = QueueId.fromId(Integer.parseInt(token));
+			if (queue != null) {
+				return queue;
+			}
+		} catch (NumberFormatException e) {
+			for (QueueId queue : QueueId.values()) {
+				if (queue.name().equalsIgnoreCase(token)) {
+					return queue;
+				}
+			}
+		}
+		throw new IllegalArgumentException("Unknown queue: " + token);
+	}
+
+	static League parseLeague(String token) {
+		for (League league : League.values()) {
+			if (league.name().equalsIgnoreCase(token)) {
+				return league;
+			}
+		}
+		throw new IllegalArgumentException("Unknown league: " + token);
+	}
+
+	static Server parseServer(String token) {
+		for (Server server : Server.values()) {
+			if (server.name().equalsIgnoreCase(token)) {
+				return server;
+			}
+		}
+		throw new IllegalArgumentException("Unknown server: " + token);
+	}
+
+	private static int parseCount(String token) {
+		try {
+			int count = Integer.parseInt(token);
+			if (count >= 1 && count <= LfgIndex.MAX_PARTY_SIZE) {
+				return count;
+			}
+		} catch (NumberFormatException e) {
+			// Fall through
+		}
+		throw new IllegalArgumentException("Expected a number between 1 and " + LfgIndex.MAX_PARTY_SIZE + ": " + token);
+	}
+
+}
@@ -0,0 +1,211 @@
+package com.github.kilianB.chatBot.messages;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.function.LongFunction;
+import java.util.function.LongPredicate;
+
+/**
+ * Bounded store of chat lines a summoner missed while his availability did not
+ * match his chat mode. Lines are kept as UTF-8 encoded bytes together with the
+ * id of the sender in a ring buffer. If either the line or byte budget is
+ * exceeded the oldest lines are discarded.
+ *
+ * <p>
+ * Once the summoner becomes available again the backlog is rendered into a
+ * single digest message instead of replaying every line on it's own.
+ *
+ * @author Kilian
+ *
+ */
+public class DeferredDigest {
+
+	/** Default maximum number of lines kept per summoner */
+	public static final int DEFAULT_MAX_LINES = 50;
+
+	/** Default maximum number of UTF-8 bytes kept per summoner */
+	public static final int DEFAULT_MAX_BYTES = 4096;
+
+	private final int maxBytes;
+
+	private final long[] senders;
+
+	private final byte[][] lines;
+
+	/** Index of the oldest line */
+	private int head;
+
+	private int count;
+
+	private int bytes;
+
+	/** Lines discarded to make room for newer lines since the last drain */
+	private int discarded;
+
+	/** Lines exceeding the byte budget on their own since the last drain */
+	private int oversized;
+
+	public DeferredDigest() {
+		this(DEFAULT_MAX_LINES, DEFAULT_MAX_BYTES);
+	}
+
+	/**
+	 * @param maxLines the maximum number of lines kept
+	 * @param maxBytes the maximum number of UTF-8 bytes kept
+	 */
+	public DeferredDigest(int maxLines, int maxBytes) {
+		if (maxLines <= 0 || maxBytes <= 0) {
+			throw new IllegalArgumentException("Digest bounds have to be positive");
+		}
+		this.maxBytes = maxBytes;
+		this.senders = new long[maxLines];
+		this.lines = new byte[maxLines][];
+	}
+
+	/**
+	 * Store a missed line. If the digest is full the oldest lines are discarded.
+	 * Lines exceeding the byte budget on their own are discarded immediately.
+	 *
+	 * @param senderId the summoner id of the sender
+	 * @param line     the chat line
+	 */
+	public void add(long senderId, String line) {
+		add(senderId, line.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Store a missed line which was already encoded. A line broadcast to many
+	 * summoners is encoded once and the array is shared by all digests, it must
+	 * not be modified afterwards.
+	 *
+	 * @param senderId the summoner id of the sender
+	 * @param encoded  the UTF-8 encoded chat line
+	 */
+	public synchronized void add(long senderId, byte[] encoded) {
+		if (encoded.length > maxBytes) {
+			oversized++;
+			return;
+		}
+		while (count == lines.length || bytes + encoded.length > maxBytes) {
+			dropOldest();
+		}
+		int index = (head + count) % lines.length;
+		senders[index] = senderId;
+		lines[index] = encoded;
+		bytes += encoded.length;
+		count++;
+	}
+
+	/**
+	 * @return true if no line is pending
+	 */
+	public synchronized boolean isEmpty() {
+		return count == 0;
+	}
+
+	/**
+	 * @return the number of pending lines
+	 */
+	public synchronized int size() {
+		return count;
+	}
+
+	/**
+	 * @return the number of bytes held by pending lines
+	 */
+	public synchronized int getByteSize() {
+		return bytes;
+	}
+
+	/**
+	 * @return the number of lines discarded to make room for newer lines since the
+	 *         last drain
+	 */
+	public synchronized int getDiscarded() {
+		return discarded;
+	}
+
+	/**
+	 * @return the number of lines discarded since the last drain because they
+	 *         exceeded the byte budget on their own
+	 */
+	public synchronized int getOversized() {
+		return oversized;
+	}
+
+	/**
+	 * Render all pending lines into a single message and clear the digest.
+	 *
+	 * @param names   resolves the display name of a sender
+	 * @param exclude senders whose lines are skipped. e.g. summoners muted in the
+	 *                meantime
+	 * @return the digest message or null if no line is left to deliver
+	 */
+	public synchronized String drain(LongFunction<String> names, LongPredicate exclude) {
+		StringBuilder body = new StringBuilder();
+		Set<Long> from = new LinkedHashSet<>();
+		int delivered = 0;
+		for (int i = 0; i < count; i++) {
+			int index = (head + i) % lines.length;
+			if (exclude.test(senders[index])) {
+				continue;
+			}
+			from.add(senders[index]);
+			body.append(new String(lines[index], StandardCharsets.UTF_8)).append("\n");
+			delivered++;
+		}
+		int missed = discarded;
+		int tooLong = oversized;
+		clear();
+
+		if (delivered == 0) {
+			return null;
+		}
+
+		StringBuilder digest = new StringBuilder("While you were away ").append(delivered)
+				.append(delivered == 1 ? " message was" : " messages were").append(" posted by ");
+		boolean first = true;
+		for (long sender : from) {
+			if (!first) {
+				digest.append(", ");
+			}
+			digest.append(names.apply(sender));
+			first = false;
+		}
+		if (missed > 0 || tooLong > 0) {
+			digest.append(" (");
+			if (missed > 0) {
+				digest.append(missed).append(" older omitted");
+			}
+			if (tooLong > 0) {
+				digest.append(missed > 0 ? ", " : "").append(tooLong).append(" too long omitted");
+			}
+			digest.append(")");
+		}
+		return digest.append(":\n").append(body).toString();
+	}
+
+	/**
+	 * Discard all pending lines
+	 */
+	public synchronized void clear() {
+		for (int i = 0; i < count; i++) {
+			lines[(head + i) % lines.length] = null;
+		}
+		head = 0;
+		count = 0;
+		bytes = 0;
+		discarded = 0;
+		oversized = 0;
+	}
+
+	private void dropOldest() {
+		bytes -= lines[head].length;
+		lines[head] = null;
+		head = (head + 1) % lines.length;
+		count--;
+		discarded++;
+	}
+
+}
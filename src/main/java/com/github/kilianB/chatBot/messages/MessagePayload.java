@@ -0,0 +1,54 @@
+package com.github.kilianB.chatBot.messages;
+
+import com.github.kilianB.dtos.Summoner;
+
+/**
+ * An immutable, fully rendered message. The final text including any prefix is
+ * built exactly once allowing the same payload to be handed to an arbitrary
+ * number of recipients without further string concatenation.
+ *
+ * @author Kilian
+ *
+ */
+public final class MessagePayload {
+
+	/** The text as handed to the league api */
+	private final String text;
+
+	private MessagePayload(String text) {
+		this.text = text;
+	}
+
+	/**
+	 * Create a payload of a message send by the bot itself.
+	 *
+	 * @param message the message body
+	 * @return the payload prefixed with the admin prefix
+	 */
+	public static MessagePayload admin(String message) {
+		return new MessagePayload(Summoner.ADMIN_MESSAGE_PREFIX + message);
+	}
+
+	/**
+	 * Create a payload of a message without any prefix.
+	 *
+	 * @param message the message body
+	 * @return the payload
+	 */
+	public static MessagePayload plain(String message) {
+		return new MessagePayload(message);
+	}
+
+	/**
+	 * @return the rendered text
+	 */
+	public String getText() {
+		return text;
+	}
+
+	@Override
+	public String toString() {
+		return text;
+	}
+
+}
@@ -0,0 +1,117 @@
+package com.github.kilianB.chatBot.messages;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import com.github.kilianB.StringUtil;
+import com.github.kilianB.chatBot.chatRooms.ChatRoom;
+import com.github.kilianB.util.ExpiringLruCache;
+
+/**
+ * Pre rendered system messages. Static texts are rendered once, room specific
+ * texts are rendered on first use and cached until the room is removed.
+ *
+ * @author Kilian
+ *
+ */
+public class MessageTemplates {
+
+	/*
+	 * Static responses
+	 */
+
+	public static final MessagePayload NOT_IN_ROOM = MessagePayload.admin(
+			"Can not perform request. You need to be part of a chatroom to issue specific commands. Did you misstype your request?");
+
+	public static final MessagePayload BLOCKED_CONTENT = MessagePayload
+			.admin("Failed to send message. Part of the message are part of the blocklist.");
+
+	public static final MessagePayload NO_UNMUTE_NAME = MessagePayload
+			.admin("No player name supplied. Could not unmute anyone");
+
+	public static final MessagePayload MUTE_SELF = MessagePayload.admin("Yikes: You can't mute yourself silly!");
+
+	public static final MessagePayload EMPTY_ROOM_NAME = MessagePayload.admin("Failed. Room name may not be empty");
+
+	/** Width of the banner displayed when joining a room */
+	private static final int BANNER_WIDTH = 80;
+
+	private final MessagePayload welcome;
+
+	private final MessagePayload help;
+
+	/** The help text without admin prefix. Prepended to room help messages */
+	private final String helpText;
+
+	/** Room banners mapped to the lower case room name */
+	private final ExpiringLruCache<String, MessagePayload> banners = new ExpiringLruCache<>(1024, 1,
+			TimeUnit.HOURS);
+
+	/** Help texts mapped to the lower case room name */
+	private final ConcurrentHashMap<String, MessagePayload> roomHelp = new ConcurrentHashMap<>();
+
+	/**
+	 * @param welcomeText the message send to summoners once they connect
+	 * @param helpText    the global help message
+	 */
+	public MessageTemplates(String welcomeText, String helpText) {
+		this.welcome = MessagePayload.admin(welcomeText);
+		this.help = MessagePayload.admin(helpText);
+		this.helpText = helpText;
+	}
+
+	/**
+	 * @return the message send to summoners once they connect
+	 */
+	public MessagePayload welcome() {
+		return welcome;
+	}
+
+	/**
+	 * Get the help message. If a room is supplied the room specific help is
+	 * appended.
+	 *
+	 * @param room the room the summoner is currently in. May be null
+	 * @return the help message
+	 */
+	public MessagePayload help(ChatRoom room) {
+		if (room == null) {
+			return help;
+		}
+		return roomHelp.computeIfAbsent(key(room.getName()),
+				k -> MessagePayload.admin(helpText + room.getHelpMessage()));
+	}
+
+	/**
+	 * Get the banner displayed once a summoner enters a room
+	 *
+	 * @param room the room
+	 * @return the banner
+	 */
+	public MessagePayload banner(ChatRoom room) {
+		String key = key(room.getName());
+		MessagePayload banner = banners.get(key);
+		if (banner == null) {
+			banner = MessagePayload.admin(StringUtil.centerText(room.getName(), "-", BANNER_WIDTH));
+			banners.put(key, banner);
+		}
+		return banner;
+	}
+
+	/**
+	 * Drop all cached texts of a room. Called once a room is removed.
+	 *
+	 * @param roomName the name of the room
+	 */
+	public void invalidateRoom(String roomName) {
+		String key = key(roomName);
+		roomHelp.remove(key);
+		banners.remove(key);
+	}
+
+	private static String key(String roomName) {
+		return roomName.toLowerCase(Locale.ROOT);
+	}
+
+}
@@ -0,0 +1,203 @@
+package com.github.kilianB.chatBot.moderation;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+
+/**
+ * Immutable multi pattern matcher finding any of a set of terms in a text in a
+ * single pass.
+ *
+ * <p>
+ * The Aho-Corasick automaton is compiled into flat arrays. Transitions of a
+ * state are stored as a sorted range of labels and found by binary search.
+ * Terms and text are compared case insensitive. The time to check a text is
+ * linear in it's length regardless of the number of terms.
+ *
+ * @author Kilian
+ *
+ */
+public final class AhoCorasickMatcher {
+
+	/** Index of the first transition of a state. Transitions of state s are [first[s], first[s+1]) */
+	private final int[] first;
+
+	/** Label of every transition. Sorted within the range of a state */
+	private final char[] labels;
+
+	/** Target state of every transition */
+	private final int[] targets;
+
+	/** State to continue with if no transition matches */
+	private final int[] fail;
+
+	/** True if a term ends in the state or one of it's fail states */
+	private final boolean[] output;
+
+	private final int termCount;
+
+	/**
+	 * Compile the automaton. Empty terms are ignored.
+	 *
+	 * @param terms the terms to find
+	 */
+	public AhoCorasickMatcher(Collection<String> terms) {
+		// Sorted input adds the children of every node in ascending order
+		TreeSet<String> sorted = new TreeSet<>();
+		for (String term : terms) {
+			String normalized = term.trim().toLowerCase(Locale.ROOT);
+			if (!normalized.isEmpty()) {
+				sorted.add(normalized);
+			}
+		}
+		termCount = sorted.size();
+
+		Node root = new Node();
+		int nodeCount = 1;
+		for (String term : sorted) {
+			Node node = root;
+			for (int i = 0; i < term.length(); i++) {
+				char c = term.charAt(i);
+				Node child = node.child(c);
+				if (child == null) {
+					child = node.add(c);
+					nodeCount++;
+				}
+				node = child;
+			}
+			node.output = true;
+		}
+
+		// Breadth first: assign ids and compute fail links
+		List<Node> order = new ArrayList<>(nodeCount);
+		ArrayDeque<Node> queue = new ArrayDeque<>();
+		root.fail = root;
+		queue.add(root);
+		while (!queue.isEmpty()) {
+			Node node = queue.poll();
+			node.id = order.size();
+			order.add(node);
+			for (int i = 0; i < node.size; i++) {
+				Node child = node.children[i];
+				char c = node.keys[i];
+				Node f = node.fail;
+				while (f != root && f.child(c) == null) {
+					f = f.fail;
+				}
+				Node candidate = f.child(c);
+				child.fail = node == root || candidate == null ? root : candidate;
+				child.output |= child.fail.output;
+				queue.add(child);
+			}
+		}
+
+		first = new int[nodeCount + 1];
+		labels = new char[nodeCount - 1];
+		targets = new int[nodeCount - 1];
+		fail = new int[nodeCount];
+		output = new boolean[nodeCount];
+		int edge = 0;
+		for (Node node : order) {
+			first[node.id] = edge;
+			fail[node.id] = node.fail.id;
+			output[node.id] = node.output;
+			for (int i = 0; i < node.size; i++) {
+				labels[edge] = node.keys[i];
+				targets[edge] = node.children[i].id;
+				edge++;
+			}
+		}
+		first[nodeCount] = edge;
+	}
+
+	/**
+	 * Check if the text contains any of the terms
+	 *
+	 * @param text the text to search
+	 * @return true if at least one term was found
+	 */
+	public boolean matches(CharSequence text) {
+		if (termCount == 0) {
+			return false;
+		}
+		int state = 0;
+		for (int i = 0; i < text.length(); i++) {
+			char c = Character.toLowerCase(text.charAt(i));
+			while (true) {
+				int next = next(state, c);
+				if (next >= 0) {
+					state = next;
+					break;
+				}
+				if (state == 0) {
+					break;
+				}
+				state = fail[state];
+			}
+			if (output[state]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return the number of distinct terms
+	 */
+	public int getTermCount() {
+		return termCount;
+	}
+
+	/**
+	 * @return the number of states of the automaton
+	 */
+	public int getStateCount() {
+		return fail.length;
+	}
+
+	private int next(int state, char c) {
+		int index = Arrays.binarySearch(labels, first[state], first[state + 1], c);
+		return index >= 0 ? targets[index] : -1;
+	}
+
+	/**
+	 * Trie node only used while compiling
+	 */
+	private static final class Node {
+
+		private char[] keys = new char[0];
+
+		private Node[] children = new Node[0];
+
+		private int size;
+
+		private Node fail;
+
+		private boolean output;
+
+		private int id;
+
+		Node child(char c) {
+			// Children are appended in ascending order
+			int index = Arrays.binarySearch(keys, 0, size, c);
+			return index >= 0 ? children[index] : null;
+		}
+
+		Node add(char c) {
+			if (size == keys.length) {
+				int capacity = Math.max(2, size * 2);
+				keys = Arrays.copyOf(keys, capacity);
+				children = Arrays.copyOf(children, capacity);
+			}
+			Node child = new Node();
+			keys[size] = c;
+			children[size++] = child;
+			return child;
+		}
+	}
+
+}
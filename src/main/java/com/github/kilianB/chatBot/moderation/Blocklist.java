@@ -0,0 +1,374 @@
+package com.github.kilianB.chatBot.moderation;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_DELETE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+import static java.nio.file.StandardWatchEventKinds.OVERFLOW;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import com.github.kilianB.util.DaemonThreadFactory;
+
+/**
+ * Terms and hosts which may not be posted in chat e.g. elo boosting services or
+ * account selling advertisement.
+ *
+ * <p>
+ * Messages and terms are folded by a {@link TextNormalizer} to defeat
+ * homoglyphs, invisible characters and spacing. Terms of several words are
+ * also compiled with their words joined. The folded terms are compiled
+ * into an {@link AhoCorasickMatcher}, together with the folded hosts to catch
+ * obfuscated links. Hosts are additionally kept in a hash set and matched
+ * against every domain like token of the raw message including it's parent
+ * domains. Both are bundled in an immutable snapshot. A new
+ * snapshot is compiled on a background thread and published by a single
+ * atomic swap. Messages already being checked finish with the old snapshot,
+ * message handling never waits for a rebuild.
+ *
+ * <p>
+ * Entries can be loaded from a file or a directory which is watched for
+ * changes. Files ending with {@value #HOST_FILE_SUFFIX} contain hosts, all
+ * other files terms. One entry per line, lines starting with {@code #} are
+ * ignored. Changes are debounced so an editor saving several times results in
+ * a single rebuild. If a rebuild fails the previous snapshot stays active.
+ *
+ * @author Kilian
+ *
+ */
+public class Blocklist {
+
+	private static final Logger LOGGER = Logger.getLogger(Blocklist.class.getSimpleName());
+
+	static final String HOST_FILE_SUFFIX = ".hosts";
+
+	private static final String COMMENT = "#";
+
+	/** Time to wait for further changes of the watched files before rebuilding */
+	private static final long DEBOUNCE_MILLIS = 500;
+
+	/** Normalizers reuse their buffer. Every message handling thread owns one */
+	private static final ThreadLocal<TextNormalizer> NORMALIZER = ThreadLocal.withInitial(TextNormalizer::new);
+
+	private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(
+			new Snapshot(Collections.emptyList(), Collections.emptySet(), 0));
+
+	private final AtomicBoolean reloadScheduled = new AtomicBoolean();
+
+	private final ScheduledExecutorService rebuilder = Executors
+			.newSingleThreadScheduledExecutor(new DaemonThreadFactory());
+
+	/** The watched file or directory. Null if entries are set directly */
+	private volatile Path source;
+
+	private WatchService watchService;
+
+	/**
+	 * Check if a message contains a blocked term or links to a blocked host.
+	 * Called for every chat line.
+	 *
+	 * @param text the message
+	 * @return true if blocked content was found
+	 */
+	public boolean contains(String text) {
+		return snapshot.get().contains(text);
+	}
+
+	/**
+	 * Replace the entries. The new entries are compiled in the background.
+	 *
+	 * @param terms the blocked terms
+	 * @param hosts the blocked hosts. Subdomains of the hosts are blocked as well
+	 * @return a future completing once the new entries are active
+	 */
+	public CompletableFuture<Void> update(Collection<String> terms, Collection<String> hosts) {
+		List<String> termCopy = List.copyOf(terms);
+		List<String> hostCopy = List.copyOf(hosts);
+		return CompletableFuture.runAsync(() -> publish(termCopy, hostCopy), rebuilder);
+	}
+
+	/**
+	 * Load the entries from a file or directory and reload them whenever it
+	 * changes. Replaces a previously watched source.
+	 *
+	 * @param source a blocklist file or a directory containing blocklist files
+	 * @return a future completing once the entries of the source are active.
+	 *         Completes exceptionally if the source is missing or can not be read
+	 * @throws IOException if the source can not be watched
+	 */
+	public synchronized CompletableFuture<Void> watch(Path source) throws IOException {
+		Path directory = Files.isDirectory(source) ? source : source.toAbsolutePath().getParent();
+		WatchService service = directory.getFileSystem().newWatchService();
+		directory.register(service, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE);
+		stopWatching();
+		this.source = source;
+		this.watchService = service;
+
+		Thread watcher = new DaemonThreadFactory().newThread(() -> awaitChanges(service, source));
+		watcher.setName("BlocklistWatcher");
+		watcher.start();
+		return CompletableFuture.runAsync(this::reload, rebuilder);
+	}
+
+	/**
+	 * @return the number of distinct folded terms and hosts in the active
+	 *         snapshot
+	 */
+	public int getTermCount() {
+		return snapshot.get().terms.getTermCount();
+	}
+
+	/**
+	 * @return the number of hosts in the active snapshot
+	 */
+	public int getHostCount() {
+		return snapshot.get().hosts.size();
+	}
+
+	/**
+	 * @return the number of snapshots published so far
+	 */
+	public long getVersion() {
+		return snapshot.get().version;
+	}
+
+	/**
+	 * Stop watching and rebuilding. The active snapshot stays in use.
+	 */
+	public synchronized void shutdown() {
+		stopWatching();
+		rebuilder.shutdown();
+	}
+
+	private void stopWatching() {
+		if (watchService != null) {
+			try {
+				watchService.close();
+			} catch (IOException e) {
+				LOGGER.warning("Failed to close blocklist watcher: " + e);
+			}
+			watchService = null;
+		}
+	}
+
+	private void awaitChanges(WatchService service, Path watched) {
+		Path fileName = Files.isDirectory(watched) ? null : watched.getFileName();
+		try {
+			while (true) {
+				WatchKey key = service.take();
+				boolean relevant = false;
+				for (WatchEvent<?> event : key.pollEvents()) {
+					// A watched file only reacts to changes of itself, not it's siblings
+					relevant |= event.kind() == OVERFLOW || fileName == null || fileName.equals(event.context());
+				}
+				key.reset();
+				if (relevant) {
+					scheduleReload();
+				}
+			}
+		} catch (ClosedWatchServiceException | InterruptedException e) {
+			// Replaced or shut down
+		}
+	}
+
+	private void scheduleReload() {
+		if (reloadScheduled.compareAndSet(false, true)) {
+			rebuilder.schedule(this::reloadSafe, DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	private void reloadSafe() {
+		try {
+			reload();
+		} catch (RuntimeException e) {
+			LOGGER.warning("Failed to reload blocklist. Keeping the previous entries: " + e);
+		}
+	}
+
+	/**
+	 * Read the watched source and publish a new snapshot
+	 *
+	 * @throws UncheckedIOException if the source is missing or can not be read.
+	 *                              The previous snapshot stays active
+	 */
+	private void reload() {
+		// Changes arriving from now on schedule another reload
+		reloadScheduled.set(false);
+		Path current = source;
+		if (current == null) {
+			return;
+		}
+		List<String> terms = new ArrayList<>();
+		List<String> hosts = new ArrayList<>();
+		try {
+			if (Files.isDirectory(current)) {
+				try (Stream<Path> files = Files.list(current)) {
+					for (Path file : (Iterable<Path>) files.sorted()::iterator) {
+						String name = file.getFileName().toString();
+						// Skip hidden and temporary files of editors
+						if (Files.isRegularFile(file) && !name.startsWith(".")) {
+							read(file, name.endsWith(HOST_FILE_SUFFIX) ? hosts : terms);
+						}
+					}
+				}
+			} else if (Files.isRegularFile(current)) {
+				read(current, current.getFileName().toString().endsWith(HOST_FILE_SUFFIX) ? hosts : terms);
+			} else {
+				// E.g. deleted or moved while being replaced. Publishing would lift every entry
+				throw new NoSuchFileException(current.toString());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		publish(terms, hosts);
+	}
+
+	private static void read(Path file, List<String> entries) throws IOException {
+		for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+			String entry = line.trim();
+			if (!entry.isEmpty() && !entry.startsWith(COMMENT)) {
+				entries.add(entry);
+			}
+		}
+	}
+
+	private void publish(List<String> terms, List<String> hosts) {
+		long start = System.nanoTime();
+		Snapshot updated = new Snapshot(terms, hosts, snapshot.get().version + 1);
+		snapshot.set(updated);
+		LOGGER.info("Blocklist updated: " + updated.terms.getTermCount() + " patterns " + updated.hosts.size()
+				+ " hosts compiled in " + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+	}
+
+	/**
+	 * Reduce a host or url to the lower case host name
+	 *
+	 * @return the host or null if the entry does not look like a host
+	 */
+	static String normalizeHost(String entry) {
+		int start = entry.indexOf("://");
+		start = start < 0 ? 0 : start + 3;
+		int end = start;
+		while (end < entry.length() && isHostChar(entry.charAt(end))) {
+			end++;
+		}
+		// Trailing dots of a sentence
+		while (end > start && entry.charAt(end - 1) == '.') {
+			end--;
+		}
+		String host = entry.substring(start, end).toLowerCase(Locale.ROOT);
+		if (host.startsWith("www.")) {
+			host = host.substring(4);
+		}
+		return host.indexOf('.') > 0 ? host : null;
+	}
+
+	private static boolean isHostChar(char c) {
+		return Character.isLetterOrDigit(c) || c == '.' || c == '-';
+	}
+
+	private static final class Snapshot {
+
+		private final AhoCorasickMatcher terms;
+
+		private final Set<String> hosts;
+
+		private final long version;
+
+		Snapshot(Collection<String> terms, Collection<String> hosts, long version) {
+			TextNormalizer normalizer = new TextNormalizer();
+			List<String> skeletons = new ArrayList<>(terms.size() + hosts.size());
+			for (String term : terms) {
+				String skeleton = normalizer.normalize(term).toString();
+				skeletons.add(skeleton);
+				// Matches the words of the term written together or spelled out
+				if (skeleton.indexOf(' ') >= 0) {
+					skeletons.add(skeleton.replace(" ", ""));
+				}
+			}
+			Set<String> normalized = new HashSet<>();
+			for (String entry : hosts) {
+				String host = normalizeHost(entry.trim());
+				if (host != null) {
+					normalized.add(host);
+					skeletons.add(normalizer.normalize(host).toString());
+				}
+			}
+			this.terms = new AhoCorasickMatcher(skeletons);
+			this.hosts = normalized;
+			this.version = version;
+		}
+
+		boolean contains(String text) {
+			// Skip folding the message while no blocklist is loaded
+			return (terms.getTermCount() > 0 && terms.matches(NORMALIZER.get().normalize(text))) || containsHost(text);
+		}
+
+		/**
+		 * Check every whitespace separated token containing a dot
+		 */
+		private boolean containsHost(String text) {
+			if (hosts.isEmpty()) {
+				return false;
+			}
+			int length = text.length();
+			int tokenStart = 0;
+			boolean dotted = false;
+			for (int i = 0; i <= length; i++) {
+				if (i == length || Character.isWhitespace(text.charAt(i))) {
+					if (dotted && isBlockedHost(normalizeHost(text.substring(tokenStart, i)))) {
+						return true;
+					}
+					tokenStart = i + 1;
+					dotted = false;
+				} else if (text.charAt(i) == '.') {
+					dotted = true;
+				}
+			}
+			return false;
+		}
+
+		/**
+		 * Check the host and all it's parent domains
+		 */
+		private boolean isBlockedHost(String host) {
+			if (host == null) {
+				return false;
+			}
+			int offset = 0;
+			while (offset >= 0) {
+				if (hosts.contains(offset == 0 ? host : host.substring(offset))) {
+					return true;
+				}
+				int dot = host.indexOf('.', offset);
+				// Stop before checking the top level domain alone
+				offset = dot < 0 || host.indexOf('.', dot + 1) < 0 ? -1 : dot + 1;
+			}
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,274 @@
+package com.github.kilianB.chatBot.moderation;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
+
+import com.github.kilianB.util.DaemonThreadFactory;
+
+/**
+ * Summoners banned from using the bot at all.
+ *
+ * <p>
+ * Banned ids are kept in an immutable snapshot consisting of a sorted
+ * {@code long[]} and a {@link LongBloomFilter}. Since almost every lookup is
+ * for a summoner who is not banned, the filter answers the vast majority of
+ * lookups without touching the array. Positive answers are confirmed by a
+ * binary search.
+ *
+ * <p>
+ * Changes are recorded in a small pending map consulted before the snapshot
+ * and merged into a new snapshot on a background thread. The new snapshot is
+ * published atomically. Bans therefore take effect immediately while lookups
+ * never lock.
+ *
+ * <p>
+ * A registry created by {@link #load(Path)} stores every new snapshot to it's
+ * file, one summoner id per line. The file is written to a temporary file first
+ * and moved into place.
+ *
+ * @author Kilian
+ *
+ */
+public class GlobalBanRegistry {
+
+	private static final Logger LOGGER = Logger.getLogger(GlobalBanRegistry.class.getSimpleName());
+
+	private static final double FALSE_POSITIVE_RATE = 0.01;
+
+	private static final String COMMENT = "#";
+
+	private final AtomicReference<Snapshot> snapshot;
+
+	/** Changes not yet merged into the snapshot. True for bans, false for unbans */
+	private final ConcurrentHashMap<Long, Boolean> pending = new ConcurrentHashMap<>();
+
+	private final AtomicBoolean rebuildScheduled = new AtomicBoolean();
+
+	private final ExecutorService rebuilder = Executors.newSingleThreadExecutor(new DaemonThreadFactory());
+
+	/** The file the bans are stored to. Null if bans are kept in memory */
+	private final Path file;
+
+	public GlobalBanRegistry() {
+		this(new long[0]);
+	}
+
+	/**
+	 * @param bannedIds the initially banned summoner ids
+	 */
+	public GlobalBanRegistry(long[] bannedIds) {
+		this(bannedIds, null);
+	}
+
+	/**
+	 * @param bannedIds the initially banned summoner ids
+	 * @param file      the file changes are stored to. May be null
+	 */
+	private GlobalBanRegistry(long[] bannedIds, Path file) {
+		long[] sorted = Arrays.stream(bannedIds).sorted().distinct().toArray();
+		this.snapshot = new AtomicReference<>(new Snapshot(sorted));
+		this.file = file;
+	}
+
+	/**
+	 * Load the bans stored in a file. Changes are stored to the same file.
+	 *
+	 * @param file the ban file. Created with the first ban if it does not exist
+	 * @return the registry
+	 * @throws IOException if the file exists but can not be read
+	 */
+	public static GlobalBanRegistry load(Path file) throws IOException {
+		long[] ids;
+		try {
+			ids = Files.readAllLines(file, StandardCharsets.UTF_8).stream().map(String::trim)
+					.filter(line -> !line.isEmpty() && !line.startsWith(COMMENT)).mapToLong(Long::parseLong)
+					.toArray();
+		} catch (NoSuchFileException e) {
+			ids = new long[0];
+		} catch (NumberFormatException e) {
+			throw new IOException("Malformed ban file " + file + ": " + e.getMessage(), e);
+		}
+		LOGGER.info("Loaded " + ids.length + " bans from " + file);
+		return new GlobalBanRegistry(ids, file);
+	}
+
+	/**
+	 * Check if a summoner is banned. Called for every incoming message.
+	 *
+	 * @param summonerId the summoner id
+	 * @return true if the summoner is banned
+	 */
+	public boolean isBanned(long summonerId) {
+		if (!pending.isEmpty()) {
+			Boolean change = pending.get(summonerId);
+			if (change != null) {
+				return change;
+			}
+		}
+		return snapshot.get().contains(summonerId);
+	}
+
+	/**
+	 * Ban a summoner. Takes effect immediately.
+	 *
+	 * @param summonerId the summoner id
+	 */
+	public void ban(long summonerId) {
+		pending.put(summonerId, Boolean.TRUE);
+		scheduleRebuild();
+	}
+
+	/**
+	 * Lift the ban of a summoner. Takes effect immediately.
+	 *
+	 * @param summonerId the summoner id
+	 */
+	public void unban(long summonerId) {
+		pending.put(summonerId, Boolean.FALSE);
+		scheduleRebuild();
+	}
+
+	/**
+	 * @return the number of banned summoners in the current snapshot. Pending
+	 *         changes are not included
+	 */
+	public int size() {
+		return snapshot.get().ids.length;
+	}
+
+	/**
+	 * @return a copy of all banned summoner ids in ascending order. Pending
+	 *         changes are not included
+	 */
+	public long[] getBannedIds() {
+		return snapshot.get().ids.clone();
+	}
+
+	/**
+	 * Merge all pending changes into the snapshot and store it.
+	 *
+	 * @return a future completing once the changes made before the call are part
+	 *         of the snapshot
+	 */
+	public CompletableFuture<Void> flush() {
+		return CompletableFuture.runAsync(this::rebuild, rebuilder);
+	}
+
+	/**
+	 * Merge and store the pending changes and stop merging further changes.
+	 * Changes made afterwards stay effective until the registry is discarded.
+	 */
+	public void shutdown() {
+		try {
+			rebuilder.execute(this::rebuild);
+		} catch (RejectedExecutionException e) {
+			// Already shut down
+		}
+		rebuilder.shutdown();
+	}
+
+	private void scheduleRebuild() {
+		if (rebuildScheduled.compareAndSet(false, true)) {
+			try {
+				rebuilder.execute(this::rebuild);
+			} catch (RejectedExecutionException e) {
+				// Shut down. The change stays pending
+			}
+		}
+	}
+
+	/**
+	 * Merge the pending changes into a new snapshot
+	 */
+	private void rebuild() {
+		// Changes arriving from now on schedule another rebuild
+		rebuildScheduled.set(false);
+		try {
+			Map<Long, Boolean> changes = Map.copyOf(pending);
+			if (changes.isEmpty()) {
+				return;
+			}
+			long[] current = snapshot.get().ids;
+			long[] merged = Arrays.copyOf(current, current.length + changes.size());
+			int size = current.length;
+			for (Map.Entry<Long, Boolean> change : changes.entrySet()) {
+				if (change.getValue()) {
+					merged[size++] = change.getKey();
+				}
+			}
+			Arrays.sort(merged, 0, size);
+
+			// Compact duplicates and unbanned ids
+			int write = 0;
+			for (int read = 0; read < size; read++) {
+				long id = merged[read];
+				if ((write > 0 && merged[write - 1] == id) || Boolean.FALSE.equals(changes.get(id))) {
+					continue;
+				}
+				merged[write++] = id;
+			}
+			long[] ids = Arrays.copyOf(merged, write);
+			snapshot.set(new Snapshot(ids));
+
+			// Only drop changes which were not overwritten in the meantime
+			changes.forEach(pending::remove);
+			store(ids);
+		} catch (RuntimeException e) {
+			LOGGER.warning("Failed to rebuild ban snapshot: " + e);
+		}
+	}
+
+	private void store(long[] ids) {
+		if (file == null) {
+			return;
+		}
+		try {
+			Path parent = file.toAbsolutePath().getParent();
+			Files.createDirectories(parent);
+			Path temp = parent.resolve(file.getFileName() + ".tmp");
+			try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+				for (long id : ids) {
+					writer.write(Long.toString(id));
+					writer.newLine();
+				}
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			// The bans stay effective, the next change retries
+			throw new UncheckedIOException("Failed to store bans to " + file, e);
+		}
+	}
+
+	private static final class Snapshot {
+
+		private final long[] ids;
+
+		private final LongBloomFilter filter;
+
+		Snapshot(long[] ids) {
+			this.ids = ids;
+			this.filter = new LongBloomFilter(ids, FALSE_POSITIVE_RATE);
+		}
+
+		boolean contains(long id) {
+			return ids.length > 0 && filter.mightContain(id) && Arrays.binarySearch(ids, id) >= 0;
+		}
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.github.kilianB.chatBot.moderation;
+
+/**
+ * Immutable Bloom filter over primitive long keys. Answers whether a key is
+ * definitely absent or possibly present without boxing or hashing objects.
+ *
+ * @author Kilian
+ *
+ */
+public final class LongBloomFilter {
+
+	private final long[] bits;
+
+	/** Number of bits - 1. The number of bits is a power of two */
+	private final long mask;
+
+	private final int hashFunctions;
+
+	/**
+	 * @param keys              the keys contained in the filter
+	 * @param falsePositiveRate the desired false positive rate (0-1)
+	 */
+	public LongBloomFilter(long[] keys, double falsePositiveRate) {
+		int expected = Math.max(1, keys.length);
+		double optimalBits = -expected * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+		long size = Long.highestOneBit(Math.max(64, (long) Math.ceil(optimalBits)) - 1) << 1;
+		this.bits = new long[(int) (size >>> 6)];
+		this.mask = size - 1;
+		// k = -log2(p) e.g. 7 for 1%. Rounding the size up only lowers the rate further
+		this.hashFunctions = Math.min(16, Math.max(1, (int) Math.round(-Math.log(falsePositiveRate) / Math.log(2))));
+		for (long key : keys) {
+			long hash = mix(key);
+			int h1 = (int) hash;
+			int h2 = (int) (hash >>> 32);
+			for (int i = 0; i < hashFunctions; i++) {
+				long bit = (h1 + (long) i * h2) & mask;
+				bits[(int) (bit >>> 6)] |= 1L << bit;
+			}
+		}
+	}
+
+	/**
+	 * @param key the key
+	 * @return false if the key is definitely not contained. True if it might be
+	 */
+	public boolean mightContain(long key) {
+		long hash = mix(key);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 0; i < hashFunctions; i++) {
+			long bit = (h1 + (long) i * h2) & mask;
+			if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return the size of the filter in bits
+	 */
+	public long getBitSize() {
+		return mask + 1;
+	}
+
+	/**
+	 * @return the number of hash functions
+	 */
+	public int getHashFunctions() {
+		return hashFunctions;
+	}
+
+	/** SplitMix64 finalizer */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+		z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+		return z ^ (z >>> 31);
+	}
+
+}
@@ -0,0 +1,181 @@
+package com.github.kilianB.chatBot.moderation;
+
+import java.text.Normalizer;
+
+/**
+ * Folds chat messages to a canonical skeleton before they are checked against
+ * the {@link Blocklist}, defeating common obfuscation of spam:
+ *
+ * <ul>
+ * <li>Compatibility forms e.g. fullwidth or mathematical letters are
+ * normalized by NFKC</li>
+ * <li>Letters are lower cased and stripped of diacritics</li>
+ * <li>Homoglyphs of other scripts are mapped to the latin letter they resemble
+ * e.g. cyrillic a (U+0430). Digits and symbols are mapped as well e.g.
+ * {@code 0} to {@code o}, but only within words containing a letter. A number
+ * like {@code 310} is kept as is</li>
+ * <li>Invisible characters e.g. zero width spaces and joiners are removed</li>
+ * <li>Punctuation is removed. Words are separated by a single space, words
+ * spelled out one character at a time are joined: {@code e l o-b.o.o.s.t}
+ * becomes {@code eloboost}. Terms therefore never match across the boundary
+ * of two regular words</li>
+ * </ul>
+ *
+ * <p>
+ * The folding of every character below {@link #TABLE_SIZE} is precomputed in
+ * a single lookup table. Text is folded in one pass into a reused buffer.
+ * Pure ASCII text, the vast majority of messages, skips the NFKC step and does
+ * not allocate.
+ *
+ * <p>
+ * A normalizer is not thread safe.
+ *
+ * @author Kilian
+ *
+ */
+public class TextNormalizer {
+
+	/** Covers latin, greek, cyrillic, general punctuation and symbols */
+	private static final int TABLE_SIZE = 0x3000;
+
+	/** Marks characters removed from the skeleton */
+	private static final char DROP = 0;
+
+	/** Separates two words of the skeleton */
+	private static final char BOUNDARY = ' ';
+
+	/** Character mapped to the latin letter it resembles. Applied after lower casing */
+	private static final String[] CONFUSABLES = {
+			// Digits and symbols
+			"0o", "1l", "3e", "4a", "5s", "7t", "@a", "$s", "|l", "\u20ace",
+			// Cyrillic
+			"\u0430a", "\u0432b", "\u0441c", "\u0501d", "\u0435e", "\u04bbh", "\u043dh", "\u0456i", "\u04cfl",
+			"\u0458j", "\u043ak", "\u043cm", "\u043eo", "\u0440p", "\u051bq", "\u0455s", "\u0442t", "\u0475v",
+			"\u051dw", "\u0445x", "\u0443y",
+			// Greek
+			"\u03b1a", "\u03b2b", "\u03b5e", "\u03b7n", "\u03b9i", "\u03bak", "\u03bdv",
+			"\u03bfo", "\u03c1p", "\u03c4t", "\u03c5u", "\u03c7x", "\u03b3y", "\u03c9w",
+			// Latin letters without decomposition
+			"\u0131i", "\u0142l", "\u00f8o", "\u0111d", "\u0127h", "\u0261g" };
+
+	/** Folding of characters within words containing a letter */
+	private static final char[] FOLD = new char[TABLE_SIZE];
+
+	/** Folding of characters within words without letters e.g. numbers */
+	private static final char[] FOLD_LITERAL = new char[TABLE_SIZE];
+	static {
+		char[] confusable = new char[TABLE_SIZE];
+		for (String pair : CONFUSABLES) {
+			confusable[pair.charAt(0)] = pair.charAt(1);
+		}
+		char[] none = new char[TABLE_SIZE];
+		for (int c = 0; c < TABLE_SIZE; c++) {
+			FOLD[c] = fold((char) c, confusable);
+			FOLD_LITERAL[c] = fold((char) c, Character.isLetter(c) ? confusable : none);
+		}
+	}
+
+	private final StringBuilder buffer = new StringBuilder(256);
+
+	/**
+	 * Fold a text to it's skeleton
+	 *
+	 * @param text the text
+	 * @return the skeleton. The returned buffer is reused by the next call
+	 */
+	public CharSequence normalize(CharSequence text) {
+		buffer.setLength(0);
+		CharSequence source = isAscii(text) ? text : Normalizer.normalize(text, Normalizer.Form.NFKC);
+		int length = source.length();
+		// Folded length of the previous word. 0 before the first word
+		int previous = 0;
+		int start = 0;
+		while (start < length) {
+			if (Character.isWhitespace(source.charAt(start))) {
+				start++;
+				continue;
+			}
+			int end = start;
+			boolean letters = false;
+			while (end < length && !Character.isWhitespace(source.charAt(end))) {
+				letters |= Character.isLetter(source.charAt(end));
+				end++;
+			}
+			int boundary = buffer.length();
+			if (previous > 0) {
+				buffer.append(BOUNDARY);
+			}
+			int wordStart = buffer.length();
+			appendWord(source, start, end, letters ? FOLD : FOLD_LITERAL);
+			int folded = buffer.length() - wordStart;
+			if (folded == 0) {
+				// Punctuation only. Does not separate the surrounding words
+				buffer.setLength(boundary);
+			} else {
+				if (previous > 0 && (previous == 1 || folded == 1)) {
+					// Spelled out one character at a time
+					buffer.deleteCharAt(boundary);
+				}
+				previous = folded;
+			}
+			start = end;
+		}
+		return buffer;
+	}
+
+	private void appendWord(CharSequence source, int start, int end, char[] table) {
+		for (int i = start; i < end; i++) {
+			char c = source.charAt(i);
+			if (c < TABLE_SIZE) {
+				char folded = table[c];
+				if (folded != DROP) {
+					buffer.append(folded);
+				}
+			} else if (Character.isHighSurrogate(c) && i + 1 < end) {
+				int codePoint = Character.codePointAt(source, i);
+				i += Character.charCount(codePoint) - 1;
+				if (Character.getType(codePoint) != Character.FORMAT) {
+					buffer.appendCodePoint(codePoint);
+				}
+			} else if (isVisible(c)) {
+				buffer.append(Character.toLowerCase(c));
+			}
+		}
+	}
+
+	private static boolean isAscii(CharSequence text) {
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) >= 0x80) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Compute the folding of a single character for the lookup table
+	 */
+	private static char fold(char c, char[] confusable) {
+		char lower = Character.toLowerCase(c);
+		if (lower < TABLE_SIZE && confusable[lower] != DROP) {
+			return confusable[lower];
+		}
+		if (!Character.isLetterOrDigit(lower)) {
+			// Invisible characters, whitespace, punctuation and symbols
+			return DROP;
+		}
+		// Strip diacritics: the base letter is the first character of the decomposition
+		char base = Normalizer.normalize(String.valueOf(lower), Normalizer.Form.NFKD).charAt(0);
+		if (base != lower && base < TABLE_SIZE && Character.isLetterOrDigit(base)) {
+			base = Character.toLowerCase(base);
+			return confusable[base] != DROP ? confusable[base] : base;
+		}
+		return lower;
+	}
+
+	private static boolean isVisible(char c) {
+		int type = Character.getType(c);
+		return type != Character.FORMAT && type != Character.NON_SPACING_MARK && !Character.isWhitespace(c);
+	}
+
+}
@@ -0,0 +1,183 @@
+package com.github.kilianB.chatBot.presence;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.logging.Logger;
+
+import com.github.kilianB.chatBot.SlaveBot;
+import com.github.kilianB.dtos.ChatAvailability;
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.util.DaemonThreadFactory;
+
+/**
+ * Collects presence updates reported by the slaves and applies them in
+ * batches.
+ *
+ * <p>
+ * Presence changes arrive in bursts (e.g. many games starting or ending at the
+ * same time). Only the latest availability of a summoner within a window is
+ * kept, earlier updates are discarded. Once the window elapses all pending
+ * updates are applied at once and {@link PresenceListener}s are notified a
+ * single time for the entire batch.
+ *
+ * @author Kilian
+ *
+ */
+public class PresenceIngestor {
+
+	private static final Logger LOGGER = Logger.getLogger(PresenceIngestor.class.getSimpleName());
+
+	/** Latest reported availability mapped to the summoner id */
+	private final ConcurrentHashMap<Long, ChatAvailability> pending = new ConcurrentHashMap<>();
+
+	private final CopyOnWriteArrayList<PresenceListener> listeners = new CopyOnWriteArrayList<>();
+
+	/** Resolve summoner ids to registered summoners */
+	private final LongFunction<Summoner> summonerResolver;
+
+	/** Serializes batches */
+	private final Object flushLock = new Object();
+
+	private ScheduledExecutorService scheduler;
+
+	/**
+	 * @param summonerResolver resolves the summoner id of an update to the
+	 *                         summoner object. Updates of unknown summoners are
+	 *                         discarded
+	 * @param window           the time updates are collected before they are
+	 *                         applied. If 0 or negative updates are only applied
+	 *                         once {@link #flush()} is invoked manually
+	 * @param unit             the unit of the window argument
+	 */
+	public PresenceIngestor(LongFunction<Summoner> summonerResolver, long window, TimeUnit unit) {
+		this.summonerResolver = summonerResolver;
+		if (window > 0) {
+			scheduler = Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory());
+			scheduler.scheduleWithFixedDelay(this::flushSafe, window, window, unit);
+		}
+	}
+
+	/**
+	 * Report a new availability of a summoner. The update is applied with the next
+	 * batch. Newer updates of the same summoner within the same batch replace this
+	 * update.
+	 *
+	 * @param summonerId   the id of the summoner
+	 * @param availability the new availability
+	 */
+	public void submit(long summonerId, ChatAvailability availability) {
+		pending.put(summonerId, availability);
+	}
+
+	/**
+	 * Apply all pending updates immediately.
+	 *
+	 * @return the number of summoners whose availability changed
+	 */
+	public int flush() {
+		synchronized (flushLock) {
+			if (pending.isEmpty()) {
+				return 0;
+			}
+			List<Summoner> changed = new ArrayList<>(pending.size());
+			for (Long id : pending.keySet()) {
+				// Updates arriving after the removal are part of the next batch
+				ChatAvailability availability = pending.remove(id);
+				apply(id, availability, changed);
+			}
+			notifyListeners(changed);
+			return changed.size();
+		}
+	}
+
+	/**
+	 * Apply the full friend list state of a slave. Used once a slave connects or
+	 * reconnects and reports the availability of all of it's friends at once.
+	 * Pending updates of the affected summoners are superseded.
+	 *
+	 * @param slave    the slave reporting the state
+	 * @param snapshot availability of every friend of the slave mapped to the
+	 *                 summoner id
+	 * @return the number of summoners whose availability changed
+	 */
+	public int bulkSync(SlaveBot slave, Map<Long, ChatAvailability> snapshot) {
+		synchronized (flushLock) {
+			List<Summoner> changed = new ArrayList<>();
+			for (Map.Entry<Long, ChatAvailability> e : snapshot.entrySet()) {
+				pending.remove(e.getKey());
+				apply(e.getKey(), e.getValue(), changed);
+			}
+			LOGGER.info("Synced presence of " + snapshot.size() + " summoners of " + slave + ". Changed: "
+					+ changed.size());
+			notifyListeners(changed);
+			return changed.size();
+		}
+	}
+
+	/**
+	 * @param listener notified once per applied batch
+	 */
+	public void addListener(PresenceListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * @param listener the listener to remove
+	 */
+	public void removeListener(PresenceListener listener) {
+		listeners.remove(listener);
+	}
+
+	/**
+	 * @return the number of summoners with pending updates
+	 */
+	public int getPendingCount() {
+		return pending.size();
+	}
+
+	/**
+	 * Stop applying updates periodically
+	 */
+	public void shutdown() {
+		if (scheduler != null) {
+			scheduler.shutdown();
+		}
+	}
+
+	private void apply(long summonerId, ChatAvailability availability, List<Summoner> changed) {
+		if (availability == null) {
+			return;
+		}
+		Summoner summoner = summonerResolver.apply(summonerId);
+		if (summoner != null && summoner.getChatActivity() != availability) {
+			summoner.updateChatAvailablility(availability);
+			changed.add(summoner);
+		}
+	}
+
+	private void notifyListeners(List<Summoner> changed) {
+		if (changed.isEmpty()) {
+			return;
+		}
+		for (PresenceListener listener : listeners) {
+			listener.onPresenceBatch(changed);
+		}
+	}
+
+	private void flushSafe() {
+		// An exception would cancel the periodic task
+		try {
+			flush();
+		} catch (RuntimeException e) {
+			LOGGER.warning("Failed to apply presence batch: " + e);
+		}
+	}
+
+}
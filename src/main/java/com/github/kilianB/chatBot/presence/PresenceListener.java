@@ -0,0 +1,24 @@
+package com.github.kilianB.chatBot.presence;
+
+import java.util.List;
+
+import com.github.kilianB.dtos.Summoner;
+
+/**
+ * Notified once per batch of applied presence changes. Used to update data
+ * structures derived from the availability of summoners.
+ *
+ * @author Kilian
+ *
+ */
+public interface PresenceListener {
+
+	/**
+	 * Invoked after a batch of availability changes was applied.
+	 *
+	 * @param changed the summoners whose availability changed. Every summoner is
+	 *                contained at most once
+	 */
+	void onPresenceBatch(List<Summoner> changed);
+
+}
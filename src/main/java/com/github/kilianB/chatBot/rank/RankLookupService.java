@@ -0,0 +1,272 @@
+package com.github.kilianB.chatBot.rank;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import com.github.kilianB.dtos.League;
+import com.github.kilianB.util.ExpiringLruCache;
+
+/**
+ * Caches the tier of summoners to answer rank checks e.g. of tier gated chat
+ * rooms from memory.
+ *
+ * <p>
+ * Tiers are kept in a bounded {@link ExpiringLruCache}. The cache is filled by
+ * tiers reported with presence updates, by bulk prefetches whenever a slave
+ * (re)connects and by lookups on a cache miss. Concurrent lookups of the same
+ * summoner are coalesced into a single call to the {@link RankProvider}.
+ * Failed lookups are not cached. Summoners the provider reports no tier for
+ * are cached as {@link League#Unranked}.
+ *
+ * <p>
+ * Until a provider is set lookups fail and prefetches are skipped. Tiers
+ * offered by presence updates are cached regardless.
+ *
+ * @author Kilian
+ *
+ */
+public class RankLookupService {
+
+	private static final Logger LOGGER = Logger.getLogger(RankLookupService.class.getSimpleName());
+
+	private final ExpiringLruCache<Long, League> cache;
+
+	/** Lookups currently waiting for the provider mapped to the summoner id */
+	private final ConcurrentHashMap<Long, CompletableFuture<League>> inFlight = new ConcurrentHashMap<>();
+
+	private volatile RankProvider provider;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder coalesced = new LongAdder();
+
+	private final LongAdder failures = new LongAdder();
+
+	/**
+	 * Create a service without provider. Only tiers offered via
+	 * {@link #offer(long, League)} are known until a provider is set.
+	 *
+	 * @param capacity the maximum number of tiers cached
+	 * @param ttl      the time a tier stays valid
+	 * @param unit     the unit of the ttl argument
+	 */
+	public RankLookupService(int capacity, long ttl, TimeUnit unit) {
+		this(null, capacity, ttl, unit);
+	}
+
+	/**
+	 * @param provider the source of tiers. May be null
+	 * @param capacity the maximum number of tiers cached
+	 * @param ttl      the time a tier stays valid
+	 * @param unit     the unit of the ttl argument
+	 */
+	public RankLookupService(RankProvider provider, int capacity, long ttl, TimeUnit unit) {
+		this.provider = provider;
+		this.cache = new ExpiringLruCache<>(capacity, ttl, unit);
+	}
+
+	/**
+	 * Return the cached tier of a summoner without issuing a lookup.
+	 *
+	 * @param summonerId the summoner id
+	 * @return the tier or null if it is not cached
+	 */
+	public League getCached(long summonerId) {
+		League league = cache.get(summonerId);
+		if (league != null) {
+			hits.increment();
+		}
+		return league;
+	}
+
+	/**
+	 * Retrieve the tier of a summoner. Answered from the cache if possible,
+	 * otherwise joins a running lookup or starts a new one.
+	 *
+	 * @param summonerId the summoner id
+	 * @return a future completing with the tier of the summoner
+	 */
+	public CompletableFuture<League> lookup(long summonerId) {
+		League cached = getCached(summonerId);
+		if (cached != null) {
+			return CompletableFuture.completedFuture(cached);
+		}
+		CompletableFuture<League> promise = new CompletableFuture<>();
+		CompletableFuture<League> running = inFlight.putIfAbsent(summonerId, promise);
+		if (running != null) {
+			coalesced.increment();
+			return running;
+		}
+		misses.increment();
+		RankProvider current = provider;
+		CompletableFuture<League> request;
+		try {
+			if (current == null) {
+				throw new IllegalStateException("No rank provider registered");
+			}
+			request = current.lookup(summonerId);
+		} catch (RuntimeException e) {
+			request = CompletableFuture.failedFuture(e);
+		}
+		request.whenComplete((league, error) -> {
+			League resolved = league == null ? League.Unranked : league;
+			if (error == null) {
+				cache.put(summonerId, resolved);
+			} else {
+				failures.increment();
+			}
+			inFlight.remove(summonerId, promise);
+			if (error != null) {
+				promise.completeExceptionally(error);
+			} else {
+				promise.complete(resolved);
+			}
+		});
+		return promise;
+	}
+
+	/**
+	 * Fetch the tiers of all summoners which are neither cached nor currently
+	 * looked up with a single bulk request. Called when a slave (re)connects.
+	 *
+	 * @param summonerIds the summoner ids
+	 * @return a future completing once the prefetch finished. Never completes
+	 *         exceptionally. Completes right away if no provider is set
+	 */
+	public CompletableFuture<Void> prefetch(Collection<Long> summonerIds) {
+		RankProvider current = provider;
+		if (current == null) {
+			return CompletableFuture.completedFuture(null);
+		}
+		Map<Long, CompletableFuture<League>> promises = new HashMap<>();
+		for (Long id : summonerIds) {
+			if (cache.get(id) != null) {
+				continue;
+			}
+			CompletableFuture<League> promise = new CompletableFuture<>();
+			if (inFlight.putIfAbsent(id, promise) == null) {
+				promises.put(id, promise);
+			}
+		}
+		if (promises.isEmpty()) {
+			return CompletableFuture.completedFuture(null);
+		}
+		List<Long> missing = new ArrayList<>(promises.keySet());
+		misses.add(missing.size());
+		CompletableFuture<Map<Long, League>> request;
+		try {
+			request = current.lookupAll(missing);
+		} catch (RuntimeException e) {
+			request = CompletableFuture.failedFuture(e);
+		}
+		return request.handle((leagues, error) -> {
+			if (error != null) {
+				LOGGER.warning("Failed to prefetch the tier of " + missing.size() + " summoners: " + error);
+			}
+			promises.forEach((id, promise) -> {
+				League league = leagues == null ? null : leagues.get(id);
+				if (league != null) {
+					cache.put(id, league);
+				} else {
+					failures.increment();
+				}
+				inFlight.remove(id, promise);
+				if (league != null) {
+					promise.complete(league);
+				} else {
+					promise.completeExceptionally(
+							error != null ? error : new IllegalStateException("No tier reported for " + id));
+				}
+			});
+			return null;
+		});
+	}
+
+	/**
+	 * Cache a tier reported by other means e.g. a presence update
+	 *
+	 * @param summonerId the summoner id
+	 * @param league     the tier of the summoner
+	 */
+	public void offer(long summonerId, League league) {
+		cache.put(summonerId, league);
+	}
+
+	/**
+	 * Forget the cached tier of a summoner
+	 *
+	 * @param summonerId the summoner id
+	 */
+	public void invalidate(long summonerId) {
+		cache.remove(summonerId);
+	}
+
+	/**
+	 * @return true if tiers can be looked up
+	 */
+	public boolean hasProvider() {
+		return provider != null;
+	}
+
+	/**
+	 * @param provider the new source of tiers. Cached tiers are kept
+	 */
+	public void setProvider(RankProvider provider) {
+		this.provider = provider;
+	}
+
+	/**
+	 * Remove expired tiers. May be called periodically to release memory.
+	 *
+	 * @return the number of removed tiers
+	 */
+	public int purgeExpired() {
+		return cache.purgeExpired();
+	}
+
+	/**
+	 * @return the number of cached tiers
+	 */
+	public int size() {
+		return cache.size();
+	}
+
+	/**
+	 * @return the number of lookups answered from the cache
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of summoners requested from the provider
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the number of lookups which joined a running lookup
+	 */
+	public long getCoalesced() {
+		return coalesced.sum();
+	}
+
+	/**
+	 * @return the number of summoners whose tier could not be retrieved
+	 */
+	public long getFailures() {
+		return failures.sum();
+	}
+
+}
@@ -0,0 +1,55 @@
+package com.github.kilianB.chatBot.rank;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import com.github.kilianB.dtos.League;
+
+/**
+ * Source of the ranked tier of summoners e.g. the league client api of a
+ * slave. Lookups are expensive and are cached by the {@link RankLookupService}.
+ *
+ * @author Kilian
+ *
+ */
+public interface RankProvider {
+
+	/**
+	 * Look up the tier of a summoner.
+	 *
+	 * @param summonerId the summoner id
+	 * @return a future completing with the league of the summoner.
+	 *         {@link League#Unranked} if the summoner did not play ranked
+	 */
+	CompletableFuture<League> lookup(long summonerId);
+
+	/**
+	 * Look up the tier of multiple summoners. The default implementation issues a
+	 * lookup per summoner. Providers supporting bulk queries should override
+	 * this method.
+	 *
+	 * @param summonerIds the summoner ids
+	 * @return a future completing with the league mapped to the summoner id.
+	 *         Summoners whose lookup failed are missing
+	 */
+	default CompletableFuture<Map<Long, League>> lookupAll(Collection<Long> summonerIds) {
+		Map<Long, CompletableFuture<League>> lookups = new HashMap<>();
+		for (Long id : summonerIds) {
+			lookups.put(id, lookup(id));
+		}
+		return CompletableFuture.allOf(lookups.values().stream().map(f -> f.exceptionally(e -> null))
+				.toArray(CompletableFuture[]::new)).thenApply(done -> {
+					Map<Long, League> leagues = new HashMap<>();
+					lookups.forEach((id, future) -> {
+						League league = future.exceptionally(e -> null).join();
+						if (league != null) {
+							leagues.put(id, league);
+						}
+					});
+					return leagues;
+				});
+	}
+
+}
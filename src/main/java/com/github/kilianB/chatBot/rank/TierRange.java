@@ -0,0 +1,86 @@
+package com.github.kilianB.chatBot.rank;
+
+import com.github.kilianB.dtos.League;
+
+/**
+ * An inclusive range of leagues a summoner has to be in to join a gated chat
+ * room.
+ *
+ * @author Kilian
+ *
+ */
+public final class TierRange {
+
+	/** Highest league accepted */
+	private final League highest;
+
+	/** Lowest league accepted */
+	private final League lowest;
+
+	/**
+	 * @param first  one end of the range
+	 * @param second the other end of the range. The order of the arguments does
+	 *               not matter
+	 */
+	public TierRange(League first, League second) {
+		// League ordinals are ordered from highest to lowest
+		if (first.ordinal() <= second.ordinal()) {
+			highest = first;
+			lowest = second;
+		} else {
+			highest = second;
+			lowest = first;
+		}
+	}
+
+	/**
+	 * Parse a range in the form {@code Gold-Diamond} or a single league e.g.
+	 * {@code Gold}. Case insensitive.
+	 *
+	 * @param range the range
+	 * @return the parsed range
+	 * @throws IllegalArgumentException if a league is unknown
+	 */
+	public static TierRange parse(String range) {
+		String[] bounds = range.trim().split("-", 2);
+		League first = parseLeague(bounds[0]);
+		return new TierRange(first, bounds.length > 1 ? parseLeague(bounds[1]) : first);
+	}
+
+	private static League parseLeague(String token) {
+		String name = token.trim();
+		League league = League.fromTier(name);
+		if (league == League.Unranked && !League.Unranked.name().equalsIgnoreCase(name)) {
+			throw new IllegalArgumentException("Unknown league: " + name);
+		}
+		return league;
+	}
+
+	/**
+	 * @param league the league of a summoner
+	 * @return true if the league lies within the range
+	 */
+	public boolean contains(League league) {
+		return league.ordinal() >= highest.ordinal() && league.ordinal() <= lowest.ordinal();
+	}
+
+	/**
+	 * @return the highest league accepted
+	 */
+	public League getHighest() {
+		return highest;
+	}
+
+	/**
+	 * @return the lowest league accepted
+	 */
+	public League getLowest() {
+		return lowest;
+	}
+
+	@Override
+	public String toString() {
+		return highest == lowest ? highest.name() : lowest + "-" + highest;
+	}
+
+}
@@ -0,0 +1,137 @@
+package com.github.kilianB.chatBot.store;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import com.github.kilianB.chatBot.SlaveBot;
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.dtos.SummonerMessageSetting;
+
+/**
+ * Compact representation of a summoner who is not connected to the bot. Only
+ * the state which has to survive a reconnect is kept: the chat mode and the
+ * muted summoners packed into a sorted primitive array.
+ *
+ * @author Kilian
+ *
+ */
+public final class DormantSummoner {
+
+	private static final SummonerMessageSetting[] MODES = SummonerMessageSetting.values();
+
+	private static final long[] NO_MUTES = new long[0];
+
+	private final long id;
+
+	/** Ordinal of the {@link SummonerMessageSetting} */
+	private final byte mode;
+
+	/** Sorted ids of muted summoners */
+	private final long[] muted;
+
+	/** Time in milli seconds the summoner was last seen */
+	private final long lastSeen;
+
+	/**
+	 * @param id       the summoner id
+	 * @param mode     the chat mode
+	 * @param muted    sorted ids of muted summoners
+	 * @param lastSeen time in milli seconds since epoch the summoner was last
+	 *                 connected
+	 */
+	public DormantSummoner(long id, SummonerMessageSetting mode, long[] muted, long lastSeen) {
+		this.id = id;
+		this.mode = (byte) mode.ordinal();
+		this.muted = muted.length == 0 ? NO_MUTES : muted;
+		this.lastSeen = lastSeen;
+	}
+
+	/**
+	 * Pack the state of a summoner
+	 *
+	 * @param summoner the summoner to pack
+	 * @param lastSeen time in milli seconds since epoch the summoner was last
+	 *                 connected
+	 * @return the dormant representation
+	 */
+	public static DormantSummoner of(Summoner summoner, long lastSeen) {
+		Set<Long> mutedIds = summoner.getMutedIds();
+		long[] packed = new long[mutedIds.size()];
+		int i = 0;
+		for (long mutedId : mutedIds) {
+			packed[i++] = mutedId;
+		}
+		Arrays.sort(packed);
+		return new DormantSummoner(summoner.summonerId(), summoner.getChatMode(), packed, lastSeen);
+	}
+
+	/**
+	 * Copy the persisted state onto a freshly connected summoner object.
+	 *
+	 * @param summoner the summoner to restore. Has to have the same id
+	 */
+	public void restoreInto(Summoner summoner) {
+		if (summoner.summonerId() != id) {
+			throw new IllegalArgumentException("Summoner id mismatch " + summoner.summonerId() + " " + id);
+		}
+		summoner.setChatMode(getMode());
+		for (long mutedId : muted) {
+			summoner.addMutedSummoner(mutedId);
+		}
+	}
+
+	/**
+	 * Create a full summoner object from this record
+	 *
+	 * @param displayName the display name of the summoner
+	 * @param bot         the slave responsible for the summoner. May be null
+	 * @return the summoner
+	 */
+	public Summoner rehydrate(String displayName, SlaveBot bot) {
+		Summoner summoner = new Summoner(displayName, id, bot);
+		restoreInto(summoner);
+		return summoner;
+	}
+
+	/**
+	 * @param summonerId the id of the summoner to check
+	 * @return true if the summoner is muted
+	 */
+	public boolean isMuted(long summonerId) {
+		return Arrays.binarySearch(muted, summonerId) >= 0;
+	}
+
+	/**
+	 * @return the summoner id
+	 */
+	public long getId() {
+		return id;
+	}
+
+	/**
+	 * @return the chat mode
+	 */
+	public SummonerMessageSetting getMode() {
+		return MODES[mode];
+	}
+
+	/**
+	 * @return a copy of the sorted muted summoner ids
+	 */
+	public long[] getMuted() {
+		return muted.clone();
+	}
+
+	/**
+	 * @return time in milli seconds since epoch the summoner was last connected
+	 */
+	public long getLastSeen() {
+		return lastSeen;
+	}
+
+	@Override
+	public String toString() {
+		return "DormantSummoner [id=" + id + ", mode=" + getMode() + ", muted=" + muted.length + "]";
+	}
+
+}
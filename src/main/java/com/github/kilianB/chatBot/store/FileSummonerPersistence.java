@@ -0,0 +1,99 @@
+package com.github.kilianB.chatBot.store;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Logger;
+
+import com.github.kilianB.dtos.SummonerMessageSetting;
+
+/**
+ * Persists evicted summoners as small binary files. Every summoner is written
+ * to it's own file, files are spread across 256 sub directories by summoner id
+ * to keep directory sizes manageable.
+ *
+ * <p>
+ * Records are written to a temporary file first and moved into place, a crash
+ * while storing never leaves a corrupt record behind.
+ *
+ * @author Kilian
+ *
+ */
+public class FileSummonerPersistence implements SummonerPersistence {
+
+	private static final Logger LOGGER = Logger.getLogger(FileSummonerPersistence.class.getSimpleName());
+
+	/** Increased whenever the layout of a record changes */
+	private static final int VERSION = 1;
+
+	private static final SummonerMessageSetting[] MODES = SummonerMessageSetting.values();
+
+	private final Path directory;
+
+	/**
+	 * @param directory the directory the records are stored in. Created on
+	 *                  demand
+	 */
+	public FileSummonerPersistence(Path directory) {
+		this.directory = directory;
+	}
+
+	@Override
+	public void store(DormantSummoner summoner) {
+		Path file = fileOf(summoner.getId());
+		try {
+			Files.createDirectories(file.getParent());
+			Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+			try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(temp))) {
+				long[] muted = summoner.getMuted();
+				out.writeByte(VERSION);
+				out.writeLong(summoner.getId());
+				out.writeByte(summoner.getMode().ordinal());
+				out.writeLong(summoner.getLastSeen());
+				out.writeInt(muted.length);
+				for (long id : muted) {
+					out.writeLong(id);
+				}
+			}
+			Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to store summoner " + summoner.getId(), e);
+		}
+	}
+
+	@Override
+	public DormantSummoner load(long summonerId) {
+		try (DataInputStream in = new DataInputStream(Files.newInputStream(fileOf(summonerId)))) {
+			int version = in.readUnsignedByte();
+			if (version != VERSION) {
+				LOGGER.warning("Unknown record version " + version + " of summoner " + summonerId);
+				return null;
+			}
+			long id = in.readLong();
+			SummonerMessageSetting mode = MODES[in.readUnsignedByte()];
+			long lastSeen = in.readLong();
+			long[] muted = new long[in.readInt()];
+			for (int i = 0; i < muted.length; i++) {
+				muted[i] = in.readLong();
+			}
+			return new DormantSummoner(id, mode, muted, lastSeen);
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException | RuntimeException e) {
+			// A broken record only costs the summoner his mutes and chat mode
+			LOGGER.warning("Failed to load summoner " + summonerId + ": " + e);
+			return null;
+		}
+	}
+
+	private Path fileOf(long summonerId) {
+		String shard = String.format("%02x", summonerId & 0xFF);
+		return directory.resolve(shard).resolve(Long.toString(summonerId));
+	}
+
+}
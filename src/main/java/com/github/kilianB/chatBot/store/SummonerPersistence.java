@@ -0,0 +1,28 @@
+package com.github.kilianB.chatBot.store;
+
+/**
+ * Long term storage of summoners who have not been connected for a long time.
+ *
+ * @author Kilian
+ *
+ */
+public interface SummonerPersistence {
+
+	/**
+	 * Persist the state of a summoner. Called once a summoner is evicted from
+	 * memory.
+	 *
+	 * @param summoner the state to persist
+	 */
+	void store(DormantSummoner summoner);
+
+	/**
+	 * Load the state of a summoner.
+	 *
+	 * @param summonerId the id of the summoner
+	 * @return the persisted state or null if nothing was persisted for this
+	 *         summoner
+	 */
+	DormantSummoner load(long summonerId);
+
+}
@@ -0,0 +1,229 @@
+package com.github.kilianB.chatBot.store;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.util.DaemonThreadFactory;
+
+/**
+ * Tiered storage of all summoners known to the bot.
+ *
+ * <ul>
+ * <li><b>Active:</b> Summoners currently connected to the bot or only recently
+ * disconnected are kept as full {@link Summoner} objects.</li>
+ * <li><b>Dormant:</b> Summoners disconnected for longer than the demotion
+ * threshold are packed into a compact {@link DormantSummoner} record.</li>
+ * <li><b>Evicted:</b> Dormant summoners not seen for longer than the eviction
+ * threshold are handed to the {@link SummonerPersistence} and dropped from
+ * memory. Without persistence their state is forgotten.</li>
+ * </ul>
+ *
+ * Summoners reconnecting are restored from the dormant tier or the persistence
+ * layer. The heap usage therefore follows the number of concurrent users
+ * instead of everyone who has ever connected.
+ *
+ * @author Kilian
+ *
+ */
+public class SummonerStore {
+
+	private static final Logger LOGGER = Logger.getLogger(SummonerStore.class.getSimpleName());
+
+	private final ConcurrentHashMap<Long, Summoner> active = new ConcurrentHashMap<>();
+
+	/** Time in milli seconds an active summoner disconnected */
+	private final ConcurrentHashMap<Long, Long> offlineSince = new ConcurrentHashMap<>();
+
+	private final ConcurrentHashMap<Long, DormantSummoner> dormant = new ConcurrentHashMap<>();
+
+	/** May be null. If null evicted summoners are forgotten */
+	private final SummonerPersistence persistence;
+
+	private final long demoteAfterMillis;
+
+	private final long evictAfterMillis;
+
+	private final ScheduledExecutorService scheduler = Executors
+			.newSingleThreadScheduledExecutor(new DaemonThreadFactory());
+
+	/**
+	 * @param persistence storage of evicted summoners. If null the mutes and chat
+	 *                    mode of evicted summoners are forgotten
+	 * @param demoteAfter time a disconnected summoner stays active
+	 * @param evictAfter  time a dormant summoner stays in memory
+	 * @param sweepEvery  interval of demotion and eviction runs. If 0 or
+	 *                    negative {@link #sweep(long)} has to be invoked manually
+	 * @param unit        the unit of the time arguments
+	 */
+	public SummonerStore(SummonerPersistence persistence, long demoteAfter, long evictAfter, long sweepEvery,
+			TimeUnit unit) {
+		this.persistence = persistence;
+		this.demoteAfterMillis = unit.toMillis(demoteAfter);
+		this.evictAfterMillis = unit.toMillis(evictAfter);
+		if (sweepEvery > 0) {
+			scheduler.scheduleWithFixedDelay(this::sweepSafe, sweepEvery, sweepEvery, unit);
+		}
+	}
+
+	/**
+	 * Add a connected summoner. If the summoner was known before it's mutes and
+	 * chat mode are restored.
+	 *
+	 * @param summoner the summoner to add
+	 */
+	public void register(Summoner summoner) {
+		long id = summoner.summonerId();
+		offlineSince.remove(id);
+
+		Summoner previous = active.put(id, summoner);
+		if (previous != null) {
+			if (previous != summoner) {
+				// Reconnected before being demoted. Carry over state
+				DormantSummoner.of(previous, System.currentTimeMillis()).restoreInto(summoner);
+			}
+			return;
+		}
+
+		DormantSummoner record = dormant.remove(id);
+		if (record == null && persistence != null) {
+			record = persistence.load(id);
+		}
+		if (record != null) {
+			record.restoreInto(summoner);
+		}
+	}
+
+	/**
+	 * Mark a summoner as disconnected. The summoner stays active until the
+	 * demotion threshold is reached.
+	 *
+	 * @param summoner the summoner who disconnected
+	 */
+	public void markOffline(Summoner summoner) {
+		offlineSince.put(summoner.summonerId(), System.currentTimeMillis());
+	}
+
+	/**
+	 * @param id the summoner id
+	 * @return the active summoner or null if the summoner is not active
+	 */
+	public Summoner get(long id) {
+		return active.get(id);
+	}
+
+	/**
+	 * @param id the summoner id
+	 * @return the dormant record or null if the summoner is not dormant
+	 */
+	public DormantSummoner getDormant(long id) {
+		return dormant.get(id);
+	}
+
+	/**
+	 * @param id the summoner id
+	 * @return true if the summoner is active
+	 */
+	public boolean contains(long id) {
+		return active.containsKey(id);
+	}
+
+	/**
+	 * @return a live view of all active summoners
+	 */
+	public Collection<Summoner> activeSummoners() {
+		return active.values();
+	}
+
+	/**
+	 * @return the number of active summoners
+	 */
+	public int getActiveCount() {
+		return active.size();
+	}
+
+	/**
+	 * @return the number of dormant summoners
+	 */
+	public int getDormantCount() {
+		return dormant.size();
+	}
+
+	/**
+	 * Demote and evict summoners exceeding their thresholds.
+	 *
+	 * @param now the current time in milli seconds since epoch
+	 */
+	public void sweep(long now) {
+		int demoted = 0;
+		for (Map.Entry<Long, Long> e : offlineSince.entrySet()) {
+			long offline = e.getValue();
+			// A reconnect removes the entry. Only demote summoners who are still offline
+			if (now - offline < demoteAfterMillis || !offlineSince.remove(e.getKey(), offline)) {
+				continue;
+			}
+			// Demote while holding the lock of the entry. A concurrent register either
+			// replaces the summoner before or finds the dormant record afterwards
+			Summoner[] demotedSummoner = new Summoner[1];
+			active.computeIfPresent(e.getKey(), (id, summoner) -> {
+				if (summoner.getBot() != null) {
+					return summoner;
+				}
+				dormant.put(id, DormantSummoner.of(summoner, offline));
+				demotedSummoner[0] = summoner;
+				return null;
+			});
+			if (demotedSummoner[0] != null) {
+				demoted++;
+			}
+		}
+
+		int evicted = 0;
+		for (DormantSummoner record : dormant.values()) {
+			if (now - record.getLastSeen() < evictAfterMillis) {
+				continue;
+			}
+			boolean[] removed = new boolean[1];
+			// Persist while holding the lock so a concurrent register loads the stored
+			// record instead of missing it
+			dormant.computeIfPresent(record.getId(), (id, current) -> {
+				if (current != record) {
+					return current;
+				}
+				if (persistence != null) {
+					persistence.store(record);
+				}
+				removed[0] = true;
+				return null;
+			});
+			if (removed[0]) {
+				evicted++;
+			}
+		}
+		if (demoted > 0 || evicted > 0) {
+			LOGGER.info("Demoted " + demoted + " evicted " + evicted + " summoners. Active: " + active.size()
+					+ " Dormant: " + dormant.size());
+		}
+	}
+
+	/**
+	 * Stop demoting and evicting summoners
+	 */
+	public void shutdown() {
+		scheduler.shutdown();
+	}
+
+	private void sweepSafe() {
+		try {
+			sweep(System.currentTimeMillis());
+		} catch (RuntimeException e) {
+			LOGGER.warning("Summoner sweep failed: " + e);
+		}
+	}
+
+}
@@ -0,0 +1,275 @@
+package com.github.kilianB.chatBot.throttle;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import com.github.kilianB.chatBot.SlaveBot;
+import com.github.kilianB.util.DaemonThreadFactory;
+
+/**
+ * Rate limits incoming messages per sending summoner (ingress) and api calls
+ * per slave account (egress).
+ *
+ * <p>
+ * Every sender and every slave is assigned a lock free {@link TokenBucket}.
+ * Once a bucket is exhausted the configured {@link ThrottlePolicy} decides if
+ * the request is dropped or delayed until a token becomes available. Delayed
+ * messages are executed on an internal scheduler thread. Delayed api calls are
+ * executed on a scheduler thread owned by the slave issuing them, a slow call
+ * of one slave therefore never holds back the calls of other slaves.
+ *
+ * @author Kilian
+ *
+ */
+public class RateLimiter {
+
+	private final ConcurrentHashMap<Long, TokenBucket> senderBuckets = new ConcurrentHashMap<>();
+
+	private final ConcurrentHashMap<SlaveBot, TokenBucket> slaveBuckets = new ConcurrentHashMap<>();
+
+	private final ThrottleMetrics metrics = new ThrottleMetrics();
+
+	/** Executes deferred messages */
+	private final ScheduledExecutorService scheduler = Executors
+			.newSingleThreadScheduledExecutor(new DaemonThreadFactory());
+
+	/** Executes the deferred api calls of a slave */
+	private final ConcurrentHashMap<SlaveBot, ScheduledExecutorService> slaveSchedulers = new ConcurrentHashMap<>();
+
+	private volatile boolean shutdown;
+
+	private final int senderCapacity;
+	private final double senderRate;
+	private final ThrottlePolicy ingressPolicy;
+
+	private final int slaveCapacity;
+	private final double slaveRate;
+	private final ThrottlePolicy egressPolicy;
+
+	/** Maximum time in nano seconds a request may be queued */
+	private final long maxQueueDelay;
+
+	/** Time source of the buckets in nano seconds */
+	private final LongSupplier clock;
+
+	private RateLimiter(Builder builder) {
+		this.senderCapacity = builder.senderCapacity;
+		this.senderRate = builder.senderRate;
+		this.ingressPolicy = builder.ingressPolicy;
+		this.slaveCapacity = builder.slaveCapacity;
+		this.slaveRate = builder.slaveRate;
+		this.egressPolicy = builder.egressPolicy;
+		this.maxQueueDelay = builder.maxQueueDelay;
+		this.clock = builder.clock;
+	}
+
+	/**
+	 * Check if a message of the summoner may be processed.
+	 *
+	 * @param senderId the summoner id of the sender
+	 * @param deferred the action to execute at a later point in time if the
+	 *                 message is queued
+	 * @return true if the message may be processed immediately. false if the
+	 *         message was dropped or deferred.
+	 */
+	public boolean acquireIngress(long senderId, Runnable deferred) {
+		TokenBucket bucket = senderBuckets.computeIfAbsent(senderId,
+				id -> new TokenBucket(senderCapacity, senderRate, clock));
+		return acquire(bucket, ingressPolicy, deferred, scheduler, true);
+	}
+
+	/**
+	 * Check if the slave may issue an api call.
+	 *
+	 * @param slave    the slave issuing the call
+	 * @param deferred the action to execute at a later point in time if the call
+	 *                 is queued
+	 * @return true if the call may be issued immediately. false if the call was
+	 *         dropped or deferred.
+	 */
+	public boolean acquireEgress(SlaveBot slave, Runnable deferred) {
+		return acquire(slaveBucket(slave), egressPolicy, deferred, slaveScheduler(slave), false);
+	}
+
+	/**
+	 * Run a task on the thread issuing the deferred api calls of the slave. Used to
+	 * move api calls off threads which must not block.
+	 *
+	 * @param slave the slave issuing the calls of the task
+	 * @param task  the task
+	 * @throws java.util.concurrent.RejectedExecutionException if the limiter was
+	 *                                                          shut down
+	 */
+	public void executeEgress(SlaveBot slave, Runnable task) {
+		slaveScheduler(slave).execute(task);
+	}
+
+	/**
+	 * Block until the slave may issue an api call. Used for bulk operations which
+	 * should be delivered completely but as fast as the rate limit allows.
+	 *
+	 * @param slave the slave issuing the call
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	public void awaitEgress(SlaveBot slave) throws InterruptedException {
+		long wait = slaveBucket(slave).reserve(Long.MAX_VALUE);
+		if (wait > 0) {
+			metrics.egressQueued.increment();
+			TimeUnit.NANOSECONDS.sleep(wait);
+		} else {
+			metrics.egressPermitted.increment();
+		}
+	}
+
+	/**
+	 * Release the state kept for a sender. Called once a summoner disconnects.
+	 *
+	 * @param senderId the summoner id of the sender
+	 */
+	public void forgetSender(long senderId) {
+		senderBuckets.remove(senderId);
+	}
+
+	/**
+	 * Release the state kept for a slave. Deferred api calls of the slave which
+	 * are already scheduled are still executed.
+	 *
+	 * @param slave the slave to forget
+	 */
+	public void forgetSlave(SlaveBot slave) {
+		slaveBuckets.remove(slave);
+		ScheduledExecutorService slaveScheduler = slaveSchedulers.remove(slave);
+		if (slaveScheduler != null) {
+			slaveScheduler.shutdown();
+		}
+	}
+
+	/**
+	 * @return counters of throttled events
+	 */
+	public ThrottleMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * Stop executing deferred requests
+	 */
+	public void shutdown() {
+		shutdown = true;
+		scheduler.shutdown();
+		slaveSchedulers.values().forEach(ScheduledExecutorService::shutdown);
+	}
+
+	TokenBucket slaveBucket(SlaveBot slave) {
+		return slaveBuckets.computeIfAbsent(slave, s -> new TokenBucket(slaveCapacity, slaveRate, clock));
+	}
+
+	private ScheduledExecutorService slaveScheduler(SlaveBot slave) {
+		if (shutdown) {
+			return scheduler;
+		}
+		return slaveSchedulers.computeIfAbsent(slave,
+				s -> Executors.newSingleThreadScheduledExecutor(new DaemonThreadFactory()));
+	}
+
+	private boolean acquire(TokenBucket bucket, ThrottlePolicy policy, Runnable deferred,
+			ScheduledExecutorService executor, boolean ingress) {
+		if (bucket.tryAcquire()) {
+			(ingress ? metrics.ingressPermitted : metrics.egressPermitted).increment();
+			return true;
+		}
+		if (policy == ThrottlePolicy.QUEUE) {
+			long delay = bucket.reserve(maxQueueDelay);
+			if (delay >= 0) {
+				(ingress ? metrics.ingressQueued : metrics.egressQueued).increment();
+				executor.schedule(deferred, delay, TimeUnit.NANOSECONDS);
+				return false;
+			}
+		}
+		(ingress ? metrics.ingressDropped : metrics.egressDropped).increment();
+		return false;
+	}
+
+	/**
+	 * Creates builder to build {@link RateLimiter}. Settings not supplied fall
+	 * back to sensible defaults.
+	 *
+	 * @return created builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Builder to build {@link RateLimiter}.
+	 */
+	public static final class Builder {
+		private int senderCapacity = 5;
+		private double senderRate = 1;
+		private ThrottlePolicy ingressPolicy = ThrottlePolicy.DROP;
+		private int slaveCapacity = 50;
+		private double slaveRate = 25;
+		private ThrottlePolicy egressPolicy = ThrottlePolicy.QUEUE;
+		private long maxQueueDelay = TimeUnit.SECONDS.toNanos(10);
+		private LongSupplier clock = System::nanoTime;
+
+		private Builder() {
+		}
+
+		/**
+		 * @param capacity          burst of messages a single summoner may send
+		 * @param messagesPerSecond sustained message rate of a single summoner
+		 * @param policy            action taken once the rate is exceeded
+		 * @return this builder
+		 */
+		public Builder withSenderLimit(int capacity, double messagesPerSecond, ThrottlePolicy policy) {
+			this.senderCapacity = capacity;
+			this.senderRate = messagesPerSecond;
+			this.ingressPolicy = policy;
+			return this;
+		}
+
+		/**
+		 * @param capacity       burst of api calls a single slave may issue
+		 * @param callsPerSecond sustained api call rate of a single slave
+		 * @param policy         action taken once the rate is exceeded
+		 * @return this builder
+		 */
+		public Builder withSlaveLimit(int capacity, double callsPerSecond, ThrottlePolicy policy) {
+			this.slaveCapacity = capacity;
+			this.slaveRate = callsPerSecond;
+			this.egressPolicy = policy;
+			return this;
+		}
+
+		/**
+		 * @param delay the maximum time a queued request may be delayed before it's
+		 *              dropped
+		 * @param unit  the unit of the delay argument
+		 * @return this builder
+		 */
+		public Builder withMaxQueueDelay(long delay, TimeUnit unit) {
+			this.maxQueueDelay = unit.toNanos(delay);
+			return this;
+		}
+
+		/**
+		 * @param clock the time source of the buckets in nano seconds e.g. the
+		 *              clock of a simulation. Queued requests are still executed
+		 *              after the delay passed on the system clock
+		 * @return this builder
+		 */
+		public Builder withClock(LongSupplier clock) {
+			this.clock = clock;
+			return this;
+		}
+
+		public RateLimiter build() {
+			return new RateLimiter(this);
+		}
+	}
+
+}
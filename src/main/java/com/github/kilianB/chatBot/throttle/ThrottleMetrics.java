@@ -0,0 +1,74 @@
+package com.github.kilianB.chatBot.throttle;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of rate limited events. Ingress refers to messages received from
+ * summoners, egress to api calls issued by slave bots.
+ *
+ * @author Kilian
+ *
+ */
+public class ThrottleMetrics {
+
+	final LongAdder ingressPermitted = new LongAdder();
+	final LongAdder ingressQueued = new LongAdder();
+	final LongAdder ingressDropped = new LongAdder();
+
+	final LongAdder egressPermitted = new LongAdder();
+	final LongAdder egressQueued = new LongAdder();
+	final LongAdder egressDropped = new LongAdder();
+
+	/**
+	 * @return the number of messages processed without delay
+	 */
+	public long getIngressPermitted() {
+		return ingressPermitted.sum();
+	}
+
+	/**
+	 * @return the number of messages delayed due to the sender exceeding it's
+	 *         rate
+	 */
+	public long getIngressQueued() {
+		return ingressQueued.sum();
+	}
+
+	/**
+	 * @return the number of messages discarded due to the sender exceeding it's
+	 *         rate
+	 */
+	public long getIngressDropped() {
+		return ingressDropped.sum();
+	}
+
+	/**
+	 * @return the number of api calls issued without delay
+	 */
+	public long getEgressPermitted() {
+		return egressPermitted.sum();
+	}
+
+	/**
+	 * @return the number of api calls delayed due to the slave exceeding it's rate
+	 */
+	public long getEgressQueued() {
+		return egressQueued.sum();
+	}
+
+	/**
+	 * @return the number of api calls discarded due to the slave exceeding it's
+	 *         rate
+	 */
+	public long getEgressDropped() {
+		return egressDropped.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "ThrottleMetrics [ingressPermitted=" + getIngressPermitted() + ", ingressQueued=" + getIngressQueued()
+				+ ", ingressDropped=" + getIngressDropped() + ", egressPermitted=" + getEgressPermitted()
+				+ ", egressQueued=" + getEgressQueued() + ", egressDropped=" + getEgressDropped() + "]";
+	}
+
+}
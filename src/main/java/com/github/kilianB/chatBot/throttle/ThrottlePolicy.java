@@ -0,0 +1,17 @@
+package com.github.kilianB.chatBot.throttle;
+
+/**
+ * Action taken once a rate limit is exceeded
+ *
+ * @author Kilian
+ *
+ */
+public enum ThrottlePolicy {
+	/** Discard the request */
+	DROP,
+	/**
+	 * Delay the request until a token becomes available. Requests which would have
+	 * to wait longer than the configured maximum queue delay are dropped.
+	 */
+	QUEUE;
+}
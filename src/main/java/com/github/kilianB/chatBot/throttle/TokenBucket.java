@@ -0,0 +1,108 @@
+package com.github.kilianB.chatBot.throttle;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock free token bucket. Instead of storing the number of tokens and
+ * periodically refilling them the bucket keeps track of the theoretical point
+ * in time at which the bucket will be empty (generic cell rate algorithm). This
+ * allows the entire state to be kept in a single atomic long which is updated
+ * via compare and set.
+ *
+ * @author Kilian
+ *
+ */
+public class TokenBucket {
+
+	/** Nano seconds it takes to refill a single token */
+	private final long emissionInterval;
+
+	/** Nano seconds it takes to refill the entire bucket */
+	private final long burstTolerance;
+
+	/** Theoretical arrival time of the next token */
+	private final AtomicLong tat;
+
+	/** Time source in nano seconds */
+	private final LongSupplier clock;
+
+	/**
+	 * @param capacity        the maximum number of tokens the bucket can hold.
+	 *                        Bursts up to this size are permitted
+	 * @param tokensPerSecond the rate at which tokens are refilled
+	 */
+	public TokenBucket(int capacity, double tokensPerSecond) {
+		this(capacity, tokensPerSecond, System::nanoTime);
+	}
+
+	/**
+	 * @param capacity        the maximum number of tokens the bucket can hold.
+	 *                        Bursts up to this size are permitted
+	 * @param tokensPerSecond the rate at which tokens are refilled
+	 * @param clock           the time source in nano seconds e.g. the clock of a
+	 *                        simulation
+	 */
+	public TokenBucket(int capacity, double tokensPerSecond, LongSupplier clock) {
+		if (capacity <= 0 || tokensPerSecond <= 0) {
+			throw new IllegalArgumentException("Capacity and refill rate have to be positive");
+		}
+		this.emissionInterval = (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond);
+		this.burstTolerance = emissionInterval * capacity;
+		this.clock = clock;
+		// Start with a full bucket
+		this.tat = new AtomicLong(clock.getAsLong() - burstTolerance);
+	}
+
+	/**
+	 * Try to take a single token out of the bucket.
+	 *
+	 * @return true if a token was available, false if the bucket is empty
+	 */
+	public boolean tryAcquire() {
+		return tryAcquire(clock.getAsLong());
+	}
+
+	boolean tryAcquire(long now) {
+		for (;;) {
+			long current = tat.get();
+			long next = Math.max(current, now - burstTolerance) + emissionInterval;
+			if (next - now > 0) {
+				return false;
+			}
+			if (tat.compareAndSet(current, next)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Reserve a token which may only be used in the future. The reservation is
+	 * only granted if the token becomes available within the given delay.
+	 *
+	 * @param maxDelay the maximum time in nano seconds the caller is willing to
+	 *                 wait for the token
+	 * @return the nano seconds the caller has to wait until the token may be used
+	 *         (0 if available immediately) or -1 if no token can be reserved
+	 *         within maxDelay
+	 */
+	public long reserve(long maxDelay) {
+		return reserve(clock.getAsLong(), maxDelay);
+	}
+
+	long reserve(long now, long maxDelay) {
+		for (;;) {
+			long current = tat.get();
+			long next = Math.max(current, now - burstTolerance) + emissionInterval;
+			long wait = Math.max(0, next - now);
+			if (wait > maxDelay) {
+				return -1;
+			}
+			if (tat.compareAndSet(current, next)) {
+				return wait;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,49 @@
+package com.github.kilianB.clientEvents;
+
+/**
+ * A friend send a chat message
+ *
+ * @author Kilian
+ *
+ */
+public class ChatEvent extends ClientEvent {
+
+	private long fromSummonerId;
+
+	private String body;
+
+	@Override
+	void reset(boolean deleted) {
+		super.reset(deleted);
+		fromSummonerId = 0;
+		body = null;
+	}
+
+	void setFromSummonerId(long fromSummonerId) {
+		this.fromSummonerId = fromSummonerId;
+	}
+
+	void setBody(String body) {
+		this.body = body;
+	}
+
+	/**
+	 * @return the summoner id of the sender
+	 */
+	public long getFromSummonerId() {
+		return fromSummonerId;
+	}
+
+	/**
+	 * @return the text of the message
+	 */
+	public String getBody() {
+		return body;
+	}
+
+	@Override
+	public String toString() {
+		return "ChatEvent [fromSummonerId=" + fromSummonerId + ", body=" + body + "]";
+	}
+
+}
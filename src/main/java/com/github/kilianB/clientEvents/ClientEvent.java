@@ -0,0 +1,30 @@
+package com.github.kilianB.clientEvents;
+
+/**
+ * Event reported by the league client.
+ *
+ * <p>
+ * Events are reused by the {@link ClientEventDecoder} and only valid for the
+ * duration of the listener call. Listeners must copy the values they want to
+ * keep.
+ *
+ * @author Kilian
+ *
+ */
+public abstract class ClientEvent {
+
+	private boolean deleted;
+
+	void reset(boolean deleted) {
+		this.deleted = deleted;
+	}
+
+	/**
+	 * @return true if the client reported the removal of the resource e.g. a
+	 *         lobby which was left or a friend who was removed
+	 */
+	public boolean isDeleted() {
+		return deleted;
+	}
+
+}
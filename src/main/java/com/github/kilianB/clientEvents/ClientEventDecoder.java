@@ -0,0 +1,381 @@
+package com.github.kilianB.clientEvents;
+
+import java.util.logging.Logger;
+
+import com.github.kilianB.dtos.ChatAvailability;
+import com.github.kilianB.dtos.League;
+import com.github.kilianB.dtos.MapID;
+import com.github.kilianB.dtos.QueueId;
+import com.github.kilianB.gameManager.PickBanStrategy;
+
+/**
+ * Decodes the json events pushed by the league client into typed events.
+ *
+ * <p>
+ * Accepts raw websocket frames ({@code [8,"OnJsonApiEvent",{...}]}) as well
+ * as the bare event object ({@code {"data":...,"eventType":...,"uri":...}}).
+ * The json is read in a single pass without building a tree. Ids are mapped to
+ * enums by table lookups and the emitted events are reused, so decoding a
+ * lobby or presence event does not allocate. Only chat events allocate the
+ * message body.
+ *
+ * <p>
+ * Since the client usually sends the data before the uri deciding how to read
+ * it, the data is skipped and read again once the uri is known.
+ *
+ * <p>
+ * A decoder is not thread safe. Every connection to a client uses it's own
+ * decoder.
+ *
+ * @author Kilian
+ *
+ */
+public class ClientEventDecoder {
+
+	private static final Logger LOGGER = Logger.getLogger(ClientEventDecoder.class.getSimpleName());
+
+	/** Opcode of websocket frames carrying an event */
+	private static final int EVENT_OPCODE = 8;
+
+	private static final String LOBBY_URI = "/lol-lobby/v2/lobby";
+	private static final String INVITATIONS_URI = "/lol-lobby/v2/lobby/invitations";
+	private static final String FRIEND_URI = "/lol-chat/v1/friends/";
+	private static final String CONVERSATION_URI = "/lol-chat/v1/conversations/";
+	private static final String MESSAGES_URI = "/messages/";
+
+	private static final int UNKNOWN = 0;
+	private static final int LOBBY = 1;
+	private static final int PRESENCE = 2;
+	private static final int CHAT = 3;
+	private static final int INVITATIONS = 4;
+
+	private final JsonCursor cursor = new JsonCursor();
+
+	private final ClientEventListener listener;
+
+	private final LobbyEvent lobbyEvent = new LobbyEvent();
+
+	private final PresenceEvent presenceEvent = new PresenceEvent();
+
+	private final ChatEvent chatEvent = new ChatEvent();
+
+	private final InvitationEvent invitationEvent = new InvitationEvent();
+
+	private long decoded;
+
+	private long malformed;
+
+	/**
+	 * @param listener receives the decoded events
+	 */
+	public ClientEventDecoder(ClientEventListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Decode an event and pass it to the listener
+	 *
+	 * @param json the websocket frame or event object
+	 * @return true if a lobby, invitation, presence or chat event was emitted. False if the
+	 *         event is of no interest or malformed
+	 */
+	public boolean decode(CharSequence json) {
+		try {
+			cursor.reset(json);
+			if (cursor.peek() == '[') {
+				cursor.beginArray();
+				if (!cursor.hasNext() || cursor.nextLong() != EVENT_OPCODE) {
+					return false;
+				}
+				// Topic
+				if (!cursor.hasNext()) {
+					return false;
+				}
+				cursor.skipValue();
+				if (!cursor.hasNext()) {
+					return false;
+				}
+			}
+			return decodeEvent();
+		} catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+			malformed++;
+			LOGGER.fine("Malformed client event: " + e.getMessage());
+			return false;
+		}
+	}
+
+	/**
+	 * @return the number of emitted events
+	 */
+	public long getDecoded() {
+		return decoded;
+	}
+
+	/**
+	 * @return the number of events which could not be parsed
+	 */
+	public long getMalformed() {
+		return malformed;
+	}
+
+	private boolean decodeEvent() {
+		cursor.beginObject();
+		int kind = UNKNOWN;
+		boolean kindKnown = false;
+		boolean deleted = false;
+		int dataPosition = -1;
+		boolean emitted = false;
+		while (cursor.hasNext()) {
+			CharSequence name = cursor.nextName();
+			if ("data".contentEquals(name)) {
+				if (kindKnown) {
+					emitted = decodeData(kind, deleted);
+				} else {
+					dataPosition = cursor.position();
+					cursor.skipValue();
+				}
+			} else if ("uri".contentEquals(name)) {
+				kind = classify(cursor.nextString());
+				kindKnown = true;
+			} else if ("eventType".contentEquals(name)) {
+				deleted = "Delete".contentEquals(cursor.nextString());
+			} else {
+				cursor.skipValue();
+			}
+		}
+		if (dataPosition >= 0 && kind != UNKNOWN) {
+			cursor.seek(dataPosition);
+			emitted = decodeData(kind, deleted);
+		}
+		return emitted;
+	}
+
+	private static int classify(CharSequence uri) {
+		if (LOBBY_URI.contentEquals(uri)) {
+			return LOBBY;
+		}
+		if (INVITATIONS_URI.contentEquals(uri)) {
+			return INVITATIONS;
+		}
+		if (startsWith(uri, FRIEND_URI)) {
+			return PRESENCE;
+		}
+		if (startsWith(uri, CONVERSATION_URI) && contains(uri, MESSAGES_URI, CONVERSATION_URI.length())) {
+			return CHAT;
+		}
+		return UNKNOWN;
+	}
+
+	private boolean decodeData(int kind, boolean deleted) {
+		switch (kind) {
+		case LOBBY:
+			lobbyEvent.reset(deleted);
+			if (!cursor.nextNull()) {
+				decodeLobby();
+			}
+			listener.onLobby(lobbyEvent);
+			break;
+		case INVITATIONS:
+			invitationEvent.reset(deleted);
+			if (!cursor.nextNull()) {
+				decodeInvitations();
+			}
+			listener.onInvitations(invitationEvent);
+			break;
+		case PRESENCE:
+			presenceEvent.reset(deleted);
+			if (!cursor.nextNull()) {
+				decodePresence();
+			}
+			listener.onPresence(presenceEvent);
+			break;
+		case CHAT:
+			chatEvent.reset(deleted);
+			if (deleted) {
+				cursor.skipValue();
+				return false;
+			}
+			if (cursor.nextNull() || !decodeChat()) {
+				return false;
+			}
+			listener.onChat(chatEvent);
+			break;
+		default:
+			cursor.skipValue();
+			return false;
+		}
+		decoded++;
+		return true;
+	}
+
+	private void decodeLobby() {
+		cursor.beginObject();
+		while (cursor.hasNext()) {
+			CharSequence name = cursor.nextName();
+			if ("gameConfig".contentEquals(name)) {
+				if (!cursor.nextNull()) {
+					decodeGameConfig();
+				}
+			} else {
+				cursor.skipValue();
+			}
+		}
+	}
+
+	private void decodeGameConfig() {
+		cursor.beginObject();
+		while (cursor.hasNext()) {
+			CharSequence name = cursor.nextName();
+			if (cursor.nextNull()) {
+				continue;
+			}
+			if ("queueId".contentEquals(name)) {
+				lobbyEvent.setQueue(QueueId.fromId((int) cursor.nextLong()));
+			} else if ("mapId".contentEquals(name)) {
+				lobbyEvent.setMap(MapID.fromId((int) cursor.nextLong()));
+			} else if ("pickType".contentEquals(name)) {
+				lobbyEvent.setPickBanStrategy(PickBanStrategy.fromPickStrategy(cursor.nextString()));
+			} else if ("customTeam100".contentEquals(name)) {
+				decodeMembers(LobbyEvent.TEAM_100);
+			} else if ("customTeam200".contentEquals(name)) {
+				decodeMembers(LobbyEvent.TEAM_200);
+			} else if ("customSpectators".contentEquals(name)) {
+				decodeMembers(LobbyEvent.SPECTATORS);
+			} else {
+				cursor.skipValue();
+			}
+		}
+	}
+
+	private void decodeMembers(int team) {
+		cursor.beginArray();
+		while (cursor.hasNext()) {
+			cursor.beginObject();
+			while (cursor.hasNext()) {
+				CharSequence name = cursor.nextName();
+				if ("summonerId".contentEquals(name)) {
+					if (!cursor.nextNull()) {
+						lobbyEvent.addMember(team, cursor.nextLong());
+					}
+				} else {
+					cursor.skipValue();
+				}
+			}
+		}
+	}
+
+	private void decodeInvitations() {
+		cursor.beginArray();
+		while (cursor.hasNext()) {
+			long summonerId = 0;
+			boolean declined = false;
+			cursor.beginObject();
+			while (cursor.hasNext()) {
+				CharSequence name = cursor.nextName();
+				if (cursor.nextNull()) {
+					continue;
+				}
+				if ("toSummonerId".contentEquals(name)) {
+					summonerId = cursor.nextLong();
+				} else if ("state".contentEquals(name)) {
+					declined = "Declined".contentEquals(cursor.nextString());
+				} else {
+					cursor.skipValue();
+				}
+			}
+			if (declined && summonerId != 0) {
+				invitationEvent.addDeclined(summonerId);
+			}
+		}
+	}
+
+	private void decodePresence() {
+		cursor.beginObject();
+		while (cursor.hasNext()) {
+			CharSequence name = cursor.nextName();
+			if (cursor.nextNull()) {
+				continue;
+			}
+			if ("summonerId".contentEquals(name)) {
+				presenceEvent.setSummonerId(cursor.nextLong());
+			} else if ("availability".contentEquals(name)) {
+				presenceEvent.setAvailability(ChatAvailability.fromString(cursor.nextString()));
+			} else if ("lol".contentEquals(name)) {
+				decodeLeagueStatus();
+			} else {
+				cursor.skipValue();
+			}
+		}
+	}
+
+	/**
+	 * Read the ranked tier from the league specific status of a presence
+	 */
+	private void decodeLeagueStatus() {
+		cursor.beginObject();
+		while (cursor.hasNext()) {
+			CharSequence name = cursor.nextName();
+			if ("rankedLeagueTier".contentEquals(name)) {
+				if (!cursor.nextNull()) {
+					presenceEvent.setLeague(League.fromTier(cursor.nextString()));
+				}
+			} else {
+				cursor.skipValue();
+			}
+		}
+	}
+
+	/**
+	 * @return true if the message was send by a summoner. False for system
+	 *         messages
+	 */
+	private boolean decodeChat() {
+		boolean chat = true;
+		cursor.beginObject();
+		while (cursor.hasNext()) {
+			CharSequence name = cursor.nextName();
+			if (cursor.nextNull()) {
+				continue;
+			}
+			if ("fromSummonerId".contentEquals(name)) {
+				chatEvent.setFromSummonerId(cursor.nextLong());
+			} else if ("body".contentEquals(name)) {
+				chatEvent.setBody(cursor.nextString().toString());
+			} else if ("type".contentEquals(name)) {
+				chat = "chat".contentEquals(cursor.nextString());
+			} else {
+				cursor.skipValue();
+			}
+		}
+		return chat && chatEvent.getBody() != null;
+	}
+
+	private static boolean startsWith(CharSequence sequence, String prefix) {
+		return regionMatches(sequence, 0, prefix);
+	}
+
+	/**
+	 * @return true if the sequence contains the part at or after the offset
+	 */
+	private static boolean contains(CharSequence sequence, String part, int offset) {
+		for (int i = offset; i <= sequence.length() - part.length(); i++) {
+			if (regionMatches(sequence, i, part)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean regionMatches(CharSequence sequence, int offset, String part) {
+		if (offset + part.length() > sequence.length()) {
+			return false;
+		}
+		for (int i = 0; i < part.length(); i++) {
+			if (sequence.charAt(offset + i) != part.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
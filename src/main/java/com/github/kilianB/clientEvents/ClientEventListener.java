@@ -0,0 +1,44 @@
+package com.github.kilianB.clientEvents;
+
+/**
+ * Receives the events decoded by a {@link ClientEventDecoder}. Events are
+ * reused and only valid for the duration of the call.
+ *
+ * @author Kilian
+ *
+ */
+public interface ClientEventListener {
+
+	/**
+	 * The lobby of the client was created, changed or left
+	 *
+	 * @param event the event
+	 */
+	default void onLobby(LobbyEvent event) {
+	}
+
+	/**
+	 * The invitations of the lobby of the client changed
+	 *
+	 * @param event the event
+	 */
+	default void onInvitations(InvitationEvent event) {
+	}
+
+	/**
+	 * The availability of a friend changed
+	 *
+	 * @param event the event
+	 */
+	default void onPresence(PresenceEvent event) {
+	}
+
+	/**
+	 * A friend send a chat message
+	 *
+	 * @param event the event
+	 */
+	default void onChat(ChatEvent event) {
+	}
+
+}
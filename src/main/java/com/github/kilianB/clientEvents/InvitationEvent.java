@@ -0,0 +1,55 @@
+package com.github.kilianB.clientEvents;
+
+import java.util.Arrays;
+
+/**
+ * The invitations of the current lobby changed. Only the summoners who
+ * declined their invite are reported.
+ *
+ * @author Kilian
+ *
+ */
+public class InvitationEvent extends ClientEvent {
+
+	private long[] declined = new long[4];
+
+	private int declinedCount;
+
+	@Override
+	void reset(boolean deleted) {
+		super.reset(deleted);
+		declinedCount = 0;
+	}
+
+	void addDeclined(long summonerId) {
+		if (declinedCount == declined.length) {
+			declined = Arrays.copyOf(declined, declinedCount * 2);
+		}
+		declined[declinedCount++] = summonerId;
+	}
+
+	/**
+	 * @return the number of summoners who declined their invite
+	 */
+	public int getDeclinedCount() {
+		return declinedCount;
+	}
+
+	/**
+	 * @param index the index of the summoner [0 - declinedCount)
+	 * @return the summoner id of a summoner who declined the invite
+	 */
+	public long getDeclinedId(int index) {
+		if (index >= declinedCount) {
+			throw new IndexOutOfBoundsException("Index: " + index + " Size: " + declinedCount);
+		}
+		return declined[index];
+	}
+
+	@Override
+	public String toString() {
+		return "InvitationEvent [declined=" + Arrays.toString(Arrays.copyOf(declined, declinedCount))
+				+ ", deleted=" + isDeleted() + "]";
+	}
+
+}
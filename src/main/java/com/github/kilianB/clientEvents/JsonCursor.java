@@ -0,0 +1,301 @@
+package com.github.kilianB.clientEvents;
+
+/**
+ * Pull style json reader operating directly on the received text.
+ *
+ * <p>
+ * No tree is build. Names and string values are decoded into a single reused
+ * buffer which is only valid until the next read. Numbers are parsed in place.
+ * The cursor may be repositioned to read a value a second time.
+ *
+ * <p>
+ * Objects and arrays are iterated with {@link #hasNext()} which consumes the
+ * separating commas as well as the closing bracket.
+ *
+ * @author Kilian
+ *
+ */
+final class JsonCursor {
+
+	private final StringBuilder buffer = new StringBuilder(64);
+
+	private CharSequence in;
+
+	private int pos;
+
+	private int limit;
+
+	void reset(CharSequence json) {
+		this.in = json;
+		this.pos = 0;
+		this.limit = json.length();
+	}
+
+	int position() {
+		skipWhitespace();
+		return pos;
+	}
+
+	void seek(int position) {
+		this.pos = position;
+	}
+
+	/**
+	 * @return the next non whitespace character without consuming it
+	 */
+	char peek() {
+		skipWhitespace();
+		if (pos >= limit) {
+			throw error("Unexpected end of input");
+		}
+		return in.charAt(pos);
+	}
+
+	void beginObject() {
+		expect('{');
+	}
+
+	void beginArray() {
+		expect('[');
+	}
+
+	/**
+	 * @return true if another element of the current object or array follows.
+	 *         False if the closing bracket was consumed
+	 */
+	boolean hasNext() {
+		char c = peek();
+		if (c == ',') {
+			pos++;
+			return true;
+		}
+		if (c == '}' || c == ']') {
+			pos++;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Read the name of the next field including the colon
+	 *
+	 * @return the name. Only valid until the next read
+	 */
+	CharSequence nextName() {
+		readString();
+		expect(':');
+		return buffer;
+	}
+
+	/**
+	 * @return the string value. Only valid until the next read
+	 */
+	CharSequence nextString() {
+		readString();
+		return buffer;
+	}
+
+	/**
+	 * Read a number. Fractions are truncated.
+	 *
+	 * @return the integral part of the number
+	 */
+	long nextLong() {
+		skipWhitespace();
+		boolean negative = pos < limit && in.charAt(pos) == '-';
+		if (negative) {
+			pos++;
+		}
+		int start = pos;
+		long value = 0;
+		while (pos < limit) {
+			char c = in.charAt(pos);
+			if (c < '0' || c > '9') {
+				break;
+			}
+			value = value * 10 + (c - '0');
+			pos++;
+		}
+		if (pos == start) {
+			throw error("Expected number");
+		}
+		// Skip fraction and exponent
+		while (pos < limit) {
+			char c = in.charAt(pos);
+			if ((c >= '0' && c <= '9') || c == '.' || c == 'e' || c == 'E' || c == '+' || c == '-') {
+				pos++;
+			} else {
+				break;
+			}
+		}
+		return negative ? -value : value;
+	}
+
+	boolean nextBoolean() {
+		if (peek() == 't') {
+			literal("true");
+			return true;
+		}
+		literal("false");
+		return false;
+	}
+
+	/**
+	 * Consume a null value if present
+	 *
+	 * @return true if the next value was null and got consumed
+	 */
+	boolean nextNull() {
+		if (peek() != 'n') {
+			return false;
+		}
+		literal("null");
+		return true;
+	}
+
+	/**
+	 * Skip the next value including nested objects and arrays
+	 */
+	void skipValue() {
+		char c = peek();
+		switch (c) {
+		case '"':
+			skipString();
+			break;
+		case '{':
+		case '[':
+			char open = c;
+			int depth = 0;
+			do {
+				c = in.charAt(pos);
+				if (c == '"') {
+					skipString();
+					continue;
+				}
+				if (c == '{' || c == '[') {
+					depth++;
+				} else if (c == '}' || c == ']') {
+					depth--;
+				}
+				pos++;
+			} while (depth > 0 && pos < limit);
+			if (depth > 0) {
+				throw error("Unterminated " + (open == '{' ? "object" : "array"));
+			}
+			break;
+		case 't':
+			literal("true");
+			break;
+		case 'f':
+			literal("false");
+			break;
+		case 'n':
+			literal("null");
+			break;
+		default:
+			nextLong();
+		}
+	}
+
+	private void readString() {
+		expect('"');
+		buffer.setLength(0);
+		while (pos < limit) {
+			char c = in.charAt(pos++);
+			if (c == '"') {
+				return;
+			}
+			if (c != '\\') {
+				buffer.append(c);
+				continue;
+			}
+			if (pos >= limit) {
+				break;
+			}
+			char escaped = in.charAt(pos++);
+			switch (escaped) {
+			case 'b':
+				buffer.append('\b');
+				break;
+			case 'f':
+				buffer.append('\f');
+				break;
+			case 'n':
+				buffer.append('\n');
+				break;
+			case 'r':
+				buffer.append('\r');
+				break;
+			case 't':
+				buffer.append('\t');
+				break;
+			case 'u':
+				if (pos + 4 > limit) {
+					throw error("Truncated unicode escape");
+				}
+				int code = 0;
+				for (int i = 0; i < 4; i++) {
+					int digit = Character.digit(in.charAt(pos++), 16);
+					if (digit < 0) {
+						throw error("Invalid unicode escape");
+					}
+					code = (code << 4) | digit;
+				}
+				buffer.append((char) code);
+				break;
+			default:
+				// \" \\ and \/
+				buffer.append(escaped);
+			}
+		}
+		throw error("Unterminated string");
+	}
+
+	private void skipString() {
+		pos++;
+		while (pos < limit) {
+			char c = in.charAt(pos++);
+			if (c == '"') {
+				return;
+			}
+			if (c == '\\') {
+				pos++;
+			}
+		}
+		throw error("Unterminated string");
+	}
+
+	private void literal(String literal) {
+		if (pos + literal.length() > limit) {
+			throw error("Expected " + literal);
+		}
+		for (int i = 0; i < literal.length(); i++) {
+			if (in.charAt(pos + i) != literal.charAt(i)) {
+				throw error("Expected " + literal);
+			}
+		}
+		pos += literal.length();
+	}
+
+	private void expect(char c) {
+		if (peek() != c) {
+			throw error("Expected '" + c + "'");
+		}
+		pos++;
+	}
+
+	private void skipWhitespace() {
+		while (pos < limit) {
+			char c = in.charAt(pos);
+			if (c != ' ' && c != '\n' && c != '\r' && c != '\t') {
+				return;
+			}
+			pos++;
+		}
+	}
+
+	private IllegalArgumentException error(String message) {
+		return new IllegalArgumentException(message + " at position " + pos);
+	}
+
+}
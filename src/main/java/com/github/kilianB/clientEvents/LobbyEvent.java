@@ -0,0 +1,141 @@
+package com.github.kilianB.clientEvents;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongFunction;
+
+import com.github.kilianB.dtos.MapID;
+import com.github.kilianB.dtos.QueueId;
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.gameManager.PickBanStrategy;
+
+/**
+ * The lobby of the client was created, changed or left. Members are reported
+ * by their summoner id per team.
+ *
+ * @author Kilian
+ *
+ */
+public class LobbyEvent extends ClientEvent {
+
+	/** Index of the blue team */
+	public static final int TEAM_100 = 0;
+
+	/** Index of the red team */
+	public static final int TEAM_200 = 1;
+
+	/** Index of the spectators */
+	public static final int SPECTATORS = 2;
+
+	private QueueId queue;
+
+	private MapID map;
+
+	private PickBanStrategy pickBanStrategy;
+
+	private final long[][] members = { new long[5], new long[5], new long[4] };
+
+	private final int[] memberCount = new int[3];
+
+	@Override
+	void reset(boolean deleted) {
+		super.reset(deleted);
+		queue = null;
+		map = null;
+		pickBanStrategy = null;
+		Arrays.fill(memberCount, 0);
+	}
+
+	void setQueue(QueueId queue) {
+		this.queue = queue;
+	}
+
+	void setMap(MapID map) {
+		this.map = map;
+	}
+
+	void setPickBanStrategy(PickBanStrategy pickBanStrategy) {
+		this.pickBanStrategy = pickBanStrategy;
+	}
+
+	void addMember(int team, long summonerId) {
+		int count = memberCount[team];
+		if (count == members[team].length) {
+			members[team] = Arrays.copyOf(members[team], count * 2);
+		}
+		members[team][count] = summonerId;
+		memberCount[team] = count + 1;
+	}
+
+	/**
+	 * @return the queue of the lobby or null if unknown
+	 */
+	public QueueId getQueue() {
+		return queue;
+	}
+
+	/**
+	 * @return the map of the lobby or null if unknown
+	 */
+	public MapID getMap() {
+		return map;
+	}
+
+	/**
+	 * @return the pick ban strategy of the lobby or null if unknown
+	 */
+	public PickBanStrategy getPickBanStrategy() {
+		return pickBanStrategy;
+	}
+
+	/**
+	 * @param team {@link #TEAM_100}, {@link #TEAM_200} or {@link #SPECTATORS}
+	 * @return the number of members of the team
+	 */
+	public int getMemberCount(int team) {
+		return memberCount[team];
+	}
+
+	/**
+	 * @param team  {@link #TEAM_100}, {@link #TEAM_200} or {@link #SPECTATORS}
+	 * @param index the index of the member [0 - memberCount)
+	 * @return the summoner id of the member
+	 */
+	public long getMemberId(int team, int index) {
+		if (index >= memberCount[team]) {
+			throw new IndexOutOfBoundsException("Index: " + index + " Size: " + memberCount[team]);
+		}
+		return members[team][index];
+	}
+
+	/**
+	 * Resolve the members of a team. Members unknown to the resolver are
+	 * omitted.
+	 *
+	 * @param team      {@link #TEAM_100}, {@link #TEAM_200} or
+	 *                  {@link #SPECTATORS}
+	 * @param summoners resolves a summoner id
+	 * @return the members of the team
+	 */
+	public List<Summoner> resolve(int team, LongFunction<Summoner> summoners) {
+		List<Summoner> resolved = new ArrayList<>(memberCount[team]);
+		for (int i = 0; i < memberCount[team]; i++) {
+			Summoner summoner = summoners.apply(members[team][i]);
+			if (summoner != null) {
+				resolved.add(summoner);
+			}
+		}
+		return resolved;
+	}
+
+	@Override
+	public String toString() {
+		return "LobbyEvent [queue=" + queue + ", map=" + map + ", pickBanStrategy=" + pickBanStrategy + ", team100="
+				+ Arrays.toString(Arrays.copyOf(members[TEAM_100], memberCount[TEAM_100])) + ", team200="
+				+ Arrays.toString(Arrays.copyOf(members[TEAM_200], memberCount[TEAM_200])) + ", spectators="
+				+ Arrays.toString(Arrays.copyOf(members[SPECTATORS], memberCount[SPECTATORS])) + ", deleted="
+				+ isDeleted() + "]";
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.github.kilianB.clientEvents;
+
+import com.github.kilianB.dtos.ChatAvailability;
+import com.github.kilianB.dtos.League;
+
+/**
+ * The availability of a friend changed
+ *
+ * @author Kilian
+ *
+ */
+public class PresenceEvent extends ClientEvent {
+
+	private long summonerId;
+
+	private ChatAvailability availability;
+
+	private League league;
+
+	@Override
+	void reset(boolean deleted) {
+		super.reset(deleted);
+		summonerId = 0;
+		availability = ChatAvailability.unknown;
+		league = null;
+	}
+
+	void setSummonerId(long summonerId) {
+		this.summonerId = summonerId;
+	}
+
+	void setAvailability(ChatAvailability availability) {
+		this.availability = availability;
+	}
+
+	void setLeague(League league) {
+		this.league = league;
+	}
+
+	/**
+	 * @return the summoner id of the friend
+	 */
+	public long getSummonerId() {
+		return summonerId;
+	}
+
+	/**
+	 * @return the new availability. {@link ChatAvailability#unknown} if not
+	 *         reported
+	 */
+	public ChatAvailability getAvailability() {
+		return availability;
+	}
+
+	/**
+	 * @return the ranked tier of the friend or null if not reported
+	 */
+	public League getLeague() {
+		return league;
+	}
+
+	@Override
+	public String toString() {
+		return "PresenceEvent [summonerId=" + summonerId + ", availability=" + availability + ", league="
+				+ league + ", deleted="
+				+ isDeleted() + "]";
+	}
+
+}
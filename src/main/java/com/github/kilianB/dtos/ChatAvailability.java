@@ -36,4 +36,36 @@ public enum ChatAvailability {
 	unknown;
 
 	// TODO what about mobile?
+
+	/** Constants indexed by the first character of their name which is unique */
+	private static final ChatAvailability[] BY_INITIAL = new ChatAvailability[128];
+
+	static {
+		for (ChatAvailability value : values()) {
+			char initial = value.name().charAt(0);
+			if (BY_INITIAL[initial] != null) {
+				throw new IllegalStateException("Ambiguous initial " + initial);
+			}
+			BY_INITIAL[initial] = value;
+		}
+	}
+
+	/**
+	 * Map the availability reported by the league client without allocating
+	 * 
+	 * @param name the name of the availability e.g. chat
+	 * @return the availability or {@link #unknown} if the name is not known
+	 */
+	public static ChatAvailability fromString(CharSequence name) {
+		if (name.length() > 0) {
+			char initial = name.charAt(0);
+			if (initial < BY_INITIAL.length) {
+				ChatAvailability candidate = BY_INITIAL[initial];
+				if (candidate != null && candidate.name().contentEquals(name)) {
+					return candidate;
+				}
+			}
+		}
+		return unknown;
+	}
 }
@@ -12,6 +12,10 @@ public enum ChatRoomEntry {
 	INCORRECT_PASSWORD, 
 	/** Summoner was banned from the room and may not enter it */
 	BANNED,
+	/** The room is restricted to a tier range the summoner is not in */
+	TIER_MISMATCH,
+	/** The room is restricted to a tier range and the tier of the summoner is unknown */
+	RANK_UNKNOWN,
 	/** The room does not exist. Used at the chat admin level */
 	DOES_NOT_EXIST
 }
\ No newline at end of file
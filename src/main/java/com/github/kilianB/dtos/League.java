@@ -11,4 +11,29 @@ public enum League{
 	Bronze,
 	Iron,
 	Unranked;
-}
\ No newline at end of file
+
+	private static final League[] VALUES = values();
+
+	/**
+	 * Map the tier reported by the league client e.g. GOLD without allocating
+	 *
+	 * @param tier the name of the tier. Case insensitive
+	 * @return the league or {@link #Unranked} if the tier is empty or not known
+	 */
+	public static League fromTier(CharSequence tier) {
+		for (League league : VALUES) {
+			String name = league.name();
+			if (name.length() != tier.length()) {
+				continue;
+			}
+			boolean equal = true;
+			for (int i = 0; i < name.length() && equal; i++) {
+				equal = Character.toUpperCase(name.charAt(i)) == Character.toUpperCase(tier.charAt(i));
+			}
+			if (equal) {
+				return league;
+			}
+		}
+		return Unranked;
+	}
+}
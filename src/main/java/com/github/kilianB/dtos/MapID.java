@@ -37,5 +37,30 @@ public enum MapID {
 	}
 	
 	public int id;
-	
+
+	/** Constants indexed by their id. Ids are small and dense enough for a table */
+	private static final MapID[] BY_ID;
+
+	static {
+		MapID[] values = values();
+		int maxId = 0;
+		for (MapID value : values) {
+			maxId = Math.max(maxId, value.id);
+		}
+		BY_ID = new MapID[maxId + 1];
+		for (MapID value : values) {
+			BY_ID[value.id] = value;
+		}
+	}
+
+	/**
+	 * Map the id used by the lol api to the map
+	 * 
+	 * @param id the id
+	 * @return the map or null if the id is unknown
+	 */
+	public static MapID fromId(int id) {
+		return id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
+	}
+
 }
@@ -59,5 +59,30 @@ public enum QueueId {
 	}
 	
 	public int id;
-	
+
+	/** Constants indexed by their id. Ids are small and dense enough for a table */
+	private static final QueueId[] BY_ID;
+
+	static {
+		QueueId[] values = values();
+		int maxId = 0;
+		for (QueueId value : values) {
+			maxId = Math.max(maxId, value.id);
+		}
+		BY_ID = new QueueId[maxId + 1];
+		for (QueueId value : values) {
+			BY_ID[value.id] = value;
+		}
+	}
+
+	/**
+	 * Map the id used by the lol api to the queue
+	 * 
+	 * @param id the id
+	 * @return the queue or null if the id is unknown
+	 */
+	public static QueueId fromId(int id) {
+		return id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
+	}
+
 }
@@ -6,11 +6,22 @@ import static com.github.kilianB.dtos.ChatAvailability.dnd;
 import static com.github.kilianB.dtos.ChatAvailability.offline;
 
 import java.io.IOException;
-import java.util.HashSet;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongFunction;
 
 import com.github.kilianB.chatBot.SlaveBot;
 import com.github.kilianB.chatBot.chatRooms.ChatRoom;
+import com.github.kilianB.chatBot.health.SlaveHealthMonitor;
+import com.github.kilianB.chatBot.messages.DeferredDigest;
+import com.github.kilianB.chatBot.messages.MessagePayload;
+import com.github.kilianB.chatBot.throttle.RateLimiter;
+import com.github.kilianB.eventLog.EventLog;
+import com.github.kilianB.eventLog.LogEvent;
+import com.github.kilianB.eventLog.LogLevel;
+import com.github.kilianB.jfr.SlaveApiCallEvent;
 
 /**
  * @author Kilian
@@ -18,6 +29,12 @@ import com.github.kilianB.chatBot.chatRooms.ChatRoom;
  */
 public class Summoner {
 
+	/** Prefix of messages send by the bot itself rather than by other summoners */
+	public static final String ADMIN_MESSAGE_PREFIX = "/me \n";
+
+	/** Maximum number of system messages held back per summoner */
+	private static final int MAX_PENDING_ADMIN = 10;
+
 	/**
 	 * The display name of the summoner. The display name may not be equivalent to
 	 * the internal name used by the riot api. (e.g. after a name change).
@@ -36,9 +53,10 @@ public class Summoner {
 	private long id;
 
 	// TODO update upon reloads
-	private transient ChatAvailability chatAvailability = ChatAvailability.unknown;
+	// Updated by the presence ingestor, read by the threads delivering messages
+	private transient volatile ChatAvailability chatAvailability = ChatAvailability.unknown;
 
-	private SummonerMessageSetting messageMode = SummonerMessageSetting.AWAY;
+	private volatile SummonerMessageSetting messageMode = SummonerMessageSetting.AWAY;
 
 	// List<ChatRoom> chatrooms = new ArrayList<>();
 	private transient ChatRoom activeRoom = null;
@@ -47,28 +65,66 @@ public class Summoner {
 	 * Summoner id's of muted players. Here we work with id's since the summoner may
 	 * or may not currently exist in the bot ecosystem but we want to block incoming
 	 * messages if he connects at a later stage.
+	 * 
+	 * <p>
+	 * Changed by commands of this summoner while broadcasts of other threads check
+	 * it.
 	 */
-	private Set<Long> muted = new HashSet<>();
+	private Set<Long> muted = ConcurrentHashMap.newKeySet();
 
 	/**
 	 * The client responsible for this summoner. The account this summoner is
 	 * represented on this account friend list.
 	 * 
-	 * @implnote once redundancy backup is implemented this field needs to be
-	 *           updated (e.g. in case we loose connectivity to one account)...
+	 * @implnote updated on failover if the circuit of the slave opened and the
+	 *           summoner accepted the friend request of a healthy slave.
 	 */
 	private transient SlaveBot bot;
 
 	/**
-	 * @param owner
+	 * Limits the api calls issued by the slave bot. May be null if messages are not
+	 * rate limited.
+	 */
+	private transient RateLimiter rateLimiter;
+
+	/**
+	 * Health of the slaves. May be null if slave health is not tracked.
+	 */
+	private transient SlaveHealthMonitor healthMonitor;
+
+	/**
+	 * Chat lines missed while the summoner was not available. Created once the
+	 * first line is missed.
+	 */
+	private transient volatile DeferredDigest digest;
+
+	/** System messages held back while the slave was degraded. Guarded by this */
+	private transient ArrayDeque<String> pendingAdmin;
+
+	/**
+	 * Create a summoner assuming he is available to chat. Prefer
+	 * {@link #Summoner(String, long, SlaveBot, ChatAvailability)} if the
+	 * availability is known.
+	 * 
+	 * @param summonerName the display name
+	 * @param summonerId   the summoner id
+	 * @param bot          the slave responsible for this summoner. May be null
 	 */
 	public Summoner(String summonerName, long summonerId, SlaveBot bot) {
+		this(summonerName, summonerId, bot, ChatAvailability.chat);
+	}
+
+	/**
+	 * @param summonerName     the display name
+	 * @param summonerId       the summoner id
+	 * @param bot              the slave responsible for this summoner. May be null
+	 * @param chatAvailability the availability as reported by the friend list
+	 */
+	public Summoner(String summonerName, long summonerId, SlaveBot bot, ChatAvailability chatAvailability) {
 		this.summonerDisplayName = summonerName;
 		this.id = summonerId;
 		this.bot = bot;
-		// TODO this can be awful. try to get the correct availablilty. Maybe change the
-		// constructor.
-		this.chatAvailability = ChatAvailability.chat;
+		this.chatAvailability = chatAvailability;
 	}
 
 	public void updateChatAvailablility(ChatAvailability newAvailability) {
@@ -127,32 +183,147 @@ public class Summoner {
 	 * @throws IOException
 	 */
 	public void sendMessage(String message, Summoner initiator) throws IOException {
+		sendMessage(message, null, initiator);
+	}
+
+	/**
+	 * Send a chat line to this player. Used by broadcasts which encode the line
+	 * once for all recipients.
+	 * 
+	 * @param message   the chat line
+	 * @param encoded   the UTF-8 encoding of the line stored if the line is
+	 *                  deferred. May be null
+	 * @param initiator the summoner who posted the line
+	 * @throws IOException if an error occurs interacting with the lol api
+	 */
+	public void sendMessage(String message, byte[] encoded, Summoner initiator) throws IOException {
 		if (bot != null && !isMuted(initiator)) {
+			// Lines addressed to a degraded slave are kept until the summoner failed over
+			if (!isAvailableForChat() || !isSlaveHealthy() || !deliverHealthy(message)) {
+				defer(initiator.summonerId(), encoded != null ? encoded : message.getBytes(StandardCharsets.UTF_8));
+			}
+		}
+	}
 
-			switch (messageMode) {
-			case CHAT:
-				if (!chatAvailability.equals(chat)) {
-					return;
-				}
-				break;
-			case AWAY:
-				if (!(chatAvailability.equals(chat) || chatAvailability.equals(away))) {
-					return;
-				}
-				break;
-			case INGAME:
-				if (!(chatAvailability.equals(chat) || chatAvailability.equals(away) || chatAvailability.equals(dnd))) {
-					return;
-				}
-				break;
-			case MOBILE:
-				if (chatAvailability.equals(offline)) {
-					return;
+	/**
+	 * Keep a chat line for the digest without attempting to deliver it e.g.
+	 * because the slave of this summoner fell behind. Mutes are respected.
+	 * 
+	 * @param encoded   the UTF-8 encoding of the line
+	 * @param initiator the summoner who posted the line
+	 */
+	public void deferMessage(byte[] encoded, Summoner initiator) {
+		if (bot != null && !isMuted(initiator)) {
+			defer(initiator.summonerId(), encoded);
+		}
+	}
+
+	/**
+	 * Check if the current availability of the summoner permits chat messages
+	 * according to his chat mode.
+	 * 
+	 * @return true if chat messages are delivered right away, false if they are
+	 *         deferred to the digest
+	 */
+	public boolean isAvailableForChat() {
+		ChatAvailability chatAvailability = this.chatAvailability;
+		switch (messageMode) {
+		case CHAT:
+			return chatAvailability.equals(chat);
+		case AWAY:
+			return chatAvailability.equals(chat) || chatAvailability.equals(away);
+		case INGAME:
+			return chatAvailability.equals(chat) || chatAvailability.equals(away) || chatAvailability.equals(dnd);
+		case MOBILE:
+			return !chatAvailability.equals(offline);
+		default:
+			return true;
+		}
+	}
+
+	/**
+	 * Deliver the system messages held back while the slave was degraded and the
+	 * lines missed while the summoner was not available as a single message. Chat
+	 * lines are only delivered if the summoner is available.
+	 * 
+	 * @param names resolves the display name of the senders
+	 * @return true if a message was send
+	 * @throws IOException if an error occurs interacting with the lol api
+	 */
+	public boolean flushDigest(LongFunction<String> names) throws IOException {
+		if (bot == null || !isSlaveHealthy()) {
+			return false;
+		}
+		boolean sent = false;
+		String admin;
+		while ((admin = pollAdminMessage()) != null) {
+			if (!deliverHealthy(admin)) {
+				// Another caller holds the probe of the slave
+				requeueAdmin(admin);
+				return sent;
+			}
+			sent = true;
+		}
+		DeferredDigest pending = digest;
+		if (pending == null || !isAvailableForChat()) {
+			return sent;
+		}
+		String message = pending.drain(names, muted::contains);
+		if (message == null) {
+			return sent;
+		}
+		if (!deliverHealthy(ADMIN_MESSAGE_PREFIX + message)) {
+			deferAdmin(ADMIN_MESSAGE_PREFIX + message);
+			return sent;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the number of lines waiting to be delivered as digest
+	 */
+	public int getPendingDigestSize() {
+		DeferredDigest pending = digest;
+		return pending == null ? 0 : pending.size();
+	}
+
+	/**
+	 * @return the number of system messages held back while the slave was
+	 *         degraded
+	 */
+	public synchronized int getPendingAdminCount() {
+		return pendingAdmin == null ? 0 : pendingAdmin.size();
+	}
+
+	private synchronized String pollAdminMessage() {
+		return pendingAdmin == null ? null : pendingAdmin.poll();
+	}
+
+	private synchronized void requeueAdmin(String message) {
+		pendingAdmin.addFirst(message);
+	}
+
+	private synchronized void deferAdmin(String message) {
+		if (pendingAdmin == null) {
+			pendingAdmin = new ArrayDeque<>();
+		}
+		if (pendingAdmin.size() == MAX_PENDING_ADMIN) {
+			pendingAdmin.poll();
+		}
+		pendingAdmin.add(message);
+	}
+
+	private void defer(long senderId, byte[] message) {
+		DeferredDigest pending = digest;
+		if (pending == null) {
+			synchronized (this) {
+				if (digest == null) {
+					digest = new DeferredDigest();
 				}
-				break;
+				pending = digest;
 			}
-			bot.sendMessage(id, message);
 		}
+		pending.add(senderId, message);
 	}
 
 	/**
@@ -163,8 +334,96 @@ public class Summoner {
 	 */
 	public void sendMessageAdmin(String message) throws IOException {
 		if (bot != null) {
-			bot.sendMessage(id, "/me \n" + message);
+			deliver(ADMIN_MESSAGE_PREFIX + message);
+		}
+	}
+
+	/**
+	 * Send a pre rendered system message to this player
+	 * 
+	 * @param payload the admin message payload
+	 * @throws IOException if an error occurs interacting with the lol api
+	 */
+	public void sendMessageAdmin(MessagePayload payload) throws IOException {
+		if (bot != null) {
+			deliver(payload.getText());
+		}
+	}
+
+	/**
+	 * Hand the message to the slave bot respecting the rate limit of the slave.
+	 * System messages addressed to a degraded slave are held back until the
+	 * summoner failed over or the slave recovered.
+	 * 
+	 * @param message the final message
+	 * @throws IOException if an error occurs interacting with the lol api
+	 */
+	private void deliver(String message) throws IOException {
+		// Do not block on a slave known to be degraded
+		if (!isSlaveHealthy() || !deliverHealthy(message)) {
+			deferAdmin(message);
+		}
+	}
+
+	/**
+	 * Hand the message to the slave bot. The health of the slave was checked by
+	 * the caller, a half open slave permits a single call only.
+	 * 
+	 * @return false if the slave rejected the call because another caller holds
+	 *         the probe of it's half open circuit. The message was not delivered
+	 */
+	private boolean deliverHealthy(String message) throws IOException {
+		SlaveBot target = bot;
+		if (rateLimiter == null || rateLimiter.acquireEgress(target, () -> deliverDeferred(target, message))) {
+			return send(target, message);
+		}
+		return true;
+	}
+
+	private void deliverDeferred(SlaveBot target, String message) {
+		try {
+			if (!send(target, message)) {
+				EventLog.global().log(LogLevel.WARN, LogEvent.DEFERRED_DELIVERY_FAILURE, id, 0, "Slave unavailable");
+			}
+		} catch (IOException e) {
+			EventLog.global().log(LogLevel.WARN, LogEvent.DEFERRED_DELIVERY_FAILURE, id, 0, e.getMessage());
+		}
+	}
+
+	/**
+	 * @return false if the circuit of the slave did not grant the call
+	 */
+	private boolean send(SlaveBot target, String message) throws IOException {
+		SlaveHealthMonitor monitor = healthMonitor;
+		if (monitor != null && !monitor.tryAcquireProbe(target)) {
+			return false;
+		}
+		SlaveApiCallEvent event = new SlaveApiCallEvent();
+		event.begin();
+		long start = monitor == null ? 0 : monitor.nanoTime();
+		try {
+			target.sendMessage(id, message);
+		} catch (IOException e) {
+			event.complete(target, "sendMessage", false);
+			if (monitor != null) {
+				monitor.recordFailure(target);
+			}
+			throw e;
 		}
+		event.complete(target, "sendMessage", true);
+		if (monitor != null) {
+			monitor.recordSuccess(target, monitor.nanoTime() - start);
+		}
+		return true;
+	}
+
+	/**
+	 * @return true if the slave responsible for this summoner is not known to be
+	 *         degraded
+	 */
+	public boolean isSlaveHealthy() {
+		SlaveBot target = bot;
+		return healthMonitor == null || target == null || healthMonitor.isAvailable(target);
 	}
 
 	public SlaveBot getBot() {
@@ -223,9 +482,10 @@ public class Summoner {
 	}
 
 	/**
-	 * @param initiator
+	 * @param initiator the summoner who send a message
+	 * @return true if this summoner muted the initiator
 	 */
-	private boolean isMuted(Summoner initiator) {
+	public boolean isMuted(Summoner initiator) {
 		return muted.contains(initiator.summonerId());
 	}
 
@@ -258,6 +518,22 @@ public class Summoner {
 		this.bot = slaveBot;
 	}
 
+	/**
+	 * @param rateLimiter the rate limiter used for messages send to this summoner.
+	 *                    May be null
+	 */
+	public void setRateLimiter(RateLimiter rateLimiter) {
+		this.rateLimiter = rateLimiter;
+	}
+
+	/**
+	 * @param healthMonitor the monitor tracking the health of the slave of this
+	 *                      summoner. May be null
+	 */
+	public void setHealthMonitor(SlaveHealthMonitor healthMonitor) {
+		this.healthMonitor = healthMonitor;
+	}
+
 	/**
 	 * @param newMode
 	 */
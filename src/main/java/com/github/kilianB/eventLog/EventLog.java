@@ -0,0 +1,276 @@
+package com.github.kilianB.eventLog;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.github.kilianB.util.DaemonThreadFactory;
+
+/**
+ * Asynchronous structured event log.
+ *
+ * <p>
+ * Records have a fixed layout: time, level, {@link LogEvent}, two numeric
+ * arguments and a detail object. They are written into a preallocated ring
+ * buffer and formatted by a background writer. Logging threads never format
+ * text, take a lock or wait for the output. If the writer falls behind, e.g.
+ * because the disk is slow, the ring fills up and further records are dropped
+ * and counted instead of blocking the caller.
+ *
+ * <p>
+ * Every {@link LogCategory} has it's own level. Records below the level are
+ * rejected with a single array lookup before anything is written. Callers
+ * computing arguments should guard the call with
+ * {@link #isEnabled(LogCategory, LogLevel)}.
+ *
+ * <p>
+ * The {@link #global() global} log is flushed by a shutdown hook.
+ *
+ * @author Kilian
+ *
+ */
+public class EventLog {
+
+	private static final int DEFAULT_CAPACITY = 8192;
+
+	/** Time the writer sleeps if the ring is empty */
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+	private static final LogLevel[] LEVELS = LogLevel.values();
+
+	private static final LogEvent[] EVENTS = LogEvent.values();
+
+	private final int mask;
+
+	private final long[] times;
+
+	/** Level ordinal in the upper, event ordinal in the lower 16 bit */
+	private final int[] codes;
+
+	private final long[] as;
+
+	private final long[] bs;
+
+	private final Object[] details;
+
+	/** Sequence + 1 of the record stored in a slot once it is fully written */
+	private final AtomicLongArray published;
+
+	/** Next sequence to claim */
+	private final AtomicLong head = new AtomicLong();
+
+	/** Next sequence to write. Only advanced by the writer */
+	private volatile long tail;
+
+	/** Highest enabled level ordinal per category ordinal */
+	private volatile int[] thresholds;
+
+	private final PrintWriter out;
+
+	private final StringBuilder line = new StringBuilder(256);
+
+	private final Thread writer;
+
+	private final LongAdder dropped = new LongAdder();
+
+	private final LongAdder written = new LongAdder();
+
+	private volatile boolean running = true;
+
+	/**
+	 * @param capacity the number of records the ring holds. Rounded up to the
+	 *                 next power of two
+	 * @param out      the destination of the formatted records
+	 */
+	public EventLog(int capacity, Writer out) {
+		int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+		this.mask = size - 1;
+		this.times = new long[size];
+		this.codes = new int[size];
+		this.as = new long[size];
+		this.bs = new long[size];
+		this.details = new Object[size];
+		this.published = new AtomicLongArray(size);
+		this.out = new PrintWriter(out instanceof BufferedWriter ? out : new BufferedWriter(out));
+
+		int[] defaults = new int[LogCategory.values().length];
+		Arrays.fill(defaults, LogLevel.INFO.ordinal());
+		this.thresholds = defaults;
+
+		writer = new DaemonThreadFactory().newThread(this::drain);
+		writer.setName("EventLog");
+		writer.start();
+	}
+
+	/**
+	 * @return the log shared by the whole bot writing to stdout
+	 */
+	public static EventLog global() {
+		return Holder.GLOBAL;
+	}
+
+	/**
+	 * Check if records of the category and level are written
+	 *
+	 * @param category the category
+	 * @param level    the level
+	 * @return true if the record would be written
+	 */
+	public boolean isEnabled(LogCategory category, LogLevel level) {
+		return level.ordinal() <= thresholds[category.ordinal()];
+	}
+
+	/**
+	 * Set the least severe level written for the category
+	 *
+	 * @param category the category
+	 * @param level    the level
+	 */
+	public synchronized void setLevel(LogCategory category, LogLevel level) {
+		int[] updated = thresholds.clone();
+		updated[category.ordinal()] = level.ordinal();
+		thresholds = updated;
+	}
+
+	public void log(LogLevel level, LogEvent event, long a) {
+		log(level, event, a, 0, null);
+	}
+
+	public void log(LogLevel level, LogEvent event, long a, long b) {
+		log(level, event, a, b, null);
+	}
+
+	/**
+	 * Append a record. Never blocks. If the ring is full the record is dropped.
+	 *
+	 * @param level  the level of the record
+	 * @param event  the event
+	 * @param a      the first argument of the event
+	 * @param b      the second argument of the event
+	 * @param detail the detail of the event. Formatted via toString by the
+	 *               writer. Throwables are written including their stack trace.
+	 *               May be null
+	 */
+	public void log(LogLevel level, LogEvent event, long a, long b, Object detail) {
+		if (level.ordinal() > thresholds[event.category.ordinal()]) {
+			return;
+		}
+		long sequence;
+		do {
+			sequence = head.get();
+			if (sequence - tail > mask) {
+				dropped.increment();
+				return;
+			}
+		} while (!head.compareAndSet(sequence, sequence + 1));
+
+		int slot = (int) sequence & mask;
+		times[slot] = System.currentTimeMillis();
+		codes[slot] = level.ordinal() << 16 | event.ordinal();
+		as[slot] = a;
+		bs[slot] = b;
+		details[slot] = detail;
+		published.lazySet(slot, sequence + 1);
+	}
+
+	/**
+	 * @return the number of records dropped because the ring was full
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * @return the number of records written to the output
+	 */
+	public long getWritten() {
+		return written.sum();
+	}
+
+	/**
+	 * Write all pending records and stop the writer
+	 *
+	 * @throws InterruptedException if interrupted while waiting for the writer
+	 */
+	public void shutdown() throws InterruptedException {
+		running = false;
+		writer.join();
+	}
+
+	private void drain() {
+		boolean dirty = false;
+		while (running || tail != head.get()) {
+			long sequence = tail;
+			int slot = (int) sequence & mask;
+			if (published.get(slot) != sequence + 1) {
+				if (dirty) {
+					out.flush();
+					dirty = false;
+				}
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+				continue;
+			}
+			dirty = true;
+			long time = times[slot];
+			int code = codes[slot];
+			long a = as[slot];
+			long b = bs[slot];
+			Object detail = details[slot];
+			details[slot] = null;
+			// Hand the slot back to the producers
+			tail = sequence + 1;
+			try {
+				write(time, LEVELS[code >>> 16], EVENTS[code & 0xFFFF], a, b, detail);
+				written.increment();
+			} catch (RuntimeException e) {
+				// A failing toString of a detail must not stop the writer
+				out.println("EventLog: failed to write record: " + e);
+			}
+		}
+		out.flush();
+	}
+
+	private void write(long time, LogLevel level, LogEvent event, long a, long b, Object detail) {
+		line.setLength(0);
+		line.append(Instant.ofEpochMilli(time)).append(' ').append(level).append(' ').append(event.category)
+				.append(' ').append(event);
+		if (event.a != null) {
+			line.append(' ').append(event.a).append('=').append(a);
+		}
+		if (event.b != null) {
+			line.append(' ').append(event.b).append('=').append(b);
+		}
+		if (detail != null) {
+			line.append(' ').append(detail);
+		}
+		out.append(line).println();
+		if (detail instanceof Throwable) {
+			((Throwable) detail).printStackTrace(out);
+		}
+	}
+
+	private static class Holder {
+		private static final EventLog GLOBAL = new EventLog(DEFAULT_CAPACITY,
+				new OutputStreamWriter(System.out));
+
+		static {
+			// The writer is a daemon. Flush the pending records before the vm exits
+			Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+				try {
+					GLOBAL.shutdown();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}, "EventLog-Flush"));
+		}
+	}
+
+}
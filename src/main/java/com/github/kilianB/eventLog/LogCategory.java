@@ -0,0 +1,22 @@
+package com.github.kilianB.eventLog;
+
+/**
+ * Area of the bot an event originates from. Every category has it's own level.
+ *
+ * @author Kilian
+ *
+ */
+public enum LogCategory {
+	/** Commands issued by summoners */
+	COMMAND,
+	/** Friend requests and removals */
+	FRIENDS,
+	/** Custom game lobbies */
+	LOBBY,
+	/** Processing and delivery of chat lines and system messages */
+	MESSAGES,
+	/** Availability of the slave accounts */
+	HEALTH,
+	/** Resource usage of the bot */
+	SYSTEM;
+}
@@ -0,0 +1,72 @@
+package com.github.kilianB.eventLog;
+
+/**
+ * The events written to the {@link EventLog}. Every record carries up to two
+ * numeric arguments and a detail object. The names of the arguments are part
+ * of the event so records do not have to be formatted by the caller.
+ *
+ * @author Kilian
+ *
+ */
+public enum LogEvent {
+	/** Detail: the name of the summoner to mute */
+	MUTE_REQUESTED(LogCategory.COMMAND, "initiator", null),
+	/** Detail: the name of the banned summoner */
+	SUMMONER_BANNED(LogCategory.COMMAND, "operator", "summoner"),
+	/** Detail: the name of the unbanned summoner */
+	SUMMONER_UNBANNED(LogCategory.COMMAND, "operator", "summoner"),
+	/** Detail: the slave sending the request */
+	FRIEND_REQUEST_SENT(LogCategory.FRIENDS, "summoner", "freeSlots"),
+	FRIEND_REQUEST_IGNORED_BANNED(LogCategory.FRIENDS, "summoner", null),
+	/** Detail: the name of the room the summoner left or null */
+	SUMMONER_UNFRIENDED(LogCategory.FRIENDS, "summoner", null),
+	/** Detail: the name of the lobby */
+	LOBBY_MEMBER_UPDATE(LogCategory.LOBBY, "summoner", "team"),
+	/** Detail: the exception */
+	LOBBY_API_FAILURE(LogCategory.LOBBY, "lobby", null),
+	/** Detail: the throwable */
+	INGRESS_WORKER_FAILURE(LogCategory.MESSAGES, null, null),
+	/** Detail: the throwable */
+	MESSAGE_PROCESSING_FAILURE(LogCategory.MESSAGES, "sender", null),
+	/** Detail: the error message */
+	DEFERRED_DELIVERY_FAILURE(LogCategory.MESSAGES, "summoner", null),
+	/** Detail: the error message */
+	BROADCAST_DELIVERY_FAILURE(LogCategory.MESSAGES, "summoner", null),
+	/** Detail: the error message */
+	ROOM_DELIVERY_FAILURE(LogCategory.MESSAGES, "summoner", null),
+	ROOM_LINE_DEFERRED(LogCategory.MESSAGES, "deferredTotal", null),
+	/** Detail: the throwable */
+	SLAVE_PROBE_ROUND_FAILURE(LogCategory.HEALTH, null, null),
+	/** Detail: the slave */
+	SLAVE_PROBE_TIMEOUT(LogCategory.HEALTH, "timeoutMillis", null),
+	/** Detail: the slave and the error */
+	SLAVE_PROBE_FAILURE(LogCategory.HEALTH, null, null),
+	/** Detail: the slave and it's circuit breaker */
+	SLAVE_DEGRADED(LogCategory.HEALTH, null, null),
+	/** Detail: the slave */
+	SLAVE_RECOVERED(LogCategory.HEALTH, null, null),
+	STAT_MEMORY(LogCategory.SYSTEM, "committedVirtualBytes", "freePhysicalBytes"),
+	STAT_SWAP(LogCategory.SYSTEM, "freeSwapBytes", null),
+	STAT_CPU(LogCategory.SYSTEM, "cpuLoadPermille", "cpuTimeMillis");
+
+	final LogCategory category;
+
+	/** Name of the first argument or null if unused */
+	final String a;
+
+	/** Name of the second argument or null if unused */
+	final String b;
+
+	private LogEvent(LogCategory category, String a, String b) {
+		this.category = category;
+		this.a = a;
+		this.b = b;
+	}
+
+	/**
+	 * @return the category the event is logged in
+	 */
+	public LogCategory getCategory() {
+		return category;
+	}
+}
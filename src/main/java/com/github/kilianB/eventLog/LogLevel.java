@@ -0,0 +1,14 @@
+package com.github.kilianB.eventLog;
+
+/**
+ * Severity of a logged event. Lower ordinals are more severe.
+ *
+ * @author Kilian
+ *
+ */
+public enum LogLevel {
+	ERROR,
+	WARN,
+	INFO,
+	DEBUG;
+}
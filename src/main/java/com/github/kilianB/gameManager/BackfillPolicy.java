@@ -0,0 +1,91 @@
+package com.github.kilianB.gameManager;
+
+import java.util.concurrent.TimeUnit;
+
+import com.github.kilianB.dtos.BotDifficulty;
+
+/**
+ * Decides when a waiting lobby stops waiting for players and is filled with
+ * bots.
+ *
+ * <p>
+ * While few players queue for games it is unlikely that a half full lobby
+ * fills up, therefore it is backfilled after the short quiet wait. During busy
+ * hours players keep arriving and the lobby waits up to the max wait. No lobby
+ * waits longer than the max wait.
+ *
+ * @author Kilian
+ *
+ */
+public class BackfillPolicy {
+
+	private final BotDifficulty difficulty;
+
+	private final long quietWaitNanos;
+
+	private final long maxWaitNanos;
+
+	private final int busyDemand;
+
+	private final int minHumans;
+
+	/**
+	 * @param difficulty the difficulty of the added bots
+	 * @param quietWait  the time a lobby waits if the demand is below busyDemand
+	 * @param maxWait    the time after which a lobby is backfilled regardless of
+	 *                   the demand
+	 * @param unit       the unit of the time arguments
+	 * @param busyDemand the number of queued players at which players are expected
+	 *                   to fill the lobby soon
+	 * @param minHumans  the minimum number of players in a lobby to be backfilled
+	 */
+	public BackfillPolicy(BotDifficulty difficulty, long quietWait, long maxWait, TimeUnit unit, int busyDemand,
+			int minHumans) {
+		if (quietWait > maxWait) {
+			throw new IllegalArgumentException("quietWait may not exceed maxWait");
+		}
+		this.difficulty = difficulty;
+		this.quietWaitNanos = unit.toNanos(quietWait);
+		this.maxWaitNanos = unit.toNanos(maxWait);
+		this.busyDemand = busyDemand;
+		this.minHumans = Math.max(1, minHumans);
+	}
+
+	/**
+	 * @param waitingNanos the time the lobby waited so far
+	 * @param humans       the number of players in the lobby
+	 * @param demand       the number of players currently queuing
+	 * @return true if the empty slots of the lobby should be filled with bots
+	 */
+	public boolean shouldBackfill(long waitingNanos, int humans, int demand) {
+		if (humans < minHumans) {
+			return false;
+		}
+		long threshold = demand >= busyDemand ? maxWaitNanos : quietWaitNanos;
+		return waitingNanos >= threshold;
+	}
+
+	/**
+	 * @return the difficulty of the added bots
+	 */
+	public BotDifficulty getDifficulty() {
+		return difficulty;
+	}
+
+	/**
+	 * @param unit the unit of the returned time
+	 * @return the longest time a lobby waits before it is backfilled
+	 */
+	public long getMaxWait(TimeUnit unit) {
+		return unit.convert(maxWaitNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public String toString() {
+		return "BackfillPolicy [difficulty=" + difficulty + ", quietWait="
+				+ TimeUnit.NANOSECONDS.toSeconds(quietWaitNanos) + "s, maxWait="
+				+ TimeUnit.NANOSECONDS.toSeconds(maxWaitNanos) + "s, busyDemand=" + busyDemand + ", minHumans="
+				+ minHumans + "]";
+	}
+
+}
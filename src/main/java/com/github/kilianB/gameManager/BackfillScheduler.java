@@ -0,0 +1,191 @@
+package com.github.kilianB.gameManager;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.logging.Logger;
+
+import com.github.kilianB.gameManager.lobbies.GameLobby;
+import com.github.kilianB.gameManager.lobbies.LobbyState;
+import com.github.kilianB.util.DaemonThreadFactory;
+
+/**
+ * Fills waiting lobbies with bots once they waited too long.
+ *
+ * <p>
+ * A lobby only starts once every slot is taken. During quiet hours half full
+ * lobbies would wait indefinitely. Tracked lobbies are checked periodically
+ * against their {@link BackfillPolicy} taking the current queue demand into
+ * account. Once the policy decides the lobby waited long enough, the empty
+ * slots are filled with bots by the {@link LobbyHoster} and the game is
+ * started. The time until a game starts is therefore bound by the max wait of
+ * the policy.
+ *
+ * @author Kilian
+ *
+ */
+public class BackfillScheduler {
+
+	private static final Logger LOGGER = Logger.getLogger(BackfillScheduler.class.getSimpleName());
+
+	private final ConcurrentHashMap<GameLobby, BackfillPolicy> lobbies = new ConcurrentHashMap<>();
+
+	private final BackfillPolicy defaultPolicy;
+
+	/** Supplies the number of players currently queuing for a game */
+	private final IntSupplier demand;
+
+	/** Backfills lobbies which waited long enough */
+	private final Executor executor;
+
+	private final ScheduledExecutorService scheduler = Executors
+			.newSingleThreadScheduledExecutor(new DaemonThreadFactory());
+
+	private final LongAdder backfilledLobbies = new LongAdder();
+
+	private final LongAdder addedBots = new LongAdder();
+
+	/**
+	 * @param defaultPolicy the policy of lobbies tracked without explicit policy
+	 * @param demand        supplies the number of players currently queuing
+	 * @param checkEvery    the interval lobbies are checked at
+	 * @param unit          the unit of the checkEvery argument
+	 */
+	public BackfillScheduler(BackfillPolicy defaultPolicy, IntSupplier demand, long checkEvery, TimeUnit unit) {
+		this(defaultPolicy, demand, checkEvery, unit, Executors.newCachedThreadPool(new DaemonThreadFactory()));
+	}
+
+	/**
+	 * @param defaultPolicy the policy of lobbies tracked without explicit policy
+	 * @param demand        supplies the number of players currently queuing
+	 * @param checkEvery    the interval lobbies are checked at. If 0 or negative
+	 *                      {@link #check()} has to be invoked manually
+	 * @param unit          the unit of the checkEvery argument
+	 * @param executor      backfills the lobbies. Shut down by
+	 *                      {@link #shutdown()} if it is an executor service
+	 */
+	public BackfillScheduler(BackfillPolicy defaultPolicy, IntSupplier demand, long checkEvery, TimeUnit unit,
+			Executor executor) {
+		this.defaultPolicy = defaultPolicy;
+		this.demand = demand;
+		this.executor = executor;
+		if (checkEvery > 0) {
+			scheduler.scheduleWithFixedDelay(this::checkSafe, checkEvery, checkEvery, unit);
+		}
+	}
+
+	/**
+	 * Backfill the lobby according to the default policy
+	 *
+	 * @param lobby the waiting lobby
+	 */
+	public void track(GameLobby lobby) {
+		track(lobby, defaultPolicy);
+	}
+
+	/**
+	 * Backfill the lobby according to the given policy
+	 *
+	 * @param lobby  the waiting lobby
+	 * @param policy the policy of the lobby
+	 */
+	public void track(GameLobby lobby, BackfillPolicy policy) {
+		if (!lobby.getLobbyHoster().supportsBots()) {
+			LOGGER.fine("Hoster of lobby " + lobby.getLobbyId() + " does not support bots. Not tracked");
+			return;
+		}
+		lobbies.put(lobby, policy);
+	}
+
+	/**
+	 * Stop tracking the lobby e.g. because it was disbanded
+	 *
+	 * @param lobby the lobby
+	 */
+	public void untrack(GameLobby lobby) {
+		lobbies.remove(lobby);
+	}
+
+	/**
+	 * Backfill all tracked lobbies which waited long enough. Lobbies which
+	 * started, were disbanded or are full are no longer tracked. Called periodically.
+	 */
+	public void check() {
+		int currentDemand = demand.getAsInt();
+		for (Map.Entry<GameLobby, BackfillPolicy> entry : lobbies.entrySet()) {
+			GameLobby lobby = entry.getKey();
+			LobbyState state = lobby.getState();
+			if (state == LobbyState.STARTED || state == LobbyState.DISBANDED
+					|| (state == LobbyState.WAITING && lobby.isFull())) {
+				lobbies.remove(lobby);
+				continue;
+			}
+			BackfillPolicy policy = entry.getValue();
+			if (state == LobbyState.WAITING && policy.shouldBackfill(lobby.getWaitingTime(TimeUnit.NANOSECONDS),
+					lobby.summonersInLobbyExcludingSpectate(), currentDemand)) {
+				executor.execute(() -> backfill(lobby, policy));
+			}
+		}
+	}
+
+	/**
+	 * @return the number of lobbies waiting to be filled
+	 */
+	public int getTrackedCount() {
+		return lobbies.size();
+	}
+
+	/**
+	 * @return the number of lobbies started with bots
+	 */
+	public long getBackfilledLobbies() {
+		return backfilledLobbies.sum();
+	}
+
+	/**
+	 * @return the number of bots added to lobbies
+	 */
+	public long getAddedBots() {
+		return addedBots.sum();
+	}
+
+	/**
+	 * Stop checking lobbies
+	 */
+	public void shutdown() {
+		scheduler.shutdown();
+		if (executor instanceof ExecutorService) {
+			((ExecutorService) executor).shutdown();
+		}
+	}
+
+	private void backfill(GameLobby lobby, BackfillPolicy policy) {
+		try {
+			int added = lobby.backfill(policy.getDifficulty());
+			if (added >= 0) {
+				lobbies.remove(lobby);
+				backfilledLobbies.increment();
+				addedBots.add(added);
+			}
+		} catch (IOException | RuntimeException e) {
+			// The lobby keeps waiting and is retried with the next check
+			LOGGER.warning("Failed to backfill lobby " + lobby.getLobbyId() + ": " + e);
+		}
+	}
+
+	private void checkSafe() {
+		try {
+			check();
+		} catch (RuntimeException e) {
+			LOGGER.warning("Backfill check failed: " + e);
+		}
+	}
+
+}
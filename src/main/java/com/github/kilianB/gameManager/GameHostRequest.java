@@ -1,8 +1,11 @@
 package com.github.kilianB.gameManager;
 
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import com.github.kilianB.chatBot.chatRooms.LobbyRequester;
+import com.github.kilianB.dtos.Server;
 import com.github.kilianB.gameManager.lobbies.GameLobby;
 
 /**
@@ -26,6 +29,14 @@ public class GameHostRequest {
 	
 	private LobbyRequester requester;
 
+	// May be null if the players may be on any server
+	private Server server;
+
+	// Summoner ids of the players known to join the lobby. May be empty
+	private long[] participants;
+
+	// System nano time the request was created
+	private final long createdAt = System.nanoTime();
 	
 	private GameHostRequest(Builder builder) {
 		this.template = builder.template;
@@ -34,6 +45,8 @@ public class GameHostRequest {
 		this.lobbyName = builder.lobbyName;
 		this.lobbyPassword = builder.lobbyPassword;
 		this.gameLobbyType = builder.gameLobbyType ;
+		this.server = builder.server;
+		this.participants = builder.participants;
 	}
 
 	/**
@@ -43,6 +56,14 @@ public class GameHostRequest {
 		return uniqueId;
 	}
 
+	/**
+	 * @param unit the unit of the returned time
+	 * @return the time passed since the request was created
+	 */
+	public long getWaitingTime(TimeUnit unit) {
+		return unit.convert(System.nanoTime() - createdAt, TimeUnit.NANOSECONDS);
+	}
+
 	/**
 	 * @return the lobbyName
 	 */
@@ -108,6 +129,20 @@ public class GameHostRequest {
 		return gameLobbyType;
 	}
 
+	/**
+	 * @return the server the players are on or null if unknown
+	 */
+	public Server getServer() {
+		return server;
+	}
+
+	/**
+	 * @return the summoner ids of the players known to join the lobby
+	 */
+	public long[] getParticipants() {
+		return participants;
+	}
+
 	/**
 	 * Creates builder to build {@link GameHostRequest}.
 	 * @return created builder
@@ -132,6 +167,10 @@ public class GameHostRequest {
 
 		public IBuildStage withLobbyPassword(String lobbyPassword);
 
+		public IBuildStage withServer(Server server);
+
+		public IBuildStage withParticipants(Collection<Long> summonerIds);
+
 		public GameHostRequest build();
 	}
 
@@ -144,6 +183,8 @@ public class GameHostRequest {
 		private LobbyRequester requester;
 		private String lobbyName;
 		private String lobbyPassword;
+		private Server server;
+		private long[] participants = new long[0];
 
 		private Builder(LobbyRequester requester) {
 			this.requester = requester;
@@ -167,6 +208,18 @@ public class GameHostRequest {
 			return this;
 		}
 
+		@Override
+		public IBuildStage withServer(Server server) {
+			this.server = server;
+			return this;
+		}
+
+		@Override
+		public IBuildStage withParticipants(Collection<Long> summonerIds) {
+			this.participants = summonerIds.stream().mapToLong(Long::longValue).toArray();
+			return this;
+		}
+
 		@Override
 		public IBuildStage withLobbyType(Class<? extends GameLobby> lobbyClass) {
 			this.gameLobbyType = lobbyClass;
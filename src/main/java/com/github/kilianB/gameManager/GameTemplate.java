@@ -1,10 +1,20 @@
 package com.github.kilianB.gameManager;
 
+import java.util.Objects;
+
 import com.github.kilianB.dtos.MapID;
 import com.github.kilianB.dtos.SpectatorPolicy;
 
 public class GameTemplate {
 
+	/** 5v5 all random all mid */
+	public static final GameTemplate ARAM_5V5 = builder().withMap(MapID.ARAM).withTeamSize(5)
+			.withSpectatorPolicy(SpectatorPolicy.AllAllowed).withPickBan(PickBanStrategy.BlindPick).build();
+
+	/** 5v5 blind pick on summoners rift */
+	public static final GameTemplate SR_BLIND_5V5 = builder().withMap(MapID.SR).withTeamSize(5)
+			.withSpectatorPolicy(SpectatorPolicy.AllAllowed).withPickBan(PickBanStrategy.BlindPick).build();
+
 	public MapID map;
 	public int teamSize;
 	public SpectatorPolicy spectatorPolicy;
@@ -83,8 +93,28 @@ public class GameTemplate {
 		}
 	}
 
-	
-	
-	
-	
+	@Override
+	public int hashCode() {
+		return Objects.hash(map, teamSize, spectatorPolicy, pickBan);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		GameTemplate other = (GameTemplate) obj;
+		return map == other.map && teamSize == other.teamSize && spectatorPolicy == other.spectatorPolicy
+				&& pickBan == other.pickBan;
+	}
+
+	@Override
+	public String toString() {
+		return "GameTemplate [map=" + map + ", teamSize=" + teamSize + ", spectatorPolicy=" + spectatorPolicy
+				+ ", pickBan=" + pickBan + "]";
+	}
+
 }
\ No newline at end of file
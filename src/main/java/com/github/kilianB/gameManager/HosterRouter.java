@@ -0,0 +1,256 @@
+package com.github.kilianB.gameManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+import com.github.kilianB.jfr.HostRequestWaitEvent;
+import com.github.kilianB.util.DaemonThreadFactory;
+
+/**
+ * Matches {@link GameHostRequest}s with idle {@link LobbyHoster}s.
+ *
+ * <p>
+ * Instead of handing a request to whichever hoster asks first, every pairing
+ * is scored:
+ * <ul>
+ * <li>Hosters on a different server than the players are never chosen.</li>
+ * <li>Every participant already on the friend list of the hosting account adds
+ * to the score since invites reach him directly.</li>
+ * <li>Hosters already managing lobbies are penalized to balance the load.</li>
+ * </ul>
+ *
+ * If no hoster is idle the request is queued. Once a hoster becomes idle it
+ * picks the best scored request among the oldest queued requests. To not
+ * starve a request which keeps losing to better scored ones, the oldest
+ * compatible request is served first once it waited longer than a bound.
+ * Requests no idle hoster is able to serve wait for a compatible hoster.
+ *
+ * @author Kilian
+ *
+ */
+public class HosterRouter {
+
+	private static final Logger LOGGER = Logger.getLogger(HosterRouter.class.getSimpleName());
+
+	/** Score of a participant on the friend list of the hoster */
+	private static final double FRIEND_SCORE = 10;
+
+	/** Score of a hoster on the same server as the request */
+	private static final double REGION_SCORE = 5;
+
+	/** Penalty per lobby the hoster already manages */
+	private static final double LOAD_PENALTY = 20;
+
+	/** Number of queued requests an idle hoster considers */
+	private static final int LOOKAHEAD = 8;
+
+	/** Default time after which the oldest request is served regardless of it's score */
+	private static final long DEFAULT_MAX_HEAD_WAIT_SECONDS = 30;
+
+	private final List<LobbyHoster> idle = new ArrayList<>();
+
+	private final LinkedList<GameHostRequest> queued = new LinkedList<>();
+
+	/** Hands requests to the hosters */
+	private final Executor executor;
+
+	private final LongAdder routed = new LongAdder();
+
+	private final LongAdder friendInvites = new LongAdder();
+
+	/** Time after which the oldest compatible request is served first */
+	private final long maxHeadWaitNanos;
+
+	public HosterRouter() {
+		this(Executors.newCachedThreadPool(new DaemonThreadFactory()));
+	}
+
+	/**
+	 * @param executor hands requests to the hosters. Shut down by
+	 *                 {@link #shutdown()} if it is an executor service
+	 */
+	public HosterRouter(Executor executor) {
+		this(executor, DEFAULT_MAX_HEAD_WAIT_SECONDS, TimeUnit.SECONDS);
+	}
+
+	/**
+	 * @param executor    hands requests to the hosters. Shut down by
+	 *                    {@link #shutdown()} if it is an executor service
+	 * @param maxHeadWait the time after which the oldest request a hoster is able
+	 *                    to serve is hosted regardless of the score of younger
+	 *                    requests
+	 * @param unit        the unit of the wait time
+	 */
+	public HosterRouter(Executor executor, long maxHeadWait, TimeUnit unit) {
+		this.executor = executor;
+		this.maxHeadWaitNanos = unit.toNanos(maxHeadWait);
+	}
+
+	/**
+	 * Route a request to the best idle hoster or queue it
+	 *
+	 * @param request the request to host
+	 */
+	public void submit(GameHostRequest request) {
+		LobbyHoster best = null;
+		synchronized (this) {
+			double bestScore = Double.NEGATIVE_INFINITY;
+			for (LobbyHoster hoster : idle) {
+				double score = score(hoster, request);
+				if (score > bestScore) {
+					bestScore = score;
+					best = hoster;
+				}
+			}
+			if (best == null) {
+				queued.add(request);
+				return;
+			}
+			idle.remove(best);
+		}
+		dispatch(best, request);
+	}
+
+	/**
+	 * A hoster is ready to host a lobby. If a compatible request is queued it is
+	 * hosted right away otherwise the hoster waits for the next request.
+	 *
+	 * @param hoster the idle hoster
+	 */
+	public void hosterIdle(LobbyHoster hoster) {
+		GameHostRequest best = null;
+		synchronized (this) {
+			double bestScore = Double.NEGATIVE_INFINITY;
+			int considered = 0;
+			for (Iterator<GameHostRequest> iter = queued.iterator(); iter.hasNext()
+					&& considered < LOOKAHEAD;) {
+				GameHostRequest request = iter.next();
+				double score = score(hoster, request);
+				if (score == Double.NEGATIVE_INFINITY) {
+					// Served by a hoster of another server
+					continue;
+				}
+				if (considered++ == 0 && request.getWaitingTime(TimeUnit.NANOSECONDS) >= maxHeadWaitNanos) {
+					// The oldest compatible request waited long enough
+					best = request;
+					break;
+				}
+				if (score > bestScore) {
+					bestScore = score;
+					best = request;
+				}
+			}
+			if (best == null) {
+				if (!idle.contains(hoster)) {
+					idle.add(hoster);
+				}
+				return;
+			}
+			queued.remove(best);
+		}
+		dispatch(hoster, best);
+	}
+
+	/**
+	 * @param hoster the hoster
+	 * @return true if the hoster could be removed from the idle hosters
+	 */
+	public synchronized boolean removeIdle(LobbyHoster hoster) {
+		return idle.remove(hoster);
+	}
+
+	/**
+	 * @return the number of requests waiting for a hoster
+	 */
+	public synchronized int getQueuedCount() {
+		return queued.size();
+	}
+
+	/**
+	 * @return the number of hosters waiting for a request
+	 */
+	public synchronized int getIdleCount() {
+		return idle.size();
+	}
+
+	/**
+	 * @return the number of requests handed to hosters
+	 */
+	public long getRouted() {
+		return routed.sum();
+	}
+
+	/**
+	 * @return the number of participants routed to a hoster having them on the
+	 *         friend list
+	 */
+	public long getFriendInvites() {
+		return friendInvites.sum();
+	}
+
+	/**
+	 * Check if the hoster is able to serve the request at all
+	 *
+	 * @param hoster  the hoster
+	 * @param request the request
+	 * @return false if hoster and players are on different servers
+	 */
+	public static boolean isCompatible(LobbyHoster hoster, GameHostRequest request) {
+		return hoster.getServer() == null || request.getServer() == null || hoster.getServer() == request.getServer();
+	}
+
+	/**
+	 * Stop dispatching requests
+	 */
+	public void shutdown() {
+		if (executor instanceof ExecutorService) {
+			((ExecutorService) executor).shutdown();
+		}
+	}
+
+	private static double score(LobbyHoster hoster, GameHostRequest request) {
+		if (!isCompatible(hoster, request)) {
+			return Double.NEGATIVE_INFINITY;
+		}
+		double score = 0;
+		if (hoster.getServer() != null && hoster.getServer() == request.getServer()) {
+			score += REGION_SCORE;
+		}
+		for (long participant : request.getParticipants()) {
+			if (hoster.hasFriend(participant)) {
+				score += FRIEND_SCORE;
+			}
+		}
+		return score - LOAD_PENALTY * hoster.getActiveLobbies();
+	}
+
+	private void dispatch(LobbyHoster hoster, GameHostRequest request) {
+		routed.increment();
+		HostRequestWaitEvent.record(request.getUniqueId(), request.getTemplate(),
+				request.getWaitingTime(TimeUnit.NANOSECONDS), false);
+		for (long participant : request.getParticipants()) {
+			if (hoster.hasFriend(participant)) {
+				friendInvites.increment();
+			}
+		}
+		executor.execute(() -> {
+			try {
+				hoster.host(request);
+			} catch (IOException | RuntimeException e) {
+				LOGGER.warning("Hoster failed to host request " + request.getUniqueId() + ": " + e);
+				// Give the request another chance with a different hoster
+				submit(request);
+			}
+		});
+	}
+
+}
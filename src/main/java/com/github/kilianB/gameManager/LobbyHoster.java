@@ -1,18 +1,52 @@
 package com.github.kilianB.gameManager;
 
 import java.io.IOException;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+import java.util.logging.Logger;
 
+import com.github.kilianB.clientEvents.ClientEventDecoder;
+import com.github.kilianB.clientEvents.ClientEventListener;
+import com.github.kilianB.clientEvents.InvitationEvent;
+import com.github.kilianB.clientEvents.LobbyEvent;
+import com.github.kilianB.dtos.BotDifficulty;
+import com.github.kilianB.dtos.Server;
 import com.github.kilianB.dtos.Summoner;
 import com.github.kilianB.gameManager.lobbies.GameLobby;
+import com.github.kilianB.util.DaemonThreadFactory;
 
 /**
  * @author Kilian
  *
  */
 public abstract class LobbyHoster {
+
+	private static final Logger LOGGER = Logger.getLogger(LobbyHoster.class.getSimpleName());
 	
 	protected GameLobby currentLobby;
+
+	/** Limits the parallel invites of this hoster across all it's lobbies */
+	private final Semaphore invitePermits = new Semaphore(GameLobby.MAX_CONCURRENT_INVITES);
+
+	/**
+	 * Sends the invites of batch invitations. Never runs more tasks than there are
+	 * invite permits, so queued invites wait in the queue instead of blocking a
+	 * thread each.
+	 */
+	private final ThreadPoolExecutor inviteExecutor = newInviteExecutor();
+
+	/** The server of the hosting account or null if unknown */
+	private volatile Server server;
+
+	/** Summoner ids on the friend list of the hosting account as last fetched */
+	private volatile Set<Long> friends = Set.of();
 //	
 	public abstract void host(GameHostRequest gameHostRequest) throws IOException;
 	
@@ -51,5 +85,248 @@ public abstract class LobbyHoster {
 	 */
 	public abstract void writeInLobby(String message, String chatId) throws IOException;
 
+	/**
+	 * Update the members of the current lobby with a lobby event decoded from the
+	 * league client
+	 * 
+	 * @param event     the decoded event
+	 * @param summoners resolves the summoner ids of the members
+	 * @throws IOException if an error occurs interacting with the lol api
+	 */
+	protected void lobbyUpdated(LobbyEvent event, LongFunction<Summoner> summoners) throws IOException {
+		if (currentLobby == null || event.isDeleted()) {
+			return;
+		}
+		currentLobby.updateLobbyMembers(event.resolve(LobbyEvent.TEAM_100, summoners),
+				event.resolve(LobbyEvent.TEAM_200, summoners), event.resolve(LobbyEvent.SPECTATORS, summoners));
+	}
+
+	/**
+	 * Hand the declined invites reported by the league client to the current
+	 * lobby which asks it's requester for replacements.
+	 * 
+	 * @param event the decoded event
+	 */
+	protected void invitationsUpdated(InvitationEvent event) {
+		GameLobby lobby = currentLobby;
+		if (lobby == null || event.isDeleted()) {
+			return;
+		}
+		for (int i = 0; i < event.getDeclinedCount(); i++) {
+			lobby.inviteDeclined(event.getDeclinedId(i));
+		}
+	}
+
+	/**
+	 * Create a decoder for the events of the league client hosting the lobbies.
+	 * Lobby changes update the members of the current lobby and declined invites
+	 * are replaced. Every connection to a client uses it's own decoder.
+	 * 
+	 * @param summoners resolves the summoner ids of lobby members
+	 * @return the decoder
+	 */
+	public ClientEventDecoder createClientEventDecoder(LongFunction<Summoner> summoners) {
+		return new ClientEventDecoder(new ClientEventListener() {
+			@Override
+			public void onLobby(LobbyEvent event) {
+				try {
+					lobbyUpdated(event, summoners);
+				} catch (IOException e) {
+					LOGGER.warning("Failed to update lobby members: " + e.getMessage());
+				}
+			}
+
+			@Override
+			public void onInvitations(InvitationEvent event) {
+				invitationsUpdated(event);
+			}
+		});
+	}
+
+	/*
+	 * Routing
+	 */
+
+	/**
+	 * @return the server of the account hosting lobbies or null if unknown. Only
+	 *         requests of the same server are routed to this hoster
+	 */
+	public Server getServer() {
+		return server;
+	}
+
+	/**
+	 * @param server the server of the account hosting lobbies
+	 */
+	protected void setServer(Server server) {
+		this.server = server;
+	}
+
+	/**
+	 * Check if the summoner is on the friend list of the hosting account. Invites
+	 * to friends reach the summoner directly.
+	 * 
+	 * <p>
+	 * Called by the {@link HosterRouter} while it holds it's lock. The check only
+	 * consults the friend list last passed to {@link #updateFriends(Collection)}
+	 * and never calls the lol api.
+	 * 
+	 * @param summonerId the summoner id
+	 * @return true if the summoner is a friend of the hosting account
+	 */
+	public boolean hasFriend(long summonerId) {
+		return friends.contains(summonerId);
+	}
+
+	/**
+	 * Replace the cached friend list of the hosting account. Hosters call this
+	 * whenever they fetched the friend list from the lol api.
+	 * 
+	 * @param summonerIds the summoner ids on the friend list
+	 */
+	protected void updateFriends(Collection<Long> summonerIds) {
+		friends = Set.copyOf(summonerIds);
+	}
+
+	/**
+	 * @return the number of lobbies currently managed by this hoster
+	 */
+	public int getActiveLobbies() {
+		return currentLobby == null ? 0 : 1;
+	}
+
+	/**
+	 * @return the permits limiting the invites send in parallel by this hoster
+	 */
+	public Semaphore getInvitePermits() {
+		return invitePermits;
+	}
+
+	/**
+	 * @return the executor sending the invites of batch invitations. Runs at most
+	 *         {@link GameLobby#MAX_CONCURRENT_INVITES} invites in parallel
+	 */
+	public Executor getInviteExecutor() {
+		return inviteExecutor;
+	}
+
+	private static ThreadPoolExecutor newInviteExecutor() {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(GameLobby.MAX_CONCURRENT_INVITES,
+				GameLobby.MAX_CONCURRENT_INVITES, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+				new DaemonThreadFactory());
+		// Idle hosters do not keep invite threads around
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/*
+	 * Pre warmed lobbies
+	 */
+
+	/**
+	 * @return true if the hoster is able to create empty lobbies ahead of time
+	 *         via {@link #prepareLobby(GameTemplate)}
+	 */
+	public boolean supportsPrewarm() {
+		return false;
+	}
+
+	/**
+	 * Create an empty lobby for the template and keep it open until it is
+	 * claimed by {@link #hostPrepared(GameHostRequest)} or disbanded.
+	 * 
+	 * <p>
+	 * The default implementation only reserves the hoster for the template. The
+	 * lobby is created once a request claims it, as if the request was hosted
+	 * regularly.
+	 * 
+	 * @param template the template of the lobby
+	 * @throws IOException if an error occurs interacting with the lol api
+	 */
+	public void prepareLobby(GameTemplate template) throws IOException {
+		// Nothing to prepare, hostPrepared creates the lobby
+	}
+
+	/**
+	 * Serve the request using the lobby created by
+	 * {@link #prepareLobby(GameTemplate)}. The template of the request equals the
+	 * template of the prepared lobby.
+	 * 
+	 * @param gameHostRequest the request to serve
+	 * @throws IOException if an error occurs interacting with the lol api
+	 */
+	public void hostPrepared(GameHostRequest gameHostRequest) throws IOException {
+		host(gameHostRequest);
+	}
+
+	/*
+	 * Backfill
+	 */
+
+	/**
+	 * @return true if the hoster is able to add bots to it's lobbies via
+	 *         {@link #addBot(GameLobby, BotDifficulty, int)}
+	 */
+	public boolean supportsBots() {
+		return false;
+	}
+
+	/**
+	 * Add a bot to a lobby managed by this hoster.
+	 * 
+	 * <p>
+	 * Hosters supporting bots override this method and call it first to validate
+	 * the arguments. The default implementation fails with an IOException so a
+	 * backfill of a hoster without bot support leaves the lobby waiting.
+	 * 
+	 * @param lobby      the lobby to add the bot to
+	 * @param difficulty the difficulty of the bot
+	 * @param teamId     the team the bot joins. 0 or 1
+	 * @throws IOException              if an error occurs interacting with the
+	 *                                  lol api or the hoster does not support
+	 *                                  bots
+	 * @throws IllegalArgumentException if the lobby is managed by another hoster
+	 *                                  or the team id is invalid
+	 */
+	public void addBot(GameLobby lobby, BotDifficulty difficulty, int teamId) throws IOException {
+		if (lobby.getLobbyHoster() != this) {
+			throw new IllegalArgumentException("Lobby " + lobby.getLobbyId() + " is managed by another hoster");
+		}
+		if (teamId != 0 && teamId != 1) {
+			throw new IllegalArgumentException("Team id has to be 0 or 1. Found: " + teamId);
+		}
+		if (!supportsBots()) {
+			throw new IOException("Lobby hoster does not support bots");
+		}
+	}
+
+	/*
+	 * Lobby creation
+	 */
+
+	/**
+	 * Create the lobby object of a request and make it the current lobby of this
+	 * hoster. Called by implementations once the lobby exists in the client.
+	 * 
+	 * @param request          the request served
+	 * @param xmppChatId       the id of the lobby chat
+	 * @param xmppChatPassword the password of the lobby chat
+	 * @return the lobby of the type requested
+	 * @throws IOException if the lobby type can not be instantiated
+	 */
+	protected GameLobby createLobby(GameHostRequest request, String xmppChatId, String xmppChatPassword)
+			throws IOException {
+		String name = request.getLobbyName() == null || request.getLobbyName().isEmpty()
+				? "Lobby " + request.getUniqueId()
+				: request.getLobbyName();
+		try {
+			currentLobby = request.getGameLobbyType()
+					.getConstructor(String.class, GameTemplate.class, LobbyHoster.class, String.class, String.class)
+					.newInstance(name, request.getTemplate(), this, xmppChatId, xmppChatPassword);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			throw new IOException("Failed to create lobby of type " + request.getGameLobbyType(), e);
+		}
+		return currentLobby;
+	}
 
 }
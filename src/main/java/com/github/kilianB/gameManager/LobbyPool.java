@@ -0,0 +1,299 @@
+package com.github.kilianB.gameManager;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import com.github.kilianB.jfr.HostRequestWaitEvent;
+import com.github.kilianB.util.DaemonThreadFactory;
+
+/**
+ * Keeps empty lobbies of frequently requested {@link GameTemplate}s ready.
+ *
+ * <p>
+ * Idle hosters supporting prewarming create an empty lobby for the template
+ * with the largest deficit. Requests for a pooled template claim a prepared
+ * lobby instantly instead of waiting for the lobby creation round trip. The
+ * pool is refilled in the background as soon as hosters become idle again.
+ *
+ * <p>
+ * The number of lobbies kept per template follows an exponentially weighted
+ * moving average of the requests observed per adaption interval bound by the
+ * configured minimum and maximum. Surplus lobbies are disbanded and their
+ * hosters released.
+ *
+ * @author Kilian
+ *
+ */
+public class LobbyPool {
+
+	private static final Logger LOGGER = Logger.getLogger(LobbyPool.class.getSimpleName());
+
+	/** Weight of the latest interval in the demand average */
+	private static final double DEMAND_ALPHA = 0.3;
+
+	private final ConcurrentHashMap<GameTemplate, TemplatePool> pools = new ConcurrentHashMap<>();
+
+	/** Receives hosters not needed by the pool */
+	private final Consumer<LobbyHoster> releaseHoster;
+
+	/** Receives claimed requests a prepared lobby failed to serve */
+	private final Consumer<GameHostRequest> unserved;
+
+	/** Prepares, hands out and disbands lobbies */
+	private final Executor executor;
+
+	private final ScheduledExecutorService scheduler = Executors
+			.newSingleThreadScheduledExecutor(new DaemonThreadFactory());
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * @param releaseHoster receives hosters which are not needed by the pool
+	 *                      anymore
+	 * @param unserved      receives requests which claimed a lobby but could not
+	 *                      be hosted by it
+	 * @param adaptEvery    the interval the demand is sampled at
+	 * @param unit          the unit of the adaptEvery argument
+	 */
+	public LobbyPool(Consumer<LobbyHoster> releaseHoster, Consumer<GameHostRequest> unserved, long adaptEvery,
+			TimeUnit unit) {
+		this(releaseHoster, unserved, adaptEvery, unit, Executors.newCachedThreadPool(new DaemonThreadFactory()));
+	}
+
+	/**
+	 * @param releaseHoster receives hosters which are not needed by the pool
+	 *                      anymore
+	 * @param unserved      receives requests which claimed a lobby but could not
+	 *                      be hosted by it
+	 * @param adaptEvery    the interval the demand is sampled at. If 0 or
+	 *                      negative {@link #adapt()} has to be invoked manually
+	 * @param unit          the unit of the adaptEvery argument
+	 * @param executor      prepares, hands out and disbands lobbies. Shut down by
+	 *                      {@link #shutdown()} if it is an executor service
+	 */
+	public LobbyPool(Consumer<LobbyHoster> releaseHoster, Consumer<GameHostRequest> unserved, long adaptEvery,
+			TimeUnit unit, Executor executor) {
+		this.releaseHoster = releaseHoster;
+		this.unserved = unserved;
+		this.executor = executor;
+		if (adaptEvery > 0) {
+			scheduler.scheduleWithFixedDelay(this::adaptSafe, adaptEvery, adaptEvery, unit);
+		}
+	}
+
+	/**
+	 * Keep lobbies of the template ready
+	 *
+	 * @param template the template to pool
+	 * @param minSize  the minimum number of lobbies kept ready
+	 * @param maxSize  the maximum number of lobbies kept ready
+	 */
+	public void warm(GameTemplate template, int minSize, int maxSize) {
+		pools.put(template, new TemplatePool(template, minSize, maxSize));
+	}
+
+	/**
+	 * Serve the request with a prepared lobby. The lobby is handed to the request
+	 * in the background.
+	 *
+	 * @param request the request to serve
+	 * @return true if a prepared lobby was claimed. False if the request has to
+	 *         wait for a hoster
+	 */
+	public boolean claim(GameHostRequest request) {
+		TemplatePool pool = request.getTemplate() == null ? null : pools.get(request.getTemplate());
+		if (pool == null) {
+			return false;
+		}
+		pool.requests.increment();
+		LobbyHoster hoster = null;
+		for (LobbyHoster candidate : pool.ready) {
+			if (HosterRouter.isCompatible(candidate, request) && pool.ready.remove(candidate)) {
+				hoster = candidate;
+				break;
+			}
+		}
+		if (hoster == null) {
+			misses.increment();
+			return false;
+		}
+		hits.increment();
+		HostRequestWaitEvent.record(request.getUniqueId(), request.getTemplate(),
+				request.getWaitingTime(TimeUnit.NANOSECONDS), true);
+		LobbyHoster claimed = hoster;
+		executor.execute(() -> {
+			try {
+				claimed.hostPrepared(request);
+			} catch (IOException | RuntimeException e) {
+				LOGGER.warning("Failed to host request " + request.getUniqueId() + " in prepared lobby: " + e);
+				unserved.accept(request);
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * Offer an idle hoster to the pool. If a pooled template lacks lobbies the
+	 * hoster prepares one in the background.
+	 *
+	 * @param hoster the idle hoster
+	 * @return true if the hoster was taken by the pool. False if it is free to
+	 *         serve queued requests
+	 */
+	public boolean offerIdle(LobbyHoster hoster) {
+		if (!hoster.supportsPrewarm()) {
+			return false;
+		}
+		TemplatePool neediest = null;
+		int largestDeficit = 0;
+		for (TemplatePool pool : pools.values()) {
+			int deficit = pool.deficit();
+			if (deficit > largestDeficit) {
+				largestDeficit = deficit;
+				neediest = pool;
+			}
+		}
+		if (neediest == null) {
+			return false;
+		}
+		TemplatePool pool = neediest;
+		pool.preparing.incrementAndGet();
+		executor.execute(() -> {
+			try {
+				hoster.prepareLobby(pool.template);
+				pool.ready.add(hoster);
+			} catch (IOException | RuntimeException e) {
+				LOGGER.warning("Failed to prepare lobby for " + pool.template + ": " + e);
+				releaseHoster.accept(hoster);
+			} finally {
+				pool.preparing.decrementAndGet();
+			}
+		});
+		return true;
+	}
+
+	/**
+	 * Update the demand estimate of every template and release surplus lobbies.
+	 * Called periodically.
+	 */
+	public void adapt() {
+		for (TemplatePool pool : pools.values()) {
+			double observed = pool.requests.sumThenReset();
+			pool.demand = DEMAND_ALPHA * observed + (1 - DEMAND_ALPHA) * pool.demand;
+			pool.target = Math.max(pool.minSize, Math.min(pool.maxSize, (int) Math.ceil(pool.demand)));
+
+			while (pool.ready.size() > pool.target) {
+				LobbyHoster surplus = pool.ready.poll();
+				if (surplus == null) {
+					break;
+				}
+				executor.execute(() -> {
+					try {
+						surplus.disbandLobby();
+					} catch (IOException e) {
+						LOGGER.warning("Failed to disband surplus lobby: " + e.getMessage());
+					}
+					releaseHoster.accept(surplus);
+				});
+			}
+		}
+	}
+
+	/**
+	 * @param template the template
+	 * @return the number of lobbies ready to be claimed
+	 */
+	public int getReadyCount(GameTemplate template) {
+		TemplatePool pool = pools.get(template);
+		return pool == null ? 0 : pool.ready.size();
+	}
+
+	/**
+	 * @param template the template
+	 * @return the number of lobbies the pool currently aims to keep ready
+	 */
+	public int getTargetSize(GameTemplate template) {
+		TemplatePool pool = pools.get(template);
+		return pool == null ? 0 : pool.target;
+	}
+
+	/**
+	 * @return the number of requests served by a prepared lobby
+	 */
+	public long getHits() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return the number of requests for a pooled template finding no prepared
+	 *         lobby
+	 */
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * Stop adapting and preparing lobbies
+	 */
+	public void shutdown() {
+		scheduler.shutdown();
+		if (executor instanceof ExecutorService) {
+			((ExecutorService) executor).shutdown();
+		}
+	}
+
+	private void adaptSafe() {
+		try {
+			adapt();
+		} catch (RuntimeException e) {
+			LOGGER.warning("Lobby pool adaption failed: " + e);
+		}
+	}
+
+	private static class TemplatePool {
+
+		private final GameTemplate template;
+
+		private final int minSize;
+
+		private final int maxSize;
+
+		/** Hosters holding a prepared lobby of the template */
+		private final ConcurrentLinkedQueue<LobbyHoster> ready = new ConcurrentLinkedQueue<>();
+
+		/** Lobbies currently being prepared */
+		private final AtomicInteger preparing = new AtomicInteger();
+
+		/** Requests since the last adaption */
+		private final LongAdder requests = new LongAdder();
+
+		/** Average requests per adaption interval */
+		private volatile double demand;
+
+		private volatile int target;
+
+		TemplatePool(GameTemplate template, int minSize, int maxSize) {
+			this.template = template;
+			this.minSize = minSize;
+			this.maxSize = maxSize;
+			this.target = minSize;
+		}
+
+		int deficit() {
+			return target - ready.size() - preparing.get();
+		}
+	}
+
+}
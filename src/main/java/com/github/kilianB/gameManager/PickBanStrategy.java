@@ -20,4 +20,42 @@ public enum PickBanStrategy {
 		this.banStrategyName = banStrategyName;
 		this.pickStrategyName = pickStrategyName;
 	}
+
+	private static final PickBanStrategy[] VALUES = values();
+
+	/** Constants indexed by their id */
+	private static final PickBanStrategy[] BY_ID;
+
+	static {
+		int maxId = 0;
+		for (PickBanStrategy value : VALUES) {
+			maxId = Math.max(maxId, value.id);
+		}
+		BY_ID = new PickBanStrategy[maxId + 1];
+		for (PickBanStrategy value : VALUES) {
+			BY_ID[value.id] = value;
+		}
+	}
+
+	/**
+	 * @param id the id used by the lol api
+	 * @return the strategy or null if the id is unknown
+	 */
+	public static PickBanStrategy fromId(int id) {
+		return id >= 0 && id < BY_ID.length ? BY_ID[id] : null;
+	}
+
+	/**
+	 * @param pickStrategyName the pick strategy name reported by the league
+	 *                         client e.g. SimulPickStrategy
+	 * @return the strategy or null if the name is unknown
+	 */
+	public static PickBanStrategy fromPickStrategy(CharSequence pickStrategyName) {
+		for (PickBanStrategy value : VALUES) {
+			if (value.pickStrategyName.contentEquals(pickStrategyName)) {
+				return value;
+			}
+		}
+		return null;
+	}
 }
@@ -8,6 +8,9 @@ import java.util.Map;
 import java.util.Set;
 
 import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.eventLog.EventLog;
+import com.github.kilianB.eventLog.LogEvent;
+import com.github.kilianB.eventLog.LogLevel;
 import com.github.kilianB.gameManager.GameTemplate;
 import com.github.kilianB.gameManager.LobbyHoster;
 
@@ -36,15 +39,16 @@ public class AramLobby extends GameLobby {
 
 		long summonerId = summoner.summonerId();
 		
-		System.out.println("Member update: " + summonerId + " Team:" + teamId);
+		EventLog.global().log(LogLevel.DEBUG, LogEvent.LOBBY_MEMBER_UPDATE, summonerId, teamId, name);
 		// TODO he left?
 		if (teamId == -1) {
 			try {
 				summonerLeft();
 			} catch (IOException e) {
-				e.printStackTrace();
+				EventLog.global().log(LogLevel.ERROR, LogEvent.LOBBY_API_FAILURE, lobbyId, 0, e);
 			}
 		} else {
+			resolveInvite(summoner);
 			if (!availableChampions.containsKey(summonerId)) {
 				summonerJoined(summonerId);
 			} else {
@@ -61,7 +65,7 @@ public class AramLobby extends GameLobby {
 			updateAvailableChampions(sumId);
 			writeMessageToChat("Debug: available champs by everyone: " + champsOwnedByEveryone);
 		} catch (IOException e) {
-			e.printStackTrace();
+			EventLog.global().log(LogLevel.ERROR, LogEvent.LOBBY_API_FAILURE, lobbyId, 0, e);
 		}
 		// Debug print available champs
 		// TODO Do we constrain the champs on one team or do all players have to have
@@ -2,16 +2,28 @@ package com.github.kilianB.gameManager.lobbies;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Logger;
 
+import com.github.kilianB.chatBot.SummonerNameCache;
 import com.github.kilianB.chatBot.chatRooms.LobbyRequester;
+import com.github.kilianB.dtos.BotDifficulty;
 import com.github.kilianB.dtos.Summoner;
 import com.github.kilianB.gameManager.GameTemplate;
 import com.github.kilianB.gameManager.LobbyHoster;
+import com.github.kilianB.jfr.LobbyStateEvent;
 import com.github.kilianB.util.DaemonThreadFactory;
 
 /**
@@ -20,6 +32,8 @@ import com.github.kilianB.util.DaemonThreadFactory;
  */
 public abstract class GameLobby {
 
+	private static final Logger LOGGER = Logger.getLogger(GameLobby.class.getSimpleName());
+
 	public static final AtomicInteger idProvider = new AtomicInteger();
 
 	// Name of the game lobby used as reference when notyfing the player
@@ -41,8 +55,28 @@ public abstract class GameLobby {
 
 	protected boolean hosterInSpectate = false;
 
+	/** Passively filled with every summoner seen in this lobby. May be null */
+	protected SummonerNameCache summonerNameCache;
+
 	private ScheduledExecutorService scheduledExecutor = Executors
 			.newSingleThreadScheduledExecutor(new DaemonThreadFactory());
+
+	/** Maximum number of invites a single lobby hoster sends in parallel */
+	public static final int MAX_CONCURRENT_INVITES = 5;
+
+	/** Invites send but not yet accepted, declined or expired */
+	private final ConcurrentHashMap<Long, PendingInvite> pendingInvites = new ConcurrentHashMap<>();
+
+	/** The timeout sweeper is started with the first invite */
+	private final AtomicBoolean sweeperStarted = new AtomicBoolean();
+
+	/** System nano time the lobby was created */
+	protected final long createdAt = System.nanoTime();
+
+	private final AtomicReference<LobbyState> state = new AtomicReference<>(LobbyState.WAITING);
+
+	/** Bots added to team 0 and team 1 */
+	private final AtomicIntegerArray bots = new AtomicIntegerArray(2);
 	
 	/**
 	 * @param name
@@ -65,6 +99,16 @@ public abstract class GameLobby {
 		this.team1 = team1;
 		this.spectators = spectators;
 
+		team0.forEach(this::resolveInvite);
+		team1.forEach(this::resolveInvite);
+		spectators.forEach(this::resolveInvite);
+
+		if (summonerNameCache != null) {
+			team0.forEach(summonerNameCache::update);
+			team1.forEach(summonerNameCache::update);
+			spectators.forEach(summonerNameCache::update);
+		}
+
 		int sumsInLobby = team0.size() + team1.size();
 
 		if (sumsInLobby >= 7 && !hosterInSpectate) {
@@ -72,15 +116,39 @@ public abstract class GameLobby {
 			lobbyHoster.moveToSpectate();
 		}
 
-		// We have enough members lets start the game.
-		if (sumsInLobby == template.teamSize) {
-			// The lobby gets disbanded as soon as we are in spectator and the last person
-			// leaves.
-
+		// We have enough members lets start the game. The lobby gets disbanded as soon
+		// as we are in spectator and the last person leaves.
+		if (isFull()) {
+			start();
 		}
 
 	}
 
+	/**
+	 * Start the game once every slot is taken by a player or bot. Pending invites
+	 * are dropped.
+	 * 
+	 * @return true if the game was started. False if the lobby is not waiting
+	 *         anymore
+	 * @throws IOException if the hoster fails to start the game. The lobby keeps
+	 *                     waiting
+	 */
+	public boolean start() throws IOException {
+		if (!transition(LobbyState.WAITING, LobbyState.STARTING)) {
+			return false;
+		}
+		try {
+			pendingInvites.clear();
+			lobbyHoster.startGame();
+		} catch (IOException | RuntimeException e) {
+			transition(LobbyState.STARTING, LobbyState.WAITING);
+			throw e;
+		}
+		transition(LobbyState.STARTING, LobbyState.STARTED);
+		shutdown();
+		return true;
+	}
+
 	/**
 	 * Invites a summoner into the lobby
 	 * 
@@ -91,38 +159,298 @@ public abstract class GameLobby {
 	 * @throws IOException 
 	 */
 	public boolean inviteSummoner(Summoner summonerToInvite, int timeoutInSeconds, LobbyRequester providerCallback) throws IOException {
-		if (isFull()) {
+		if (!reserveInvite(summonerToInvite, timeoutInSeconds, providerCallback)) {
 			return false;
-		} else {
-			lobbyHoster.inviteSummoner(summonerToInvite);
-			
-			// Check if the summoner accepted the invitation
-			scheduledExecutor.schedule(() -> {
-				if (!team0.contains(summonerToInvite) && !team1.contains(summonerToInvite)) {
-					providerCallback.requestSummoner(this);
-					try {
-						summonerToInvite.sendMessageAdmin("You did not accept the gamerequest for " + name + " "
-								+ lobbyId + ". removed from queue");
-					} catch (IOException e) {
-						e.printStackTrace();
+		}
+		try {
+			sendInvite(summonerToInvite);
+		} catch (IOException e) {
+			pendingInvites.remove(summonerToInvite.summonerId());
+			throw e;
+		}
+		return true;
+	}
+
+	/**
+	 * Invite multiple summoners at once. Invites are send in parallel by the
+	 * {@link LobbyHoster#getInviteExecutor() invite executor} of the hoster,
+	 * limited to {@link #MAX_CONCURRENT_INVITES}. Summoners not fitting into the
+	 * lobby are not invited.
+	 * 
+	 * <p>
+	 * Pending invites are resolved once the summoner shows up in the lobby. If the
+	 * summoner declines or does not join within the timeout the requester is asked
+	 * for a replacement right away.
+	 * 
+	 * @param summonersToInvite the summoners to invite
+	 * @param timeoutInSeconds  the number of seconds until an invite becomes
+	 *                          invalid and will be revoked
+	 * @param providerCallback  asked for replacements of declined invites
+	 * @return a future completing with the number of invites send once all
+	 *         invites were handed to the hoster
+	 */
+	public CompletableFuture<Integer> inviteSummoners(Collection<Summoner> summonersToInvite, int timeoutInSeconds,
+			LobbyRequester providerCallback) {
+		List<CompletableFuture<Boolean>> sends = new ArrayList<>();
+		for (Summoner summoner : summonersToInvite) {
+			if (!reserveInvite(summoner, timeoutInSeconds, providerCallback)) {
+				continue;
+			}
+			sends.add(CompletableFuture.supplyAsync(() -> {
+				try {
+					sendInvite(summoner);
+					return true;
+				} catch (IOException e) {
+					LOGGER.warning("Failed to invite " + summoner.summonerId() + " to " + name + ": " + e.getMessage());
+					// Free the slot and find someone else
+					if (pendingInvites.remove(summoner.summonerId()) != null) {
+						providerCallback.requestSummoner(this);
 					}
+					return false;
+				}
+			}, lobbyHoster.getInviteExecutor()));
+		}
+		return CompletableFuture.allOf(sends.toArray(new CompletableFuture[sends.size()]))
+				.thenApply(v -> (int) sends.stream().filter(CompletableFuture::join).count());
+	}
+
+	/**
+	 * The summoner declined the invite. The requester is asked for a replacement.
+	 * Called by the lobby hoster for every declined invite reported by the league
+	 * client.
+	 * 
+	 * @param summonerId the summoner who declined
+	 */
+	public void inviteDeclined(long summonerId) {
+		PendingInvite invite = pendingInvites.remove(summonerId);
+		if (invite != null) {
+			invite.requester.requestSummoner(this);
+		}
+	}
+
+	/**
+	 * @return the number of invites send but not yet accepted or declined
+	 */
+	public int getPendingInviteCount() {
+		return pendingInvites.size();
+	}
+
+	/**
+	 * Mark the invite of a summoner as accepted. Called whenever a summoner is
+	 * seen in the lobby. Subclasses call this method from
+	 * {@link #memberUpdate(Summoner, Integer)} when a summoner joins.
+	 * 
+	 * @param summoner the summoner who joined
+	 */
+	protected void resolveInvite(Summoner summoner) {
+		pendingInvites.remove(summoner.summonerId());
+	}
+
+	private boolean reserveInvite(Summoner summoner, int timeoutInSeconds, LobbyRequester providerCallback) {
+		synchronized (pendingInvites) {
+			if (state.get() != LobbyState.WAITING || isFull() || summonersInLobbyExcludingSpectate() + getBotCount() + pendingInvites.size() >= getCapacity()) {
+				return false;
+			}
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutInSeconds);
+			pendingInvites.put(summoner.summonerId(), new PendingInvite(summoner, providerCallback, deadline));
+		}
+		startSweeper();
+		return true;
+	}
+
+	private void sendInvite(Summoner summoner) throws IOException {
+		// Shared by all lobbies of the hoster
+		Semaphore permits = lobbyHoster.getInvitePermits();
+		try {
+			permits.acquire();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for invite permit");
+		}
+		try {
+			lobbyHoster.inviteSummoner(summoner);
+		} finally {
+			permits.release();
+		}
+	}
+
+	private void startSweeper() {
+		if (sweeperStarted.compareAndSet(false, true)) {
+			try {
+				scheduledExecutor.scheduleWithFixedDelay(this::sweepExpiredInvites, 1, 1, TimeUnit.SECONDS);
+			} catch (RejectedExecutionException e) {
+				// Started or disbanded in the meantime
+			}
+		}
+	}
+
+	/**
+	 * Revoke all invites not accepted within their timeout and request
+	 * replacements
+	 */
+	private void sweepExpiredInvites() {
+		long now = System.nanoTime();
+		for (PendingInvite invite : pendingInvites.values()) {
+			if (now - invite.deadline < 0 || !pendingInvites.remove(invite.summoner.summonerId(), invite)) {
+				continue;
+			}
+			invite.requester.requestSummoner(this);
+			try {
+				invite.summoner.sendMessageAdmin("You did not accept the gamerequest for " + name + " " + lobbyId
+						+ ". removed from queue");
+			} catch (IOException e) {
+				LOGGER.warning("Failed to notify " + invite.summoner.summonerId() + " about expired invite: "
+						+ e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * Fill every empty slot with a bot and start the game. Pending invites are
+	 * dropped since the game starts right away.
+	 * 
+	 * @param difficulty the difficulty of the added bots
+	 * @return the number of bots added or -1 if the lobby is not waiting anymore
+	 * @throws IOException if the hoster fails to add a bot or start the game. The
+	 *                     lobby keeps waiting and the backfill may be retried
+	 */
+	public int backfill(BotDifficulty difficulty) throws IOException {
+		if (!transition(LobbyState.WAITING, LobbyState.BACKFILLING)) {
+			return -1;
+		}
+		int added = 0;
+		try {
+			pendingInvites.clear();
+			for (int teamId = 0; teamId < bots.length(); teamId++) {
+				int members = (teamId == 0 ? team0 : team1).size();
+				while (members + bots.get(teamId) < template.teamSize) {
+					lobbyHoster.addBot(this, difficulty, teamId);
+					bots.incrementAndGet(teamId);
+					added++;
 				}
-			}, timeoutInSeconds, TimeUnit.SECONDS);
-			return true;
+			}
+			lobbyHoster.startGame();
+		} catch (IOException | RuntimeException e) {
+			transition(LobbyState.BACKFILLING, LobbyState.WAITING);
+			throw e;
+		}
+		transition(LobbyState.BACKFILLING, LobbyState.STARTED);
+		// No invites are pending anymore
+		shutdown();
+		LOGGER.info("Started " + name + " " + lobbyId + " after " + getWaitingTime(TimeUnit.SECONDS) + "s with "
+				+ added + " " + difficulty + " bots");
+		return added;
+	}
+
+	/**
+	 * Disband the lobby while it is waiting for players. Pending invites are
+	 * dropped.
+	 * 
+	 * @return true if the lobby was disbanded. False if it is not waiting anymore
+	 * @throws IOException if the hoster fails to disband the lobby
+	 */
+	public boolean disband() throws IOException {
+		if (!transition(LobbyState.WAITING, LobbyState.DISBANDED)) {
+			return false;
 		}
+		pendingInvites.clear();
+		shutdown();
+		lobbyHoster.disbandLobby();
+		return true;
+	}
+
+	private boolean transition(LobbyState from, LobbyState to) {
+		if (!state.compareAndSet(from, to)) {
+			return false;
+		}
+		LobbyStateEvent event = new LobbyStateEvent();
+		if (event.shouldCommit()) {
+			event.lobbyId = lobbyId;
+			event.name = name;
+			event.from = from.name();
+			event.to = to.name();
+			event.age = System.nanoTime() - createdAt;
+			event.bots = getBotCount();
+			event.commit();
+		}
+		return true;
+	}
+
+	/**
+	 * @param unit the unit of the returned time
+	 * @return the time passed since the lobby was created
+	 */
+	public long getWaitingTime(TimeUnit unit) {
+		return unit.convert(System.nanoTime() - createdAt, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return the current state of the lobby
+	 */
+	public LobbyState getState() {
+		return state.get();
+	}
+
+	/**
+	 * @return the number of bots added to the lobby
+	 */
+	public int getBotCount() {
+		return bots.get(0) + bots.get(1);
 	}
 
 	/**
-	 * @return
+	 * @return the template of the lobby
+	 */
+	public GameTemplate getTemplate() {
+		return template;
+	}
+
+	/**
+	 * @return the hoster managing the lobby
+	 */
+	public LobbyHoster getLobbyHoster() {
+		return lobbyHoster;
+	}
+
+	/**
+	 * @return the unique id of the lobby
+	 */
+	public long getLobbyId() {
+		return lobbyId;
+	}
+
+	/**
+	 * Set the cache which will be updated with the summoners seen in this lobby.
+	 * 
+	 * @param summonerNameCache the cache to update. May be null
+	 */
+	public void setSummonerNameCache(SummonerNameCache summonerNameCache) {
+		this.summonerNameCache = summonerNameCache;
+	}
+
+	/**
+	 * @return the number of players and bots of both teams. The team size of the
+	 *         template is the size of a single team
+	 */
+	public int getCapacity() {
+		return template.teamSize * 2;
+	}
+
+	/**
+	 * @return true if the players and bots outside of spectate fill both teams
 	 */
 	public boolean isFull() {
-		return (summonersInLobbyExcludingSpectate() / 2d) >= template.teamSize;
+		return summonersInLobbyExcludingSpectate() + getBotCount() >= getCapacity();
 	}
 
 	public int summonersInLobbyExcludingSpectate() {
 		return team0.size() + team1.size();
 	}
 
+	/**
+	 * Stop sweeping expired invites. Called once the lobby started or was
+	 * disbanded.
+	 */
 	public void shutdown() {
 		scheduledExecutor.shutdown();
 	}
@@ -138,4 +466,20 @@ public abstract class GameLobby {
 	 */
 	public abstract void memberUpdate(Summoner summoner, Integer teamId);
 
+	private static class PendingInvite {
+
+		private final Summoner summoner;
+
+		private final LobbyRequester requester;
+
+		/** System nano time the invite expires */
+		private final long deadline;
+
+		PendingInvite(Summoner summoner, LobbyRequester requester, long deadline) {
+			this.summoner = summoner;
+			this.requester = requester;
+			this.deadline = deadline;
+		}
+	}
+
 }
@@ -0,0 +1,20 @@
+package com.github.kilianB.gameManager.lobbies;
+
+/**
+ * Lifecycle of a {@link GameLobby}
+ *
+ * @author Kilian
+ *
+ */
+public enum LobbyState {
+	/** The lobby waits for players to join */
+	WAITING,
+	/** Empty slots are filled with bots */
+	BACKFILLING,
+	/** Every slot is taken and the game is being started */
+	STARTING,
+	/** The game was started */
+	STARTED,
+	/** The lobby was closed without starting a game */
+	DISBANDED;
+}
@@ -0,0 +1,33 @@
+package com.github.kilianB.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A message of a summoner was processed. The duration covers parsing and
+ * executing the command or posting the line into the room.
+ *
+ * @author Kilian
+ *
+ */
+@Name("com.github.kilianB.Command")
+@Label("Command")
+@Category({ "League Multi Chat", "Chat" })
+@Description("Processing of a message send by a summoner")
+@StackTrace(false)
+public class CommandEvent extends jdk.jfr.Event {
+
+	@Label("Command")
+	@Description("The command e.g. !join or chat for lines posted into a room")
+	public String command;
+
+	@Label("Room")
+	public String room;
+
+	@Label("Sender")
+	public long summonerId;
+
+}
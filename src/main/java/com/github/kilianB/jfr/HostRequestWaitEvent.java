@@ -0,0 +1,56 @@
+package com.github.kilianB.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A host request was handed to a lobby hoster
+ *
+ * @author Kilian
+ *
+ */
+@Name("com.github.kilianB.HostRequestWait")
+@Label("Host Request Wait")
+@Category({ "League Multi Chat", "Lobby" })
+@Description("Time a host request waited until a hoster picked it up")
+@StackTrace(false)
+public class HostRequestWaitEvent extends jdk.jfr.Event {
+
+	@Label("Request Id")
+	public int requestId;
+
+	@Label("Template")
+	public String template;
+
+	@Label("Wait Time")
+	@Timespan(Timespan.NANOSECONDS)
+	public long waitTime;
+
+	@Label("Prepared Lobby")
+	@Description("The request was served by a prewarmed lobby")
+	public boolean prepared;
+
+	/**
+	 * Commit an event if it is recorded
+	 *
+	 * @param requestId the id of the request
+	 * @param template  the template of the request
+	 * @param waitTime  the time in nanoseconds the request waited
+	 * @param prepared  true if the request was served by a prewarmed lobby
+	 */
+	public static void record(int requestId, Object template, long waitTime, boolean prepared) {
+		HostRequestWaitEvent event = new HostRequestWaitEvent();
+		if (event.shouldCommit()) {
+			event.requestId = requestId;
+			event.template = String.valueOf(template);
+			event.waitTime = waitTime;
+			event.prepared = prepared;
+			event.commit();
+		}
+	}
+
+}
@@ -0,0 +1,38 @@
+package com.github.kilianB.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A game lobby changed it's state
+ *
+ * @author Kilian
+ *
+ */
+@Name("com.github.kilianB.LobbyState")
+@Label("Lobby State")
+@Category({ "League Multi Chat", "Lobby" })
+public class LobbyStateEvent extends jdk.jfr.Event {
+
+	@Label("Lobby Id")
+	public long lobbyId;
+
+	@Label("Lobby")
+	public String name;
+
+	@Label("From")
+	public String from;
+
+	@Label("To")
+	public String to;
+
+	@Label("Lobby Age")
+	@Timespan(Timespan.NANOSECONDS)
+	public long age;
+
+	@Label("Bots")
+	public int bots;
+
+}
@@ -0,0 +1,46 @@
+package com.github.kilianB.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A chat line was delivered to the members of a room. Large rooms are
+ * delivered by the slave workers, the duration then lasts until the last
+ * worker delivered or deferred it's partition.
+ *
+ * @author Kilian
+ *
+ */
+@Name("com.github.kilianB.RoomBroadcast")
+@Label("Room Broadcast")
+@Category({ "League Multi Chat", "Chat" })
+@Description("Fan out of a chat line to the members of a room")
+@StackTrace(false)
+public class RoomBroadcastEvent extends jdk.jfr.Event {
+
+	@Label("Room")
+	public String room;
+
+	@Label("Recipients")
+	public int recipients;
+
+	@Label("Skipped Muted")
+	@Description("Recipients who muted the sender")
+	public int skippedMuted;
+
+	@Label("Deferred By Chat Mode")
+	@Description("Recipients whose chat mode deferred the line to the digest")
+	public int deferredByMode;
+
+	@Label("Partitions")
+	@Description("Number of slave workers the delivery was split into. 0 if delivered inline")
+	public int partitions;
+
+	@Label("Deferred Partitions")
+	@Description("Partitions deferred to the digests of the members because the worker of the slave fell behind")
+	public int deferredPartitions;
+
+}
@@ -0,0 +1,46 @@
+package com.github.kilianB.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * A call issued to the league client api of a slave
+ *
+ * @author Kilian
+ *
+ */
+@Name("com.github.kilianB.SlaveApiCall")
+@Label("Slave Api Call")
+@Category({ "League Multi Chat", "Slave" })
+@StackTrace(false)
+public class SlaveApiCallEvent extends jdk.jfr.Event {
+
+	@Label("Slave")
+	public String slave;
+
+	@Label("Operation")
+	public String operation;
+
+	@Label("Success")
+	public boolean success;
+
+	/**
+	 * End the event and commit it if it is recorded
+	 *
+	 * @param slave     the slave which issued the call
+	 * @param operation the name of the api call
+	 * @param success   false if the call failed
+	 */
+	public void complete(Object slave, String operation, boolean success) {
+		end();
+		if (shouldCommit()) {
+			this.slave = String.valueOf(slave);
+			this.operation = operation;
+			this.success = success;
+			commit();
+		}
+	}
+
+}
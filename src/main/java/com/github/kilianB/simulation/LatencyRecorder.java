@@ -0,0 +1,78 @@
+package com.github.kilianB.simulation;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records latency samples and computes percentiles. All samples are kept which
+ * is fine for the length of a simulation run.
+ *
+ * @author Kilian
+ *
+ */
+public class LatencyRecorder {
+
+	private long[] samples = new long[1024];
+
+	private int count;
+
+	/**
+	 * @param nanos the latency to record
+	 */
+	public synchronized void record(long nanos) {
+		if (count == samples.length) {
+			samples = Arrays.copyOf(samples, count * 2);
+		}
+		samples[count++] = nanos;
+	}
+
+	/**
+	 * Add all samples of another recorder to this recorder
+	 *
+	 * @param other the recorder to copy the samples from
+	 */
+	public void addAll(LatencyRecorder other) {
+		long[] copy;
+		synchronized (other) {
+			copy = Arrays.copyOf(other.samples, other.count);
+		}
+		synchronized (this) {
+			for (long sample : copy) {
+				record(sample);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of recorded samples
+	 */
+	public synchronized int getCount() {
+		return count;
+	}
+
+	/**
+	 * @param percentile the percentile in the range [0 - 100]
+	 * @param unit       the unit of the returned value
+	 * @return the latency at the given percentile or 0 if no sample was recorded
+	 */
+	public synchronized double percentile(double percentile, TimeUnit unit) {
+		if (count == 0) {
+			return 0;
+		}
+		long[] sorted = Arrays.copyOf(samples, count);
+		Arrays.sort(sorted);
+		int index = (int) Math.ceil(percentile / 100 * count) - 1;
+		long value = sorted[Math.max(0, Math.min(count - 1, index))];
+		return value / (double) unit.toNanos(1);
+	}
+
+	/**
+	 * @return a summary of the p50, p90, p99 and max latency in milli seconds
+	 */
+	public String summary() {
+		return String.format("n=%d p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms", getCount(),
+				percentile(50, TimeUnit.MILLISECONDS), percentile(90, TimeUnit.MILLISECONDS),
+				percentile(99, TimeUnit.MILLISECONDS), percentile(100, TimeUnit.MILLISECONDS));
+	}
+
+}
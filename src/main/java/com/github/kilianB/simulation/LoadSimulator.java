@@ -0,0 +1,220 @@
+package com.github.kilianB.simulation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.github.kilianB.chatBot.Orchestrator;
+import com.github.kilianB.chatBot.throttle.RateLimiter;
+import com.github.kilianB.chatBot.throttle.ThrottlePolicy;
+import com.github.kilianB.dtos.ChatAvailability;
+import com.github.kilianB.dtos.Server;
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.simulation.WorkloadGenerator.EventType;
+
+/**
+ * Drives an {@link Orchestrator} end to end with simulated slave bots and lobby
+ * hosters. Summoners are connected and distributed across rooms, afterwards
+ * the generated workload is replayed and the latency of every event is
+ * recorded.
+ *
+ * <p>
+ * Using a virtual clock the simulation is deterministic for a given seed and
+ * runs as fast as the orchestrator is able to process events. Simulated api
+ * latency is accounted on the virtual clock, therefore events queue up behind
+ * slow events the same way they would on a real system.
+ *
+ * <p>
+ * The orchestrator runs without background tasks. Chat lines are delivered to
+ * every member of the room and host requests are served on the thread driving
+ * the simulation, presence batches are applied on simulation time and the rate
+ * limiter runs on the simulation clock. The recorded latency of an event
+ * therefore covers the delivery to the last recipient.
+ *
+ * @author Kilian
+ *
+ */
+public class LoadSimulator {
+
+	/** Name of the room !aram requests are issued in */
+	private static final String LFG_ROOM = "Lfg";
+
+	/** Interval presence batches are applied in */
+	private static final long PRESENCE_WINDOW = TimeUnit.MILLISECONDS.toNanos(250);
+
+	private final SimulationSettings settings;
+
+	private final RateLimiter.Builder limits;
+
+	/**
+	 * Simulate without throttling. Throughput is only bound by the simulated api
+	 * latency.
+	 *
+	 * @param settings the workload and environment settings
+	 */
+	public LoadSimulator(SimulationSettings settings) {
+		this(settings, RateLimiter.builder().withSenderLimit(1_000_000, 1e9, ThrottlePolicy.DROP)
+				.withSlaveLimit(1_000_000, 1e9, ThrottlePolicy.DROP));
+	}
+
+	/**
+	 * @param settings the workload and environment settings
+	 * @param limits   the limits of the rate limiter used by the orchestrator
+	 *                 under test. The limiter is built on the simulation clock.
+	 *                 Queued requests are executed on the system clock, use
+	 *                 {@link ThrottlePolicy#DROP} for deterministic runs
+	 */
+	public LoadSimulator(SimulationSettings settings, RateLimiter.Builder limits) {
+		this.settings = settings;
+		this.limits = limits;
+	}
+
+	/**
+	 * Run the simulation
+	 *
+	 * @return the report of the run
+	 * @throws IOException          if the orchestrator fails to process an event
+	 * @throws InterruptedException if the thread is interrupted while waiting on
+	 *                              the real clock
+	 */
+	public SimulationReport run() throws IOException, InterruptedException {
+		long wallStart = System.nanoTime();
+		SimulationClock clock = settings.virtualTime ? SimulationClock.virtual() : SimulationClock.real();
+		Random rng = new Random(settings.seed);
+		SimulationReport report = new SimulationReport(settings);
+
+		RateLimiter rateLimiter = limits.withClock(clock::nanoTime).build();
+		Orchestrator orchestrator = new Orchestrator(rateLimiter, null, false, false, clock::nanoTime);
+
+		List<SimulatedSlaveBot> slaves = new ArrayList<>();
+		for (int i = 0; i < settings.slaves; i++) {
+			SimulatedSlaveBot slave = new SimulatedSlaveBot(clock, rng, settings.apiLatencyNanos,
+					settings.apiJitterNanos, settings.apiFailureRate, settings.friendListLimit);
+			orchestrator.registerSlaveBot(slave);
+			slaves.add(slave);
+		}
+
+		List<SimulatedLobbyHoster> hosters = new ArrayList<>();
+		for (int i = 0; i < settings.lobbyHosters; i++) {
+			SimulatedLobbyHoster hoster = new SimulatedLobbyHoster(clock, settings.apiLatencyNanos, Server.EUW,
+					orchestrator);
+			// Every hosting account is befriended with an even share of the summoners
+			List<Long> friends = new ArrayList<>();
+			for (long id = i; id < settings.summoners; id += settings.lobbyHosters) {
+				friends.add(id);
+			}
+			hoster.setFriends(friends);
+			orchestrator.anounceAvailableToHostLobby(hoster);
+			hosters.add(hoster);
+		}
+
+		// Connect summoners. Fill slaves evenly, summoners not fitting on any friend
+		// list are left out the same way they would be in production
+		Summoner[] summoners = new Summoner[settings.summoners];
+		int connected = 0;
+		for (int i = 0; i < summoners.length; i++) {
+			summoners[i] = slaves.get(i % slaves.size()).connect("Summoner" + i, i);
+			if (summoners[i] != null) {
+				connected++;
+			}
+		}
+
+		// Distribute summoners across rooms. The lfg room and offtopic room get the
+		// largest share
+		for (int i = 0; i < summoners.length; i++) {
+			if (summoners[i] == null) {
+				continue;
+			}
+			String room;
+			int bucket = rng.nextInt(4);
+			if (bucket == 0 || settings.rooms <= 2) {
+				room = LFG_ROOM;
+			} else if (bucket == 1) {
+				room = "Offtopic";
+			} else {
+				room = "Room" + rng.nextInt(settings.rooms - 2);
+			}
+			orchestrator.propergateMessage(i, "!join " + room);
+		}
+
+		ChatAvailability[] availabilities = { ChatAvailability.chat, ChatAvailability.away, ChatAvailability.dnd,
+				ChatAvailability.mobile };
+
+		long start = clock.nanoTime();
+		long end = start + settings.durationNanos;
+		WorkloadGenerator generator = new WorkloadGenerator(settings, rng, start);
+		int line = 0;
+
+		long nextPresenceFlush = start + PRESENCE_WINDOW;
+
+		for (generator.next(); generator.getTime() < end; generator.next()) {
+			clock.advanceTo(generator.getTime());
+
+			// Apply presence batches on simulation time instead of wall time
+			if (clock.nanoTime() >= nextPresenceFlush) {
+				orchestrator.getPresenceIngestor().flush();
+				nextPresenceFlush = clock.nanoTime() + PRESENCE_WINDOW;
+			}
+
+			Summoner summoner = summoners[generator.getSummoner()];
+			if (summoner == null) {
+				continue;
+			}
+
+			EventType type = generator.getType();
+			switch (type) {
+			case CHAT:
+				orchestrator.propergateMessage(summoner.summonerId(), "Simulated chat line " + line++);
+				break;
+			case PRESENCE:
+				orchestrator.propagatePresence(summoner.summonerId(),
+						availabilities[rng.nextInt(availabilities.length)]);
+				break;
+			case ARAM:
+				orchestrator.propergateMessage(summoner.summonerId(), "!join " + LFG_ROOM);
+				orchestrator.propergateMessage(summoner.summonerId(), "!aram");
+				break;
+			}
+			report.getRecorder(type).record(clock.nanoTime() - generator.getTime());
+		}
+
+		report.simulatedNanos = Math.max(clock.nanoTime(), end) - start;
+		report.wallNanos = System.nanoTime() - wallStart;
+		report.connectedSummoners = connected;
+		for (SimulatedSlaveBot slave : slaves) {
+			report.apiCalls += slave.getApiCalls();
+			report.apiFailures += slave.getApiFailures();
+			report.messages += slave.getMessages();
+			report.getApiRecorder().addAll(slave.getApiLatency());
+		}
+		for (SimulatedLobbyHoster hoster : hosters) {
+			report.hostedLobbies += hoster.getHostedLobbies();
+		}
+		report.throttleMetrics = rateLimiter.getMetrics().toString();
+		orchestrator.shutdown();
+		return report;
+	}
+
+	/**
+	 * Ramp up the chat rate until the p99 latency of chat lines exceeds one second
+	 * and print the report of every step.
+	 *
+	 * @param args ignored
+	 * @throws Exception if the simulation fails
+	 */
+	public static void main(String[] args) throws Exception {
+		for (double chatRate = 5; chatRate <= 5120; chatRate *= 2) {
+			SimulationSettings settings = SimulationSettings.builder().withDuration(30, TimeUnit.SECONDS)
+					.withPopulation(1000, 10).withRates(chatRate, 20, 0.2).build();
+			SimulationReport report = new LoadSimulator(settings).run();
+			System.out.println(report);
+			if (report.getEventLatency(EventType.CHAT).percentile(99, TimeUnit.SECONDS) > 1) {
+				System.out.println("Saturated at " + chatRate + " chat lines per second");
+				break;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,237 @@
+package com.github.kilianB.simulation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.kilianB.chatBot.Orchestrator;
+import com.github.kilianB.dtos.BotDifficulty;
+import com.github.kilianB.dtos.Server;
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.gameManager.GameHostRequest;
+import com.github.kilianB.gameManager.GameTemplate;
+import com.github.kilianB.gameManager.LobbyHoster;
+import com.github.kilianB.gameManager.lobbies.GameLobby;
+
+/**
+ * Lobby hoster which does not connect to a league client. Every api call takes
+ * a configurable amount of time on the simulation clock. Every summoner owns a
+ * deterministic random subset of the champion pool.
+ *
+ * <p>
+ * Once a lobby was hosted it is handed to the orchestrator for backfilling and
+ * the hoster immediately announces itself as available again. Prewarmed lobbies and bots are supported. The friend list of the
+ * hosting account is set up front via {@link #setFriends(Collection)}.
+ *
+ * @author Kilian
+ *
+ */
+public class SimulatedLobbyHoster extends LobbyHoster {
+
+	private static final int CHAMPION_POOL = 150;
+
+	private final SimulationClock clock;
+	private final long latencyNanos;
+	private final Orchestrator orchestrator;
+
+	private final ConcurrentHashMap<Long, List<Integer>> champions = new ConcurrentHashMap<>();
+
+	private final LongAdder hostedLobbies = new LongAdder();
+	private final LongAdder invites = new LongAdder();
+	private final LongAdder preparedLobbies = new LongAdder();
+	private final LongAdder addedBots = new LongAdder();
+
+	/** Time a lobby request waited until it was picked up */
+	private final LatencyRecorder hostLatency = new LatencyRecorder();
+
+	/**
+	 * @param clock        the clock used to simulate latencies
+	 * @param latencyNanos the latency of every api call
+	 * @param orchestrator the orchestrator this hoster announces itself to. May
+	 *                     be null if the hoster is used in isolation
+	 */
+	public SimulatedLobbyHoster(SimulationClock clock, long latencyNanos, Orchestrator orchestrator) {
+		this(clock, latencyNanos, null, orchestrator);
+	}
+
+	/**
+	 * @param clock        the clock used to simulate latencies
+	 * @param latencyNanos the latency of every api call
+	 * @param server       the server of the simulated account or null if
+	 *                     requests of every server are served
+	 * @param orchestrator the orchestrator this hoster announces itself to. May
+	 *                     be null if the hoster is used in isolation
+	 */
+	public SimulatedLobbyHoster(SimulationClock clock, long latencyNanos, Server server,
+			Orchestrator orchestrator) {
+		this.clock = clock;
+		this.latencyNanos = latencyNanos;
+		this.orchestrator = orchestrator;
+		setServer(server);
+	}
+
+	/**
+	 * Create a stand in which answers immediately.
+	 *
+	 * @return the lobby hoster
+	 */
+	public static SimulatedLobbyHoster instant() {
+		return new SimulatedLobbyHoster(SimulationClock.virtual(), 0, null);
+	}
+
+	@Override
+	public void host(GameHostRequest gameHostRequest) throws IOException {
+		long start = clock.nanoTime();
+		call();
+		hostLatency.record(clock.nanoTime() - start);
+		lobbyCreated(gameHostRequest);
+	}
+
+	@Override
+	public boolean supportsPrewarm() {
+		return true;
+	}
+
+	@Override
+	public void prepareLobby(GameTemplate template) throws IOException {
+		call();
+		preparedLobbies.increment();
+	}
+
+	@Override
+	public void hostPrepared(GameHostRequest gameHostRequest) throws IOException {
+		// The lobby already exists. Only the request specific settings are applied
+		hostLatency.record(0);
+		lobbyCreated(gameHostRequest);
+	}
+
+	@Override
+	public void moveToSpectate() throws IOException {
+		call();
+	}
+
+	@Override
+	public void inviteSummoner(Summoner summonerToInvite) throws IOException {
+		call();
+		invites.increment();
+	}
+
+	@Override
+	public boolean supportsBots() {
+		return true;
+	}
+
+	@Override
+	public void addBot(GameLobby lobby, BotDifficulty difficulty, int teamId) throws IOException {
+		super.addBot(lobby, difficulty, teamId);
+		call();
+		addedBots.increment();
+	}
+
+	@Override
+	public void startGame() throws IOException {
+		call();
+	}
+
+	@Override
+	public void disbandLobby() throws IOException {
+		call();
+	}
+
+	@Override
+	public List<Integer> getChampionsOfSummoner(Summoner sum) throws IOException {
+		return getChampionsOfSummoner(sum.summonerId());
+	}
+
+	@Override
+	public List<Integer> getChampionsOfSummoner(long sumId) throws IOException {
+		call();
+		return champions.computeIfAbsent(sumId, id -> {
+			Random rng = new Random(id);
+			List<Integer> owned = new ArrayList<>();
+			for (int i = 0; i < CHAMPION_POOL; i++) {
+				if (rng.nextInt(3) != 0) {
+					owned.add(i);
+				}
+			}
+			return owned;
+		});
+	}
+
+	@Override
+	public void writeInLobby(String message, String chatId) throws IOException {
+		call();
+	}
+
+	/**
+	 * @param summonerIds the summoners on the friend list of the simulated account
+	 */
+	public void setFriends(Collection<Long> summonerIds) {
+		updateFriends(summonerIds);
+	}
+
+	/**
+	 * @return the number of lobbies hosted
+	 */
+	public long getHostedLobbies() {
+		return hostedLobbies.sum();
+	}
+
+	/**
+	 * @return the number of lobbies created ahead of time
+	 */
+	public long getPreparedLobbies() {
+		return preparedLobbies.sum();
+	}
+
+	/**
+	 * @return the number of bots added to lobbies
+	 */
+	public long getAddedBots() {
+		return addedBots.sum();
+	}
+
+	/**
+	 * @return the number of invites send
+	 */
+	public long getInvites() {
+		return invites.sum();
+	}
+
+	/**
+	 * @return the time it took to create a lobby
+	 */
+	public LatencyRecorder getHostLatency() {
+		return hostLatency;
+	}
+
+	private void lobbyCreated(GameHostRequest gameHostRequest) throws IOException {
+		GameLobby lobby = createLobby(gameHostRequest, "sim-" + gameHostRequest.getUniqueId(), "");
+		hostedLobbies.increment();
+		if (orchestrator != null) {
+			orchestrator.lobbyCreated(lobby);
+		}
+		if (gameHostRequest.getRequester() != null) {
+			gameHostRequest.getRequester().requestSummoner(lobby);
+		}
+		if (orchestrator != null) {
+			orchestrator.anounceAvailableToHostLobby(this);
+		}
+	}
+
+	private void call() throws IOException {
+		if (latencyNanos > 0) {
+			try {
+				clock.sleep(latencyNanos);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted during api call");
+			}
+		}
+	}
+
+}
@@ -0,0 +1,197 @@
+package com.github.kilianB.simulation;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.github.kilianB.chatBot.Orchestrator;
+import com.github.kilianB.chatBot.SlaveBot;
+import com.github.kilianB.dtos.Summoner;
+
+/**
+ * Slave bot which does not connect to a league client. Api calls take a
+ * configurable amount of time on the simulation clock and fail with a
+ * configurable probability. The friend list is limited the same way a real
+ * account is.
+ *
+ * @author Kilian
+ *
+ */
+public class SimulatedSlaveBot extends SlaveBot {
+
+	private final SimulationClock clock;
+	private final Random rng;
+
+	private final long latencyNanos;
+	private final long jitterNanos;
+	private final double failureRate;
+	private final int friendListLimit;
+
+	/** Summoners on the friend list of this account */
+	private final ConcurrentHashMap<Long, Summoner> friends = new ConcurrentHashMap<>();
+
+	/** Every summoner known by name. Answers getSummoner lookups */
+	private final ConcurrentHashMap<String, Summoner> summonersByName = new ConcurrentHashMap<>();
+
+	private final LatencyRecorder apiLatency = new LatencyRecorder();
+	private final LongAdder apiCalls = new LongAdder();
+	private final LongAdder apiFailures = new LongAdder();
+	private final LongAdder messages = new LongAdder();
+
+	private Orchestrator orchestrator;
+
+	/**
+	 * @param clock           the clock used to simulate latencies
+	 * @param rng             the random source deciding latency and failures
+	 * @param latencyNanos    mean latency of an api call
+	 * @param jitterNanos     maximum deviation from the mean latency
+	 * @param failureRate     probability of an api call to fail [0 - 1]
+	 * @param friendListLimit the friend list capacity
+	 */
+	public SimulatedSlaveBot(SimulationClock clock, Random rng, long latencyNanos, long jitterNanos,
+			double failureRate, int friendListLimit) {
+		this.clock = clock;
+		this.rng = rng;
+		this.latencyNanos = latencyNanos;
+		this.jitterNanos = jitterNanos;
+		this.failureRate = failureRate;
+		this.friendListLimit = friendListLimit;
+	}
+
+	/**
+	 * Create a stand in which answers immediately and never fails. Used for
+	 * benchmarks measuring the cost of the orchestrator itself.
+	 *
+	 * @param friendListLimit the friend list capacity
+	 * @return the slave bot
+	 */
+	public static SimulatedSlaveBot instant(int friendListLimit) {
+		return new SimulatedSlaveBot(SimulationClock.virtual(), new Random(0), 0, 0, 0, friendListLimit);
+	}
+
+	/**
+	 * Add the summoner to the friend list and register it at the orchestrator.
+	 * Mimics a summoner accepting the friend request of this account.
+	 *
+	 * @param name the display name
+	 * @param id   the summoner id
+	 * @return the connected summoner or null if the friend list is full
+	 * @throws IOException if an error occurs interacting with the orchestrator
+	 */
+	public Summoner connect(String name, long id) throws IOException {
+		if (friends.size() >= friendListLimit) {
+			return null;
+		}
+		Summoner summoner = new Summoner(name, id, this);
+		friends.put(id, summoner);
+		summonersByName.put(key(name), summoner);
+		orchestrator.registerSummoner(summoner);
+		return summoner;
+	}
+
+	/**
+	 * Remove the summoner from the friend list. Mimics a summoner going offline.
+	 *
+	 * @param summoner the summoner to remove
+	 */
+	public void disconnect(Summoner summoner) {
+		if (friends.remove(summoner.summonerId()) != null) {
+			orchestrator.propergateSummonerUnfriended(summoner);
+		}
+	}
+
+	@Override
+	public void registerAdmin(Orchestrator orchestrator) {
+		this.orchestrator = orchestrator;
+	}
+
+	@Override
+	public Summoner getSummoner(String name) throws IOException {
+		call();
+		return summonersByName.get(key(name));
+	}
+
+	@Override
+	public void sendMessage(long summonerId, String message) throws IOException {
+		call();
+		messages.increment();
+	}
+
+	@Override
+	public int getAvaiableFriendSlotLimit() throws IOException {
+		call();
+		return friendListLimit - friends.size();
+	}
+
+	@Override
+	public void sendFriendRequest(long summonerId) throws IOException {
+		call();
+		if (friends.size() >= friendListLimit) {
+			throw new IOException("Friend list full");
+		}
+	}
+
+	/**
+	 * @return latency of every api call issued
+	 */
+	public LatencyRecorder getApiLatency() {
+		return apiLatency;
+	}
+
+	/**
+	 * @return the number of api calls issued
+	 */
+	public long getApiCalls() {
+		return apiCalls.sum();
+	}
+
+	/**
+	 * @return the number of failed api calls
+	 */
+	public long getApiFailures() {
+		return apiFailures.sum();
+	}
+
+	/**
+	 * @return the number of messages successfully send
+	 */
+	public long getMessages() {
+		return messages.sum();
+	}
+
+	/**
+	 * @return the number of summoners on the friend list
+	 */
+	public int getFriendCount() {
+		return friends.size();
+	}
+
+	private void call() throws IOException {
+		apiCalls.increment();
+		long latency = latencyNanos;
+		if (jitterNanos > 0) {
+			latency += (long) ((rng.nextDouble() * 2 - 1) * jitterNanos);
+		}
+		latency = Math.max(0, latency);
+		if (latency > 0) {
+			try {
+				clock.sleep(latency);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted during api call");
+			}
+		}
+		apiLatency.record(latency);
+		if (failureRate > 0 && rng.nextDouble() < failureRate) {
+			apiFailures.increment();
+			throw new IOException("Simulated api failure");
+		}
+	}
+
+	private static String key(String name) {
+		return name.replace(" ", "").toLowerCase(Locale.ROOT);
+	}
+
+}
@@ -0,0 +1,84 @@
+package com.github.kilianB.simulation;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Time source of a simulation. Simulated api latencies are expressed as sleeps
+ * on the clock.
+ *
+ * @author Kilian
+ *
+ */
+public interface SimulationClock {
+
+	/**
+	 * @return the current time in nano seconds. Only differences between two
+	 *         values are meaningful
+	 */
+	long nanoTime();
+
+	/**
+	 * Let the given amount of time pass.
+	 *
+	 * @param nanos the time to pass
+	 * @throws InterruptedException if the thread is interrupted while sleeping
+	 */
+	void sleep(long nanos) throws InterruptedException;
+
+	/**
+	 * Move the clock forward to the given point in time. If the time already
+	 * passed nothing happens.
+	 *
+	 * @param nanoTime the point in time to advance to
+	 * @throws InterruptedException if the thread is interrupted while waiting
+	 */
+	default void advanceTo(long nanoTime) throws InterruptedException {
+		long delta = nanoTime - nanoTime();
+		if (delta > 0) {
+			sleep(delta);
+		}
+	}
+
+	/**
+	 * @return a clock backed by the system time. Sleeps block the calling thread
+	 */
+	static SimulationClock real() {
+		return new SimulationClock() {
+			@Override
+			public long nanoTime() {
+				return System.nanoTime();
+			}
+
+			@Override
+			public void sleep(long nanos) throws InterruptedException {
+				TimeUnit.NANOSECONDS.sleep(nanos);
+			}
+		};
+	}
+
+	/**
+	 * Create a virtual clock. Sleeping advances the clock immediately without
+	 * blocking. Results are deterministic as long as a single thread drives the
+	 * simulation. Sleeps issued concurrently by multiple threads are accounted
+	 * sequentially.
+	 *
+	 * @return a clock starting at 0
+	 */
+	static SimulationClock virtual() {
+		return new SimulationClock() {
+			private final AtomicLong now = new AtomicLong();
+
+			@Override
+			public long nanoTime() {
+				return now.get();
+			}
+
+			@Override
+			public void sleep(long nanos) {
+				now.addAndGet(nanos);
+			}
+		};
+	}
+
+}
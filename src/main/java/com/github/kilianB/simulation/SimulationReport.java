@@ -0,0 +1,100 @@
+package com.github.kilianB.simulation;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.github.kilianB.simulation.WorkloadGenerator.EventType;
+
+/**
+ * Result of a load simulation. Event latencies are measured from the point in
+ * time an event was scheduled until it was fully processed and therefore
+ * include the time the event had to wait behind earlier events. Growing
+ * latencies indicate that the orchestrator is saturated.
+ *
+ * @author Kilian
+ *
+ */
+public class SimulationReport {
+
+	private final SimulationSettings settings;
+
+	private final Map<EventType, LatencyRecorder> eventLatency = new EnumMap<>(EventType.class);
+
+	private final LatencyRecorder apiLatency = new LatencyRecorder();
+
+	long simulatedNanos;
+	long wallNanos;
+	long apiCalls;
+	long apiFailures;
+	long messages;
+	long hostedLobbies;
+	int connectedSummoners;
+	String throttleMetrics;
+
+	SimulationReport(SimulationSettings settings) {
+		this.settings = settings;
+		for (EventType type : EventType.values()) {
+			eventLatency.put(type, new LatencyRecorder());
+		}
+	}
+
+	LatencyRecorder getRecorder(EventType type) {
+		return eventLatency.get(type);
+	}
+
+	LatencyRecorder getApiRecorder() {
+		return apiLatency;
+	}
+
+	/**
+	 * @param type the event type
+	 * @return the latency of all processed events of the given type
+	 */
+	public LatencyRecorder getEventLatency(EventType type) {
+		return eventLatency.get(type);
+	}
+
+	/**
+	 * @return the number of processed events
+	 */
+	public long getProcessedEvents() {
+		long sum = 0;
+		for (LatencyRecorder r : eventLatency.values()) {
+			sum += r.getCount();
+		}
+		return sum;
+	}
+
+	/**
+	 * @return processed events per second of simulated time
+	 */
+	public double getThroughput() {
+		return getProcessedEvents() / (simulatedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+	}
+
+	/**
+	 * @return the number of messages handed to the slaves
+	 */
+	public long getMessages() {
+		return messages;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("Simulation Report\n");
+		sb.append(settings).append("\n");
+		sb.append(String.format("Connected summoners: %d%n", connectedSummoners));
+		sb.append(String.format("Simulated: %.2fs Wall: %.2fs%n", simulatedNanos / 1e9, wallNanos / 1e9));
+		sb.append(String.format("Throughput: %.2f events/s%n", getThroughput()));
+		for (Map.Entry<EventType, LatencyRecorder> e : eventLatency.entrySet()) {
+			sb.append(e.getKey()).append(": ").append(e.getValue().summary()).append("\n");
+		}
+		sb.append(String.format("Api calls: %d failures: %d messages: %d%n", apiCalls, apiFailures, messages));
+		sb.append("Api latency: ").append(apiLatency.summary()).append("\n");
+		sb.append("Hosted lobbies: ").append(hostedLobbies).append("\n");
+		sb.append(throttleMetrics).append("\n");
+		return sb.toString();
+	}
+
+}
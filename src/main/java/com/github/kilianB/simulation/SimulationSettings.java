@@ -0,0 +1,185 @@
+package com.github.kilianB.simulation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parameters of a load simulation. Rates are expressed as events per second
+ * across all summoners.
+ *
+ * @author Kilian
+ *
+ */
+public class SimulationSettings {
+
+	final long seed;
+	final boolean virtualTime;
+	final long durationNanos;
+
+	final int slaves;
+	final int friendListLimit;
+	final long apiLatencyNanos;
+	final long apiJitterNanos;
+	final double apiFailureRate;
+
+	final int lobbyHosters;
+
+	final int summoners;
+	final int rooms;
+	final double chatRate;
+	final double presenceRate;
+	final double aramRate;
+
+	private SimulationSettings(Builder builder) {
+		this.seed = builder.seed;
+		this.virtualTime = builder.virtualTime;
+		this.durationNanos = builder.durationNanos;
+		this.slaves = builder.slaves;
+		this.friendListLimit = builder.friendListLimit;
+		this.apiLatencyNanos = builder.apiLatencyNanos;
+		this.apiJitterNanos = builder.apiJitterNanos;
+		this.apiFailureRate = builder.apiFailureRate;
+		this.lobbyHosters = builder.lobbyHosters;
+		this.summoners = builder.summoners;
+		this.rooms = builder.rooms;
+		this.chatRate = builder.chatRate;
+		this.presenceRate = builder.presenceRate;
+		this.aramRate = builder.aramRate;
+	}
+
+	@Override
+	public String toString() {
+		return "SimulationSettings [seed=" + seed + ", virtualTime=" + virtualTime + ", duration="
+				+ TimeUnit.NANOSECONDS.toSeconds(durationNanos) + "s, slaves=" + slaves + ", friendListLimit="
+				+ friendListLimit + ", apiLatency=" + TimeUnit.NANOSECONDS.toMillis(apiLatencyNanos) + "ms, apiJitter="
+				+ TimeUnit.NANOSECONDS.toMillis(apiJitterNanos) + "ms, apiFailureRate=" + apiFailureRate
+				+ ", lobbyHosters=" + lobbyHosters + ", summoners=" + summoners + ", rooms=" + rooms + ", chatRate="
+				+ chatRate + ", presenceRate=" + presenceRate + ", aramRate=" + aramRate + "]";
+	}
+
+	/**
+	 * Creates builder to build {@link SimulationSettings}. Settings not supplied
+	 * fall back to defaults.
+	 *
+	 * @return created builder
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * Builder to build {@link SimulationSettings}.
+	 */
+	public static final class Builder {
+		private long seed = 0;
+		private boolean virtualTime = true;
+		private long durationNanos = TimeUnit.MINUTES.toNanos(1);
+		private int slaves = 4;
+		private int friendListLimit = 300;
+		private long apiLatencyNanos = TimeUnit.MILLISECONDS.toNanos(20);
+		private long apiJitterNanos = TimeUnit.MILLISECONDS.toNanos(10);
+		private double apiFailureRate = 0;
+		private int lobbyHosters = 1;
+		private int summoners = 1000;
+		private int rooms = 10;
+		private double chatRate = 10;
+		private double presenceRate = 5;
+		private double aramRate = 0.1;
+
+		private Builder() {
+		}
+
+		/**
+		 * @param seed seed of the random generator. Equal seeds produce the same
+		 *             workload
+		 * @return this builder
+		 */
+		public Builder withSeed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		/**
+		 * @param virtualTime true to run on a virtual clock, false to use the system
+		 *                    clock and actually wait for simulated latencies
+		 * @return this builder
+		 */
+		public Builder withVirtualTime(boolean virtualTime) {
+			this.virtualTime = virtualTime;
+			return this;
+		}
+
+		/**
+		 * @param duration the simulated time span
+		 * @param unit     the unit of the duration argument
+		 * @return this builder
+		 */
+		public Builder withDuration(long duration, TimeUnit unit) {
+			this.durationNanos = unit.toNanos(duration);
+			return this;
+		}
+
+		/**
+		 * @param slaves          the number of simulated slave accounts
+		 * @param friendListLimit the friend list capacity of every slave
+		 * @return this builder
+		 */
+		public Builder withSlaves(int slaves, int friendListLimit) {
+			this.slaves = slaves;
+			this.friendListLimit = friendListLimit;
+			return this;
+		}
+
+		/**
+		 * @param latency     the mean latency of an api call
+		 * @param jitter      the maximum deviation from the mean latency
+		 * @param unit        the unit of the latency and jitter argument
+		 * @param failureRate the probability of an api call to fail [0 - 1]
+		 * @return this builder
+		 */
+		public Builder withApi(long latency, long jitter, TimeUnit unit, double failureRate) {
+			this.apiLatencyNanos = unit.toNanos(latency);
+			this.apiJitterNanos = unit.toNanos(jitter);
+			this.apiFailureRate = failureRate;
+			return this;
+		}
+
+		/**
+		 * @param lobbyHosters the number of simulated lobby hosters
+		 * @return this builder
+		 */
+		public Builder withLobbyHosters(int lobbyHosters) {
+			this.lobbyHosters = lobbyHosters;
+			return this;
+		}
+
+		/**
+		 * @param summoners the number of connected summoners
+		 * @param rooms     the number of rooms summoners are distributed across.
+		 *                  Includes the fixed rooms
+		 * @return this builder
+		 */
+		public Builder withPopulation(int summoners, int rooms) {
+			this.summoners = summoners;
+			this.rooms = rooms;
+			return this;
+		}
+
+		/**
+		 * @param chatRate     chat lines per second
+		 * @param presenceRate presence changes per second
+		 * @param aramRate     !aram requests per second
+		 * @return this builder
+		 */
+		public Builder withRates(double chatRate, double presenceRate, double aramRate) {
+			this.chatRate = chatRate;
+			this.presenceRate = presenceRate;
+			this.aramRate = aramRate;
+			return this;
+		}
+
+		public SimulationSettings build() {
+			return new SimulationSettings(this);
+		}
+	}
+
+}
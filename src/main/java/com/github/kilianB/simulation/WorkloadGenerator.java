@@ -0,0 +1,96 @@
+package com.github.kilianB.simulation;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Generates a deterministic stream of workload events. Chat lines, presence
+ * changes and !aram requests arrive as independent poisson processes merged
+ * into a single time ordered stream.
+ *
+ * @author Kilian
+ *
+ */
+public class WorkloadGenerator {
+
+	/**
+	 * Kind of a generated event
+	 */
+	public enum EventType {
+		/** A summoner writes a line into his room */
+		CHAT,
+		/** The availability of a summoner changes */
+		PRESENCE,
+		/** A summoner in the lfg room requests an aram game */
+		ARAM;
+	}
+
+	private final Random rng;
+	private final double chatRate;
+	private final double totalRate;
+	private final double presenceRate;
+	private final int summoners;
+
+	/** Scheduled time of the current event */
+	private long time;
+	private EventType type;
+	private int summoner;
+
+	/**
+	 * @param settings the workload settings
+	 * @param rng      the random source
+	 * @param start    time of the first event
+	 */
+	public WorkloadGenerator(SimulationSettings settings, Random rng, long start) {
+		this.rng = rng;
+		this.chatRate = settings.chatRate;
+		this.presenceRate = settings.presenceRate;
+		this.totalRate = settings.chatRate + settings.presenceRate + settings.aramRate;
+		this.summoners = settings.summoners;
+		this.time = start;
+		if (totalRate <= 0) {
+			throw new IllegalArgumentException("At least one event rate has to be positive");
+		}
+	}
+
+	/**
+	 * Advance to the next event. The fields of the previous event are replaced.
+	 */
+	public void next() {
+		// Exponential inter arrival time of the merged process
+		double seconds = -Math.log(1 - rng.nextDouble()) / totalRate;
+		time += (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+
+		double pick = rng.nextDouble() * totalRate;
+		if (pick < chatRate) {
+			type = EventType.CHAT;
+		} else if (pick < chatRate + presenceRate) {
+			type = EventType.PRESENCE;
+		} else {
+			type = EventType.ARAM;
+		}
+		summoner = rng.nextInt(summoners);
+	}
+
+	/**
+	 * @return the point in time the current event is scheduled for
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * @return the type of the current event
+	 */
+	public EventType getType() {
+		return type;
+	}
+
+	/**
+	 * @return the index of the summoner triggering the current event
+	 */
+	public int getSummoner() {
+		return summoner;
+	}
+
+}
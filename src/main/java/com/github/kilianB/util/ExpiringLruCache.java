@@ -0,0 +1,185 @@
+package com.github.kilianB.util;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * A bounded key value cache evicting entries in least recently used order once
+ * the capacity is reached. Entries additionally expire after a fixed time to
+ * live and are lazily removed once they are accessed.
+ *
+ * <p>
+ * All methods are synchronized. The cache is intended for lookups which would
+ * otherwise result in a round trip to the league api and therefore the lock is
+ * by far the cheaper operation.
+ *
+ * @author Kilian
+ *
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public class ExpiringLruCache<K, V> {
+
+	/** Maximum number of entries kept in the cache */
+	private final int capacity;
+
+	/** Time to live of an entry in nano seconds */
+	private final long ttlNanos;
+
+	/** Access ordered map. The eldest entry is the least recently used one */
+	private final LinkedHashMap<K, Entry<V>> map;
+
+	/** Notified whenever an entry leaves the cache due to size or age */
+	private final BiConsumer<K, V> evictionListener;
+
+	/**
+	 * @param capacity the maximum number of entries kept in the cache
+	 * @param ttl      the time an entry stays valid after it was inserted
+	 * @param unit     the time unit of the ttl argument
+	 */
+	public ExpiringLruCache(int capacity, long ttl, TimeUnit unit) {
+		this(capacity, ttl, unit, null);
+	}
+
+	/**
+	 * @param capacity         the maximum number of entries kept in the cache
+	 * @param ttl              the time an entry stays valid after it was inserted
+	 * @param unit             the time unit of the ttl argument
+	 * @param evictionListener callback invoked while holding the cache lock
+	 *                         every time an entry is evicted or expires. May be
+	 *                         null
+	 */
+	public ExpiringLruCache(int capacity, long ttl, TimeUnit unit, BiConsumer<K, V> evictionListener) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity has to be positive");
+		}
+		this.capacity = capacity;
+		this.ttlNanos = unit.toNanos(ttl);
+		this.evictionListener = evictionListener;
+		this.map = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+				if (size() > ExpiringLruCache.this.capacity) {
+					notifyEviction(eldest.getKey(), eldest.getValue().value);
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Retrieve the value mapped to the key and mark it as recently used.
+	 *
+	 * @param key the key to look up
+	 * @return the value or null if no value is present or the value expired
+	 */
+	public synchronized V get(K key) {
+		Entry<V> entry = map.get(key);
+		if (entry == null) {
+			return null;
+		}
+		if (isExpired(entry, System.nanoTime())) {
+			map.remove(key);
+			notifyEviction(key, entry.value);
+			return null;
+		}
+		return entry.value;
+	}
+
+	/**
+	 * Insert or replace a value. Replacing a value resets it's time to live.
+	 * Replacing an expired value notifies the eviction listener.
+	 *
+	 * @param key   the key
+	 * @param value the value. May not be null
+	 * @return the previous value mapped to this key or null if none was present
+	 *         or it already expired
+	 */
+	public synchronized V put(K key, V value) {
+		long now = System.nanoTime();
+		Entry<V> old = map.put(key, new Entry<>(value, now));
+		if (old == null) {
+			return null;
+		}
+		if (isExpired(old, now)) {
+			// The expired value was never seen by the listener
+			notifyEviction(key, old.value);
+			return null;
+		}
+		return old.value;
+	}
+
+	/**
+	 * Remove the value mapped to the key. The eviction listener is not notified
+	 *
+	 * @param key the key to remove
+	 * @return the removed value or null if none was present
+	 */
+	public synchronized V remove(K key) {
+		Entry<V> old = map.remove(key);
+		return old == null ? null : old.value;
+	}
+
+	/**
+	 * Remove all expired entries. Expired entries are removed lazily on access,
+	 * this method may be called periodically to release memory of entries which
+	 * are never looked up again.
+	 *
+	 * @return the number of purged entries
+	 */
+	public synchronized int purgeExpired() {
+		long now = System.nanoTime();
+		int purged = 0;
+		Iterator<Map.Entry<K, Entry<V>>> iter = map.entrySet().iterator();
+		while (iter.hasNext()) {
+			Map.Entry<K, Entry<V>> e = iter.next();
+			if (isExpired(e.getValue(), now)) {
+				iter.remove();
+				notifyEviction(e.getKey(), e.getValue().value);
+				purged++;
+			}
+		}
+		return purged;
+	}
+
+	/**
+	 * @return the number of entries currently held. Includes expired entries
+	 *         which were not purged yet.
+	 */
+	public synchronized int size() {
+		return map.size();
+	}
+
+	/**
+	 * @return the maximum number of entries held by this cache
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	private boolean isExpired(Entry<V> entry, long now) {
+		return now - entry.inserted > ttlNanos;
+	}
+
+	private void notifyEviction(K key, V value) {
+		if (evictionListener != null) {
+			evictionListener.accept(key, value);
+		}
+	}
+
+	private static class Entry<V> {
+		private final V value;
+		private final long inserted;
+
+		Entry(V value, long inserted) {
+			this.value = value;
+			this.inserted = inserted;
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package com.github.kilianB.chatBot;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Kilian
+ *
+ */
+class SummonerNameCacheTest {
+
+	@Test
+	void namesAreCaseAndWhitespaceInsensitive() {
+		SummonerNameCache cache = new SummonerNameCache(10, 1, TimeUnit.HOURS);
+		cache.update(1, "Patex Two");
+
+		assertEquals(Long.valueOf(1), cache.getId("patextwo"));
+		assertEquals("Patex Two", cache.getName(1));
+	}
+
+	@Test
+	void renameFreesOldName() {
+		SummonerNameCache cache = new SummonerNameCache(10, 1, TimeUnit.HOURS);
+		cache.update(1, "Old");
+		cache.update(1, "New");
+
+		assertNull(cache.getId("Old"));
+		assertEquals(Long.valueOf(1), cache.getId("New"));
+	}
+
+	@Test
+	void renameAfterExpiryFreesOldName() throws InterruptedException {
+		SummonerNameCache cache = new SummonerNameCache(10, 0, TimeUnit.NANOSECONDS);
+		cache.update(1, "Old");
+		Thread.sleep(1);
+		cache.update(1, "New");
+
+		// The expired old name may not linger
+		assertEquals(1, cache.getNameCount());
+	}
+
+	@Test
+	void evictionRemovesName() {
+		SummonerNameCache cache = new SummonerNameCache(1, 1, TimeUnit.HOURS);
+		cache.update(1, "First");
+		cache.update(2, "Second");
+
+		assertNull(cache.getId("First"));
+		assertEquals(1, cache.size());
+	}
+
+}
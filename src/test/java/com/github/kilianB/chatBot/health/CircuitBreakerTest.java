@@ -0,0 +1,104 @@
+package com.github.kilianB.chatBot.health;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Kilian
+ *
+ */
+class CircuitBreakerTest {
+
+	private static final long COOL_DOWN = TimeUnit.MILLISECONDS.toNanos(50);
+
+	private static CircuitBreaker openBreaker() {
+		CircuitBreaker breaker = new CircuitBreaker(0.5, TimeUnit.SECONDS.toNanos(1), COOL_DOWN, 1);
+		assertEquals(CircuitState.OPEN, breaker.recordFailure());
+		return breaker;
+	}
+
+	@Test
+	void openCircuitRejectsCalls() {
+		assertFalse(openBreaker().tryAcquireProbe());
+	}
+
+	@Test
+	void halfOpenPermitsSingleProbe() throws InterruptedException {
+		CircuitBreaker breaker = openBreaker();
+		TimeUnit.NANOSECONDS.sleep(COOL_DOWN);
+
+		assertTrue(breaker.tryAcquireProbe());
+		assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+		assertFalse(breaker.tryAcquireProbe());
+		assertFalse(breaker.tryAcquireProbe());
+	}
+
+	@Test
+	void successfulProbeClosesCircuit() throws InterruptedException {
+		CircuitBreaker breaker = openBreaker();
+		TimeUnit.NANOSECONDS.sleep(COOL_DOWN);
+		assertTrue(breaker.tryAcquireProbe());
+
+		assertEquals(CircuitState.CLOSED, breaker.recordSuccess(1));
+		assertTrue(breaker.tryAcquireProbe());
+		assertTrue(breaker.tryAcquireProbe());
+	}
+
+	@Test
+	void failedProbeOpensCircuit() throws InterruptedException {
+		CircuitBreaker breaker = openBreaker();
+		TimeUnit.NANOSECONDS.sleep(COOL_DOWN);
+		assertTrue(breaker.tryAcquireProbe());
+
+		assertEquals(CircuitState.OPEN, breaker.recordFailure());
+		assertFalse(breaker.tryAcquireProbe());
+	}
+
+	@Test
+	void lostProbeIsReissuedAfterCoolDown() throws InterruptedException {
+		CircuitBreaker breaker = openBreaker();
+		TimeUnit.NANOSECONDS.sleep(COOL_DOWN);
+		assertTrue(breaker.tryAcquireProbe());
+		assertFalse(breaker.tryAcquireProbe());
+
+		TimeUnit.NANOSECONDS.sleep(COOL_DOWN);
+		assertTrue(breaker.tryAcquireProbe());
+	}
+
+	@Test
+	void availabilityCheckDoesNotTakeProbe() {
+		AtomicLong now = new AtomicLong();
+		CircuitBreaker breaker = new CircuitBreaker(0.5, TimeUnit.SECONDS.toNanos(1), COOL_DOWN, 1, now::get);
+		assertEquals(CircuitState.OPEN, breaker.recordFailure());
+		assertFalse(breaker.isAvailable());
+
+		now.addAndGet(COOL_DOWN);
+		assertTrue(breaker.isAvailable());
+		assertTrue(breaker.isAvailable());
+		assertEquals(CircuitState.OPEN, breaker.getState());
+
+		assertTrue(breaker.tryAcquireProbe());
+		assertFalse(breaker.isAvailable());
+		assertFalse(breaker.tryAcquireProbe());
+	}
+
+	@Test
+	void coolDownFollowsInjectedClock() {
+		AtomicLong now = new AtomicLong();
+		CircuitBreaker breaker = new CircuitBreaker(0.5, TimeUnit.SECONDS.toNanos(1), COOL_DOWN, 1, now::get);
+		assertEquals(CircuitState.OPEN, breaker.recordFailure());
+
+		now.addAndGet(COOL_DOWN - 1);
+		assertFalse(breaker.tryAcquireProbe());
+		now.incrementAndGet();
+		assertTrue(breaker.tryAcquireProbe());
+		assertEquals(CircuitState.HALF_OPEN, breaker.getState());
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.github.kilianB.chatBot.ingress;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.kilianB.dtos.ChatAvailability;
+import com.github.kilianB.dtos.Summoner;
+
+/**
+ * @author Kilian
+ *
+ */
+class IngressSchedulerTest {
+
+	private static Summoner summoner(long id) {
+		return new Summoner("S" + id, id, null, ChatAvailability.chat);
+	}
+
+	@Test
+	void messagesOfOneSenderKeepTheirOrder() throws InterruptedException {
+		List<String> handled = new CopyOnWriteArrayList<>();
+		CountDownLatch done = new CountDownLatch(3);
+		IngressScheduler scheduler = new IngressScheduler((s, text) -> {
+			handled.add(text);
+			done.countDown();
+		}, 100, 8, 4);
+		Summoner sender = summoner(1);
+
+		scheduler.submit(sender, "hello");
+		scheduler.submit(sender, "!leave");
+		scheduler.submit(sender, "!ban someone");
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of("hello", "!leave", "!ban someone"), handled);
+		scheduler.shutdown();
+	}
+
+	@Test
+	void moderationOvertakesChatOfOtherSenders() throws InterruptedException {
+		List<String> handled = new CopyOnWriteArrayList<>();
+		CountDownLatch blocked = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch done = new CountDownLatch(4);
+		IngressScheduler scheduler = new IngressScheduler((s, text) -> {
+			if (text.equals("first")) {
+				blocked.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			handled.add(text);
+			done.countDown();
+		}, 100, 8, 1);
+
+		scheduler.submit(summoner(1), "first");
+		assertTrue(blocked.await(5, TimeUnit.SECONDS));
+		scheduler.submit(summoner(2), "chat");
+		scheduler.submit(summoner(3), "!join room");
+		scheduler.submit(summoner(4), "!ban spammer");
+		release.countDown();
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		assertEquals(List.of("first", "!ban spammer", "!join room", "chat"), handled);
+		scheduler.shutdown();
+	}
+
+	@Test
+	void failingHandlerDoesNotStopWorkers() throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(1);
+		IngressScheduler scheduler = new IngressScheduler((s, text) -> {
+			if (text.equals("boom")) {
+				throw new AssertionError("boom");
+			}
+			done.countDown();
+		}, 100, 8, 1);
+
+		scheduler.submit(summoner(1), "boom");
+		scheduler.submit(summoner(1), "after");
+
+		assertTrue(done.await(5, TimeUnit.SECONDS));
+		scheduler.shutdown();
+	}
+
+	@Test
+	void nullSenderIsRejected() {
+		IngressScheduler scheduler = IngressScheduler.inline((s, text) -> {
+		});
+		assertThrows(NullPointerException.class, () -> scheduler.submit(null, "hello"));
+	}
+
+}
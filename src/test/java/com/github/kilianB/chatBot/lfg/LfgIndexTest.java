@@ -0,0 +1,132 @@
+package com.github.kilianB.chatBot.lfg;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.kilianB.dtos.League;
+import com.github.kilianB.dtos.QueueId;
+import com.github.kilianB.dtos.Server;
+
+/**
+ * @author Kilian
+ *
+ */
+class LfgIndexTest {
+
+	private static LfgQuery query(long owner, int partySize, League highest, League lowest) {
+		return new LfgQuery(owner, QueueId.SR_DRAFT, Server.EUW, partySize, highest, lowest, 1_000);
+	}
+
+	private static LfgPost post(long poster, League league, int openSlots) {
+		return new LfgPost(poster, QueueId.SR_DRAFT, Server.EUW, league, openSlots);
+	}
+
+	@Test
+	void matchesLeagueRangeAndPartySize() {
+		LfgIndex index = new LfgIndex();
+		LfgQuery fits = query(1, 2, League.Platinum, League.Silver);
+		index.register(fits);
+		index.register(query(2, 3, League.Platinum, League.Silver));
+		index.register(query(3, 1, League.Diamond, League.Diamond));
+
+		List<LfgQuery> matches = index.match(post(10, League.Gold, 2), 0);
+
+		assertEquals(1, matches.size());
+		assertSame(fits, matches.get(0));
+	}
+
+	@Test
+	void matchedQueryIsRemoved() {
+		LfgIndex index = new LfgIndex();
+		index.register(query(1, 1, League.Gold, League.Gold));
+
+		assertEquals(1, index.match(post(10, League.Gold, 1), 0).size());
+		assertNull(index.get(1));
+		assertEquals(0, index.size());
+		assertTrue(index.match(post(11, League.Gold, 1), 0).isEmpty());
+	}
+
+	@Test
+	void otherQueuesAndServersDoNotMatch() {
+		LfgIndex index = new LfgIndex();
+		index.register(new LfgQuery(1, QueueId.ARAM, Server.EUW, 1, League.Gold, League.Gold, 1_000));
+		index.register(new LfgQuery(2, QueueId.SR_DRAFT, Server.NA, 1, League.Gold, League.Gold, 1_000));
+
+		assertTrue(index.match(post(10, League.Gold, 1), 0).isEmpty());
+		assertEquals(2, index.size());
+	}
+
+	@Test
+	void posterDoesNotMatchOwnQuery() {
+		LfgIndex index = new LfgIndex();
+		index.register(query(1, 1, League.Gold, League.Gold));
+
+		assertTrue(index.match(post(1, League.Gold, 1), 0).isEmpty());
+		assertEquals(1, index.size());
+	}
+
+	@Test
+	void expiredQueriesAreDroppedInsteadOfMatched() {
+		LfgIndex index = new LfgIndex();
+		index.register(query(1, 1, League.Gold, League.Gold));
+
+		assertTrue(index.match(post(10, League.Gold, 1), 1_000).isEmpty());
+		assertEquals(0, index.size());
+	}
+
+	@Test
+	void registerReplacesPreviousQuery() {
+		LfgIndex index = new LfgIndex();
+		LfgQuery first = query(1, 1, League.Gold, League.Gold);
+		index.register(first);
+
+		assertSame(first, index.register(query(1, 1, League.Iron, League.Iron)));
+		assertTrue(index.match(post(10, League.Gold, 1), 0).isEmpty());
+		assertEquals(1, index.match(post(10, League.Iron, 1), 0).size());
+	}
+
+	@Test
+	void claimsOldestSearchesUntilSlotsAreFilled() {
+		LfgIndex index = new LfgIndex();
+		LfgQuery oldest = query(1, 1, League.Gold, League.Gold);
+		LfgQuery pair = query(2, 2, League.Gold, League.Gold);
+		LfgQuery newest = query(3, 1, League.Gold, League.Gold);
+		index.register(newest);
+		index.register(pair);
+		index.register(oldest);
+
+		assertEquals(List.of(oldest), index.match(post(10, League.Gold, 1), 0));
+		assertEquals(2, index.size());
+		assertEquals(List.of(pair, newest), index.match(post(11, League.Gold, 3), 0));
+		assertEquals(0, index.size());
+	}
+
+	@Test
+	void partiesNotFittingTheSlotsLeftStayActive() {
+		LfgIndex index = new LfgIndex();
+		LfgQuery single = query(1, 1, League.Gold, League.Gold);
+		LfgQuery pair = query(2, 2, League.Gold, League.Gold);
+		index.register(single);
+		index.register(pair);
+
+		assertEquals(List.of(single), index.match(post(10, League.Gold, 2), 0));
+		assertSame(pair, index.get(2));
+	}
+
+	@Test
+	void purgeRemovesExpiredQueries() {
+		LfgIndex index = new LfgIndex();
+		index.register(query(1, 1, League.Gold, League.Gold));
+		index.register(new LfgQuery(2, QueueId.SR_DRAFT, Server.EUW, 1, League.Gold, League.Gold, 5_000));
+
+		assertEquals(1, index.purgeExpired(2_000));
+		assertEquals(1, index.size());
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.github.kilianB.chatBot.messages;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Kilian
+ *
+ */
+class DeferredDigestTest {
+
+	@Test
+	void drainRendersLinesInOrder() {
+		DeferredDigest digest = new DeferredDigest(10, 1024);
+		digest.add(1, "first");
+		digest.add(2, "second");
+
+		String rendered = digest.drain(id -> "S" + id, id -> false);
+
+		assertEquals("While you were away 2 messages were posted by S1, S2:\nfirst\nsecond\n", rendered);
+		assertTrue(digest.isEmpty());
+	}
+
+	@Test
+	void lineBudgetDiscardsOldest() {
+		DeferredDigest digest = new DeferredDigest(2, 1024);
+		digest.add(1, "a");
+		digest.add(1, "b");
+		digest.add(1, "c");
+
+		assertEquals(2, digest.size());
+		assertEquals(1, digest.getDiscarded());
+		String rendered = digest.drain(id -> "S", id -> false);
+		assertTrue(rendered.contains("(1 older omitted)"));
+		assertTrue(rendered.endsWith("b\nc\n"));
+	}
+
+	@Test
+	void byteBudgetDiscardsOldest() {
+		DeferredDigest digest = new DeferredDigest(10, 8);
+		digest.add(1, "aaaa");
+		digest.add(1, "bbbb");
+		digest.add(1, "cc");
+
+		assertEquals(6, digest.getByteSize());
+		assertEquals(1, digest.getDiscarded());
+	}
+
+	@Test
+	void oversizeLineIsCountedSeparately() {
+		DeferredDigest digest = new DeferredDigest(10, 4);
+		digest.add(1, "ok");
+		digest.add(1, "way too long");
+
+		assertEquals(0, digest.getDiscarded());
+		assertEquals(1, digest.getOversized());
+		String rendered = digest.drain(id -> "S", id -> false);
+		assertTrue(rendered.contains("(1 too long omitted)"));
+		assertFalse(rendered.contains("older"));
+	}
+
+	@Test
+	void sharedEncodingIsStoredAsIs() {
+		byte[] encoded = "grüße".getBytes(StandardCharsets.UTF_8);
+		DeferredDigest first = new DeferredDigest();
+		DeferredDigest second = new DeferredDigest();
+		first.add(1, encoded);
+		second.add(1, encoded);
+
+		assertEquals(encoded.length, first.getByteSize());
+		assertTrue(second.drain(id -> "S", id -> false).endsWith("grüße\n"));
+	}
+
+	@Test
+	void excludedSendersAreSkipped() {
+		DeferredDigest digest = new DeferredDigest();
+		digest.add(1, "muted");
+
+		assertNull(digest.drain(id -> "S", id -> id == 1));
+		assertTrue(digest.isEmpty());
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.github.kilianB.chatBot.moderation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Kilian
+ *
+ */
+class AhoCorasickMatcherTest {
+
+	@Test
+	void findsTermsAnywhereInText() {
+		AhoCorasickMatcher matcher = new AhoCorasickMatcher(List.of("boost", "cheap rp"));
+
+		assertTrue(matcher.matches("selling boost today"));
+		assertTrue(matcher.matches("boost"));
+		assertTrue(matcher.matches("get cheap rp here"));
+		assertFalse(matcher.matches("cheap skins"));
+		assertFalse(matcher.matches("boos"));
+	}
+
+	@Test
+	void followsFailLinksIntoOverlappingTerms() {
+		AhoCorasickMatcher matcher = new AhoCorasickMatcher(List.of("hers", "she", "abcd", "bce"));
+
+		assertTrue(matcher.matches("ushe"));
+		assertTrue(matcher.matches("abce"));
+		assertFalse(matcher.matches("abc"));
+		assertFalse(matcher.matches("her"));
+	}
+
+	@Test
+	void matchesTermSuffixOfLongerTerm() {
+		AhoCorasickMatcher matcher = new AhoCorasickMatcher(List.of("abcdef", "cd"));
+
+		assertTrue(matcher.matches("xabcdx"));
+	}
+
+	@Test
+	void ignoresCase() {
+		AhoCorasickMatcher matcher = new AhoCorasickMatcher(List.of("Elo Boost"));
+
+		assertTrue(matcher.matches("ELO BOOST for sale"));
+	}
+
+	@Test
+	void ignoresEmptyAndDuplicateTerms() {
+		AhoCorasickMatcher matcher = new AhoCorasickMatcher(List.of("", "  ", "spam", "SPAM"));
+
+		assertEquals(1, matcher.getTermCount());
+		assertFalse(new AhoCorasickMatcher(List.of("")).matches("anything"));
+	}
+
+}
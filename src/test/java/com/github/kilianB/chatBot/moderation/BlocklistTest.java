@@ -0,0 +1,66 @@
+package com.github.kilianB.chatBot.moderation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Kilian
+ *
+ */
+class BlocklistTest {
+
+	private static Blocklist blocking(String... terms) throws Exception {
+		Blocklist blocklist = new Blocklist();
+		blocklist.update(List.of(terms), List.of()).get(5, TimeUnit.SECONDS);
+		return blocklist;
+	}
+
+	@Test
+	void blocksObfuscatedTerms() throws Exception {
+		Blocklist blocklist = blocking("elo boost");
+
+		assertTrue(blocklist.contains("cheap 3L0 B00ST here"));
+		assertTrue(blocklist.contains("cheap eloboost here"));
+		assertTrue(blocklist.contains("e l o b o o s t"));
+		blocklist.shutdown();
+	}
+
+	@Test
+	void numbersAndWordBoundariesDoNotCreateMatches() throws Exception {
+		Blocklist blocklist = blocking("elo boost");
+
+		assertFalse(blocklist.contains("ok 3 10 boost"));
+		assertFalse(blocklist.contains("he lob oost"));
+		assertFalse(blocklist.contains("hello boost"));
+		blocklist.shutdown();
+	}
+
+	@Test
+	void missingSourceKeepsPreviousEntries(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("terms.txt");
+		Files.write(file, List.of("# comment", "spam"));
+		Blocklist blocklist = new Blocklist();
+		blocklist.watch(file).get(5, TimeUnit.SECONDS);
+		long version = blocklist.getVersion();
+		assertTrue(blocklist.contains("spam"));
+
+		assertThrows(ExecutionException.class,
+				() -> blocklist.watch(dir.resolve("missing.txt")).get(5, TimeUnit.SECONDS));
+
+		assertEquals(version, blocklist.getVersion());
+		assertTrue(blocklist.contains("spam"));
+		blocklist.shutdown();
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.github.kilianB.chatBot.moderation;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * @author Kilian
+ *
+ */
+class GlobalBanRegistryTest {
+
+	@Test
+	void banAndUnbanTakeEffectImmediately() {
+		GlobalBanRegistry registry = new GlobalBanRegistry(new long[] { 5 });
+
+		assertTrue(registry.isBanned(5));
+		registry.ban(7);
+		assertTrue(registry.isBanned(7));
+		registry.unban(5);
+		assertFalse(registry.isBanned(5));
+		registry.shutdown();
+	}
+
+	@Test
+	void flushMergesChangesIntoSnapshot() throws Exception {
+		GlobalBanRegistry registry = new GlobalBanRegistry(new long[] { 3, 1 });
+		registry.ban(2);
+		registry.unban(3);
+
+		registry.flush().get(5, TimeUnit.SECONDS);
+
+		assertArrayEquals(new long[] { 1, 2 }, registry.getBannedIds());
+		assertEquals(2, registry.size());
+		registry.shutdown();
+	}
+
+	@Test
+	void bansSurviveReload(@TempDir Path dir) throws Exception {
+		Path file = dir.resolve("bans.txt");
+		GlobalBanRegistry registry = GlobalBanRegistry.load(file);
+		assertEquals(0, registry.size());
+		registry.ban(42);
+		registry.ban(7);
+		registry.flush().get(5, TimeUnit.SECONDS);
+		registry.shutdown();
+
+		GlobalBanRegistry reloaded = GlobalBanRegistry.load(file);
+
+		assertTrue(reloaded.isBanned(42));
+		assertTrue(reloaded.isBanned(7));
+		assertFalse(reloaded.isBanned(8));
+		reloaded.shutdown();
+	}
+
+	@Test
+	void loadSkipsComments(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("bans.txt");
+		Files.write(file, List.of("# spammers", "11", "", "12"));
+
+		GlobalBanRegistry registry = GlobalBanRegistry.load(file);
+
+		assertArrayEquals(new long[] { 11, 12 }, registry.getBannedIds());
+		registry.shutdown();
+	}
+
+	@Test
+	void malformedFileFailsToLoad(@TempDir Path dir) throws IOException {
+		Path file = dir.resolve("bans.txt");
+		Files.write(file, List.of("11", "not an id"));
+
+		assertThrows(IOException.class, () -> GlobalBanRegistry.load(file));
+	}
+
+}
@@ -0,0 +1,52 @@
+package com.github.kilianB.chatBot.moderation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Kilian
+ *
+ */
+class LongBloomFilterTest {
+
+	@Test
+	void hashFunctionsFollowTheRequestedRate() {
+		assertEquals(7, new LongBloomFilter(new long[1000], 0.01).getHashFunctions());
+		assertEquals(10, new LongBloomFilter(new long[1000], 0.001).getHashFunctions());
+		assertEquals(1, new LongBloomFilter(new long[1000], 0.5).getHashFunctions());
+	}
+
+	@Test
+	void containsEveryKey() {
+		long[] keys = LongStream.range(0, 10_000).map(i -> i * 7919 + 3).toArray();
+		LongBloomFilter filter = new LongBloomFilter(keys, 0.01);
+
+		for (long key : keys) {
+			assertTrue(filter.mightContain(key));
+		}
+	}
+
+	@Test
+	void falsePositiveRateStaysNearRequestedRate() {
+		long[] keys = LongStream.range(0, 10_000).toArray();
+		LongBloomFilter filter = new LongBloomFilter(keys, 0.01);
+
+		long falsePositives = LongStream.range(1_000_000, 1_100_000).filter(filter::mightContain).count();
+
+		assertTrue(falsePositives < 2_000, "False positives: " + falsePositives);
+	}
+
+	@Test
+	void emptyFilterContainsNothing() {
+		LongBloomFilter filter = new LongBloomFilter(new long[0], 0.01);
+
+		assertFalse(filter.mightContain(0));
+		assertFalse(filter.mightContain(42));
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.github.kilianB.chatBot.moderation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Kilian
+ *
+ */
+class TextNormalizerTest {
+
+	private final TextNormalizer normalizer = new TextNormalizer();
+
+	private String normalize(String text) {
+		return normalizer.normalize(text).toString();
+	}
+
+	@Test
+	void foldsObfuscatedWords() {
+		assertEquals("elo boost", normalize("3L0 B00ST"));
+		assertEquals("elo boost", normalize("\u0435lo   b\u043eost!"));
+		assertEquals("eloboost", normalize("elo-b.o.o.s.t"));
+		assertEquals("elo", normalize("e\u200blo"));
+	}
+
+	@Test
+	void joinsWordsSpelledOutCharacterByCharacter() {
+		assertEquals("eloboost", normalize("e l o-b.o.o.s.t"));
+		assertEquals("eloboost", normalize("e l o b o o s t"));
+	}
+
+	@Test
+	void keepsNumbersWithoutLetters() {
+		assertEquals("ok310 boost", normalize("ok 3 10 boost"));
+		assertEquals("1337", normalize("1337"));
+		assertEquals("gg", normalize("$$$ gg"));
+	}
+
+	@Test
+	void keepsBoundaryBetweenWords() {
+		assertEquals("he lob oost", normalize("he lob oost"));
+		assertEquals("", normalize("  ... "));
+	}
+
+}
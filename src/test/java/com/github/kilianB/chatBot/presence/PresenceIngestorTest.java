@@ -0,0 +1,128 @@
+package com.github.kilianB.chatBot.presence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.kilianB.dtos.ChatAvailability;
+import com.github.kilianB.dtos.Summoner;
+
+/**
+ * @author Kilian
+ *
+ */
+class PresenceIngestorTest {
+
+	private final Map<Long, Summoner> registered = new HashMap<>();
+
+	private Summoner register(long id) {
+		Summoner summoner = new Summoner("S" + id, id, null, ChatAvailability.offline);
+		registered.put(id, summoner);
+		return summoner;
+	}
+
+	private PresenceIngestor ingestor() {
+		return new PresenceIngestor(registered::get, 0, TimeUnit.MILLISECONDS);
+	}
+
+	@Test
+	void latestUpdateWithinWindowWins() {
+		Summoner summoner = register(1);
+		PresenceIngestor ingestor = ingestor();
+		ingestor.submit(1, ChatAvailability.chat);
+		ingestor.submit(1, ChatAvailability.away);
+		ingestor.submit(1, ChatAvailability.dnd);
+
+		assertEquals(1, ingestor.getPendingCount());
+		assertEquals(ChatAvailability.offline, summoner.getChatActivity());
+		assertEquals(1, ingestor.flush());
+		assertEquals(ChatAvailability.dnd, summoner.getChatActivity());
+		assertEquals(0, ingestor.getPendingCount());
+	}
+
+	@Test
+	void updateRestoringTheCurrentStateIsNoChange() {
+		Summoner summoner = register(1);
+		PresenceIngestor ingestor = ingestor();
+		ingestor.submit(1, ChatAvailability.chat);
+		ingestor.submit(1, ChatAvailability.offline);
+
+		assertEquals(0, ingestor.flush());
+		assertEquals(ChatAvailability.offline, summoner.getChatActivity());
+	}
+
+	@Test
+	void listenersReceiveOneBatchPerFlushInOrder() {
+		register(1);
+		register(2);
+		PresenceIngestor ingestor = ingestor();
+		List<String> calls = new ArrayList<>();
+		List<List<Summoner>> batches = new ArrayList<>();
+		ingestor.addListener(changed -> {
+			calls.add("first");
+			batches.add(new ArrayList<>(changed));
+		});
+		ingestor.addListener(changed -> calls.add("second"));
+
+		ingestor.submit(1, ChatAvailability.chat);
+		ingestor.submit(2, ChatAvailability.chat);
+		ingestor.flush();
+		ingestor.submit(2, ChatAvailability.away);
+		ingestor.flush();
+
+		assertEquals(List.of("first", "second", "first", "second"), calls);
+		assertEquals(2, batches.get(0).size());
+		assertEquals(List.of(registered.get(2L)), batches.get(1));
+	}
+
+	@Test
+	void emptyFlushDoesNotNotify() {
+		PresenceIngestor ingestor = ingestor();
+		List<List<Summoner>> batches = new ArrayList<>();
+		ingestor.addListener(batches::add);
+
+		assertEquals(0, ingestor.flush());
+		assertTrue(batches.isEmpty());
+	}
+
+	@Test
+	void unregisteredSummonersAreDropped() {
+		register(1);
+		PresenceIngestor ingestor = ingestor();
+		List<List<Summoner>> batches = new ArrayList<>();
+		ingestor.addListener(batches::add);
+		ingestor.submit(1, ChatAvailability.chat);
+		ingestor.submit(99, ChatAvailability.chat);
+
+		assertEquals(1, ingestor.flush());
+		assertEquals(List.of(registered.get(1L)), batches.get(0));
+		assertEquals(0, ingestor.getPendingCount());
+	}
+
+	@Test
+	void bulkSyncSupersedesPendingUpdates() {
+		Summoner first = register(1);
+		Summoner second = register(2);
+		PresenceIngestor ingestor = ingestor();
+		ingestor.submit(1, ChatAvailability.away);
+		ingestor.submit(2, ChatAvailability.away);
+
+		Map<Long, ChatAvailability> snapshot = new HashMap<>();
+		snapshot.put(1L, ChatAvailability.chat);
+		snapshot.put(99L, ChatAvailability.chat);
+		assertEquals(1, ingestor.bulkSync(null, snapshot));
+
+		assertEquals(ChatAvailability.chat, first.getChatActivity());
+		assertEquals(1, ingestor.getPendingCount());
+		assertEquals(1, ingestor.flush());
+		assertEquals(ChatAvailability.away, second.getChatActivity());
+	}
+
+}
@@ -0,0 +1,64 @@
+package com.github.kilianB.chatBot.rank;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.kilianB.dtos.League;
+
+/**
+ * @author Kilian
+ *
+ */
+class RankLookupServiceTest {
+
+	@Test
+	void withoutProviderLookupsFailAndPrefetchIsSkipped() {
+		RankLookupService service = new RankLookupService(10, 1, TimeUnit.HOURS);
+
+		assertFalse(service.hasProvider());
+		assertTrue(service.lookup(1).isCompletedExceptionally());
+		assertTrue(service.prefetch(List.of(1L, 2L)).isDone());
+		assertNull(service.getCached(1));
+	}
+
+	@Test
+	void offeredTiersAreCachedWithoutProvider() {
+		RankLookupService service = new RankLookupService(10, 1, TimeUnit.HOURS);
+		service.offer(1, League.Gold);
+
+		assertEquals(League.Gold, service.getCached(1));
+	}
+
+	@Test
+	void summonersWithoutTierAreCachedAsUnranked() {
+		AtomicInteger calls = new AtomicInteger();
+		RankLookupService service = new RankLookupService(id -> {
+			calls.incrementAndGet();
+			return CompletableFuture.completedFuture(null);
+		}, 10, 1, TimeUnit.HOURS);
+
+		assertEquals(League.Unranked, service.lookup(1).join());
+		assertEquals(League.Unranked, service.getCached(1));
+		assertEquals(League.Unranked, service.lookup(1).join());
+		assertEquals(1, calls.get());
+	}
+
+	@Test
+	void providerCanBeSetLater() {
+		RankLookupService service = new RankLookupService(10, 1, TimeUnit.HOURS);
+		service.setProvider(id -> CompletableFuture.completedFuture(League.Silver));
+
+		assertTrue(service.hasProvider());
+		assertEquals(League.Silver, service.lookup(1).join());
+	}
+
+}
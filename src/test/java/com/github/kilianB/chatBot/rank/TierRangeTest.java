@@ -0,0 +1,73 @@
+package com.github.kilianB.chatBot.rank;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.kilianB.dtos.League;
+
+/**
+ * @author Kilian
+ *
+ */
+class TierRangeTest {
+
+	@Test
+	void containsBoundsInclusive() {
+		TierRange range = TierRange.parse("Gold-Diamond");
+
+		assertTrue(range.contains(League.Gold));
+		assertTrue(range.contains(League.Platinum));
+		assertTrue(range.contains(League.Diamond));
+		assertFalse(range.contains(League.Silver));
+		assertFalse(range.contains(League.Master));
+		assertFalse(range.contains(League.Unranked));
+	}
+
+	@Test
+	void orderOfBoundsDoesNotMatter() {
+		TierRange range = TierRange.parse("Diamond-Gold");
+
+		assertEquals(League.Diamond, range.getHighest());
+		assertEquals(League.Gold, range.getLowest());
+	}
+
+	@Test
+	void singleLeague() {
+		TierRange range = TierRange.parse("Silver");
+
+		assertTrue(range.contains(League.Silver));
+		assertFalse(range.contains(League.Gold));
+		assertFalse(range.contains(League.Bronze));
+	}
+
+	@Test
+	void parseIsCaseInsensitive() {
+		TierRange range = TierRange.parse(" gOLD - diamond ");
+
+		assertEquals(League.Diamond, range.getHighest());
+		assertEquals(League.Gold, range.getLowest());
+	}
+
+	@Test
+	void unknownLeagueIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> TierRange.parse("Gold-Wood"));
+		assertThrows(IllegalArgumentException.class, () -> TierRange.parse("Wood"));
+	}
+
+	@Test
+	void unrankedIsAValidBound() {
+		assertTrue(TierRange.parse("Unranked-Iron").contains(League.Unranked));
+	}
+
+	@Test
+	void toStringCanBeParsedAgain() {
+		assertEquals("Gold-Diamond", TierRange.parse("Diamond-Gold").toString());
+		assertEquals("Gold", TierRange.parse("Gold-Gold").toString());
+		assertEquals(League.Platinum, TierRange.parse(TierRange.parse("Platinum").toString()).getHighest());
+	}
+
+}
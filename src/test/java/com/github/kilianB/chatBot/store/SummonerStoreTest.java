@@ -0,0 +1,97 @@
+package com.github.kilianB.chatBot.store;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.dtos.SummonerMessageSetting;
+
+/**
+ * @author Kilian
+ *
+ */
+class SummonerStoreTest {
+
+	private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+	@Test
+	void demotesAfterThreshold() {
+		SummonerStore store = new SummonerStore(null, 15, 60, 0, TimeUnit.MINUTES);
+		Summoner summoner = new Summoner("Offline", 1, null);
+		store.register(summoner);
+		store.markOffline(summoner);
+		long now = System.currentTimeMillis();
+
+		store.sweep(now + 14 * MINUTE);
+		assertSame(summoner, store.get(1));
+
+		store.sweep(now + 16 * MINUTE);
+		assertNull(store.get(1));
+		assertNotNull(store.getDormant(1));
+	}
+
+	@Test
+	void reconnectRestoresDormantState() {
+		SummonerStore store = new SummonerStore(null, 15, 60, 0, TimeUnit.MINUTES);
+		Summoner summoner = new Summoner("Offline", 1, null);
+		summoner.addMutedSummoner(42);
+		store.register(summoner);
+		store.markOffline(summoner);
+		store.sweep(System.currentTimeMillis() + 16 * MINUTE);
+
+		Summoner reconnected = new Summoner("Offline", 1, null);
+		store.register(reconnected);
+		assertTrue(reconnected.getMutedIds().contains(42L));
+		assertEquals(0, store.getDormantCount());
+	}
+
+	@Test
+	void evictsWithoutPersistence() {
+		SummonerStore store = new SummonerStore(null, 15, 60, 0, TimeUnit.MINUTES);
+		Summoner summoner = new Summoner("Offline", 1, null);
+		store.register(summoner);
+		store.markOffline(summoner);
+		long now = System.currentTimeMillis();
+		store.sweep(now + 16 * MINUTE);
+
+		store.sweep(now + 61 * MINUTE);
+		assertEquals(0, store.getDormantCount());
+		assertFalse(store.contains(1));
+	}
+
+	@Test
+	void evictedSummonersAreRestoredFromPersistence(@TempDir Path directory) {
+		SummonerStore store = new SummonerStore(new FileSummonerPersistence(directory), 15, 60, 0,
+				TimeUnit.MINUTES);
+		Summoner summoner = new Summoner("Offline", 1, null);
+		summoner.addMutedSummoner(42);
+		summoner.setChatMode(SummonerMessageSetting.values()[SummonerMessageSetting.values().length - 1]);
+		store.register(summoner);
+		store.markOffline(summoner);
+		long now = System.currentTimeMillis();
+		store.sweep(now + 16 * MINUTE);
+		store.sweep(now + 61 * MINUTE);
+		assertEquals(0, store.getDormantCount());
+
+		Summoner reconnected = new Summoner("Offline", 1, null);
+		store.register(reconnected);
+		assertTrue(reconnected.getMutedIds().contains(42L));
+		assertEquals(summoner.getChatMode(), reconnected.getChatMode());
+	}
+
+	@Test
+	void missingRecordLoadsNull(@TempDir Path directory) {
+		assertNull(new FileSummonerPersistence(directory).load(7));
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.github.kilianB.chatBot.throttle;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Kilian
+ *
+ */
+class TokenBucketTest {
+
+	private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	@Test
+	void startsFull() {
+		TokenBucket bucket = new TokenBucket(5, 1);
+		long now = System.nanoTime();
+		for (int i = 0; i < 5; i++) {
+			assertTrue(bucket.tryAcquire(now), "Token " + i);
+		}
+		assertFalse(bucket.tryAcquire(now));
+	}
+
+	@Test
+	void refillsAtRate() {
+		TokenBucket bucket = new TokenBucket(2, 4);
+		long now = System.nanoTime();
+		assertTrue(bucket.tryAcquire(now));
+		assertTrue(bucket.tryAcquire(now));
+		assertFalse(bucket.tryAcquire(now));
+
+		// A token is refilled every 250 ms
+		assertFalse(bucket.tryAcquire(now + SECOND / 4 - 1));
+		assertTrue(bucket.tryAcquire(now + SECOND / 4));
+		assertFalse(bucket.tryAcquire(now + SECOND / 4));
+	}
+
+	@Test
+	void refillIsCappedByCapacity() {
+		TokenBucket bucket = new TokenBucket(3, 10);
+		long later = System.nanoTime() + 60 * SECOND;
+		for (int i = 0; i < 3; i++) {
+			assertTrue(bucket.tryAcquire(later));
+		}
+		assertFalse(bucket.tryAcquire(later));
+	}
+
+	@Test
+	void reserveReturnsWaitTime() {
+		TokenBucket bucket = new TokenBucket(1, 2);
+		long now = System.nanoTime();
+		assertEquals(0, bucket.reserve(now, SECOND));
+		assertEquals(SECOND / 2, bucket.reserve(now, SECOND));
+		assertEquals(SECOND, bucket.reserve(now, SECOND));
+	}
+
+	@Test
+	void reserveBeyondMaxDelayIsRejected() {
+		TokenBucket bucket = new TokenBucket(1, 1);
+		long now = System.nanoTime();
+		assertEquals(0, bucket.reserve(now, 0));
+		assertEquals(-1, bucket.reserve(now, SECOND - 1));
+		// A rejected reservation does not consume a token
+		assertEquals(SECOND, bucket.reserve(now, SECOND));
+	}
+
+	@Test
+	void invalidArguments() {
+		assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+		assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+	}
+
+}
@@ -0,0 +1,82 @@
+package com.github.kilianB.clientEvents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Kilian
+ *
+ */
+class ClientEventDecoderTest {
+
+	/** Copies the declined summoner ids since events are reused */
+	private static class DeclinedRecorder implements ClientEventListener {
+
+		private final List<Long> declined = new ArrayList<>();
+
+		private int events;
+
+		@Override
+		public void onInvitations(InvitationEvent event) {
+			events++;
+			for (int i = 0; i < event.getDeclinedCount(); i++) {
+				declined.add(event.getDeclinedId(i));
+			}
+		}
+	}
+
+	@Test
+	void reportsDeclinedInvitations() {
+		DeclinedRecorder recorder = new DeclinedRecorder();
+		ClientEventDecoder decoder = new ClientEventDecoder(recorder);
+
+		assertTrue(decoder.decode("[8,\"OnJsonApiEvent\",{\"data\":[" //
+				+ "{\"toSummonerId\":11,\"state\":\"Pending\"}," //
+				+ "{\"state\":\"Declined\",\"toSummonerId\":12,\"toSummonerName\":\"Teemo\"}," //
+				+ "{\"toSummonerId\":13,\"state\":\"Accepted\"}," //
+				+ "{\"toSummonerId\":14,\"state\":\"Declined\"}]," //
+				+ "\"eventType\":\"Update\",\"uri\":\"/lol-lobby/v2/lobby/invitations\"}]"));
+
+		assertEquals(1, recorder.events);
+		assertEquals(List.of(12L, 14L), recorder.declined);
+	}
+
+	@Test
+	void invitationsAreNotMistakenForLobby() {
+		DeclinedRecorder recorder = new DeclinedRecorder();
+		ClientEventDecoder decoder = new ClientEventDecoder(new ClientEventListener() {
+			@Override
+			public void onLobby(LobbyEvent event) {
+				throw new AssertionError("Not a lobby event");
+			}
+
+			@Override
+			public void onInvitations(InvitationEvent event) {
+				recorder.onInvitations(event);
+			}
+		});
+
+		assertTrue(decoder.decode(
+				"{\"uri\":\"/lol-lobby/v2/lobby/invitations\",\"eventType\":\"Update\",\"data\":[]}"));
+		assertEquals(1, recorder.events);
+		assertTrue(recorder.declined.isEmpty());
+	}
+
+	@Test
+	void ignoresUnknownUris() {
+		DeclinedRecorder recorder = new DeclinedRecorder();
+		ClientEventDecoder decoder = new ClientEventDecoder(recorder);
+
+		assertFalse(decoder.decode(
+				"{\"data\":[{\"toSummonerId\":12,\"state\":\"Declined\"}],\"uri\":\"/lol-lobby/v2/received-invitations\"}"));
+		assertEquals(0, recorder.events);
+		assertEquals(0, decoder.getDecoded());
+	}
+
+}
@@ -0,0 +1,126 @@
+package com.github.kilianB.clientEvents;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Kilian
+ *
+ */
+class JsonCursorTest {
+
+	private static JsonCursor cursor(String json) {
+		JsonCursor cursor = new JsonCursor();
+		cursor.reset(json);
+		return cursor;
+	}
+
+	@Test
+	void readsFieldsOfObject() {
+		JsonCursor cursor = cursor("{ \"id\" : 42, \"name\":\"Teemo\", \"ranked\": true, \"team\": null }");
+
+		cursor.beginObject();
+		assertTrue(cursor.hasNext());
+		assertEquals("id", cursor.nextName().toString());
+		assertEquals(42, cursor.nextLong());
+		assertTrue(cursor.hasNext());
+		assertEquals("name", cursor.nextName().toString());
+		assertEquals("Teemo", cursor.nextString().toString());
+		assertTrue(cursor.hasNext());
+		assertEquals("ranked", cursor.nextName().toString());
+		assertTrue(cursor.nextBoolean());
+		assertTrue(cursor.hasNext());
+		assertEquals("team", cursor.nextName().toString());
+		assertTrue(cursor.nextNull());
+		assertFalse(cursor.hasNext());
+	}
+
+	@Test
+	void iteratesArray() {
+		JsonCursor cursor = cursor("[1, -2, 3.75, 4e2]");
+		long sum = 0;
+		int count = 0;
+
+		cursor.beginArray();
+		while (cursor.hasNext()) {
+			sum += cursor.nextLong();
+			count++;
+		}
+
+		assertEquals(4, count);
+		assertEquals(6, sum);
+	}
+
+	@Test
+	void emptyContainersHaveNoElements() {
+		JsonCursor cursor = cursor("{\"a\":[],\"b\":{}}");
+
+		cursor.beginObject();
+		assertTrue(cursor.hasNext());
+		cursor.nextName();
+		cursor.beginArray();
+		assertFalse(cursor.hasNext());
+		assertTrue(cursor.hasNext());
+		cursor.nextName();
+		cursor.beginObject();
+		assertFalse(cursor.hasNext());
+		assertFalse(cursor.hasNext());
+	}
+
+	@Test
+	void decodesEscapes() {
+		JsonCursor cursor = cursor("\"a\\\"b\\\\c\\/d\\n\\u00e4\"");
+
+		assertEquals("a\"b\\c/d\n\u00e4", cursor.nextString().toString());
+	}
+
+	@Test
+	void skipsNestedValues() {
+		JsonCursor cursor = cursor(
+				"{\"skip\":{\"x\":[1,{\"y\":\"}]\"}],\"z\":\"\\\"\"},\"list\":[true,false],\"keep\":7}");
+
+		cursor.beginObject();
+		cursor.hasNext();
+		assertEquals("skip", cursor.nextName().toString());
+		cursor.skipValue();
+		cursor.hasNext();
+		assertEquals("list", cursor.nextName().toString());
+		cursor.skipValue();
+		cursor.hasNext();
+		assertEquals("keep", cursor.nextName().toString());
+		assertEquals(7, cursor.nextLong());
+		assertFalse(cursor.hasNext());
+	}
+
+	@Test
+	void seekRereadsValue() {
+		JsonCursor cursor = cursor("{\"type\": \"lobby\"}");
+		cursor.beginObject();
+		cursor.hasNext();
+		cursor.nextName();
+		int value = cursor.position();
+
+		assertEquals("lobby", cursor.nextString().toString());
+		cursor.seek(value);
+		assertEquals("lobby", cursor.nextString().toString());
+	}
+
+	@Test
+	void malformedInputFails() {
+		assertThrows(IllegalArgumentException.class, () -> cursor("\"open").nextString());
+		assertThrows(IllegalArgumentException.class, () -> {
+			JsonCursor cursor = cursor("{\"a\" 1}");
+			cursor.beginObject();
+			cursor.nextName();
+		});
+		assertThrows(IllegalArgumentException.class, () -> cursor("[1, 2").skipValue());
+		assertThrows(IllegalArgumentException.class, () -> cursor("tru").nextBoolean());
+		assertThrows(IllegalArgumentException.class, () -> cursor("\"\\u12\"").nextString());
+		assertThrows(IllegalArgumentException.class, () -> cursor("x").nextLong());
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.github.kilianB.gameManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.kilianB.dtos.Server;
+import com.github.kilianB.gameManager.lobbies.AramLobby;
+import com.github.kilianB.simulation.SimulatedLobbyHoster;
+import com.github.kilianB.simulation.SimulationClock;
+
+/**
+ * @author Kilian
+ *
+ */
+class HosterRouterTest {
+
+	private static SimulatedLobbyHoster hoster(Server server, Long... friends) {
+		SimulatedLobbyHoster hoster = new SimulatedLobbyHoster(SimulationClock.virtual(), 0, server, null);
+		hoster.setFriends(List.of(friends));
+		return hoster;
+	}
+
+	private static GameHostRequest request(Server server, Long... participants) {
+		return GameHostRequest.builder(lobby -> {
+		}).withTemplate(GameTemplate.ARAM_5V5).withLobbyType(AramLobby.class).withServer(server)
+				.withParticipants(List.of(participants)).build();
+	}
+
+	@Test
+	void requestIsRoutedToBefriendedHoster() {
+		HosterRouter router = new HosterRouter(Runnable::run);
+		SimulatedLobbyHoster stranger = hoster(Server.EUW);
+		SimulatedLobbyHoster friend = hoster(Server.EUW, 1L, 2L);
+		router.hosterIdle(stranger);
+		router.hosterIdle(friend);
+
+		router.submit(request(Server.EUW, 1L, 2L, 3L));
+
+		assertEquals(0, stranger.getHostedLobbies());
+		assertEquals(1, friend.getHostedLobbies());
+		assertEquals(2, router.getFriendInvites());
+	}
+
+	@Test
+	void requestOfOtherServerWaitsForCompatibleHoster() {
+		HosterRouter router = new HosterRouter(Runnable::run);
+		SimulatedLobbyHoster euw = hoster(Server.EUW, 1L);
+		router.hosterIdle(euw);
+
+		router.submit(request(Server.NA, 1L));
+
+		assertEquals(1, router.getQueuedCount());
+		assertEquals(0, euw.getHostedLobbies());
+
+		SimulatedLobbyHoster na = hoster(Server.NA);
+		router.hosterIdle(na);
+		assertEquals(0, router.getQueuedCount());
+		assertEquals(1, na.getHostedLobbies());
+	}
+
+	@Test
+	void idleHosterPrefersBestScoredQueuedRequest() {
+		HosterRouter router = new HosterRouter(Runnable::run);
+		router.submit(request(Server.EUW, 5L));
+		router.submit(request(Server.EUW, 1L, 2L));
+
+		router.hosterIdle(hoster(Server.EUW, 1L, 2L));
+
+		assertEquals(1, router.getQueuedCount());
+		assertEquals(2, router.getFriendInvites());
+	}
+
+	@Test
+	void oldestRequestIsServedOnceItWaitedTooLong() {
+		HosterRouter router = new HosterRouter(Runnable::run, 0, TimeUnit.SECONDS);
+		router.submit(request(Server.NA, 7L));
+		router.submit(request(Server.EUW, 5L));
+		router.submit(request(Server.EUW, 1L, 2L));
+
+		router.hosterIdle(hoster(Server.EUW, 1L, 2L));
+
+		// The request of the other server does not block the oldest compatible one
+		assertEquals(2, router.getQueuedCount());
+		assertEquals(0, router.getFriendInvites());
+	}
+
+}
@@ -0,0 +1,81 @@
+package com.github.kilianB.gameManager.lobbies;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.kilianB.dtos.BotDifficulty;
+import com.github.kilianB.dtos.Summoner;
+import com.github.kilianB.gameManager.GameTemplate;
+import com.github.kilianB.simulation.SimulatedLobbyHoster;
+
+/**
+ * @author Kilian
+ *
+ */
+class GameLobbyTest {
+
+	private static List<Summoner> team(long firstId, int size) {
+		List<Summoner> team = new ArrayList<>();
+		for (long id = firstId; id < firstId + size; id++) {
+			team.add(new Summoner("S" + id, id, null));
+		}
+		return team;
+	}
+
+	private static AramLobby lobby(SimulatedLobbyHoster hoster) {
+		return new AramLobby("Test", GameTemplate.ARAM_5V5, hoster, "chat", "");
+	}
+
+	@Test
+	void backfillFillsBothTeams() throws IOException {
+		SimulatedLobbyHoster hoster = SimulatedLobbyHoster.instant();
+		AramLobby lobby = lobby(hoster);
+		lobby.updateLobbyMembers(team(0, 3), team(10, 1), new ArrayList<>());
+
+		assertEquals(6, lobby.backfill(BotDifficulty.MEDIUM));
+
+		assertEquals(6, hoster.getAddedBots());
+		assertTrue(lobby.isFull());
+		assertEquals(LobbyState.STARTED, lobby.getState());
+	}
+
+	@Test
+	void fullLobbyStartsWithoutBackfill() throws IOException {
+		AramLobby lobby = lobby(SimulatedLobbyHoster.instant());
+
+		lobby.updateLobbyMembers(team(0, 5), team(10, 4), new ArrayList<>());
+		assertEquals(LobbyState.WAITING, lobby.getState());
+		lobby.updateLobbyMembers(team(0, 5), team(10, 5), new ArrayList<>());
+
+		assertEquals(LobbyState.STARTED, lobby.getState());
+		assertEquals(-1, lobby.backfill(BotDifficulty.MEDIUM));
+	}
+
+	@Test
+	void disbandedLobbyDoesNotStart() throws IOException {
+		AramLobby lobby = lobby(SimulatedLobbyHoster.instant());
+
+		assertTrue(lobby.disband());
+		lobby.updateLobbyMembers(team(0, 5), team(10, 5), new ArrayList<>());
+
+		assertEquals(LobbyState.DISBANDED, lobby.getState());
+		assertFalse(lobby.start());
+	}
+
+	@Test
+	void botsAreOnlyAddedToOwnLobbies() {
+		SimulatedLobbyHoster hoster = SimulatedLobbyHoster.instant();
+		AramLobby foreign = lobby(SimulatedLobbyHoster.instant());
+
+		assertThrows(IllegalArgumentException.class, () -> hoster.addBot(foreign, BotDifficulty.EASY, 0));
+	}
+
+}
@@ -0,0 +1,88 @@
+package com.github.kilianB.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Kilian
+ *
+ */
+class ExpiringLruCacheTest {
+
+	@Test
+	void getReturnsInsertedValue() {
+		ExpiringLruCache<Integer, String> cache = new ExpiringLruCache<>(4, 1, TimeUnit.HOURS);
+		assertNull(cache.put(1, "a"));
+		assertEquals("a", cache.get(1));
+		assertEquals("a", cache.put(1, "b"));
+		assertEquals("b", cache.get(1));
+	}
+
+	@Test
+	void evictsLeastRecentlyUsed() {
+		Map<Integer, String> evicted = new HashMap<>();
+		ExpiringLruCache<Integer, String> cache = new ExpiringLruCache<>(2, 1, TimeUnit.HOURS, evicted::put);
+		cache.put(1, "a");
+		cache.put(2, "b");
+		// Touch 1 so 2 becomes the eldest entry
+		cache.get(1);
+		cache.put(3, "c");
+
+		assertEquals(2, cache.size());
+		assertNull(cache.get(2));
+		assertEquals("a", cache.get(1));
+		assertEquals(Map.of(2, "b"), evicted);
+	}
+
+	@Test
+	void expiredValueIsRemovedOnAccess() throws InterruptedException {
+		Map<Integer, String> evicted = new HashMap<>();
+		ExpiringLruCache<Integer, String> cache = new ExpiringLruCache<>(4, 0, TimeUnit.NANOSECONDS, evicted::put);
+		cache.put(1, "a");
+		Thread.sleep(1);
+
+		assertNull(cache.get(1));
+		assertEquals(0, cache.size());
+		assertEquals(Map.of(1, "a"), evicted);
+	}
+
+	@Test
+	void replacingExpiredValueNotifiesListener() throws InterruptedException {
+		Map<Integer, String> evicted = new HashMap<>();
+		ExpiringLruCache<Integer, String> cache = new ExpiringLruCache<>(4, 0, TimeUnit.NANOSECONDS, evicted::put);
+		cache.put(1, "a");
+		Thread.sleep(1);
+
+		assertNull(cache.put(1, "b"));
+		assertEquals(Map.of(1, "a"), evicted);
+	}
+
+	@Test
+	void purgeExpired() throws InterruptedException {
+		ExpiringLruCache<Integer, String> cache = new ExpiringLruCache<>(4, 0, TimeUnit.NANOSECONDS);
+		cache.put(1, "a");
+		cache.put(2, "b");
+		Thread.sleep(1);
+
+		assertEquals(2, cache.purgeExpired());
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void removeDoesNotNotifyListener() {
+		Map<Integer, String> evicted = new HashMap<>();
+		ExpiringLruCache<Integer, String> cache = new ExpiringLruCache<>(4, 1, TimeUnit.HOURS, evicted::put);
+		cache.put(1, "a");
+
+		assertEquals("a", cache.remove(1));
+		assertNull(cache.get(1));
+		assertEquals(0, evicted.size());
+	}
+
+}